@@ -0,0 +1,115 @@
+package com.levelupgamer.analitica;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Suma boletas en filas de {@link VentaDiaria} antes de escribirlas. El descuento de
+ * la boleta ({@code totalAntesDescuentos - total}) se reparte entre sus líneas en
+ * proporción al subtotal, con el redondeo en la última línea para que lo repartido
+ * cuadre con la boleta, y cada parte se divide entre DUOC y cupón según sus
+ * porcentajes. Las líneas se recorren por producto para que la anulación reparta
+ * exactamente igual que la venta.
+ */
+final class AcumuladoVentas {
+
+    private static final Comparator<Clave> ORDEN = Comparator.comparing(Clave::dimension)
+            .thenComparing(Clave::dia)
+            .thenComparing(Clave::clave);
+
+    private final Map<Clave, Totales> totales = new HashMap<>();
+
+    /** {@code signo} es 1 para la venta y -1 para su anulación. */
+    void sumar(VentaBoleta venta, int signo) {
+        List<LineaVenta> lineas = venta.lineas().stream()
+                .sorted(Comparator.comparing(LineaVenta::productoId))
+                .toList();
+        BigDecimal bruto = venta.totalAntesDescuentos();
+        BigDecimal descuento = bruto.subtract(venta.total()).max(BigDecimal.ZERO);
+        int porcentajes = venta.porcentajeDuoc() + venta.porcentajeCupon();
+        BigDecimal pendiente = descuento;
+        Set<Clave> contadas = new HashSet<>();
+
+        for (int i = 0; i < lineas.size(); i++) {
+            LineaVenta linea = lineas.get(i);
+            BigDecimal descuentoLinea;
+            if (i == lineas.size() - 1) {
+                descuentoLinea = pendiente;
+            } else if (bruto.signum() == 0) {
+                descuentoLinea = BigDecimal.ZERO;
+            } else {
+                descuentoLinea = descuento.multiply(linea.subtotal()).divide(bruto, 2, RoundingMode.HALF_UP);
+            }
+            pendiente = pendiente.subtract(descuentoLinea);
+            BigDecimal duoc = porcentajes == 0 ? BigDecimal.ZERO
+                    : descuentoLinea.multiply(BigDecimal.valueOf(venta.porcentajeDuoc()))
+                            .divide(BigDecimal.valueOf(porcentajes), 2, RoundingMode.HALF_UP);
+            BigDecimal cupon = descuentoLinea.subtract(duoc);
+
+            for (DimensionVentas dimension : DimensionVentas.values()) {
+                Long clave = dimension.claveDe(linea);
+                if (clave == null) {
+                    continue;
+                }
+                Clave id = new Clave(dimension, venta.dia(), clave);
+                // Una boleta cuenta una vez por clave aunque tenga varias líneas de ella.
+                int boletas = contadas.add(id) ? 1 : 0;
+                totales.computeIfAbsent(id, k -> new Totales()).sumar(signo, linea, boletas, duoc, cupon);
+            }
+        }
+    }
+
+    boolean vacio() {
+        return totales.isEmpty();
+    }
+
+    /** Ordenadas por tabla, día y clave: dos transacciones toman las filas en el mismo orden. */
+    List<FilaVenta> filas() {
+        return totales.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(ORDEN))
+                .map(entrada -> entrada.getValue().fila(entrada.getKey()))
+                .toList();
+    }
+
+    record LineaVenta(Long productoId, Long categoriaId, Long vendedorId, int cantidad, BigDecimal subtotal,
+                      int puntos) {}
+
+    record VentaBoleta(LocalDate dia, BigDecimal totalAntesDescuentos, BigDecimal total, int porcentajeDuoc,
+                       int porcentajeCupon, List<LineaVenta> lineas) {}
+
+    record FilaVenta(DimensionVentas dimension, LocalDate dia, Long clave, long unidades, long boletas,
+                     BigDecimal ingresoBruto, BigDecimal descuentoDuoc, BigDecimal descuentoCupon, long puntos) {}
+
+    private record Clave(DimensionVentas dimension, LocalDate dia, Long clave) {}
+
+    private static final class Totales {
+        private long unidades;
+        private long boletas;
+        private BigDecimal ingresoBruto = BigDecimal.ZERO;
+        private BigDecimal descuentoDuoc = BigDecimal.ZERO;
+        private BigDecimal descuentoCupon = BigDecimal.ZERO;
+        private long puntos;
+
+        private void sumar(int signo, LineaVenta linea, int boletas, BigDecimal duoc, BigDecimal cupon) {
+            BigDecimal factor = BigDecimal.valueOf(signo);
+            this.unidades += (long) signo * linea.cantidad();
+            this.boletas += (long) signo * boletas;
+            this.ingresoBruto = ingresoBruto.add(linea.subtotal().multiply(factor));
+            this.descuentoDuoc = descuentoDuoc.add(duoc.multiply(factor));
+            this.descuentoCupon = descuentoCupon.add(cupon.multiply(factor));
+            this.puntos += (long) signo * linea.puntos();
+        }
+
+        private FilaVenta fila(Clave clave) {
+            return new FilaVenta(clave.dimension(), clave.dia(), clave.clave(), unidades, boletas, ingresoBruto,
+                    descuentoDuoc, descuentoCupon, puntos);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.levelupgamer.analitica;
+
+import com.levelupgamer.analitica.dto.ReconstruccionVentasDTO;
+import com.levelupgamer.analitica.dto.VentaResumenDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/analytics/sales")
+@Tag(name = "Analítica de ventas", description = "Ventas diarias acumuladas por producto, categoría y vendedor")
+public class AnaliticaVentasController {
+
+    private final AnaliticaVentasService analiticaVentasService;
+
+    public AnaliticaVentasController(AnaliticaVentasService analiticaVentasService) {
+        this.analiticaVentasService = analiticaVentasService;
+    }
+
+    @Operation(summary = "Ranking de ventas en un rango",
+            description = "dimension: productos, categorias o vendedores. Totales del rango por clave, de mayor a menor ingreso neto. Sin fechas, los últimos 30 días.")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    @GetMapping("/{dimension}")
+    public ResponseEntity<List<VentaResumenDTO>> ranking(
+            @PathVariable String dimension,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(analiticaVentasService.ranking(dimension, desde, hasta, limite));
+    }
+
+    @Operation(summary = "Serie diaria de un producto, categoría o vendedor")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    @GetMapping("/{dimension}/{id}/daily")
+    public ResponseEntity<List<VentaResumenDTO>> serie(
+            @PathVariable String dimension,
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return ResponseEntity.ok(analiticaVentasService.serie(dimension, id, desde, hasta));
+    }
+
+    @Operation(summary = "Reconstruir los acumulados de un rango",
+            description = "Recalcula cada día desde las boletas no canceladas. Úsese tras cargas o correcciones de historial.")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    @PostMapping("/rebuild")
+    public ResponseEntity<ReconstruccionVentasDTO> reconstruir(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return ResponseEntity.ok(analiticaVentasService.reconstruir(desde, hasta));
+    }
+}
@@ -0,0 +1,175 @@
+package com.levelupgamer.analitica;
+
+import com.levelupgamer.analitica.dto.ReconstruccionVentasDTO;
+import com.levelupgamer.analitica.dto.VentaResumenDTO;
+import com.levelupgamer.boletas.Boleta;
+import com.levelupgamer.boletas.BoletaDetalle;
+import com.levelupgamer.productos.Producto;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Acumulados diarios de ventas por producto, categoría y vendedor. La boleta los suma
+ * en su misma transacción y la anulación los resta sobre el día original, así que las
+ * consultas nunca leen {@code boleta_detalle}. Puntos, categoría y vendedor se toman
+ * del producto al momento de escribir; si cambian entre la venta y su anulación, la
+ * reconstrucción periódica de los últimos días y la manual por rango corrigen la
+ * diferencia. Reconstruir un día borra sus filas antes de leer las boletas: una venta
+ * concurrente o queda en la lectura o suma después sobre lo reconstruido, nunca ambas.
+ */
+@Service
+public class AnaliticaVentasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnaliticaVentasService.class);
+    private static final int DIAS_POR_DEFECTO = 30;
+    private static final int MAX_DIAS_SERIE = 366;
+    private static final int LIMITE_POR_DEFECTO = 20;
+    private static final int LIMITE_MAXIMO = 100;
+
+    private final VentasDiariasRepository ventasDiariasRepository;
+    private final TransactionTemplate escritura;
+    private final int diasReconstruccion;
+    private final boolean backfillAlIniciar;
+
+    public AnaliticaVentasService(VentasDiariasRepository ventasDiariasRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${analitica.ventas.dias-reconstruccion:2}") int diasReconstruccion,
+                                  @Value("${analitica.ventas.backfill-al-iniciar:true}") boolean backfillAlIniciar) {
+        this.ventasDiariasRepository = ventasDiariasRepository;
+        this.escritura = new TransactionTemplate(transactionManager);
+        this.diasReconstruccion = diasReconstruccion;
+        this.backfillAlIniciar = backfillAlIniciar;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarVenta(Boleta boleta) {
+        registrar(boleta, 1);
+    }
+
+    /** Resta lo que {@link #registrarVenta} sumó; la boleta todavía no debe estar cancelada. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAnulacion(Boleta boleta) {
+        registrar(boleta, -1);
+    }
+
+    @Transactional(readOnly = true)
+    public List<VentaResumenDTO> ranking(String dimension, LocalDate desde, LocalDate hasta, Integer limite) {
+        Rango rango = rango(desde, hasta);
+        int tamano = limite == null ? LIMITE_POR_DEFECTO : limite;
+        if (tamano < 1 || tamano > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO);
+        }
+        return ventasDiariasRepository.ranking(DimensionVentas.desde(dimension), rango.desde(), rango.hasta(), tamano);
+    }
+
+    @Transactional(readOnly = true)
+    public List<VentaResumenDTO> serie(String dimension, Long id, LocalDate desde, LocalDate hasta) {
+        Objects.requireNonNull(id, "El id no puede ser nulo");
+        Rango rango = rango(desde, hasta);
+        if (ChronoUnit.DAYS.between(rango.desde(), rango.hasta()) >= MAX_DIAS_SERIE) {
+            throw new IllegalArgumentException("La serie diaria admite hasta " + MAX_DIAS_SERIE + " días");
+        }
+        return ventasDiariasRepository.serie(DimensionVentas.desde(dimension), id, rango.desde(), rango.hasta());
+    }
+
+    /** Recalcula los días del rango desde las boletas, cada uno en su transacción. */
+    public ReconstruccionVentasDTO reconstruir(LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null) {
+            throw new IllegalArgumentException("Las fechas desde y hasta son obligatorias");
+        }
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha hasta no puede ser anterior a la fecha desde");
+        }
+        int dias = 0;
+        for (LocalDate dia = desde; !dia.isAfter(hasta); dia = dia.plusDays(1)) {
+            LocalDate actual = dia;
+            escritura.executeWithoutResult(status -> reconstruirDia(actual));
+            dias++;
+        }
+        logger.info("Acumulados de ventas reconstruidos entre {} y {} ({} días)", desde, hasta, dias);
+        return new ReconstruccionVentasDTO(desde, hasta, dias);
+    }
+
+    @Scheduled(fixedDelayString = "${analitica.ventas.reconstruccion:PT24H}",
+            initialDelayString = "${analitica.ventas.reconstruccion:PT24H}")
+    public void reconstruirRecientes() {
+        LocalDate hoy = LocalDate.now();
+        reconstruir(hoy.minusDays(Math.max(diasReconstruccion, 1) - 1L), hoy);
+    }
+
+    /** Completa el historial la primera vez que arranca con boletas y sin acumulados. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void completarHistorial() {
+        if (!backfillAlIniciar || !ventasDiariasRepository.vacio()) {
+            return;
+        }
+        ventasDiariasRepository.primerDiaConVentas()
+                .ifPresent(primerDia -> reconstruir(primerDia, LocalDate.now()));
+    }
+
+    void reconstruirDia(LocalDate dia) {
+        ventasDiariasRepository.borrarDia(dia);
+        AcumuladoVentas acumulado = new AcumuladoVentas();
+        ventasDiariasRepository.recorrerVentasDelDia(dia, venta -> acumulado.sumar(venta, 1));
+        if (!acumulado.vacio()) {
+            ventasDiariasRepository.sumar(acumulado.filas());
+        }
+    }
+
+    private void registrar(Boleta boleta, int signo) {
+        if (boleta.getDetalles() == null || boleta.getDetalles().isEmpty() || boleta.getFecha() == null) {
+            return;
+        }
+        AcumuladoVentas acumulado = new AcumuladoVentas();
+        acumulado.sumar(ventaDe(boleta), signo);
+        ventasDiariasRepository.sumar(acumulado.filas());
+    }
+
+    private static AcumuladoVentas.VentaBoleta ventaDe(Boleta boleta) {
+        List<AcumuladoVentas.LineaVenta> lineas = new ArrayList<>(boleta.getDetalles().size());
+        for (BoletaDetalle detalle : boleta.getDetalles()) {
+            Producto producto = detalle.getProducto();
+            if (producto == null || producto.getId() == null) {
+                continue;
+            }
+            int puntos = producto.getPuntosLevelUp() != null ? producto.getPuntosLevelUp() : 0;
+            lineas.add(new AcumuladoVentas.LineaVenta(producto.getId(),
+                    producto.getCategoria() != null ? producto.getCategoria().getId() : null,
+                    producto.getVendedor() != null ? producto.getVendedor().getId() : null,
+                    detalle.getCantidad(), detalle.getSubtotal(), puntos * detalle.getCantidad()));
+        }
+        return new AcumuladoVentas.VentaBoleta(boleta.getFecha().toLocalDate(),
+                Objects.requireNonNullElse(boleta.getTotalAntesDescuentos(), BigDecimal.ZERO),
+                Objects.requireNonNullElse(boleta.getTotal(), BigDecimal.ZERO),
+                Objects.requireNonNullElse(boleta.getDescuentoDuocAplicado(), 0),
+                Objects.requireNonNullElse(boleta.getDescuentoCuponAplicado(), 0),
+                lineas);
+    }
+
+    /** Sin fechas, los últimos {@value #DIAS_POR_DEFECTO} días hasta hoy. */
+    private static Rango rango(LocalDate desde, LocalDate hasta) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(DIAS_POR_DEFECTO - 1L);
+        if (fin.isBefore(inicio)) {
+            throw new IllegalArgumentException("La fecha hasta no puede ser anterior a la fecha desde");
+        }
+        return new Rango(inicio, fin);
+    }
+
+    private record Rango(LocalDate desde, LocalDate hasta) {}
+}
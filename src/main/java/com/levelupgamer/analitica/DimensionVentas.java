@@ -0,0 +1,57 @@
+package com.levelupgamer.analitica;
+
+/**
+ * Los tres acumulados diarios de ventas: cada uno es una tabla con la clave en
+ * {@code columna} y el nombre para mostrar en {@code tablaNombre}.
+ */
+public enum DimensionVentas {
+    PRODUCTO("productos", "venta_diaria_producto", "producto_id", "producto"),
+    CATEGORIA("categorias", "venta_diaria_categoria", "categoria_id", "categorias"),
+    VENDEDOR("vendedores", "venta_diaria_vendedor", "vendedor_id", "usuario");
+
+    private final String ruta;
+    private final String tabla;
+    private final String columna;
+    private final String tablaNombre;
+
+    DimensionVentas(String ruta, String tabla, String columna, String tablaNombre) {
+        this.ruta = ruta;
+        this.tabla = tabla;
+        this.columna = columna;
+        this.tablaNombre = tablaNombre;
+    }
+
+    public String getRuta() {
+        return ruta;
+    }
+
+    String getTabla() {
+        return tabla;
+    }
+
+    String getColumna() {
+        return columna;
+    }
+
+    String getTablaNombre() {
+        return tablaNombre;
+    }
+
+    /** Clave de la línea en esta dimensión; {@code null} si el producto no tiene categoría o vendedor. */
+    Long claveDe(AcumuladoVentas.LineaVenta linea) {
+        return switch (this) {
+            case PRODUCTO -> linea.productoId();
+            case CATEGORIA -> linea.categoriaId();
+            case VENDEDOR -> linea.vendedorId();
+        };
+    }
+
+    public static DimensionVentas desde(String ruta) {
+        for (DimensionVentas dimension : values()) {
+            if (dimension.ruta.equalsIgnoreCase(ruta)) {
+                return dimension;
+            }
+        }
+        throw new IllegalArgumentException("Dimensión desconocida: " + ruta + ". Use productos, categorias o vendedores");
+    }
+}
@@ -0,0 +1,51 @@
+package com.levelupgamer.analitica;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.MappedSuperclass;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Acumulado de un día para una clave (producto, categoría o vendedor). Sólo cuenta
+ * boletas no canceladas: la venta suma y la anulación resta sobre el día original.
+ * Los descuentos son montos, repartidos entre las líneas de la boleta en proporción a
+ * su subtotal; {@code ingresoBruto - descuentoDuoc - descuentoCupon} es lo cobrado.
+ * Las filas las escribe {@link VentasDiariasRepository}; la entidad sólo define el esquema.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@MappedSuperclass
+public abstract class VentaDiaria {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate dia;
+
+    @Column(nullable = false)
+    private Long unidades;
+
+    /** Boletas distintas que aportaron a la fila. */
+    @Column(nullable = false)
+    private Long boletas;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresoBruto;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal descuentoDuoc;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal descuentoCupon;
+
+    @Column(nullable = false)
+    private Long puntos;
+}
@@ -0,0 +1,20 @@
+package com.levelupgamer.analitica;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "venta_diaria_categoria", uniqueConstraints =
+        @UniqueConstraint(name = "uk_venta_diaria_categoria", columnNames = {"dia", "categoria_id"}))
+public class VentaDiariaCategoria extends VentaDiaria {
+    @Column(name = "categoria_id", nullable = false)
+    private Long categoriaId;
+}
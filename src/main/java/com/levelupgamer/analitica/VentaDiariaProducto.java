@@ -0,0 +1,20 @@
+package com.levelupgamer.analitica;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "venta_diaria_producto", uniqueConstraints =
+        @UniqueConstraint(name = "uk_venta_diaria_producto", columnNames = {"dia", "producto_id"}))
+public class VentaDiariaProducto extends VentaDiaria {
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+}
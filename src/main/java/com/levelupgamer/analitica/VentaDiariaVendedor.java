@@ -0,0 +1,20 @@
+package com.levelupgamer.analitica;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "venta_diaria_vendedor", uniqueConstraints =
+        @UniqueConstraint(name = "uk_venta_diaria_vendedor", columnNames = {"dia", "vendedor_id"}))
+public class VentaDiariaVendedor extends VentaDiaria {
+    @Column(name = "vendedor_id", nullable = false)
+    private Long vendedorId;
+}
@@ -0,0 +1,177 @@
+package com.levelupgamer.analitica;
+
+import com.levelupgamer.analitica.dto.VentaResumenDTO;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * SQL de los acumulados diarios. {@link #sumar} suma a la fila existente o la crea en
+ * una sola sentencia: {@code INSERT ... ON CONFLICT DO UPDATE} en PostgreSQL, que no
+ * falla si dos ventas crean la misma fila a la vez, y {@code MERGE} estándar en las
+ * demás bases (H2 en desarrollo y pruebas).
+ */
+@Repository
+public class VentasDiariasRepository {
+
+    private static final String COLUMNAS = "unidades, boletas, ingreso_bruto, descuento_duoc, descuento_cupon, puntos";
+    private static final String SUMAS = "sum(v.unidades) as unidades, sum(v.boletas) as boletas, "
+            + "sum(v.ingreso_bruto) as ingreso_bruto, sum(v.descuento_duoc) as descuento_duoc, "
+            + "sum(v.descuento_cupon) as descuento_cupon, sum(v.puntos) as puntos";
+    private static final String LINEAS_DEL_DIA = "select b.id, b.total_antes_descuentos, b.total, "
+            + "b.descuento_duoc_aplicado, b.descuento_cupon_aplicado, d.producto_id, p.categoria_id, p.usuario_id, "
+            + "d.cantidad, d.subtotal, p.puntos_level_up "
+            + "from boleta b join boleta_detalle d on d.boleta_id = b.id join producto p on p.id = d.producto_id "
+            + "where b.fecha >= ? and b.fecha < ? and b.estado <> 'CANCELADO' order by b.id, d.producto_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<DimensionVentas, String> sumarPorDimension = new EnumMap<>(DimensionVentas.class);
+
+    public VentasDiariasRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        boolean postgres = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) conexion ->
+                "PostgreSQL".equals(conexion.getMetaData().getDatabaseProductName())));
+        for (DimensionVentas dimension : DimensionVentas.values()) {
+            sumarPorDimension.put(dimension, postgres ? insertarOSumar(dimension) : fusionar(dimension));
+        }
+    }
+
+    public void sumar(List<AcumuladoVentas.FilaVenta> filas) {
+        Map<DimensionVentas, List<Object[]>> porDimension = new EnumMap<>(DimensionVentas.class);
+        for (AcumuladoVentas.FilaVenta fila : filas) {
+            porDimension.computeIfAbsent(fila.dimension(), d -> new ArrayList<>()).add(new Object[] {
+                    Date.valueOf(fila.dia()), fila.clave(), fila.unidades(), fila.boletas(), fila.ingresoBruto(),
+                    fila.descuentoDuoc(), fila.descuentoCupon(), fila.puntos()});
+        }
+        porDimension.forEach((dimension, parametros) ->
+                jdbcTemplate.batchUpdate(sumarPorDimension.get(dimension), parametros));
+    }
+
+    public void borrarDia(LocalDate dia) {
+        for (DimensionVentas dimension : DimensionVentas.values()) {
+            jdbcTemplate.update("delete from " + dimension.getTabla() + " where dia = ?", Date.valueOf(dia));
+        }
+    }
+
+    /** Entrega una a una las boletas no canceladas de {@code dia}, con sus líneas. */
+    public void recorrerVentasDelDia(LocalDate dia, Consumer<AcumuladoVentas.VentaBoleta> consumidor) {
+        VentaEnCurso[] actual = {null};
+        jdbcTemplate.query(LINEAS_DEL_DIA, rs -> {
+            long boletaId = rs.getLong(1);
+            if (actual[0] == null || actual[0].boletaId != boletaId) {
+                if (actual[0] != null) {
+                    consumidor.accept(actual[0].venta(dia));
+                }
+                actual[0] = new VentaEnCurso(boletaId, rs.getBigDecimal(2), rs.getBigDecimal(3), rs.getInt(4),
+                        rs.getInt(5));
+            }
+            int cantidad = rs.getInt(9);
+            actual[0].lineas.add(new AcumuladoVentas.LineaVenta(rs.getLong(6), rs.getObject(7, Long.class),
+                    rs.getObject(8, Long.class), cantidad, rs.getBigDecimal(10), rs.getInt(11) * cantidad));
+        }, Timestamp.valueOf(dia.atStartOfDay()), Timestamp.valueOf(dia.plusDays(1).atStartOfDay()));
+        if (actual[0] != null) {
+            consumidor.accept(actual[0].venta(dia));
+        }
+    }
+
+    public boolean vacio() {
+        return !Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists (select 1 from " + DimensionVentas.PRODUCTO.getTabla() + ")", Boolean.class));
+    }
+
+    public Optional<LocalDate> primerDiaConVentas() {
+        Timestamp primera = jdbcTemplate.queryForObject("select min(fecha) from boleta", Timestamp.class);
+        return Optional.ofNullable(primera).map(fecha -> fecha.toLocalDateTime().toLocalDate());
+    }
+
+    /** Totales por clave en el rango, de mayor a menor ingreso neto. */
+    public List<VentaResumenDTO> ranking(DimensionVentas dimension, LocalDate desde, LocalDate hasta, int limite) {
+        String sql = "select r.clave, n.nombre, r.unidades, r.boletas, r.ingreso_bruto, r.descuento_duoc, "
+                + "r.descuento_cupon, r.puntos from (select v." + dimension.getColumna() + " as clave, " + SUMAS
+                + ", sum(v.ingreso_bruto - v.descuento_duoc - v.descuento_cupon) as ingreso_neto from "
+                + dimension.getTabla() + " v where v.dia between ? and ? group by v." + dimension.getColumna()
+                + " having sum(v.boletas) > 0 order by ingreso_neto desc, clave limit ?) r left join "
+                + dimension.getTablaNombre() + " n on n.id = r.clave order by r.ingreso_neto desc, r.clave";
+        return jdbcTemplate.query(sql, (rs, i) -> resumen(rs, null, rs.getLong("clave"), rs.getString("nombre")),
+                Date.valueOf(desde), Date.valueOf(hasta), limite);
+    }
+
+    /** Un registro por día con ventas de {@code clave} en el rango. */
+    public List<VentaResumenDTO> serie(DimensionVentas dimension, Long clave, LocalDate desde, LocalDate hasta) {
+        String sql = "select v.dia, " + SUMAS + " from " + dimension.getTabla() + " v where v."
+                + dimension.getColumna() + " = ? and v.dia between ? and ? group by v.dia "
+                + "having sum(v.boletas) > 0 order by v.dia";
+        return jdbcTemplate.query(sql, (rs, i) -> resumen(rs, rs.getDate("dia").toLocalDate(), clave, null),
+                clave, Date.valueOf(desde), Date.valueOf(hasta));
+    }
+
+    private static VentaResumenDTO resumen(ResultSet rs, LocalDate dia, Long clave, String nombre)
+            throws SQLException {
+        BigDecimal bruto = rs.getBigDecimal("ingreso_bruto");
+        BigDecimal duoc = rs.getBigDecimal("descuento_duoc");
+        BigDecimal cupon = rs.getBigDecimal("descuento_cupon");
+        return VentaResumenDTO.builder()
+                .dia(dia)
+                .id(clave)
+                .nombre(nombre)
+                .unidades(rs.getLong("unidades"))
+                .boletas(rs.getLong("boletas"))
+                .ingresoBruto(bruto)
+                .descuentoDuoc(duoc)
+                .descuentoCupon(cupon)
+                .ingresoNeto(bruto.subtract(duoc).subtract(cupon))
+                .puntos(rs.getLong("puntos"))
+                .build();
+    }
+
+    private static String insertarOSumar(DimensionVentas dimension) {
+        String tabla = dimension.getTabla();
+        return "insert into " + tabla + " as t (dia, " + dimension.getColumna() + ", " + COLUMNAS + ") "
+                + "values (?, ?, ?, ?, ?, ?, ?, ?) on conflict (dia, " + dimension.getColumna() + ") do update set "
+                + "unidades = t.unidades + excluded.unidades, boletas = t.boletas + excluded.boletas, "
+                + "ingreso_bruto = t.ingreso_bruto + excluded.ingreso_bruto, "
+                + "descuento_duoc = t.descuento_duoc + excluded.descuento_duoc, "
+                + "descuento_cupon = t.descuento_cupon + excluded.descuento_cupon, puntos = t.puntos + excluded.puntos";
+    }
+
+    private static String fusionar(DimensionVentas dimension) {
+        return "merge into " + dimension.getTabla() + " t using (select cast(? as date) as dia, "
+                + "cast(? as bigint) as clave, cast(? as bigint) as unidades, cast(? as bigint) as boletas, "
+                + "cast(? as decimal(14, 2)) as ingreso_bruto, cast(? as decimal(14, 2)) as descuento_duoc, "
+                + "cast(? as decimal(14, 2)) as descuento_cupon, cast(? as bigint) as puntos) s "
+                + "on t.dia = s.dia and t." + dimension.getColumna() + " = s.clave "
+                + "when matched then update set unidades = t.unidades + s.unidades, boletas = t.boletas + s.boletas, "
+                + "ingreso_bruto = t.ingreso_bruto + s.ingreso_bruto, "
+                + "descuento_duoc = t.descuento_duoc + s.descuento_duoc, "
+                + "descuento_cupon = t.descuento_cupon + s.descuento_cupon, puntos = t.puntos + s.puntos "
+                + "when not matched then insert (dia, " + dimension.getColumna() + ", " + COLUMNAS + ") "
+                + "values (s.dia, s.clave, s.unidades, s.boletas, s.ingreso_bruto, s.descuento_duoc, "
+                + "s.descuento_cupon, s.puntos)";
+    }
+
+    private record VentaEnCurso(long boletaId, BigDecimal totalAntesDescuentos, BigDecimal total, int porcentajeDuoc,
+                                int porcentajeCupon, List<AcumuladoVentas.LineaVenta> lineas) {
+
+        private VentaEnCurso(long boletaId, BigDecimal totalAntesDescuentos, BigDecimal total, int porcentajeDuoc,
+                             int porcentajeCupon) {
+            this(boletaId, totalAntesDescuentos, total, porcentajeDuoc, porcentajeCupon, new ArrayList<>());
+        }
+
+        private AcumuladoVentas.VentaBoleta venta(LocalDate dia) {
+            return new AcumuladoVentas.VentaBoleta(dia, totalAntesDescuentos, total, porcentajeDuoc, porcentajeCupon,
+                    lineas);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.levelupgamer.analitica.dto;
+
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconstruccionVentasDTO {
+    private LocalDate desde;
+    private LocalDate hasta;
+    private Integer dias;
+}
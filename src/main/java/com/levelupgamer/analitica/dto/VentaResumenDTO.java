@@ -0,0 +1,26 @@
+package com.levelupgamer.analitica.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Totales de un producto, categoría o vendedor; {@code dia} sólo en la serie diaria. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VentaResumenDTO {
+    private LocalDate dia;
+    private Long id;
+    private String nombre;
+    private Long unidades;
+    private Long boletas;
+    private BigDecimal ingresoBruto;
+    private BigDecimal descuentoDuoc;
+    private BigDecimal descuentoCupon;
+    private BigDecimal ingresoNeto;
+    private Long puntos;
+}
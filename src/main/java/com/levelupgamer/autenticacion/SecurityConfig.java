@@ -1,5 +1,6 @@
 package com.levelupgamer.autenticacion;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -34,7 +35,8 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                
+                // El despacho asíncrono (descargas en streaming) ya se autorizó en la solicitud original.
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers(HttpMethod.GET, "/").permitAll() 
                 .requestMatchers(HttpMethod.POST, "/api/v1/auth/login").permitAll()
                 .requestMatchers(HttpMethod.POST, "/api/v1/auth/refresh").permitAll()
@@ -42,6 +44,7 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/api/v1/products", "/api/v1/products/", "/api/v1/products/*").permitAll()
                 .requestMatchers(HttpMethod.GET, "/products/**", "/blogs/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/v1/products/*/reviews").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/v1/products/*/related").permitAll()
                 .requestMatchers("/api/v1/blog-posts/**", "/api/v1/contact-messages/**", "/v3/api-docs/**", "/swagger-ui/**").permitAll()
                 
                 
@@ -55,6 +58,8 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.PUT, "/api/v1/products/**").hasAnyRole("ADMINISTRADOR", "VENDEDOR")
                 .requestMatchers(HttpMethod.PATCH, "/api/v1/products/**").hasAnyRole("ADMINISTRADOR", "VENDEDOR")
                 .requestMatchers(HttpMethod.DELETE, "/api/v1/products/**").hasAnyRole("ADMINISTRADOR", "VENDEDOR")
+                .requestMatchers("/api/v1/stock-alerts/**").hasAnyRole("ADMINISTRADOR", "VENDEDOR")
+                .requestMatchers("/api/v1/stock-reservations/**").hasAnyRole("ADMINISTRADOR", "CLIENTE")
 
                 .requestMatchers(HttpMethod.GET, "/api/v1/categories/**").hasAnyRole("ADMINISTRADOR", "CLIENTE", "VENDEDOR")
                 .requestMatchers("/api/v1/categories/**").hasRole("ADMINISTRADOR")
@@ -62,6 +67,8 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/api/v1/boletas/**").hasAnyRole("ADMINISTRADOR", "CLIENTE", "VENDEDOR")
                 .requestMatchers("/api/v1/boletas/**").hasAnyRole("ADMINISTRADOR", "CLIENTE")
                 .requestMatchers("/api/v1/points/**").authenticated()
+                .requestMatchers("/api/v1/exports/**").hasRole("ADMINISTRADOR")
+                .requestMatchers("/api/v1/analytics/**").hasRole("ADMINISTRADOR")
 
                 
                 .anyRequest().authenticated()
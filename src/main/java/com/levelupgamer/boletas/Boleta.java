@@ -23,6 +23,11 @@ import lombok.Builder;
 @Builder
 @Entity
 @EntityListeners(AuditingEntityListener.class)
+@Table(indexes = {
+        @Index(name = "idx_boleta_fecha", columnList = "fecha, id"),
+        @Index(name = "idx_boleta_estado_fecha", columnList = "estado, fecha, id"),
+        @Index(name = "idx_boleta_usuario_fecha", columnList = "usuario_id, fecha, id")
+})
 public class Boleta {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
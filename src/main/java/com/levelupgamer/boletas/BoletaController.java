@@ -2,37 +2,63 @@ package com.levelupgamer.boletas;
 
 import com.levelupgamer.boletas.dto.BoletaActualizarEstadoRequest;
 import com.levelupgamer.boletas.dto.BoletaCrearRequest;
+import com.levelupgamer.boletas.dto.BoletaFiltro;
+import com.levelupgamer.boletas.dto.BoletaPaginaDTO;
 import com.levelupgamer.boletas.dto.BoletaRespuestaDTO;
+import com.levelupgamer.boletas.idempotencia.IdempotenciaService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/boletas")
 public class BoletaController {
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     @Autowired
     private BoletaService boletaService;
 
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
+    /**
+     * Con {@code Idempotency-Key}, los reintentos de la misma solicitud devuelven la boleta
+     * creada la primera vez (marcados con {@code Idempotent-Replayed: true}) en vez de
+     * crear otra.
+     */
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'CLIENTE')")
     @PostMapping
-    public ResponseEntity<BoletaRespuestaDTO> crearBoleta(@Valid @RequestBody BoletaCrearRequest request) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(boletaService.crearBoleta(request));
+    public ResponseEntity<BoletaRespuestaDTO> crearBoleta(@Valid @RequestBody BoletaCrearRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(boletaService.crearBoleta(request));
+        }
+        IdempotenciaService.Resultado resultado = idempotenciaService.ejecutar(idempotencyKey, request,
+                () -> boletaService.crearBoleta(request));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED, String.valueOf(resultado.repetida()))
+                .body(resultado.respuesta());
     }
 
+    /**
+     * Página de boletas filtrada por estado, rango de {@code fecha}, comprador, producto
+     * o vendedor. Sin {@code detalles=true} cada boleta viene sin sus líneas.
+     */
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'VENDEDOR')")
     @GetMapping
-    public ResponseEntity<List<BoletaRespuestaDTO>> listarBoletas() {
-        return ResponseEntity.ok(boletaService.listarTodas());
+    public ResponseEntity<BoletaPaginaDTO> listarBoletas(@ModelAttribute BoletaFiltro filtro) {
+        return ResponseEntity.ok(boletaService.listar(filtro));
     }
 
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'VENDEDOR', 'CLIENTE')")
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<BoletaRespuestaDTO>> listarBoletasPorUsuario(@PathVariable Long userId) {
-        return ResponseEntity.ok(boletaService.listarBoletasPorUsuario(userId));
+    public ResponseEntity<BoletaPaginaDTO> listarBoletasPorUsuario(@PathVariable Long userId,
+            @ModelAttribute BoletaFiltro filtro) {
+        return ResponseEntity.ok(boletaService.listarBoletasPorUsuario(userId, filtro));
     }
 
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'VENDEDOR', 'CLIENTE')")
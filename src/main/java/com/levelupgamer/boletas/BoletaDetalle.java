@@ -19,6 +19,10 @@ import lombok.Builder;
 @Builder
 @Entity
 @EntityListeners(AuditingEntityListener.class)
+@Table(indexes = {
+        @Index(name = "idx_boleta_detalle_boleta", columnList = "boleta_id, producto_id"),
+        @Index(name = "idx_boleta_detalle_producto", columnList = "producto_id, boleta_id")
+})
 public class BoletaDetalle {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
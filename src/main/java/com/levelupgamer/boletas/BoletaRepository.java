@@ -1,11 +1,29 @@
 package com.levelupgamer.boletas;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface BoletaRepository extends JpaRepository<Boleta, Long> {
     List<Boleta> findByUsuarioId(Long usuarioId);
 
-    boolean existsByUsuarioIdAndDetallesProductoId(Long usuarioId, Long productoId);
+    /** Historial de ventas no canceladas, sin cargar boletas ni productos. */
+    @Query("select new com.levelupgamer.boletas.BoletaRepository$VentaProducto(b.id, d.producto.id, d.cantidad, b.fecha) "
+            + "from BoletaDetalle d join d.boleta b where b.estado <> com.levelupgamer.boletas.EstadoBoleta.CANCELADO")
+    Stream<VentaProducto> streamVentasVigentes();
+
+    /** Productos de cada boleta no cancelada, agrupados por boleta (ordenados por su id). */
+    @Query("select new com.levelupgamer.boletas.BoletaRepository$LineaCanasta(b.id, d.producto.id) "
+            + "from BoletaDetalle d join d.boleta b where b.estado <> com.levelupgamer.boletas.EstadoBoleta.CANCELADO "
+            + "order by b.id")
+    Stream<LineaCanasta> streamCanastasVigentes();
+
+    record VentaProducto(Long boletaId, Long productoId, Integer cantidad, LocalDateTime fecha) {
+    }
+
+    record LineaCanasta(Long boletaId, Long productoId) {
+    }
 }
@@ -1,42 +1,73 @@
 package com.levelupgamer.boletas;
 
+import com.levelupgamer.analitica.AnaliticaVentasService;
+import com.levelupgamer.boletas.compras.ComprasVerificadasService;
 import com.levelupgamer.boletas.dto.BoletaCrearDTO;
 import com.levelupgamer.boletas.dto.BoletaCrearRequest;
 import com.levelupgamer.boletas.dto.BoletaDetalleCrearDTO;
+import com.levelupgamer.boletas.dto.BoletaDetalleRespuestaDTO;
+import com.levelupgamer.boletas.dto.BoletaFiltro;
+import com.levelupgamer.boletas.dto.BoletaPaginaDTO;
 import com.levelupgamer.boletas.dto.BoletaRespuestaDTO;
+import com.levelupgamer.common.paginacion.CursorKeyset;
+import com.levelupgamer.boletas.outbox.OutboxService;
+import com.levelupgamer.boletas.outbox.TipoEventoOutbox;
+import com.levelupgamer.gamificacion.PuntosGanadosEvent;
 import com.levelupgamer.gamificacion.PuntosService;
 import com.levelupgamer.gamificacion.cupones.Cupon;
 import com.levelupgamer.gamificacion.cupones.CuponService;
-import com.levelupgamer.gamificacion.dto.PuntosDTO;
+import com.levelupgamer.productos.CatalogoModificadoEvent;
 import com.levelupgamer.productos.Producto;
 import com.levelupgamer.productos.ProductoRepository;
+import com.levelupgamer.productos.alertas.StockCriticoEvent;
+import com.levelupgamer.productos.inventario.InventarioRepository;
+import com.levelupgamer.productos.inventario.ReservaStockService;
+import com.levelupgamer.usuarios.RolUsuario;
 import com.levelupgamer.usuarios.Usuario;
 import com.levelupgamer.usuarios.UsuarioRepository;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 @Service
 @RequiredArgsConstructor
 public class BoletaService {
-    private static final Logger logger = LoggerFactory.getLogger(BoletaService.class);
     private static final String DUOC_DOMAIN = "duoc.cl";
     private static final String PROFESOR_DUOC_DOMAIN = "profesor.duoc.cl";
+    private static final String ORDEN_CURSOR = "fecha";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
     private final BoletaRepository boletaRepository;
+    private final ListadoBoletasRepository listadoBoletasRepository;
     private final UsuarioRepository usuarioRepository;
     private final ProductoRepository productoRepository;
+    private final InventarioRepository inventarioRepository;
+    private final ReservaStockService reservaStockService;
     private final PuntosService puntosService;
     private final CuponService cuponService;
+    private final ComprasVerificadasService comprasVerificadasService;
+    private final OutboxService outboxService;
+    private final AnaliticaVentasService analiticaVentasService;
+    private final ApplicationEventPublisher eventPublisher;
 
         @Transactional
         public BoletaRespuestaDTO crearBoleta(BoletaCrearRequest request) {
@@ -66,31 +97,51 @@ public class BoletaService {
         List<BoletaDetalleCrearDTO> detallesSolicitados = Optional.ofNullable(dto.getDetalles())
             .filter(l -> !l.isEmpty())
             .orElseThrow(() -> new IllegalArgumentException("La boleta debe incluir al menos un producto"));
-        List<BoletaDetalle> detalles = new ArrayList<>();
+        Map<Long, Integer> cantidades = agruparCantidades(detallesSolicitados);
+        Map<Long, Producto> productos = cargarProductos(cantidades.keySet());
+        Map<Long, Integer> reservadas = reservaStockService.consumir(usuario.getId(), cantidades.keySet());
+        cantidades.forEach((productoId, cantidad) ->
+                validarStock(productos.get(productoId), cantidad, reservadas.getOrDefault(productoId, 0)));
+        // La lectura anterior puede estar desfasada; el descuento condicional es el que manda.
+        InventarioRepository.Descuento descuento = inventarioRepository.descontar(cantidades, reservadas);
+        if (!descuento.completo()) {
+            throw new IllegalArgumentException("Stock insuficiente para producto: " + descuento.insuficientes().stream()
+                    .map(productoId -> productos.get(productoId).getNombre())
+                    .collect(Collectors.joining(", ")));
+        }
+
+        List<BoletaDetalle> detalles = new ArrayList<>(cantidades.size());
+        List<Producto> productosModificados = new ArrayList<>(cantidades.size());
         BigDecimal total = BigDecimal.ZERO;
         int puntosGanados = 0;
 
-        for (BoletaDetalleCrearDTO detalleDTO : detallesSolicitados) {
-            Producto producto = obtenerProducto(detalleDTO.getProductoId());
-            validarStock(producto, detalleDTO.getCantidad());
+        for (Map.Entry<Long, Integer> linea : cantidades.entrySet()) {
+            Producto producto = productos.get(linea.getKey());
+            int cantidad = linea.getValue();
 
             BigDecimal precioUnitario = calcularPrecioUnitario(producto, usuario);
-            BigDecimal subtotal = precioUnitario.multiply(BigDecimal.valueOf(detalleDTO.getCantidad()));
+            BigDecimal subtotal = precioUnitario.multiply(BigDecimal.valueOf(cantidad));
 
-            BoletaDetalle detalle = crearDetalleBoleta(producto, detalleDTO, precioUnitario, subtotal);
+            BoletaDetalle detalle = crearDetalleBoleta(producto, cantidad, precioUnitario, subtotal);
             detalles.add(detalle);
             total = total.add(subtotal);
             int puntosProducto = producto.getPuntosLevelUp() != null ? producto.getPuntosLevelUp() : 0;
-            puntosGanados += puntosProducto * detalleDTO.getCantidad();
+            puntosGanados += puntosProducto * cantidad;
 
-            actualizarStock(producto, detalleDTO.getCantidad());
+            actualizarStock(producto, descuento.stockActual().get(producto.getId()), -cantidad);
+            productosModificados.add(producto);
         }
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deStock(productosModificados,
+                inventarioRepository.disponibleDe(cantidades.keySet())));
 
         Cupon cuponAplicado = procesarCupon(dto, usuario);
         DescuentoContexto descuentos = calcularDescuentos(total, usuario, cuponAplicado);
 
         Boleta boleta = guardarBoleta(usuario, detalles, descuentos, cuponAplicado);
-        procesarPuntos(usuario, puntosGanados);
+        comprasVerificadasService.registrarCompra(usuario.getId(), productosDe(boleta));
+        analiticaVentasService.registrarVenta(boleta);
+        eventPublisher.publishEvent(VentaRegistradaEvent.de(boleta, false));
+        procesarPuntos(boleta, usuario, puntosGanados);
         if (cuponAplicado != null) {
             cuponService.marcarComoUsado(cuponAplicado);
         }
@@ -98,19 +149,25 @@ public class BoletaService {
         return BoletaMapper.toDTO(boleta);
     }
 
+    /**
+     * Página de boletas, de la más reciente a la más antigua. Un vendedor sólo recibe
+     * las boletas que incluyen productos suyos, sin importar el {@code vendedorId} que
+     * envíe.
+     */
     @Transactional(readOnly = true)
-    public List<BoletaRespuestaDTO> listarTodas() {
-        return boletaRepository.findAll().stream()
-                .map(BoletaMapper::toDTO)
-                .collect(Collectors.toList());
+    public BoletaPaginaDTO listar(BoletaFiltro filtro) {
+        BoletaFiltro criterio = filtro != null ? filtro : new BoletaFiltro();
+        Long vendedorId = resolverVendedorDelListado(criterio.getUsuarioId(), criterio.getVendedorId());
+        return listarPagina(criterio, criterio.getUsuarioId(), vendedorId);
     }
 
+    /** Como {@link #listar}, acotado a las compras de {@code usuarioId}; un cliente sólo ve las suyas. */
     @Transactional(readOnly = true)
-    public List<BoletaRespuestaDTO> listarBoletasPorUsuario(Long usuarioId) {
+    public BoletaPaginaDTO listarBoletasPorUsuario(Long usuarioId, BoletaFiltro filtro) {
         Objects.requireNonNull(usuarioId, "El id de usuario no puede ser nulo");
-        return boletaRepository.findByUsuarioId(usuarioId).stream()
-                .map(BoletaMapper::toDTO)
-                .collect(Collectors.toList());
+        BoletaFiltro criterio = filtro != null ? filtro : new BoletaFiltro();
+        Long vendedorId = resolverVendedorDelListado(usuarioId, criterio.getVendedorId());
+        return listarPagina(criterio, usuarioId, vendedorId);
     }
 
     @Transactional(readOnly = true)
@@ -154,20 +211,121 @@ public class BoletaService {
 
     
 
+    private BoletaPaginaDTO listarPagina(BoletaFiltro criterio, Long usuarioId, Long vendedorId) {
+        if (criterio.getDesde() != null && criterio.getHasta() != null
+                && criterio.getHasta().isBefore(criterio.getDesde())) {
+            throw new IllegalArgumentException("La fecha hasta no puede ser anterior a la fecha desde");
+        }
+        int tamano = normalizarTamanoPagina(criterio.getSize());
+        LocalDateTime fechaCursor = null;
+        Long idCursor = null;
+        if (StringUtils.hasText(criterio.getCursor())) {
+            CursorKeyset cursor = CursorKeyset.decodificar(criterio.getCursor());
+            if (!ORDEN_CURSOR.equals(cursor.orden()) || cursor.valor() == null) {
+                throw new IllegalArgumentException("El cursor no corresponde al listado de boletas");
+            }
+            try {
+                fechaCursor = LocalDateTime.parse(cursor.valor());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Cursor inválido", e);
+            }
+            idCursor = cursor.id();
+        }
+
+        ListadoBoletasRepository.Criterio filtros = new ListadoBoletasRepository.Criterio(criterio.getEstado(),
+                criterio.getDesde(), criterio.getHasta(), usuarioId, criterio.getProductoId(), vendedorId);
+        List<BoletaRespuestaDTO> filas = listadoBoletasRepository.buscar(filtros, fechaCursor, idCursor, tamano + 1);
+        boolean hayMas = filas.size() > tamano;
+        List<BoletaRespuestaDTO> pagina = hayMas ? filas.subList(0, tamano) : filas;
+        if (Boolean.TRUE.equals(criterio.getDetalles())) {
+            Map<Long, List<BoletaDetalleRespuestaDTO>> lineas = listadoBoletasRepository.buscarLineas(
+                    pagina.stream().map(BoletaRespuestaDTO::getId).toList(), vendedorId);
+            pagina.forEach(boleta -> boleta.setDetalles(lineas.getOrDefault(boleta.getId(), List.of())));
+        }
+        String siguienteCursor = null;
+        if (hayMas) {
+            BoletaRespuestaDTO ultima = pagina.get(pagina.size() - 1);
+            siguienteCursor = new CursorKeyset(ORDEN_CURSOR, ultima.getFecha().toString(), ultima.getId()).codificar();
+        }
+        return BoletaPaginaDTO.builder()
+                .items(List.copyOf(pagina))
+                .siguienteCursor(siguienteCursor)
+                .hayMas(hayMas)
+                .build();
+    }
+
+    /**
+     * Vendedor al que se acota el listado: el solicitado para un administrador o para
+     * quien lista sus propias compras, y siempre el de la sesión para un vendedor.
+     */
+    private Long resolverVendedorDelListado(Long usuarioIdSolicitado, Long vendedorSolicitado) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new AccessDeniedException("No hay un usuario autenticado en el contexto");
+        }
+        if (tieneRol(authentication, RolUsuario.ADMINISTRADOR)) {
+            return vendedorSolicitado;
+        }
+        Long usuarioActualId = usuarioRepository.findByCorreo(authentication.getName())
+                .map(Usuario::getId)
+                .orElseThrow(() -> new AccessDeniedException("Usuario autenticado no encontrado"));
+        if (usuarioActualId.equals(usuarioIdSolicitado)) {
+            return vendedorSolicitado;
+        }
+        if (tieneRol(authentication, RolUsuario.VENDEDOR)) {
+            return usuarioActualId;
+        }
+        throw new AccessDeniedException("Sólo puede listar sus propias boletas");
+    }
+
+    private boolean tieneRol(Authentication authentication, RolUsuario rol) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(a -> ("ROLE_" + rol.name()).equals(a.getAuthority()));
+    }
+
+    private int normalizarTamanoPagina(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor a 0");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
     private Usuario obtenerUsuario(Long usuarioId) {
         Objects.requireNonNull(usuarioId, "El id de usuario no puede ser nulo");
         return usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
     }
 
-    private Producto obtenerProducto(Long productoId) {
-        Objects.requireNonNull(productoId, "El id de producto no puede ser nulo");
-        return productoRepository.findById(productoId)
-                .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado"));
+    /** Una línea por producto, en el orden en que aparecieron; las repetidas suman su cantidad. */
+    private Map<Long, Integer> agruparCantidades(List<BoletaDetalleCrearDTO> detallesSolicitados) {
+        Map<Long, Integer> cantidades = new LinkedHashMap<>();
+        for (BoletaDetalleCrearDTO detalle : detallesSolicitados) {
+            Objects.requireNonNull(detalle.getProductoId(), "El id de producto no puede ser nulo");
+            if (detalle.getCantidad() == null || detalle.getCantidad() < 1) {
+                throw new IllegalArgumentException("La cantidad de cada producto debe ser mayor a cero");
+            }
+            cantidades.merge(detalle.getProductoId(), detalle.getCantidad(), Math::addExact);
+        }
+        return cantidades;
+    }
+
+    private Map<Long, Producto> cargarProductos(Set<Long> productoIds) {
+        Map<Long, Producto> productos = new HashMap<>();
+        for (Producto producto : productoRepository.findAllById(productoIds)) {
+            productos.put(producto.getId(), producto);
+        }
+        if (productos.size() != productoIds.size()) {
+            throw new IllegalArgumentException("Producto no encontrado");
+        }
+        return productos;
     }
 
-    private void validarStock(Producto producto, int cantidad) {
-        if (producto.getStock() < cantidad) {
+    /** Lo reservado por otros no está disponible; lo reservado por este usuario, sí. */
+    private void validarStock(Producto producto, int cantidad, int reservada) {
+        if (producto.getStock() - producto.getStockReservado() + reservada < cantidad) {
             throw new IllegalArgumentException("Stock insuficiente para producto: " + producto.getNombre());
         }
     }
@@ -176,24 +334,24 @@ public class BoletaService {
         return producto.getPrecio();
     }
 
-    private BoletaDetalle crearDetalleBoleta(Producto producto, BoletaDetalleCrearDTO detalleDTO, BigDecimal precioUnitario,
+    private BoletaDetalle crearDetalleBoleta(Producto producto, int cantidad, BigDecimal precioUnitario,
             BigDecimal subtotal) {
         BoletaDetalle detalle = new BoletaDetalle();
         detalle.setProducto(producto);
-        detalle.setCantidad(detalleDTO.getCantidad());
+        detalle.setCantidad(cantidad);
         detalle.setPrecioUnitario(precioUnitario);
         detalle.setSubtotal(subtotal);
         return detalle;
     }
 
-    private void actualizarStock(Producto producto, int cantidad) {
-        producto.setStock(producto.getStock() - cantidad);
-        productoRepository.save(producto);
-
-        if (producto.getStockCritico() != null && producto.getStock() <= producto.getStockCritico()) {
-            logger.warn("Alerta de stock crítico para el producto {}. Stock actual: {}, Stock crítico: {}",
-                    producto.getNombre(), producto.getStock(), producto.getStockCritico());
-        }
+    /**
+     * Alinea la entidad con el stock que dejó {@link InventarioRepository} (el flush no
+     * lo escribe) y deja en el outbox el cruce del umbral, si lo hubo.
+     */
+    private void actualizarStock(Producto producto, int stockActual, int delta) {
+        producto.setStock(stockActual);
+        StockCriticoEvent.detectar(producto.getId(), stockActual - delta, stockActual, producto.getStockCritico())
+                .ifPresent(evento -> outboxService.registrar(TipoEventoOutbox.STOCK_CRITICO, producto.getId(), evento));
     }
 
     private Boleta guardarBoleta(Usuario usuario, List<BoletaDetalle> detalles, DescuentoContexto descuentos, Cupon cupon) {
@@ -211,9 +369,11 @@ public class BoletaService {
         return boletaRepository.save(boleta);
     }
 
-    private void procesarPuntos(Usuario usuario, int puntosGanados) {
+    /** Los puntos se acreditan fuera de la venta, sin tomar la fila de {@code Puntos} del usuario. */
+    private void procesarPuntos(Boleta boleta, Usuario usuario, int puntosGanados) {
         if (puntosGanados > 0) {
-            puntosService.sumarPuntos(new PuntosDTO(usuario.getId(), puntosGanados));
+            outboxService.registrar(TipoEventoOutbox.PUNTOS_GANADOS, boleta.getId(),
+                    new PuntosGanadosEvent(usuario.getId(), puntosGanados, boleta.getId()));
         }
     }
 
@@ -254,18 +414,38 @@ public class BoletaService {
     private void revertirInventarioYBeneficios(Boleta boleta) {
         List<BoletaDetalle> detalles = boleta.getDetalles();
         if (detalles != null) {
+            Map<Long, Integer> cantidades = new LinkedHashMap<>();
+            Map<Long, Producto> productos = new HashMap<>();
             for (BoletaDetalle detalle : detalles) {
                 Producto producto = detalle.getProducto();
                 if (producto == null) {
                     continue;
                 }
-                producto.setStock(producto.getStock() + detalle.getCantidad());
-                productoRepository.save(producto);
+                cantidades.merge(producto.getId(), detalle.getCantidad(), Integer::sum);
+                productos.putIfAbsent(producto.getId(), producto);
+            }
+            Map<Long, Integer> stockActual = cantidades.isEmpty() ? Map.of() : inventarioRepository.reponer(cantidades);
+            List<Producto> productosRepuestos = new ArrayList<>(cantidades.size());
+            cantidades.forEach((productoId, cantidad) -> {
+                Integer stock = stockActual.get(productoId);
+                if (stock != null) {
+                    Producto producto = productos.get(productoId);
+                    actualizarStock(producto, stock, cantidad);
+                    productosRepuestos.add(producto);
+                }
+            });
+            eventPublisher.publishEvent(CatalogoModificadoEvent.deStock(productosRepuestos,
+                    inventarioRepository.disponibleDe(stockActual.keySet())));
+            analiticaVentasService.registrarAnulacion(boleta);
+            eventPublisher.publishEvent(VentaRegistradaEvent.de(boleta, true));
+            if (boleta.getUsuario() != null) {
+                comprasVerificadasService.registrarAnulacion(boleta.getUsuario().getId(), productosDe(boleta));
             }
         }
 
         int puntosRegistrados = calcularPuntosDesdeDetalles(boleta);
-        if (puntosRegistrados > 0) {
+        // Si el outbox todavía no los acreditó, basta con descartarlos.
+        if (puntosRegistrados > 0 && !outboxService.descartar(TipoEventoOutbox.PUNTOS_GANADOS, boleta.getId())) {
             puntosService.restarPuntosPorAjuste(boleta.getUsuario().getId(), puntosRegistrados,
                     "Reverso boleta #" + boleta.getId());
         }
@@ -275,6 +455,16 @@ public class BoletaService {
         }
     }
 
+    private static Set<Long> productosDe(Boleta boleta) {
+        Set<Long> productoIds = new LinkedHashSet<>();
+        for (BoletaDetalle detalle : boleta.getDetalles()) {
+            if (detalle.getProducto() != null && detalle.getProducto().getId() != null) {
+                productoIds.add(detalle.getProducto().getId());
+            }
+        }
+        return productoIds;
+    }
+
     private int calcularPuntosDesdeDetalles(Boleta boleta) {
         List<BoletaDetalle> detalles = boleta.getDetalles();
         if (detalles == null) {
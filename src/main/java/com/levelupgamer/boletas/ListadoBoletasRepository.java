@@ -0,0 +1,133 @@
+package com.levelupgamer.boletas;
+
+import com.levelupgamer.boletas.dto.BoletaDetalleRespuestaDTO;
+import com.levelupgamer.boletas.dto.BoletaRespuestaDTO;
+import com.levelupgamer.boletas.dto.BoletaUsuarioDTO;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Listado de boletas como resumen: un SELECT sobre {@code boleta} con el comprador y
+ * el código del cupón, sin entidades ni líneas. El WHERE se arma sólo con los filtros
+ * presentes para que cada combinación use su índice compuesto de {@link Boleta}
+ * terminado en {@code (fecha, id)}, y la página sigue el orden
+ * {@code fecha desc, id desc} desde la última fila entregada. Producto y vendedor se
+ * filtran con un EXISTS sobre {@code boleta_detalle}.
+ */
+@Repository
+public class ListadoBoletasRepository {
+
+    private static final String SELECT_RESUMEN = "select b.id, b.usuario_id, u.nombre, u.apellidos, u.correo, "
+            + "b.total, b.total_antes_descuentos, b.descuento_cupon_aplicado, b.descuento_duoc_aplicado, "
+            + "b.cupon_id, c.codigo as cupon_codigo, b.fecha, b.estado "
+            + "from boleta b join usuario u on u.id = b.usuario_id left join cupon c on c.id = b.cupon_id where 1 = 1";
+    private static final String SELECT_LINEAS = "select d.boleta_id, d.producto_id, p.nombre, d.cantidad, "
+            + "d.precio_unitario, d.subtotal from boleta_detalle d join producto p on p.id = d.producto_id "
+            + "where d.boleta_id in (:ids)";
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public ListadoBoletasRepository(JdbcTemplate jdbcTemplate) {
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /** Hasta {@code limite} boletas posteriores a {@code (fechaCursor, idCursor)}, si se indica. */
+    public List<BoletaRespuestaDTO> buscar(Criterio criterio, LocalDateTime fechaCursor, Long idCursor, int limite) {
+        StringBuilder sql = new StringBuilder(SELECT_RESUMEN);
+        MapSqlParameterSource parametros = new MapSqlParameterSource();
+        if (criterio.estado() != null) {
+            sql.append(" and b.estado = :estado");
+            parametros.addValue("estado", criterio.estado().name());
+        }
+        if (criterio.usuarioId() != null) {
+            sql.append(" and b.usuario_id = :usuarioId");
+            parametros.addValue("usuarioId", criterio.usuarioId());
+        }
+        if (criterio.desde() != null) {
+            sql.append(" and b.fecha >= :desde");
+            parametros.addValue("desde", Timestamp.valueOf(criterio.desde().atStartOfDay()));
+        }
+        if (criterio.hasta() != null) {
+            sql.append(" and b.fecha < :hasta");
+            parametros.addValue("hasta", Timestamp.valueOf(criterio.hasta().plusDays(1).atStartOfDay()));
+        }
+        if (criterio.productoId() != null) {
+            sql.append(" and exists (select 1 from boleta_detalle d where d.boleta_id = b.id"
+                    + " and d.producto_id = :productoId)");
+            parametros.addValue("productoId", criterio.productoId());
+        }
+        if (criterio.vendedorId() != null) {
+            sql.append(" and exists (select 1 from boleta_detalle d join producto p on p.id = d.producto_id"
+                    + " where d.boleta_id = b.id and p.usuario_id = :vendedorId)");
+            parametros.addValue("vendedorId", criterio.vendedorId());
+        }
+        if (idCursor != null) {
+            sql.append(" and (b.fecha < :fechaCursor or (b.fecha = :fechaCursor and b.id < :idCursor))");
+            parametros.addValue("fechaCursor", Timestamp.valueOf(fechaCursor));
+            parametros.addValue("idCursor", idCursor);
+        }
+        sql.append(" order by b.fecha desc, b.id desc limit :limite");
+        parametros.addValue("limite", limite);
+        return namedJdbcTemplate.query(sql.toString(), parametros, (rs, fila) -> resumen(rs));
+    }
+
+    /**
+     * Líneas de las boletas indicadas, agrupadas por boleta. Con {@code vendedorId} sólo
+     * las de sus productos: un vendedor no ve lo que otros vendieron en la misma boleta.
+     */
+    public Map<Long, List<BoletaDetalleRespuestaDTO>> buscarLineas(Collection<Long> boletaIds, Long vendedorId) {
+        Map<Long, List<BoletaDetalleRespuestaDTO>> lineas = new LinkedHashMap<>();
+        if (boletaIds.isEmpty()) {
+            return lineas;
+        }
+        String sql = SELECT_LINEAS + (vendedorId != null ? " and p.usuario_id = :vendedorId" : "")
+                + " order by d.boleta_id, d.id";
+        MapSqlParameterSource parametros = new MapSqlParameterSource("ids", boletaIds)
+                .addValue("vendedorId", vendedorId);
+        namedJdbcTemplate.query(sql, parametros, rs -> {
+            lineas.computeIfAbsent(rs.getLong("boleta_id"), id -> new ArrayList<>())
+                    .add(new BoletaDetalleRespuestaDTO(rs.getLong("producto_id"), rs.getString("nombre"),
+                            rs.getInt("cantidad"), rs.getBigDecimal("precio_unitario"), rs.getBigDecimal("subtotal")));
+        });
+        return lineas;
+    }
+
+    private static BoletaRespuestaDTO resumen(ResultSet rs) throws SQLException {
+        Long usuarioId = rs.getLong("usuario_id");
+        return BoletaRespuestaDTO.builder()
+                .id(rs.getLong("id"))
+                .usuarioId(usuarioId)
+                .usuario(BoletaUsuarioDTO.builder()
+                        .id(usuarioId)
+                        .nombre(rs.getString("nombre"))
+                        .apellidos(rs.getString("apellidos"))
+                        .correo(rs.getString("correo"))
+                        .build())
+                .total(rs.getBigDecimal("total"))
+                .totalAntesDescuentos(rs.getBigDecimal("total_antes_descuentos"))
+                .descuentoCupon(rs.getObject("descuento_cupon_aplicado", Integer.class))
+                .descuentoDuoc(rs.getObject("descuento_duoc_aplicado", Integer.class))
+                .cuponId(rs.getObject("cupon_id", Long.class))
+                .cuponCodigo(rs.getString("cupon_codigo"))
+                .fecha(rs.getTimestamp("fecha").toLocalDateTime())
+                .estado(rs.getString("estado"))
+                .build();
+    }
+
+    /** Filtros ya resueltos: {@code vendedorId} es el de la sesión cuando lista un vendedor. */
+    public record Criterio(EstadoBoleta estado, LocalDate desde, LocalDate hasta, Long usuarioId, Long productoId,
+                           Long vendedorId) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.levelupgamer.boletas;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * Unidades vendidas por producto en una boleta. Se publica al crearla y, con
+ * {@code anulacion = true} y la fecha original, al cancelarla o eliminarla, para
+ * que quien acumule ventas pueda descontar exactamente lo sumado.
+ */
+public record VentaRegistradaEvent(Long boletaId, Map<Long, Integer> cantidadPorProducto, LocalDateTime fecha,
+                                   boolean anulacion) {
+
+    public VentaRegistradaEvent {
+        cantidadPorProducto = Map.copyOf(cantidadPorProducto);
+    }
+
+    static VentaRegistradaEvent de(Boleta boleta, boolean anulacion) {
+        Map<Long, Integer> cantidades = new HashMap<>();
+        if (boleta.getDetalles() != null) {
+            for (BoletaDetalle detalle : boleta.getDetalles()) {
+                if (detalle.getProducto() != null && detalle.getProducto().getId() != null) {
+                    cantidades.merge(detalle.getProducto().getId(), detalle.getCantidad(), Integer::sum);
+                }
+            }
+        }
+        return new VentaRegistradaEvent(boleta.getId(), cantidades, boleta.getFecha(), anulacion);
+    }
+
+    /**
+     * De los eventos recibidos mientras se leía el historial de ventas vigentes, los que
+     * faltan aplicar sobre lo leído. Si la lectura contó la boleta ({@code leida}), su venta
+     * ya está y sólo falta descontar la anulación; si no la contó, la venta se suma sólo
+     * cuando no llegó también su anulación.
+     */
+    public static List<VentaRegistradaEvent> faltantes(List<VentaRegistradaEvent> recibidos, LongPredicate leida) {
+        Set<Long> anuladas = new HashSet<>();
+        for (VentaRegistradaEvent evento : recibidos) {
+            if (evento.anulacion() && evento.boletaId() != null) {
+                anuladas.add(evento.boletaId());
+            }
+        }
+        return recibidos.stream()
+                .filter(evento -> {
+                    if (evento.boletaId() == null) {
+                        return true;
+                    }
+                    boolean contada = leida.test(evento.boletaId());
+                    return evento.anulacion() ? contada : !contada && !anuladas.contains(evento.boletaId());
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,47 @@
+package com.levelupgamer.boletas.compras;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Par usuario/producto con al menos una boleta vigente. {@code boletas} cuenta cuántas
+ * boletas no canceladas del usuario incluyen el producto, para que anular una no borre
+ * la compra si quedan otras. La mantiene {@link ComprasVerificadasRepository}; la
+ * entidad existe para el esquema y para consultarla desde JPQL.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(CompraVerificada.Clave.class)
+@Table(name = CompraVerificada.TABLA)
+public class CompraVerificada {
+
+    static final String TABLA = "compra_verificada";
+
+    @Id
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @Id
+    @Column(name = "producto_id")
+    private Long productoId;
+
+    @Column(nullable = false)
+    private Integer boletas;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private Long usuarioId;
+        private Long productoId;
+    }
+}
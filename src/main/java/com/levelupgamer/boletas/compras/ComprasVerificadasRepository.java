@@ -0,0 +1,93 @@
+package com.levelupgamer.boletas.compras;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Escrituras de {@link CompraVerificada} con UPDATE relativos, en la misma transacción
+ * que crea o anula la boleta. El alta suma o inserta cada par en una sola sentencia
+ * ({@code INSERT ... ON CONFLICT DO UPDATE} en PostgreSQL, {@code MERGE} en las demás
+ * bases), así dos compras simultáneas del mismo producto no chocan en la clave; la baja
+ * resta y borra los pares que quedan sin boletas vigentes.
+ */
+@Repository
+public class ComprasVerificadasRepository {
+
+    private static final String INSERTAR_O_SUMAR = "insert into " + CompraVerificada.TABLA
+            + " as c (usuario_id, producto_id, boletas) values (?, ?, 1) "
+            + "on conflict (usuario_id, producto_id) do update set boletas = c.boletas + 1";
+    private static final String FUSIONAR = "merge into " + CompraVerificada.TABLA + " c "
+            + "using (select cast(? as bigint) as usuario_id, cast(? as bigint) as producto_id) s "
+            + "on c.usuario_id = s.usuario_id and c.producto_id = s.producto_id "
+            + "when matched then update set boletas = c.boletas + 1 "
+            + "when not matched then insert (usuario_id, producto_id, boletas) values (s.usuario_id, s.producto_id, 1)";
+    private static final String RESTAR = "update " + CompraVerificada.TABLA
+            + " set boletas = boletas - 1 where usuario_id = ? and producto_id = ? and boletas > 0";
+    private static final String PURGAR = "delete from " + CompraVerificada.TABLA
+            + " where usuario_id = ? and boletas <= 0";
+    private static final String EXISTE = "select count(*) from " + CompraVerificada.TABLA
+            + " where usuario_id = ? and producto_id = ?";
+    private static final String CONTAR = "select count(*) from " + CompraVerificada.TABLA;
+    private static final String PARES = "select usuario_id, producto_id from " + CompraVerificada.TABLA;
+    private static final String POBLAR = "insert into " + CompraVerificada.TABLA + " (usuario_id, producto_id, boletas) "
+            + "select b.usuario_id, d.producto_id, count(distinct b.id) from boleta b "
+            + "join boleta_detalle d on d.boleta_id = b.id "
+            + "where b.estado <> 'CANCELADO' and b.usuario_id is not null and d.producto_id is not null "
+            + "group by b.usuario_id, d.producto_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String sumar;
+
+    public ComprasVerificadasRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        boolean postgres = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) conexion ->
+                "PostgreSQL".equals(conexion.getMetaData().getDatabaseProductName())));
+        this.sumar = postgres ? INSERTAR_O_SUMAR : FUSIONAR;
+    }
+
+    /** Suma una boleta a cada par; {@code productoIds} no debe repetir productos. */
+    public void sumar(Long usuarioId, Collection<Long> productoIds) {
+        jdbcTemplate.batchUpdate(sumar, pares(usuarioId, productoIds));
+    }
+
+    /** Descuenta una boleta de cada par y borra los que quedan en cero. */
+    public void restar(Long usuarioId, Collection<Long> productoIds) {
+        jdbcTemplate.batchUpdate(RESTAR, pares(usuarioId, productoIds));
+        jdbcTemplate.update(PURGAR, usuarioId);
+    }
+
+    public boolean existe(Long usuarioId, Long productoId) {
+        Long filas = jdbcTemplate.queryForObject(EXISTE, Long.class, usuarioId, productoId);
+        return filas != null && filas > 0;
+    }
+
+    public long contar() {
+        Long filas = jdbcTemplate.queryForObject(CONTAR, Long.class);
+        return filas != null ? filas : 0;
+    }
+
+    /** Recorre todos los pares sin materializarlos en una lista. */
+    public void recorrer(BiConsumer<Long, Long> consumidor) {
+        jdbcTemplate.query(PARES, rs -> {
+            consumidor.accept(rs.getLong(1), rs.getLong(2));
+        });
+    }
+
+    /** Carga los pares desde el historial de boletas; sólo tiene sentido con la tabla vacía. */
+    public int poblarDesdeBoletas() {
+        return jdbcTemplate.update(POBLAR);
+    }
+
+    private static List<Object[]> pares(Long usuarioId, Collection<Long> productoIds) {
+        List<Object[]> pares = new ArrayList<>(productoIds.size());
+        for (Long productoId : productoIds) {
+            pares.add(new Object[] {usuarioId, productoId});
+        }
+        return pares;
+    }
+}
@@ -0,0 +1,125 @@
+package com.levelupgamer.boletas.compras;
+
+import java.util.Collection;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Índice de compras verificadas: qué productos compró cada usuario, sin recorrer
+ * boletas. Delante de la tabla {@link CompraVerificada} hay un {@link FiltroBloom} en
+ * memoria que descarta sin ir a la base los pares que nunca se compraron; los positivos
+ * se confirman con una lectura por clave primaria.
+ *
+ * <p>Los pares se agregan al filtro antes de confirmar la transacción de la boleta: si
+ * se revierte queda un falso positivo, nunca un falso negativo. Al reconstruir se
+ * conserva el filtro anterior y un negativo exige que ambos lo sean, porque una boleta
+ * aún sin confirmar cuando se recorre la tabla sólo quedó en el anterior. Las
+ * anulaciones no quitan bits (el filtro no lo admite); la reconstrucción periódica
+ * los limpia.
+ */
+@Service
+public class ComprasVerificadasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ComprasVerificadasService.class);
+    private static final long CAPACIDAD_MINIMA = 10_000;
+    private static final double TASA_FALSOS_POSITIVOS = 0.01;
+
+    private final ComprasVerificadasRepository repository;
+    private final TransactionTemplate lectura;
+    private final TransactionTemplate escritura;
+    private volatile FiltroBloom filtro;
+    private volatile FiltroBloom anterior;
+    private volatile FiltroBloom enConstruccion;
+    private volatile boolean listo;
+
+    public ComprasVerificadasService(ComprasVerificadasRepository repository,
+                                     PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.lectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.escritura = new TransactionTemplate(transactionManager);
+        this.escritura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Recoge las compras previas a la primera reconstrucción, que lo conserva como anterior.
+        this.filtro = new FiltroBloom(CAPACIDAD_MINIMA, TASA_FALSOS_POSITIVOS);
+    }
+
+    /** ¿Tiene el usuario alguna boleta vigente con este producto? */
+    public boolean compro(Long usuarioId, Long productoId) {
+        if (usuarioId == null || productoId == null) {
+            return false;
+        }
+        if (listo && !filtro.puedeContener(usuarioId, productoId)
+                && !anterior.puedeContener(usuarioId, productoId)) {
+            return false;
+        }
+        return repository.existe(usuarioId, productoId);
+    }
+
+    /** Registra una boleta nueva; debe llamarse dentro de la transacción que la guarda. */
+    public void registrarCompra(Long usuarioId, Set<Long> productoIds) {
+        if (usuarioId == null || productoIds.isEmpty()) {
+            return;
+        }
+        repository.sumar(usuarioId, productoIds);
+        agregarAlFiltro(usuarioId, productoIds);
+    }
+
+    /** Registra la anulación (o eliminación) de una boleta vigente. */
+    public void registrarAnulacion(Long usuarioId, Set<Long> productoIds) {
+        if (usuarioId == null || productoIds.isEmpty()) {
+            return;
+        }
+        repository.restar(usuarioId, productoIds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        escritura.executeWithoutResult(status -> {
+            if (repository.contar() == 0) {
+                int pares = repository.poblarDesdeBoletas();
+                if (pares > 0) {
+                    logger.info("Índice de compras verificadas poblado con {} pares desde el historial de boletas", pares);
+                }
+            }
+        });
+        reconstruirFiltro();
+    }
+
+    @Scheduled(fixedDelayString = "${compras.filtro.reconstruccion:PT6H}",
+            initialDelayString = "${compras.filtro.reconstruccion:PT6H}")
+    public synchronized void reconstruirFiltro() {
+        long pares = lectura.execute(status -> repository.contar());
+        FiltroBloom nuevo = new FiltroBloom(Math.max(CAPACIDAD_MINIMA, pares * 2), TASA_FALSOS_POSITIVOS);
+        // Las compras que se registren mientras se recorre la tabla van a ambos filtros.
+        enConstruccion = nuevo;
+        try {
+            lectura.executeWithoutResult(status -> repository.recorrer(nuevo::agregar));
+            anterior = filtro;
+            filtro = nuevo;
+            listo = true;
+        } finally {
+            enConstruccion = null;
+        }
+        logger.info("Filtro de compras verificadas construido con {} pares (capacidad {})", pares, nuevo.getCapacidad());
+    }
+
+    private void agregarAlFiltro(Long usuarioId, Collection<Long> productoIds) {
+        FiltroBloom actual = filtro;
+        FiltroBloom siguiente = enConstruccion;
+        for (Long productoId : productoIds) {
+            actual.agregar(usuarioId, productoId);
+            if (siguiente != null) {
+                siguiente.agregar(usuarioId, productoId);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.levelupgamer.boletas.compras;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de pares (usuario, producto). Nunca da falsos negativos: si
+ * {@link #puedeContener} responde {@code false} el par no se agregó. Los positivos hay
+ * que confirmarlos. Admite agregados concurrentes; no admite quitar pares.
+ */
+final class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long cantidadBits;
+    private final int funciones;
+    private final long capacidad;
+
+    FiltroBloom(long capacidad, double tasaFalsosPositivos) {
+        if (capacidad < 1 || tasaFalsosPositivos <= 0 || tasaFalsosPositivos >= 1) {
+            throw new IllegalArgumentException("Parámetros del filtro inválidos");
+        }
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-capacidad * Math.log(tasaFalsosPositivos) / (ln2 * ln2));
+        int palabras = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) / 64));
+        this.bits = new AtomicLongArray(palabras);
+        this.cantidadBits = palabras * 64L;
+        this.funciones = Math.max(1, (int) Math.round((double) cantidadBits / capacidad * ln2));
+        this.capacidad = capacidad;
+    }
+
+    void agregar(long usuarioId, long productoId) {
+        long h1 = mezclar(usuarioId * 0x9E3779B97F4A7C15L ^ productoId);
+        long h2 = mezclar(h1 ^ productoId) | 1;
+        for (int i = 0; i < funciones; i++) {
+            long bit = Math.floorMod(h1 + i * h2, cantidadBits);
+            int palabra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long actual;
+            do {
+                actual = bits.get(palabra);
+            } while ((actual & mascara) == 0 && !bits.compareAndSet(palabra, actual, actual | mascara));
+        }
+    }
+
+    boolean puedeContener(long usuarioId, long productoId) {
+        long h1 = mezclar(usuarioId * 0x9E3779B97F4A7C15L ^ productoId);
+        long h2 = mezclar(h1 ^ productoId) | 1;
+        for (int i = 0; i < funciones; i++) {
+            long bit = Math.floorMod(h1 + i * h2, cantidadBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long getCapacidad() {
+        return capacidad;
+    }
+
+    /** Finalizador de SplitMix64: reparte bien ids consecutivos. */
+    private static long mezclar(long x) {
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+}
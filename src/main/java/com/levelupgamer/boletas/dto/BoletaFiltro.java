@@ -0,0 +1,30 @@
+package com.levelupgamer.boletas.dto;
+
+import com.levelupgamer.boletas.EstadoBoleta;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BoletaFiltro {
+    private EstadoBoleta estado;
+    /** Primer día incluido, sobre {@code fecha}. */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate desde;
+    /** Último día incluido, sobre {@code fecha}. */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate hasta;
+    private Long usuarioId;
+    private Long productoId;
+    private Long vendedorId;
+    private String cursor;
+    private Integer size;
+    /** Si es {@code true} cada boleta incluye sus líneas; por defecto sólo el resumen. */
+    private Boolean detalles;
+}
@@ -0,0 +1,17 @@
+package com.levelupgamer.boletas.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BoletaPaginaDTO {
+    private List<BoletaRespuestaDTO> items;
+    private String siguienteCursor;
+    private boolean hayMas;
+}
@@ -0,0 +1,53 @@
+package com.levelupgamer.boletas.idempotencia;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Una {@code Idempotency-Key} ya usada por un usuario ({@code usuario} es el nombre de
+ * su autenticación, el correo). Se inserta en la misma transacción que crea la boleta y
+ * se completa con la respuesta serializada antes del commit, así que una clave
+ * confirmada siempre tiene respuesta. {@code huella} identifica el cuerpo de la
+ * solicitud original para rechazar la misma clave con otro contenido.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "clave_idempotencia",
+        uniqueConstraints = @UniqueConstraint(name = "uk_clave_idempotencia", columnNames = {"usuario", "clave"}),
+        indexes = @Index(name = "idx_clave_idempotencia_expira_en", columnList = "expira_en, id"))
+public class ClaveIdempotencia {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private String usuario;
+
+    @Column(nullable = false, updatable = false, length = IdempotenciaService.LARGO_MAXIMO_CLAVE)
+    private String clave;
+
+    @Column(nullable = false, updatable = false, length = 64)
+    private String huella;
+
+    @Column(length = 1_000_000)
+    private String respuesta;
+
+    @Column(name = "expira_en", nullable = false, updatable = false)
+    private LocalDateTime expiraEn;
+}
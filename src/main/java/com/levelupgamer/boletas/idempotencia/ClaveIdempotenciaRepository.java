@@ -0,0 +1,17 @@
+package com.levelupgamer.boletas.idempotencia;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+public interface ClaveIdempotenciaRepository extends JpaRepository<ClaveIdempotencia, Long> {
+
+    Optional<ClaveIdempotencia> findByUsuarioAndClave(String usuario, String clave);
+
+    /** Recorre {@code idx_clave_idempotencia_expira_en} sin cargar las respuestas. */
+    @Query("select c.id from ClaveIdempotencia c where c.expiraEn <= :ahora order by c.expiraEn, c.id")
+    List<Long> findIdsVencidas(LocalDateTime ahora, Limit limite);
+}
@@ -0,0 +1,255 @@
+package com.levelupgamer.boletas.idempotencia;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.levelupgamer.boletas.dto.BoletaRespuestaDTO;
+import com.levelupgamer.common.cache.CacheAcotado;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+/**
+ * Deduplica la creación de boletas por {@code Idempotency-Key}. Un reintento con una
+ * clave ya completada recibe la respuesta original: primero desde un
+ * {@link CacheAcotado} en memoria y, si no está, desde {@link ClaveIdempotencia}. Un
+ * duplicado que llega mientras el original sigue en curso en esta instancia espera su
+ * resultado en vez de ejecutarse; entre instancias lo resuelve la restricción única
+ * de la tabla, que hace que el segundo INSERT espere al commit del primero y falle.
+ * Las solicitudes que terminan en error no se guardan: el cliente puede reintentarlas
+ * con la misma clave.
+ */
+@Service
+public class IdempotenciaService {
+
+    static final int LARGO_MAXIMO_CLAVE = 100;
+    private static final Logger logger = LoggerFactory.getLogger(IdempotenciaService.class);
+    private static final long ESPERA_MAXIMA_SEGUNDOS = 30;
+
+    private final ClaveIdempotenciaRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate escritura;
+    private final TransactionTemplate lectura;
+    private final CacheAcotado<Clave, Completada> completadas;
+    private final ConcurrentMap<Clave, CompletableFuture<Completada>> enCurso = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final int tamanoLotePurga;
+
+    public IdempotenciaService(ClaveIdempotenciaRepository repository,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${boletas.idempotencia.ttl:PT24H}") Duration ttl,
+                               @Value("${boletas.idempotencia.cache-max:10000}") int maxCache,
+                               @Value("${boletas.idempotencia.lote-purga:1000}") int tamanoLotePurga) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.escritura = new TransactionTemplate(transactionManager);
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.lectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.completadas = new CacheAcotado<>("boletas.idempotencia", maxCache, ttl);
+        this.ttl = ttl;
+        this.tamanoLotePurga = tamanoLotePurga;
+    }
+
+    /**
+     * Ejecuta {@code operacion} una sola vez por usuario autenticado y {@code clave}.
+     * {@code solicitud} es el cuerpo recibido; reutilizar la clave con otro cuerpo es un
+     * error del cliente.
+     */
+    public Resultado ejecutar(String clave, Object solicitud, Supplier<BoletaRespuestaDTO> operacion) {
+        if (!StringUtils.hasText(clave) || clave.length() > LARGO_MAXIMO_CLAVE) {
+            throw new IllegalArgumentException(
+                    "La Idempotency-Key debe tener entre 1 y " + LARGO_MAXIMO_CLAVE + " caracteres");
+        }
+        Clave id = new Clave(resolverUsuario(), clave);
+        String huella = huellaDe(solicitud);
+
+        Optional<Completada> enCache = completadas.obtener(id);
+        if (enCache.isPresent()) {
+            return repetida(enCache.get(), huella);
+        }
+
+        CompletableFuture<Completada> propia = new CompletableFuture<>();
+        CompletableFuture<Completada> original = enCurso.putIfAbsent(id, propia);
+        if (original != null) {
+            return repetida(esperar(original), huella);
+        }
+        try {
+            Resultado resultado = ejecutarUnaVez(id, huella, operacion);
+            propia.complete(new Completada(huella, resultado.respuesta()));
+            return resultado;
+        } catch (RuntimeException e) {
+            propia.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(id, propia);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${boletas.idempotencia.purga:PT10M}",
+            initialDelayString = "${boletas.idempotencia.purga:PT10M}")
+    public void purgarVencidas() {
+        int purgadas = 0;
+        int lote;
+        do {
+            lote = escritura.execute(status -> purgarLote(LocalDateTime.now()));
+            purgadas += lote;
+        } while (lote == tamanoLotePurga);
+        if (purgadas > 0) {
+            logger.info("Purgadas {} claves de idempotencia vencidas", purgadas);
+        }
+    }
+
+    int purgarLote(LocalDateTime ahora) {
+        List<Long> ids = repository.findIdsVencidas(ahora, Limit.of(tamanoLotePurga));
+        if (!ids.isEmpty()) {
+            repository.deleteAllByIdInBatch(ids);
+        }
+        return ids.size();
+    }
+
+    private Resultado ejecutarUnaVez(Clave id, String huella, Supplier<BoletaRespuestaDTO> operacion) {
+        try {
+            Resultado resultado = escritura.execute(status -> {
+                Optional<ClaveIdempotencia> existente = repository.findByUsuarioAndClave(id.usuario(), id.clave());
+                if (existente.isPresent()) {
+                    if (existente.get().getExpiraEn().isAfter(LocalDateTime.now())) {
+                        return repetida(completar(id, existente.get()), huella);
+                    }
+                    // Vencida pero aún sin purgar: la clave vuelve a estar libre.
+                    repository.delete(existente.get());
+                    repository.flush();
+                }
+                ClaveIdempotencia registro = reclamar(id, huella);
+                BoletaRespuestaDTO respuesta = operacion.get();
+                registro.setRespuesta(serializar(respuesta));
+                return new Resultado(respuesta, false);
+            });
+            if (!resultado.repetida()) {
+                completadas.guardar(id, new Completada(huella, resultado.respuesta()));
+            }
+            return resultado;
+        } catch (ClaveOcupadaException e) {
+            // Otra instancia confirmó la misma clave entre nuestra lectura y el INSERT.
+            return lectura.execute(status -> repository.findByUsuarioAndClave(id.usuario(), id.clave())
+                    .map(registro -> repetida(completar(id, registro), huella))
+                    .orElseThrow(() -> new IllegalStateException(
+                            "La solicitud original con esta Idempotency-Key no pudo completarse; reintente")));
+        }
+    }
+
+    private ClaveIdempotencia reclamar(Clave id, String huella) {
+        try {
+            return repository.saveAndFlush(ClaveIdempotencia.builder()
+                    .usuario(id.usuario())
+                    .clave(id.clave())
+                    .huella(huella)
+                    .expiraEn(LocalDateTime.now().plus(ttl))
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            throw new ClaveOcupadaException(e);
+        }
+    }
+
+    private Completada completar(Clave id, ClaveIdempotencia registro) {
+        Completada completada = new Completada(registro.getHuella(), deserializar(registro.getRespuesta()));
+        completadas.guardar(id, completada);
+        return completada;
+    }
+
+    private static Resultado repetida(Completada completada, String huella) {
+        if (!completada.huella().equals(huella)) {
+            throw new IllegalArgumentException("La Idempotency-Key ya se usó con una solicitud distinta");
+        }
+        return new Resultado(completada.respuesta(), true);
+    }
+
+    private static Completada esperar(CompletableFuture<Completada> original) {
+        try {
+            return original.get(ESPERA_MAXIMA_SEGUNDOS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("La solicitud original con esta Idempotency-Key falló", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("La solicitud original con esta Idempotency-Key sigue en curso; reintente");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido mientras esperaba la solicitud original", e);
+        }
+    }
+
+    private String huellaDe(Object solicitud) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(solicitud));
+            return HexFormat.of().formatHex(hash);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("No se pudo leer la solicitud", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private String serializar(BoletaRespuestaDTO respuesta) {
+        try {
+            return objectMapper.writeValueAsString(respuesta);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo guardar la respuesta de la boleta", e);
+        }
+    }
+
+    private BoletaRespuestaDTO deserializar(String respuesta) {
+        try {
+            return objectMapper.readValue(respuesta, BoletaRespuestaDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo leer la respuesta guardada de la boleta", e);
+        }
+    }
+
+    private static String resolverUsuario() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new AccessDeniedException("No hay un usuario autenticado en el contexto");
+        }
+        return authentication.getName();
+    }
+
+    /** {@code repetida}: la respuesta es la de una ejecución anterior con la misma clave. */
+    public record Resultado(BoletaRespuestaDTO respuesta, boolean repetida) {}
+
+    record Clave(String usuario, String clave) {}
+
+    private record Completada(String huella, BoletaRespuestaDTO respuesta) {}
+
+    private static class ClaveOcupadaException extends RuntimeException {
+        ClaveOcupadaException(Throwable causa) {
+            super(causa);
+        }
+    }
+}
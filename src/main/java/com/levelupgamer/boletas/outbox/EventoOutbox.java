@@ -0,0 +1,68 @@
+package com.levelupgamer.boletas.outbox;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+/**
+ * Efecto secundario de una escritura, guardado en la misma transacción y entregado
+ * después por {@link OutboxService}. {@code intentos} cuenta las veces que se reclamó
+ * y hace de versión: sólo quien reclamó el intento vigente puede eliminar o posponer
+ * la fila. Mientras está reclamada, {@code disponibleEn} es el fin del arriendo.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@EntityListeners(AuditingEntityListener.class)
+@Table(name = "outbox_evento", indexes = {
+        @Index(name = "idx_outbox_evento_disponible_en", columnList = "disponible_en, id"),
+        @Index(name = "idx_outbox_evento_referencia", columnList = "tipo, referencia")
+})
+public class EventoOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false, length = 40)
+    private TipoEventoOutbox tipo;
+
+    /** Boleta o producto al que se refiere el evento, para poder descartarlo. */
+    @Column(updatable = false)
+    private Long referencia;
+
+    @Column(nullable = false, updatable = false, length = 4000)
+    private String payload;
+
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private Integer intentos = 0;
+
+    @Column(name = "disponible_en", nullable = false, updatable = false)
+    private LocalDateTime disponibleEn;
+
+    @Column(name = "ultimo_error", updatable = false, length = 500)
+    private String ultimoError;
+
+    @CreatedDate
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,12 @@
+package com.levelupgamer.boletas.outbox;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    /** Recorre {@code idx_outbox_evento_disponible_en}: los más antiguos primero. */
+    List<EventoOutbox> findByDisponibleEnLessThanEqualOrderByDisponibleEnAscIdAsc(LocalDateTime ahora, Limit limite);
+}
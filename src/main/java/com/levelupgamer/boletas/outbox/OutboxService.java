@@ -0,0 +1,189 @@
+package com.levelupgamer.boletas.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Outbox transaccional de la venta. Quien escribe deja un {@link EventoOutbox} en su
+ * propia transacción en lugar de ejecutar el efecto secundario; un despachador
+ * periódico reclama lotes con un UPDATE condicional sobre {@code intentos} (sin
+ * {@code SKIP LOCKED}, que H2 no tiene) y entrega cada fila en una transacción corta
+ * que la elimina y vuelve a publicarla como evento de Spring. Si el consumidor falla,
+ * la fila se pospone con espera exponencial; si la instancia cae a mitad de camino,
+ * el arriendo vence y otra la reclama. La entrega es al menos una vez: los
+ * consumidores que escriben en la base lo hacen en la misma transacción del DELETE.
+ */
+@Service
+public class OutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+    private static final Duration ESPERA_MAXIMA = Duration.ofHours(1);
+    private static final int LARGO_MAXIMO_ERROR = 500;
+    private static final String RECLAMAR =
+            "update outbox_evento set intentos = intentos + 1, disponible_en = ? where id = ? and intentos = ?";
+    private static final String ELIMINAR = "delete from outbox_evento where id = ? and intentos = ?";
+    private static final String POSPONER =
+            "update outbox_evento set disponible_en = ?, ultimo_error = ? where id = ? and intentos = ?";
+    private static final String DESCARTAR = "delete from outbox_evento where tipo = ? and referencia = ?";
+
+    private final EventoOutboxRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate escritura;
+    private final Duration arriendo;
+    private final Duration espera;
+    private final int tamanoLote;
+
+    public OutboxService(EventoOutboxRepository repository,
+                         JdbcTemplate jdbcTemplate,
+                         ObjectMapper objectMapper,
+                         ApplicationEventPublisher eventPublisher,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${boletas.outbox.arriendo:PT1M}") Duration arriendo,
+                         @Value("${boletas.outbox.espera-reintento:PT5S}") Duration espera,
+                         @Value("${boletas.outbox.lote:100}") int tamanoLote) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.escritura = new TransactionTemplate(transactionManager);
+        this.arriendo = arriendo;
+        this.espera = espera;
+        this.tamanoLote = tamanoLote;
+    }
+
+    /** Guarda {@code evento} para entregarlo cuando confirme la transacción en curso. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(TipoEventoOutbox tipo, Long referencia, Object evento) {
+        if (!tipo.getClase().isInstance(evento)) {
+            throw new IllegalArgumentException("El evento no corresponde al tipo " + tipo);
+        }
+        repository.save(EventoOutbox.builder()
+                .tipo(tipo)
+                .referencia(referencia)
+                .payload(serializar(evento))
+                .disponibleEn(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Elimina los eventos de {@code tipo} aún no entregados para {@code referencia}.
+     * Devuelve {@code false} si no quedaba ninguno: ya se entregaron (o se están
+     * entregando, y este DELETE esperó su commit) y hay que deshacerlos a mano.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean descartar(TipoEventoOutbox tipo, Long referencia) {
+        return jdbcTemplate.update(DESCARTAR, tipo.name(), referencia) > 0;
+    }
+
+    @Scheduled(fixedDelayString = "${boletas.outbox.intervalo:PT1S}",
+            initialDelayString = "${boletas.outbox.intervalo:PT1S}")
+    public void despachar() {
+        int lote;
+        do {
+            lote = despacharLote(LocalDateTime.now());
+        } while (lote == tamanoLote);
+    }
+
+    /** Reclama y entrega un lote; devuelve cuántas filas estaban disponibles. */
+    int despacharLote(LocalDateTime ahora) {
+        Lote lote = escritura.execute(status -> reclamar(ahora));
+        lote.reclamados().forEach(this::entregar);
+        return lote.disponibles();
+    }
+
+    private Lote reclamar(LocalDateTime ahora) {
+        List<EventoOutbox> disponibles = repository.findByDisponibleEnLessThanEqualOrderByDisponibleEnAscIdAsc(
+                ahora, Limit.of(tamanoLote));
+        if (disponibles.isEmpty()) {
+            return new Lote(0, List.of());
+        }
+        LocalDateTime finArriendo = ahora.plus(arriendo);
+        int[] actualizadas = jdbcTemplate.batchUpdate(RECLAMAR, disponibles.stream()
+                .map(evento -> new Object[] {finArriendo, evento.getId(), evento.getIntentos()})
+                .toList());
+        List<Reclamado> reclamados = new ArrayList<>(disponibles.size());
+        for (int i = 0; i < disponibles.size(); i++) {
+            // Cero filas: otra instancia lo reclamó entre nuestra lectura y el UPDATE.
+            if (actualizadas[i] > 0) {
+                EventoOutbox evento = disponibles.get(i);
+                reclamados.add(new Reclamado(evento.getId(), evento.getTipo(), evento.getPayload(),
+                        evento.getIntentos() + 1));
+            }
+        }
+        return new Lote(disponibles.size(), reclamados);
+    }
+
+    private void entregar(Reclamado reclamado) {
+        try {
+            escritura.executeWithoutResult(status -> {
+                // Si el arriendo venció y otra instancia lo reclamó, el intento ya no es nuestro.
+                if (jdbcTemplate.update(ELIMINAR, reclamado.id(), reclamado.intentos()) > 0) {
+                    eventPublisher.publishEvent(deserializar(reclamado));
+                }
+            });
+        } catch (RuntimeException e) {
+            posponer(reclamado, e);
+        }
+    }
+
+    private void posponer(Reclamado reclamado, RuntimeException causa) {
+        Duration demora = esperaPara(reclamado.intentos());
+        logger.warn("Evento de outbox {} ({}) falló en el intento {}; se reintenta en {}",
+                reclamado.id(), reclamado.tipo(), reclamado.intentos(), demora, causa);
+        String error = String.valueOf(causa.getMessage());
+        try {
+            escritura.executeWithoutResult(status -> jdbcTemplate.update(POSPONER,
+                    LocalDateTime.now().plus(demora),
+                    error.length() > LARGO_MAXIMO_ERROR ? error.substring(0, LARGO_MAXIMO_ERROR) : error,
+                    reclamado.id(), reclamado.intentos()));
+        } catch (RuntimeException e) {
+            // Sin posponer, el evento vuelve a estar disponible cuando venza el arriendo.
+            logger.warn("No se pudo posponer el evento de outbox {}", reclamado.id(), e);
+        }
+    }
+
+    /** {@code espera}, el doble en cada intento, hasta una hora. */
+    Duration esperaPara(int intentos) {
+        int exponente = Math.min(Math.max(intentos - 1, 0), 20);
+        Duration demora = espera.multipliedBy(1L << exponente);
+        return demora.compareTo(ESPERA_MAXIMA) > 0 ? ESPERA_MAXIMA : demora;
+    }
+
+    private String serializar(Object evento) {
+        try {
+            return objectMapper.writeValueAsString(evento);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo guardar el evento en el outbox", e);
+        }
+    }
+
+    private Object deserializar(Reclamado reclamado) {
+        try {
+            return objectMapper.readValue(reclamado.payload(), reclamado.tipo().getClase());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo leer el evento de outbox " + reclamado.id(), e);
+        }
+    }
+
+    private record Lote(int disponibles, List<Reclamado> reclamados) {}
+
+    private record Reclamado(Long id, TipoEventoOutbox tipo, String payload, int intentos) {}
+}
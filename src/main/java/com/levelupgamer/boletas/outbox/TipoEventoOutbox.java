@@ -0,0 +1,20 @@
+package com.levelupgamer.boletas.outbox;
+
+import com.levelupgamer.gamificacion.PuntosGanadosEvent;
+import com.levelupgamer.productos.alertas.StockCriticoEvent;
+
+/** Qué se guarda en el outbox y con qué clase se vuelve a publicar. */
+public enum TipoEventoOutbox {
+    PUNTOS_GANADOS(PuntosGanadosEvent.class),
+    STOCK_CRITICO(StockCriticoEvent.class);
+
+    private final Class<?> clase;
+
+    TipoEventoOutbox(Class<?> clase) {
+        this.clase = clase;
+    }
+
+    public Class<?> getClase() {
+        return clase;
+    }
+}
@@ -0,0 +1,119 @@
+package com.levelupgamer.common.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Caché LRU en memoria con capacidad máxima y expiración por TTL. Lleva la cuenta
+ * de aciertos, fallos, desalojos (por capacidad o TTL) e invalidaciones explícitas
+ * para poder dimensionarla a partir de las métricas.
+ */
+public class CacheAcotado<K, V> {
+
+    private final String nombre;
+    private final int capacidad;
+    private final long ttlNanos;
+    private final LongSupplier reloj;
+    private final LinkedHashMap<K, Entrada<V>> entradas;
+
+    private long aciertos;
+    private long fallos;
+    private long desalojos;
+    private long invalidaciones;
+
+    public CacheAcotado(String nombre, int capacidad, Duration ttl) {
+        this(nombre, capacidad, ttl, System::nanoTime);
+    }
+
+    CacheAcotado(String nombre, int capacidad, Duration ttl, LongSupplier reloj) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad del caché debe ser mayor a 0");
+        }
+        this.nombre = nombre;
+        this.capacidad = capacidad;
+        this.ttlNanos = ttl.toNanos();
+        this.reloj = reloj;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> eldest) {
+                if (size() > CacheAcotado.this.capacidad) {
+                    desalojos++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized Optional<V> obtener(K clave) {
+        Entrada<V> entrada = entradas.get(clave);
+        if (entrada == null) {
+            fallos++;
+            return Optional.empty();
+        }
+        if (reloj.getAsLong() - entrada.creadaEn() > ttlNanos) {
+            entradas.remove(clave);
+            desalojos++;
+            fallos++;
+            return Optional.empty();
+        }
+        aciertos++;
+        return Optional.of(entrada.valor());
+    }
+
+    public synchronized void guardar(K clave, V valor) {
+        entradas.put(clave, new Entrada<>(valor, reloj.getAsLong()));
+    }
+
+    public synchronized void invalidar(K clave) {
+        if (entradas.remove(clave) != null) {
+            invalidaciones++;
+        }
+    }
+
+    public synchronized void invalidarSi(Predicate<K> condicion) {
+        Iterator<K> claves = entradas.keySet().iterator();
+        while (claves.hasNext()) {
+            if (condicion.test(claves.next())) {
+                claves.remove();
+                invalidaciones++;
+            }
+        }
+    }
+
+    public synchronized void limpiar() {
+        invalidaciones += entradas.size();
+        entradas.clear();
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public synchronized int getTamano() {
+        return entradas.size();
+    }
+
+    public synchronized long getAciertos() {
+        return aciertos;
+    }
+
+    public synchronized long getFallos() {
+        return fallos;
+    }
+
+    public synchronized long getDesalojos() {
+        return desalojos;
+    }
+
+    public synchronized long getInvalidaciones() {
+        return invalidaciones;
+    }
+
+    private record Entrada<V>(V valor, long creadaEn) {}
+}
@@ -0,0 +1,70 @@
+package com.levelupgamer.common.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+
+/**
+ * Huella barata de un recurso para las lecturas condicionales (ETag / Last-Modified):
+ * la última modificación y la cantidad de filas que lo componen, más un alcance
+ * (parámetros de la consulta, vendedor efectivo...) cuando la misma huella sirve a
+ * respuestas distintas. Se obtiene con un agregado {@code max(updatedAt), count(*)}
+ * sin cargar las entidades o, para lo que sirve el caché del catálogo, de su versión
+ * en memoria (la cantidad es entonces la versión).
+ */
+public record Huella(LocalDateTime ultimaModificacion, Long cantidad, String alcance) {
+
+    /** Constructor usado por las consultas JPQL {@code select new ...Huella(max(x.updatedAt), count(x))}. */
+    public Huella(LocalDateTime ultimaModificacion, Long cantidad) {
+        this(ultimaModificacion, cantidad, "");
+    }
+
+    /** Huella de una sola fila cuyo contenido también depende de las marcas de sus relaciones. */
+    public static Huella de(LocalDateTime... marcas) {
+        return new Huella(null, 1L).conMarcas(marcas);
+    }
+
+    public boolean existe() {
+        return cantidad != null && cantidad > 0;
+    }
+
+    public Huella conMarcas(LocalDateTime... marcas) {
+        LocalDateTime ultima = ultimaModificacion;
+        for (LocalDateTime marca : marcas) {
+            if (marca != null && (ultima == null || marca.isAfter(ultima))) {
+                ultima = marca;
+            }
+        }
+        return new Huella(ultima, cantidad, alcance);
+    }
+
+    public Huella conAlcance(Object... partes) {
+        StringBuilder nuevo = new StringBuilder(alcance);
+        for (Object parte : partes) {
+            nuevo.append('|').append(parte);
+        }
+        return new Huella(ultimaModificacion, cantidad, nuevo.toString());
+    }
+
+    /** ETag fuerte (entre comillas) derivado de la huella completa. */
+    public String etag() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((ultimaModificacion + "#" + cantidad + "#" + alcance)
+                    .getBytes(StandardCharsets.UTF_8));
+            return '"' + HexFormat.of().formatHex(hash, 0, 16) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /** Última modificación en milisegundos de época, o {@code -1} si el recurso está vacío. */
+    public long ultimaModificacionEnMilis() {
+        return ultimaModificacion == null
+                ? -1
+                : ultimaModificacion.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,110 @@
+package com.levelupgamer.common.colecciones;
+
+import java.util.Arrays;
+
+/**
+ * Mapa {@code long -> int} con el mismo diseño que {@link MapaLongDouble}, pensado
+ * para contadores por id. No es thread-safe; quien lo use debe sincronizar.
+ */
+public class MapaLongInt {
+
+    private static final double CARGA_MAXIMA = 0.7;
+
+    private long[] claves;
+    private int[] valores;
+    private boolean[] ocupadas;
+    private int tamano;
+
+    public MapaLongInt() {
+        this(16);
+    }
+
+    public MapaLongInt(int capacidadInicial) {
+        int capacidad = Integer.highestOneBit(Math.max(capacidadInicial, 8) - 1) << 1;
+        claves = new long[capacidad];
+        valores = new int[capacidad];
+        ocupadas = new boolean[capacidad];
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public int obtener(long clave, int porDefecto) {
+        int i = buscar(clave);
+        return ocupadas[i] ? valores[i] : porDefecto;
+    }
+
+    /** Suma {@code delta} al valor de la clave (0 si no existía) y devuelve el resultado. */
+    public int sumar(long clave, int delta) {
+        int i = buscar(clave);
+        if (ocupadas[i]) {
+            valores[i] += delta;
+            return valores[i];
+        }
+        if (tamano + 1 > claves.length * CARGA_MAXIMA) {
+            redimensionar();
+            i = buscar(clave);
+        }
+        ocupadas[i] = true;
+        claves[i] = clave;
+        valores[i] = delta;
+        tamano++;
+        return delta;
+    }
+
+    public void paraCada(Consumidor consumidor) {
+        for (int i = 0; i < claves.length; i++) {
+            if (ocupadas[i]) {
+                consumidor.aceptar(claves[i], valores[i]);
+            }
+        }
+    }
+
+    public void limpiar() {
+        Arrays.fill(ocupadas, false);
+        tamano = 0;
+    }
+
+    private int buscar(long clave) {
+        int mascara = claves.length - 1;
+        int i = mezclar(clave) & mascara;
+        while (ocupadas[i] && claves[i] != clave) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    private void redimensionar() {
+        long[] clavesAnteriores = claves;
+        int[] valoresAnteriores = valores;
+        boolean[] ocupadasAnteriores = ocupadas;
+        claves = new long[clavesAnteriores.length * 2];
+        valores = new int[clavesAnteriores.length * 2];
+        ocupadas = new boolean[clavesAnteriores.length * 2];
+        for (int i = 0; i < clavesAnteriores.length; i++) {
+            if (ocupadasAnteriores[i]) {
+                int destino = buscar(clavesAnteriores[i]);
+                ocupadas[destino] = true;
+                claves[destino] = clavesAnteriores[i];
+                valores[destino] = valoresAnteriores[i];
+            }
+        }
+    }
+
+    /** Ids consecutivos quedarían agrupados con un hash identidad; se mezclan los bits (fmix64 de MurmurHash3). */
+    private static int mezclar(long clave) {
+        long h = clave;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    @FunctionalInterface
+    public interface Consumidor {
+        void aceptar(long clave, int valor);
+    }
+}
@@ -0,0 +1,58 @@
+package com.levelupgamer.common.indices;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Referencia a un índice en memoria que se mantiene con eventos y se reconstruye
+ * cada tanto desde la base. Mientras se carga el índice nuevo, los eventos se siguen
+ * aplicando al actual y además se anotan; quien reconstruye los reaplica sobre el
+ * nuevo tras publicarlo, para que lo confirmado durante la carga no se pierda en el
+ * reemplazo.
+ *
+ * @param <I> tipo del índice (debe tolerar lecturas y escrituras concurrentes)
+ * @param <E> tipo de los eventos que lo mantienen
+ */
+public class IndiceReconstruible<I, E> {
+
+    private volatile I actual;
+    private List<E> recibidos;
+
+    public IndiceReconstruible(I inicial) {
+        this.actual = inicial;
+    }
+
+    public I actual() {
+        return actual;
+    }
+
+    /** Empieza a anotar los eventos; llamar antes de leer la base para el índice nuevo. */
+    public synchronized void iniciarReconstruccion() {
+        recibidos = new ArrayList<>();
+    }
+
+    /**
+     * Anota el evento si hay una reconstrucción en curso y devuelve el índice al que
+     * hay que aplicarlo. Si el reemplazo ocurre justo después, el evento ya quedó
+     * anotado y se reaplica sobre el nuevo.
+     */
+    public synchronized I registrar(E evento) {
+        if (recibidos != null) {
+            recibidos.add(evento);
+        }
+        return actual;
+    }
+
+    /** Publica el índice nuevo y devuelve, en orden de llegada, los eventos recibidos durante la carga. */
+    public synchronized List<E> reemplazar(I nuevo) {
+        actual = nuevo;
+        List<E> pendientes = recibidos == null ? List.of() : recibidos;
+        recibidos = null;
+        return pendientes;
+    }
+
+    /** Descarta lo anotado cuando la carga falla; el índice actual sigue vigente. */
+    public synchronized void cancelarReconstruccion() {
+        recibidos = null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.levelupgamer.common.paginacion;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para paginación keyset: guarda la clave de orden, el valor de la
+ * última fila entregada y su id como desempate. Se serializa en Base64 URL-safe
+ * para que los clientes lo reenvíen tal cual en el parámetro {@code cursor}.
+ */
+public record CursorKeyset(String orden, String valor, long id) {
+
+    private static final String SEPARADOR = "\n";
+
+    public String codificar() {
+        String plano = orden + SEPARADOR + (valor != null ? valor : "") + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plano.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorKeyset decodificar(String cursor) {
+        try {
+            String plano = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = plano.split(SEPARADOR, -1);
+            if (partes.length != 3) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new CursorKeyset(partes[0], partes[1].isEmpty() ? null : partes[1], Long.parseLong(partes[2]));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException y errores de Base64 caen aquí también.
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+}
@@ -22,6 +22,11 @@ public interface FileStorageService {
 
     Optional<String> readContentIfManaged(String publicUrl) throws IOException;
 
+    /** Abre el contenido binario de un recurso gestionado; quien llama debe cerrar el stream. */
+    default Optional<InputStream> openIfManaged(String publicUrl) throws IOException {
+        return Optional.empty();
+    }
+
     default boolean deleteIfManaged(String publicUrl) throws IOException {
         return false;
     }
@@ -0,0 +1,178 @@
+package com.levelupgamer.common.storage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Listados de carpetas del almacenamiento guardados en memoria (LRU acotado), para
+ * que {@code listPublicUrls} no consulte al backend en cada petición. Cada proveedor
+ * mantiene el índice al subir y eliminar archivos, y lo reconcilia periódicamente con
+ * el backend para recoger lo que se haya escrito por fuera del servicio. Sólo se
+ * vuelven a listar las carpetas leídas desde la pasada anterior; las demás se
+ * descartan y se leen del backend la próxima vez que se pidan, así que cada pasada
+ * cuesta tantos listados como carpetas en uso, no como carpetas indexadas.
+ *
+ * <p>Las claves son rutas relativas ({@code carpeta/archivo}). Con {@code recursivo}
+ * una carpeta incluye todo lo que cuelga de ella (como un prefijo de S3); sin él,
+ * sólo sus archivos directos (como {@code Files.list}). Igual que el caché del
+ * catálogo, un listado leído del backend sólo se guarda si ninguna escritura ocurrió
+ * mientras se leía.
+ */
+class IndiceAssets {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndiceAssets.class);
+
+    @FunctionalInterface
+    interface Listador {
+        /** Devuelve URL públicas indexadas por ruta relativa. */
+        Map<String, String> listar(String carpeta) throws IOException;
+    }
+
+    private final int capacidad;
+    private final boolean recursivo;
+    private final LinkedHashMap<String, NavigableMap<String, String>> carpetas;
+    private Set<String> leidas = new HashSet<>();
+    private long version;
+    private long aciertos;
+    private long fallos;
+
+    IndiceAssets(int capacidad, boolean recursivo) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad del índice de assets debe ser mayor a 0");
+        }
+        this.capacidad = capacidad;
+        this.recursivo = recursivo;
+        this.carpetas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, NavigableMap<String, String>> eldest) {
+                return size() > IndiceAssets.this.capacidad;
+            }
+        };
+    }
+
+    List<String> listar(String carpeta, Listador listador) throws IOException {
+        long versionLectura;
+        synchronized (this) {
+            NavigableMap<String, String> indexada = carpetas.get(carpeta);
+            if (indexada != null) {
+                aciertos++;
+                leidas.add(carpeta);
+                return List.copyOf(indexada.values());
+            }
+            fallos++;
+            versionLectura = version;
+        }
+        NavigableMap<String, String> leida = new TreeMap<>(listador.listar(carpeta));
+        synchronized (this) {
+            if (version == versionLectura) {
+                carpetas.put(carpeta, leida);
+                leidas.add(carpeta);
+            }
+        }
+        return List.copyOf(leida.values());
+    }
+
+    synchronized void registrar(String clave, String url) {
+        version++;
+        for (String carpeta : carpetasQueContienen(clave)) {
+            NavigableMap<String, String> indexada = carpetas.get(carpeta);
+            if (indexada != null) {
+                indexada.put(clave, url);
+            }
+        }
+    }
+
+    synchronized void quitar(String clave) {
+        version++;
+        for (String carpeta : carpetasQueContienen(clave)) {
+            NavigableMap<String, String> indexada = carpetas.get(carpeta);
+            if (indexada != null) {
+                indexada.remove(clave);
+            }
+        }
+    }
+
+    /**
+     * Vuelve a listar en el backend las carpetas leídas desde la pasada anterior y
+     * corrige las que difieran; descarta las que nadie leyó en ese intervalo.
+     */
+    void reconciliar(Listador listador) {
+        List<String> indexadas;
+        int descartadas;
+        synchronized (this) {
+            descartadas = carpetas.size();
+            carpetas.keySet().retainAll(leidas);
+            descartadas -= carpetas.size();
+            indexadas = new ArrayList<>(carpetas.keySet());
+            leidas = new HashSet<>();
+        }
+        int corregidas = 0;
+        for (String carpeta : indexadas) {
+            long versionLectura;
+            synchronized (this) {
+                versionLectura = version;
+            }
+            NavigableMap<String, String> leida;
+            try {
+                leida = new TreeMap<>(listador.listar(carpeta));
+            } catch (IOException | RuntimeException e) {
+                logger.warn("No se pudo reconciliar la carpeta {}: {}", carpeta, e.getMessage());
+                synchronized (this) {
+                    carpetas.remove(carpeta);
+                }
+                continue;
+            }
+            synchronized (this) {
+                NavigableMap<String, String> indexada = carpetas.get(carpeta);
+                if (indexada == null) {
+                    continue;
+                }
+                if (version != versionLectura) {
+                    // Hubo escrituras durante la lectura: se descarta y se relee bajo demanda.
+                    carpetas.remove(carpeta);
+                } else if (!indexada.equals(leida)) {
+                    carpetas.put(carpeta, leida);
+                    corregidas++;
+                }
+            }
+        }
+        if (corregidas > 0 || descartadas > 0) {
+            logger.info("Índice de assets reconciliado: {} de {} carpetas corregidas, {} sin uso descartadas",
+                    corregidas, indexadas.size(), descartadas);
+        }
+    }
+
+    synchronized int getTamano() {
+        return carpetas.size();
+    }
+
+    synchronized long getAciertos() {
+        return aciertos;
+    }
+
+    synchronized long getFallos() {
+        return fallos;
+    }
+
+    private List<String> carpetasQueContienen(String clave) {
+        List<String> resultado = new ArrayList<>();
+        int separador = clave.lastIndexOf('/');
+        while (separador > 0) {
+            resultado.add(clave.substring(0, separador));
+            if (!recursivo) {
+                break;
+            }
+            separador = clave.lastIndexOf('/', separador - 1);
+        }
+        return resultado;
+    }
+}
@@ -8,13 +8,15 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -25,31 +27,43 @@ public class LocalFileStorageService implements FileStorageService {
     private final Path basePath;
     private final String publicPrefix;
     private final String publicBaseUrl;
+    private final IndiceAssets indice;
 
         public LocalFileStorageService(
             @Value("${storage.local.base-path:s3-files}") String basePath,
             @Value("${storage.local.public-url-prefix:/uploads/}") String publicPrefix,
-            @Value("${app.storage.local-base-url:}") String publicBaseUrl) throws IOException {
+            @Value("${app.storage.local-base-url:}") String publicBaseUrl,
+            @Value("${storage.indice.max-carpetas:2000}") int maxCarpetasIndice) throws IOException {
         this.basePath = Paths.get(basePath).toAbsolutePath().normalize();
         Files.createDirectories(this.basePath);
         this.publicPrefix = normalizePrefix(publicPrefix);
         this.publicBaseUrl = normalizeBaseUrl(publicBaseUrl);
+        this.indice = new IndiceAssets(maxCarpetasIndice, false);
     }
 
     @Override
     public List<String> listPublicUrls(String folder) throws IOException {
-        String sanitizedFolder = StorageKeyUtils.sanitizeFolder(folder, folder);
+        return indice.listar(StorageKeyUtils.sanitizeFolder(folder, folder), this::listFolder);
+    }
+
+    @Scheduled(initialDelayString = "${storage.indice.reconciliacion:PT10M}",
+            fixedDelayString = "${storage.indice.reconciliacion:PT10M}")
+    public void reconcileIndex() {
+        indice.reconciliar(this::listFolder);
+    }
+
+    private Map<String, String> listFolder(String sanitizedFolder) throws IOException {
         Path targetFolderPath = basePath.resolve(sanitizedFolder).normalize();
         if (!targetFolderPath.startsWith(basePath) || !Files.exists(targetFolderPath)) {
-            return Collections.emptyList();
+            return Collections.emptyMap();
         }
+        Map<String, String> urls = new LinkedHashMap<>();
         try (Stream<Path> stream = Files.list(targetFolderPath)) {
-            return stream.filter(Files::isRegularFile)
-                    .sorted()
+            stream.filter(Files::isRegularFile)
                     .map(path -> sanitizedFolder + "/" + path.getFileName())
-                    .map(this::buildPublicUrl)
-                    .collect(Collectors.toList());
+                    .forEach(relative -> urls.put(relative, buildPublicUrl(relative)));
         }
+        return urls;
     }
 
     @Override
@@ -62,7 +76,10 @@ public class LocalFileStorageService implements FileStorageService {
         String fileName = StorageKeyUtils.shortUuid() + "_" + StorageKeyUtils.sanitizeFileName(originalFileName);
         Path destination = targetFolderPath.resolve(fileName);
         Files.copy(inputStream, destination, StandardCopyOption.REPLACE_EXISTING);
-        return buildPublicUrl(targetFolder + "/" + fileName);
+        String relative = targetFolder + "/" + fileName;
+        String publicUrl = buildPublicUrl(relative);
+        indice.registrar(relative, publicUrl);
+        return publicUrl;
     }
 
     @Override
@@ -88,6 +105,22 @@ public class LocalFileStorageService implements FileStorageService {
         return Optional.of(Files.readString(candidate));
     }
 
+    @Override
+    public Optional<InputStream> openIfManaged(String publicUrl) throws IOException {
+        if (!StringUtils.hasText(publicUrl)) {
+            return Optional.empty();
+        }
+        String relative = extractRelativePath(publicUrl.trim());
+        if (relative == null) {
+            return Optional.empty();
+        }
+        Path candidate = basePath.resolve(relative).normalize();
+        if (!candidate.startsWith(basePath) || !Files.isRegularFile(candidate)) {
+            return Optional.empty();
+        }
+        return Optional.of(Files.newInputStream(candidate));
+    }
+
     @Override
     public boolean deleteIfManaged(String publicUrl) throws IOException {
         if (!StringUtils.hasText(publicUrl)) {
@@ -96,8 +129,8 @@ public class LocalFileStorageService implements FileStorageService {
 
         String normalized = publicUrl.trim();
         if (normalized.startsWith("file:")) {
-            Path target = Path.of(java.net.URI.create(normalized));
-            return Files.deleteIfExists(target);
+            Path target = Path.of(java.net.URI.create(normalized)).toAbsolutePath().normalize();
+            return deleteAndUnindex(target);
         }
 
         String relative = extractRelativePath(normalized);
@@ -109,7 +142,15 @@ public class LocalFileStorageService implements FileStorageService {
         if (!candidate.startsWith(basePath)) {
             return false;
         }
-        return Files.deleteIfExists(candidate);
+        return deleteAndUnindex(candidate);
+    }
+
+    private boolean deleteAndUnindex(Path target) throws IOException {
+        boolean deleted = Files.deleteIfExists(target);
+        if (deleted && target.startsWith(basePath)) {
+            indice.quitar(basePath.relativize(target).toString().replace('\\', '/'));
+        }
+        return deleted;
     }
 
     private String extractRelativePath(String value) {
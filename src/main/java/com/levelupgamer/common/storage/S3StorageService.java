@@ -4,10 +4,15 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Value;
+
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -31,19 +36,31 @@ public class S3StorageService implements FileStorageService {
     private static final String DEFAULT_FOLDER = "uploads";
     private final S3Client s3Client;
     private final String bucketName;
+    private final IndiceAssets indice;
 
-    public S3StorageService(S3Client s3Client, AwsStorageProperties awsStorageProperties) {
+    public S3StorageService(S3Client s3Client, AwsStorageProperties awsStorageProperties,
+            @Value("${storage.indice.max-carpetas:2000}") int maxCarpetasIndice) {
         this.s3Client = s3Client;
         String configuredBucket = awsStorageProperties.getBucketName();
         if (!StringUtils.hasText(configuredBucket)) {
             throw new IllegalStateException("aws.s3.bucket.name es obligatorio cuando storage.provider=s3");
         }
         this.bucketName = configuredBucket;
+        this.indice = new IndiceAssets(maxCarpetasIndice, true);
     }
 
     @Override
     public List<String> listPublicUrls(String folder) throws IOException {
-        String sanitizedFolder = StorageKeyUtils.sanitizeFolder(folder, folder);
+        return indice.listar(StorageKeyUtils.sanitizeFolder(folder, folder), this::listFolder);
+    }
+
+    @Scheduled(initialDelayString = "${storage.indice.reconciliacion:PT10M}",
+            fixedDelayString = "${storage.indice.reconciliacion:PT10M}")
+    public void reconcileIndex() {
+        indice.reconciliar(this::listFolder);
+    }
+
+    private Map<String, String> listFolder(String sanitizedFolder) throws IOException {
         String prefix = sanitizedFolder.endsWith("/") ? sanitizedFolder : sanitizedFolder + "/";
         try {
             ListObjectsV2Request request = ListObjectsV2Request.builder()
@@ -51,11 +68,12 @@ public class S3StorageService implements FileStorageService {
                     .prefix(prefix)
                     .build();
             ListObjectsV2Response response = s3Client.listObjectsV2(request);
-            return response.contents().stream()
+            Map<String, String> urls = new LinkedHashMap<>();
+            response.contents().stream()
                     .map(S3Object::key)
                     .filter(key -> !key.endsWith("/"))
-                    .map(key -> s3Client.utilities().getUrl(builder -> builder.bucket(bucketName).key(key)).toExternalForm())
-                    .toList();
+                    .forEach(key -> urls.put(key, publicUrl(key)));
+            return urls;
         } catch (Exception ex) {
             throw new IOException("Error al listar objetos S3 para la carpeta " + sanitizedFolder, ex);
         }
@@ -77,6 +95,12 @@ public class S3StorageService implements FileStorageService {
         }
 
         s3Client.putObject(requestBuilder.build(), RequestBody.fromInputStream(inputStream, contentLength));
+        String url = publicUrl(key);
+        indice.registrar(key, url);
+        return url;
+    }
+
+    private String publicUrl(String key) {
         return s3Client.utilities().getUrl(builder -> builder.bucket(bucketName).key(key)).toExternalForm();
     }
 
@@ -89,6 +113,23 @@ public class S3StorageService implements FileStorageService {
         return Optional.of(getFileContent(key));
     }
 
+    @Override
+    public Optional<InputStream> openIfManaged(String publicUrl) throws IOException {
+        String key = resolveKey(publicUrl);
+        if (key == null) {
+            return Optional.empty();
+        }
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build();
+        try {
+            return Optional.of(s3Client.getObject(request));
+        } catch (Exception ex) {
+            throw new IOException("Error al leer el objeto S3: " + ex.getMessage(), ex);
+        }
+    }
+
     @Override
     public boolean deleteIfManaged(String publicUrl) throws IOException {
         String key = resolveKey(publicUrl);
@@ -103,6 +144,7 @@ public class S3StorageService implements FileStorageService {
 
         try {
             s3Client.deleteObject(request);
+            indice.quitar(key);
             return true;
         } catch (Exception ex) {
             throw new IOException("Error al eliminar el objeto S3: " + ex.getMessage(), ex);
@@ -1,6 +1,7 @@
 package com.levelupgamer.contenido;
 
 import com.levelupgamer.contenido.dto.BlogDTO;
+import com.levelupgamer.common.cache.Huella;
 import com.levelupgamer.common.storage.FileStorageService;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
@@ -9,6 +10,7 @@ import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/v1/blog-posts")
@@ -23,15 +25,23 @@ public class BlogController {
     private FileStorageService fileStorageService;
 
     @GetMapping
-    public ResponseEntity<List<BlogDTO>> listarBlogs() {
-        return ResponseEntity.ok(blogService.listarBlogs());
+    public ResponseEntity<List<BlogDTO>> listarBlogs(WebRequest request) {
+        Huella huella = blogService.huellaListado();
+        if (request.checkNotModified(huella.etag(), huella.ultimaModificacionEnMilis())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(blogService.listarBlogs());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<BlogDTO> getBlog(@PathVariable Long id) {
+    public ResponseEntity<BlogDTO> getBlog(@PathVariable Long id, WebRequest request) {
+        Huella huella = blogService.huellaDe(id).orElse(null);
+        if (huella != null && request.checkNotModified(huella.etag(), huella.ultimaModificacionEnMilis())) {
+            return null;
+        }
         return blogService.buscarPorId(id)
                 .map(blogService::toDTO)
-                .map(ResponseEntity::ok)
+                .map(blog -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(blog))
                 .orElse(ResponseEntity.notFound().build());
     }
 
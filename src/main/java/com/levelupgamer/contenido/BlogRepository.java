@@ -1,7 +1,14 @@
 package com.levelupgamer.contenido;
 
+import com.levelupgamer.common.cache.Huella;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface BlogRepository extends JpaRepository<Blog, Long> {
+    @Query("select new com.levelupgamer.common.cache.Huella(max(b.updatedAt), count(b)) from Blog b")
+    Huella huella();
+
+    @Query("select new com.levelupgamer.common.cache.Huella(max(b.updatedAt), count(b)) from Blog b where b.id = :id")
+    Huella huellaDe(Long id);
 }
 
@@ -1,5 +1,6 @@
 package com.levelupgamer.contenido;
 
+import com.levelupgamer.common.cache.Huella;
 import com.levelupgamer.contenido.dto.BlogDTO;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -75,6 +76,16 @@ public class BlogService {
         return false;
     }
 
+    public Huella huellaListado() {
+        return blogRepository.huella();
+    }
+
+    public Optional<Huella> huellaDe(Long id) {
+        Objects.requireNonNull(id, "id es obligatorio");
+        Huella huella = blogRepository.huellaDe(id);
+        return huella.existe() ? Optional.of(huella.conAlcance(id)) : Optional.empty();
+    }
+
     public Optional<Blog> buscarPorId(Long id) {
         Objects.requireNonNull(id, "id es obligatorio");
         return blogRepository.findById(id);
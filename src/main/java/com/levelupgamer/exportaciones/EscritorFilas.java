@@ -0,0 +1,91 @@
+package com.levelupgamer.exportaciones;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Escribe filas ya leídas en CSV (RFC 4180: comillas sólo cuando el valor las
+ * necesita) o NDJSON, sin retener ninguna: lo que no cabe en el búfer del
+ * {@link Writer} ya salió hacia el cliente.
+ */
+class EscritorFilas implements Closeable {
+
+    private final FormatoExportacion formato;
+    private final Writer writer;
+    private final List<String> columnas;
+    private final JsonGenerator json;
+
+    EscritorFilas(FormatoExportacion formato, Writer writer, List<String> columnas, ObjectMapper objectMapper)
+            throws IOException {
+        this.formato = formato;
+        this.writer = writer;
+        this.columnas = columnas;
+        this.json = formato == FormatoExportacion.NDJSON
+                ? objectMapper.getFactory().createGenerator(writer).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                        .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                : null;
+    }
+
+    void encabezado() throws IOException {
+        if (formato == FormatoExportacion.CSV) {
+            for (int i = 0; i < columnas.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(columnas.get(i));
+            }
+            writer.write('\n');
+        }
+    }
+
+    /** {@code valores} en el orden de las columnas: {@code null}, texto, números o booleanos. */
+    void fila(Object[] valores) throws IOException {
+        if (formato == FormatoExportacion.CSV) {
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                escribirCsv(valores[i]);
+            }
+            writer.write('\n');
+            return;
+        }
+        json.writeStartObject();
+        for (int i = 0; i < valores.length; i++) {
+            json.writeFieldName(columnas.get(i));
+            json.writeObject(valores[i]);
+        }
+        json.writeEndObject();
+        // Vacía el generador en el Writer (no hacia el cliente) para que el salto quede detrás.
+        json.flush();
+        writer.write('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (json != null) {
+            json.close();
+        }
+        writer.close();
+    }
+
+    private void escribirCsv(Object valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        String texto = valor instanceof BigDecimal decimal ? decimal.toPlainString() : valor.toString();
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0
+                && texto.indexOf('\r') < 0) {
+            writer.write(texto);
+            return;
+        }
+        writer.write('"');
+        writer.write(texto.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,52 @@
+package com.levelupgamer.exportaciones;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.LocalDate;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/v1/exports")
+@Tag(name = "Exportaciones", description = "Descargas completas en CSV o NDJSON para análisis y conciliación")
+public class ExportacionController {
+
+    private final ExportacionService exportacionService;
+
+    public ExportacionController(ExportacionService exportacionService) {
+        this.exportacionService = exportacionService;
+    }
+
+    @Operation(summary = "Exportar boletas, usuarios o movimientos de puntos",
+            description = "tipo: boletas (una fila por línea), usuarios o movimientos-puntos. Las filas salen ordenadas por su id, que es siempre la primera columna; si la descarga se corta, repita la solicitud con despuesDe igual a ese id de la última línea completa. gzip=true comprime la respuesta.")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    @GetMapping("/{tipo}")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @PathVariable String tipo,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Long despuesDe,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportacionService.Exportacion exportacion =
+                exportacionService.preparar(tipo, format, desde, hasta, despuesDe, gzip);
+        MediaType tipoContenido = gzip
+                ? MediaType.parseMediaType("application/gzip")
+                : MediaType.parseMediaType(exportacion.formato().getTipoContenido() + ";charset=UTF-8");
+        return ResponseEntity.ok()
+                .contentType(tipoContenido)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(exportacion.nombreArchivo()).build().toString())
+                .body(salida -> exportacionService.escribir(exportacion, salida));
+    }
+}
@@ -0,0 +1,156 @@
+package com.levelupgamer.exportaciones;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Exportaciones completas de boletas, usuarios y movimientos de puntos. Cada una es un
+ * único SELECT de sólo avance, ordenado por su clave y leído de a
+ * {@code exportaciones.fetch-size} filas, que se escribe fila a fila en la respuesta:
+ * la memoria no depende de cuántas filas haya. La lectura corre en una transacción de
+ * sólo lectura porque el driver de PostgreSQL sólo usa cursor con autocommit
+ * desactivado, y ocupa una conexión del pool mientras dura la descarga. Si la conexión
+ * se corta, el cliente reanuda con {@code despuesDe} igual a la primera columna de la
+ * última línea completa que recibió.
+ */
+@Service
+public class ExportacionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportacionService.class);
+    private static final int BUFER_ESCRITURA = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate lectura;
+    private final int fetchSize;
+
+    public ExportacionService(JdbcTemplate jdbcTemplate,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${exportaciones.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Valida la solicitud antes de empezar a responder: una vez enviado el primer byte
+     * ya no se puede contestar con un error.
+     */
+    public Exportacion preparar(String tipo, String formato, LocalDate desde, LocalDate hasta, Long despuesDe,
+                                boolean gzip) {
+        if (desde != null && hasta != null && hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha hasta no puede ser anterior a la fecha desde");
+        }
+        if (despuesDe != null && despuesDe < 0) {
+            throw new IllegalArgumentException("despuesDe debe ser un id válido");
+        }
+        return new Exportacion(TipoExportacion.desde(tipo), FormatoExportacion.desde(formato), desde, hasta,
+                despuesDe, gzip);
+    }
+
+    public void escribir(Exportacion exportacion, OutputStream salida) throws IOException {
+        OutputStream destino = exportacion.gzip() ? new GZIPOutputStream(salida, BUFER_ESCRITURA) : salida;
+        TipoExportacion tipo = exportacion.tipo();
+        try (EscritorFilas escritor = new EscritorFilas(exportacion.formato(),
+                new BufferedWriter(new OutputStreamWriter(destino, StandardCharsets.UTF_8), BUFER_ESCRITURA),
+                tipo.getColumnas(), objectMapper)) {
+            // Al reanudar, el encabezado ya está en lo que el cliente recibió.
+            if (exportacion.despuesDe() == null) {
+                escritor.encabezado();
+            }
+            long filas = leer(exportacion, escritor);
+            logger.info("Exportación {} terminada: {} filas", tipo.getRuta(), filas);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long leer(Exportacion exportacion, EscritorFilas escritor) {
+        TipoExportacion tipo = exportacion.tipo();
+        StringBuilder sql = new StringBuilder(tipo.getSelect()).append(" where 1 = 1");
+        List<Object> parametros = new ArrayList<>();
+        if (exportacion.desde() != null) {
+            sql.append(" and ").append(tipo.getColumnaFecha()).append(" >= ?");
+            parametros.add(Timestamp.valueOf(exportacion.desde().atStartOfDay()));
+        }
+        if (exportacion.hasta() != null) {
+            sql.append(" and ").append(tipo.getColumnaFecha()).append(" < ?");
+            parametros.add(Timestamp.valueOf(exportacion.hasta().plusDays(1).atStartOfDay()));
+        }
+        if (exportacion.despuesDe() != null) {
+            sql.append(" and ").append(tipo.getColumnaClave()).append(" > ?");
+            parametros.add(exportacion.despuesDe());
+        }
+        sql.append(" order by ").append(tipo.getColumnaClave());
+
+        int columnas = tipo.getColumnas().size();
+        long[] filas = {0};
+        lectura.executeWithoutResult(status -> jdbcTemplate.query(conexion -> {
+            PreparedStatement sentencia = conexion.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            sentencia.setFetchSize(fetchSize);
+            for (int i = 0; i < parametros.size(); i++) {
+                sentencia.setObject(i + 1, parametros.get(i));
+            }
+            return sentencia;
+        }, rs -> {
+            Object[] valores = new Object[columnas];
+            for (int i = 0; i < columnas; i++) {
+                valores[i] = valor(rs, i + 1);
+            }
+            try {
+                escritor.fila(valores);
+            } catch (IOException e) {
+                // Casi siempre el cliente cortó: no tiene sentido seguir leyendo.
+                throw new UncheckedIOException(e);
+            }
+            filas[0]++;
+        }));
+        return filas[0];
+    }
+
+    /** Fechas en ISO-8601, como en el resto de la API. */
+    private static Object valor(ResultSet rs, int columna) throws SQLException {
+        Object valor = rs.getObject(columna);
+        if (valor instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        if (valor instanceof Date fecha) {
+            return fecha.toLocalDate().toString();
+        }
+        return valor;
+    }
+
+    /** Solicitud ya validada; {@code despuesDe} es la clave de la última fila recibida al reanudar. */
+    public record Exportacion(TipoExportacion tipo, FormatoExportacion formato, LocalDate desde, LocalDate hasta,
+                              Long despuesDe, boolean gzip) {
+
+        public String nombreArchivo() {
+            return tipo.getRuta() + formato.getExtension() + (gzip ? ".gz" : "");
+        }
+    }
+}
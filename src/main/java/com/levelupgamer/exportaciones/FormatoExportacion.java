@@ -0,0 +1,39 @@
+package com.levelupgamer.exportaciones;
+
+/**
+ * Formatos de exportación. El CSV lleva encabezado salvo al reanudar; en NDJSON cada
+ * línea es un objeto con los mismos nombres de columna.
+ */
+public enum FormatoExportacion {
+    CSV("text/csv", ".csv"),
+    NDJSON("application/x-ndjson", ".ndjson");
+
+    private final String tipoContenido;
+    private final String extension;
+
+    FormatoExportacion(String tipoContenido, String extension) {
+        this.tipoContenido = tipoContenido;
+        this.extension = extension;
+    }
+
+    public String getTipoContenido() {
+        return tipoContenido;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /** Resuelve el parámetro {@code format}; sin él, CSV. */
+    public static FormatoExportacion desde(String parametro) {
+        if (parametro == null || parametro.isBlank()) {
+            return CSV;
+        }
+        for (FormatoExportacion formato : values()) {
+            if (formato.name().equalsIgnoreCase(parametro.trim())) {
+                return formato;
+            }
+        }
+        throw new IllegalArgumentException("Formato de exportación no soportado: " + parametro + ". Use csv o ndjson");
+    }
+}
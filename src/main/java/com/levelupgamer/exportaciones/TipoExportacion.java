@@ -0,0 +1,79 @@
+package com.levelupgamer.exportaciones;
+
+import java.util.List;
+
+/**
+ * Qué se puede exportar. Cada tipo es un SELECT cuyas columnas salen en el orden de
+ * {@code columnas}; la primera es siempre la clave por la que se ordena y se reanuda,
+ * y {@code columnaFecha} es la que acota el rango de fechas.
+ */
+public enum TipoExportacion {
+    /** Una fila por línea de boleta, con los datos de la boleta repetidos. */
+    BOLETAS("boletas",
+            "select d.id, b.id, b.fecha, b.estado, b.usuario_id, u.correo, d.producto_id, p.codigo, p.nombre, "
+                    + "d.cantidad, d.precio_unitario, d.subtotal, b.total_antes_descuentos, b.total, "
+                    + "b.descuento_duoc_aplicado, b.descuento_cupon_aplicado, c.codigo "
+                    + "from boleta_detalle d join boleta b on b.id = d.boleta_id "
+                    + "join usuario u on u.id = b.usuario_id join producto p on p.id = d.producto_id "
+                    + "left join cupon c on c.id = b.cupon_id",
+            "d.id", "b.fecha",
+            List.of("detalle_id", "boleta_id", "fecha", "estado", "usuario_id", "correo", "producto_id",
+                    "producto_codigo", "producto_nombre", "cantidad", "precio_unitario", "subtotal",
+                    "total_antes_descuentos", "total", "descuento_duoc", "descuento_cupon", "cupon_codigo")),
+    /** Sin contraseña ni dirección. */
+    USUARIOS("usuarios",
+            "select u.id, u.run, u.nombre, u.apellidos, u.correo, u.fecha_nacimiento, u.region, u.comuna, "
+                    + "u.is_duoc_user, u.codigo_referido, u.activo, u.created_at from usuario u",
+            "u.id", "u.created_at",
+            List.of("id", "run", "nombre", "apellidos", "correo", "fecha_nacimiento", "region", "comuna",
+                    "duoc", "codigo_referido", "activo", "created_at")),
+    MOVIMIENTOS_PUNTOS("movimientos-puntos",
+            "select m.id, m.puntos_usuario_id, m.tipo, m.puntos_afectados, m.descripcion, m.created_at "
+                    + "from movimiento_puntos m",
+            "m.id", "m.created_at",
+            List.of("id", "usuario_id", "tipo", "puntos", "descripcion", "created_at"));
+
+    private final String ruta;
+    private final String select;
+    private final String columnaClave;
+    private final String columnaFecha;
+    private final List<String> columnas;
+
+    TipoExportacion(String ruta, String select, String columnaClave, String columnaFecha, List<String> columnas) {
+        this.ruta = ruta;
+        this.select = select;
+        this.columnaClave = columnaClave;
+        this.columnaFecha = columnaFecha;
+        this.columnas = columnas;
+    }
+
+    public String getRuta() {
+        return ruta;
+    }
+
+    String getSelect() {
+        return select;
+    }
+
+    String getColumnaClave() {
+        return columnaClave;
+    }
+
+    String getColumnaFecha() {
+        return columnaFecha;
+    }
+
+    List<String> getColumnas() {
+        return columnas;
+    }
+
+    public static TipoExportacion desde(String ruta) {
+        for (TipoExportacion tipo : values()) {
+            if (tipo.ruta.equalsIgnoreCase(ruta)) {
+                return tipo;
+            }
+        }
+        throw new IllegalArgumentException("Exportación desconocida: " + ruta
+                + ". Use boletas, usuarios o movimientos-puntos");
+    }
+}
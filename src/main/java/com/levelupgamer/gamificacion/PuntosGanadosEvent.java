@@ -0,0 +1,9 @@
+package com.levelupgamer.gamificacion;
+
+/**
+ * Puntos que una boleta le otorga a su comprador. Llega desde el outbox de boletas
+ * una vez confirmada la venta, dentro de la transacción que retira la fila del
+ * outbox: si acreditarlos falla, la fila vuelve a entregarse más tarde.
+ */
+public record PuntosGanadosEvent(Long usuarioId, int puntos, Long boletaId) {
+}
@@ -4,6 +4,7 @@ import com.levelupgamer.gamificacion.dto.PuntosDTO;
 import com.levelupgamer.usuarios.Usuario;
 import com.levelupgamer.usuarios.UsuarioRepository;
 import java.util.Objects;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,7 +35,18 @@ public class PuntosService {
     public PuntosDTO sumarPuntos(PuntosDTO dto) {
         Long usuarioId = Objects.requireNonNull(dto.getUsuarioId(), "usuarioId es requerido");
         Integer puntosASumar = Objects.requireNonNull(dto.getPuntosAcumulados(), "puntosAcumulados es requerido");
+        return acreditar(usuarioId, puntosASumar, "Suma directa de puntos");
+    }
+
+    /** Acredita los puntos de una boleta confirmada; lo publica el outbox de boletas. */
+    @EventListener
+    @Transactional
+    public void alGanarPuntos(PuntosGanadosEvent evento) {
+        Long usuarioId = Objects.requireNonNull(evento.usuarioId(), "usuarioId es requerido");
+        acreditar(usuarioId, evento.puntos(), "Compra boleta #" + evento.boletaId());
+    }
 
+    private PuntosDTO acreditar(Long usuarioId, Integer puntosASumar, String descripcion) {
         Puntos puntos = puntosRepository.findByUsuarioId(usuarioId)
                 .orElseGet(() -> {
                     
@@ -49,8 +61,7 @@ public class PuntosService {
 
         puntos.setPuntosAcumulados(puntos.getPuntosAcumulados() + puntosASumar);
         Puntos savedPuntos = puntosRepository.save(puntos);
-        registrarMovimiento(savedPuntos, puntosASumar, TipoMovimientoPuntos.GANANCIA,
-                "Suma directa de puntos");
+        registrarMovimiento(savedPuntos, puntosASumar, TipoMovimientoPuntos.GANANCIA, descripcion);
 
         return new PuntosDTO(savedPuntos.getUsuarioId(), savedPuntos.getPuntosAcumulados());
     }
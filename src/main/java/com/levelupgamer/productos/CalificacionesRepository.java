@@ -0,0 +1,82 @@
+package com.levelupgamer.productos;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Escrituras de {@link ResumenCalificaciones}. Cada reseña ajusta la fila del producto
+ * con un único UPDATE relativo (el bloqueo de fila serializa las reseñas concurrentes
+ * del mismo producto) y toca {@code producto.updated_at} para que ETag y cachés del
+ * catálogo vean el cambio. Si la fila no existe (productos cargados por JDBC antes de
+ * que existiera la tabla) se reconstruye desde las reseñas con la fila del producto
+ * bloqueada: dos primeras reseñas simultáneas no insertan la misma clave, la segunda
+ * espera a la primera y ajusta la fila que ésta dejó.
+ */
+@Repository
+public class CalificacionesRepository {
+
+    private static final String AJUSTAR = "update " + ResumenCalificaciones.TABLA + " set "
+            + "cantidad = cantidad + ?, suma = suma + ?, "
+            + "promedio = case when cantidad + ? > 0 then round(cast(suma + ? as decimal(12, 2)) / (cantidad + ?), 2) else 0 end, "
+            + "estrellas_1 = estrellas_1 + case when ? = 1 then ? else 0 end, "
+            + "estrellas_2 = estrellas_2 + case when ? = 2 then ? else 0 end, "
+            + "estrellas_3 = estrellas_3 + case when ? = 3 then ? else 0 end, "
+            + "estrellas_4 = estrellas_4 + case when ? = 4 then ? else 0 end, "
+            + "estrellas_5 = estrellas_5 + case when ? = 5 then ? else 0 end "
+            + "where producto_id = ?";
+    private static final String RECONSTRUIR = "insert into " + ResumenCalificaciones.TABLA
+            + " (producto_id, cantidad, suma, promedio, estrellas_1, estrellas_2, estrellas_3, estrellas_4, estrellas_5) "
+            + "select ?, count(*), coalesce(sum(calificacion), 0), "
+            + "coalesce(round(avg(cast(calificacion as decimal(12, 2))), 2), 0), "
+            + "coalesce(sum(case when calificacion = 1 then 1 else 0 end), 0), "
+            + "coalesce(sum(case when calificacion = 2 then 1 else 0 end), 0), "
+            + "coalesce(sum(case when calificacion = 3 then 1 else 0 end), 0), "
+            + "coalesce(sum(case when calificacion = 4 then 1 else 0 end), 0), "
+            + "coalesce(sum(case when calificacion = 5 then 1 else 0 end), 0) "
+            + "from resena where producto_id = ?";
+    private static final String ELIMINAR = "delete from " + ResumenCalificaciones.TABLA + " where producto_id = ?";
+    private static final String TOCAR_PRODUCTO = "update producto set updated_at = ? where id = ?";
+    private static final String BLOQUEAR_PRODUCTO = "select id from producto where id = ? for update";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CalificacionesRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Suma (o resta, con {@code alta = false}) una reseña de {@code calificacion} estrellas. */
+    public void registrar(Long productoId, int calificacion, boolean alta) {
+        if (calificacion < 1 || calificacion > 5) {
+            throw new IllegalArgumentException("La calificación debe estar entre 1 y 5");
+        }
+        int signo = alta ? 1 : -1;
+        if (ajustar(productoId, calificacion, signo) == 0) {
+            bloquearProducto(productoId);
+            // Con el bloqueo tomado, la fila que otra reseña haya confirmado ya es visible.
+            if (ajustar(productoId, calificacion, signo) == 0) {
+                reconstruir(productoId);
+            }
+        }
+        jdbcTemplate.update(TOCAR_PRODUCTO, Timestamp.valueOf(LocalDateTime.now()), productoId);
+    }
+
+    /** Recalcula la fila del producto a partir de sus reseñas; las pendientes de flush no se ven. */
+    public void reconstruir(Long productoId) {
+        bloquearProducto(productoId);
+        jdbcTemplate.update(ELIMINAR, productoId);
+        jdbcTemplate.update(RECONSTRUIR, productoId, productoId);
+    }
+
+    private int ajustar(Long productoId, int calificacion, int signo) {
+        return jdbcTemplate.update(AJUSTAR, signo, signo * calificacion,
+                signo, signo * calificacion, signo,
+                calificacion, signo, calificacion, signo, calificacion, signo, calificacion, signo, calificacion, signo,
+                productoId);
+    }
+
+    private void bloquearProducto(Long productoId) {
+        jdbcTemplate.queryForList(BLOQUEAR_PRODUCTO, Long.class, productoId);
+    }
+}
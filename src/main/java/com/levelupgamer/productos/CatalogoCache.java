@@ -0,0 +1,207 @@
+package com.levelupgamer.productos;
+
+import com.levelupgamer.common.cache.CacheAcotado;
+import com.levelupgamer.common.cache.Huella;
+import com.levelupgamer.productos.dto.ProductoDTO;
+import com.levelupgamer.productos.dto.ProductoFiltro;
+import com.levelupgamer.productos.dto.ProductoPaginaDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Caché de lecturas del catálogo: productos por id, páginas del listado agrupadas
+ * por categoría y destacados. Lo guardado es una copia profunda con listas y mapas
+ * inmodificables que nunca sale del caché: cada lectura recibe su propia copia, así
+ * que ningún llamador puede alterar lo que leen los demás. Las categorías viven en
+ * {@link com.levelupgamer.productos.categorias.RegistroCategorias}.
+ *
+ * <p>Cada {@link CatalogoModificadoEvent} incrementa la versión del catálogo y
+ * desaloja lo afectado dos veces: al publicarse (para que nadie lea lo anterior
+ * dentro de la transacción de escritura) y al terminar la transacción (para
+ * descartar lo que otra petición haya cargado mientras tanto). Un valor sólo se
+ * guarda si la versión no cambió mientras se cargaba.
+ *
+ * <p>Las huellas del listado y de los destacados salen de esa misma versión, sin ir
+ * a la base: cada alcance recuerda la versión y el momento de su último cambio. Llevan
+ * además un id de esta instancia, porque la versión se reinicia al arrancar.
+ */
+@Component
+public class CatalogoCache implements MeterBinder {
+
+    private static final String CLAVE_DESTACADOS = "destacados";
+
+    private final CacheAcotado<Long, ProductoDTO> productos;
+    private final CacheAcotado<ProductoFiltro, ProductoPaginaDTO> listados;
+    private final CacheAcotado<String, List<ProductoDTO>> destacados;
+    private final AtomicLong version = new AtomicLong();
+    private final Object lock = new Object();
+    private final String instancia = UUID.randomUUID().toString();
+    private final Map<Long, Cambio> cambiosPorCategoria = new ConcurrentHashMap<>();
+    private volatile Cambio ultimoCambio = new Cambio(0, LocalDateTime.now());
+    private volatile Cambio ultimoCambioGeneral = ultimoCambio;
+
+    public CatalogoCache(@Value("${catalogo.cache.max-productos:5000}") int maxProductos,
+                         @Value("${catalogo.cache.max-listados:1000}") int maxListados,
+                         @Value("${catalogo.cache.ttl:PT10M}") Duration ttl) {
+        this.productos = new CacheAcotado<>("catalogo.productos", maxProductos, ttl);
+        this.listados = new CacheAcotado<>("catalogo.listados", maxListados, ttl);
+        this.destacados = new CacheAcotado<>("catalogo.destacados", 16, ttl);
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public Optional<ProductoDTO> producto(Long id, Supplier<Optional<ProductoDTO>> cargador) {
+        Optional<ProductoDTO> cacheado = productos.obtener(id);
+        if (cacheado.isPresent()) {
+            return cacheado.map(CatalogoCache::copiar);
+        }
+        long versionLectura = version.get();
+        Optional<ProductoDTO> cargado = cargador.get();
+        cargado.ifPresent(dto -> guardarSiVigente(productos, id, copiar(dto), versionLectura));
+        return cargado;
+    }
+
+    /** La clave debe ser un filtro ya normalizado y que nadie vuelva a modificar. */
+    public ProductoPaginaDTO listado(ProductoFiltro clave, Supplier<ProductoPaginaDTO> cargador) {
+        return obtenerOCargar(listados, clave, cargador, CatalogoCache::copiar);
+    }
+
+    public List<ProductoDTO> destacados(Supplier<List<ProductoDTO>> cargador) {
+        return obtenerOCargar(destacados, CLAVE_DESTACADOS, cargador, CatalogoCache::copiar);
+    }
+
+    /** Huella de los listados filtrados por {@code categoriaId} (o de todos, si es {@code null}). */
+    public Huella huellaListado(Long categoriaId) {
+        Cambio cambio = ultimoCambio;
+        if (categoriaId != null) {
+            Cambio general = ultimoCambioGeneral;
+            Cambio deCategoria = cambiosPorCategoria.get(categoriaId);
+            cambio = deCategoria != null && deCategoria.version() > general.version() ? deCategoria : general;
+        }
+        return cambio.huella(instancia);
+    }
+
+    public Huella huellaDestacados() {
+        return ultimoCambio.huella(instancia);
+    }
+
+    @EventListener
+    public void alPublicarse(CatalogoModificadoEvent evento) {
+        invalidar(evento);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void alCompletarseTransaccion(CatalogoModificadoEvent evento) {
+        invalidar(evento);
+    }
+
+    void invalidar(CatalogoModificadoEvent evento) {
+        synchronized (lock) {
+            Cambio cambio = new Cambio(version.incrementAndGet(), LocalDateTime.now());
+            ultimoCambio = cambio;
+            destacados.limpiar();
+            if (evento.esCambioDeCategoria()) {
+                ultimoCambioGeneral = cambio;
+                productos.limpiar();
+                listados.limpiar();
+                return;
+            }
+            evento.categoriaIds().forEach(categoriaId -> cambiosPorCategoria.put(categoriaId, cambio));
+            evento.productoIds().forEach(productos::invalidar);
+            listados.invalidarSi(filtro -> filtro.getCategoriaId() == null
+                    || evento.categoriaIds().contains(filtro.getCategoriaId()));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (CacheAcotado<?, ?> cache : List.of(productos, listados, destacados)) {
+            FunctionCounter.builder("cache.gets", cache, CacheAcotado::getAciertos)
+                    .tag("cache", cache.getNombre()).tag("result", "hit").register(registry);
+            FunctionCounter.builder("cache.gets", cache, CacheAcotado::getFallos)
+                    .tag("cache", cache.getNombre()).tag("result", "miss").register(registry);
+            FunctionCounter.builder("cache.evictions", cache, CacheAcotado::getDesalojos)
+                    .tag("cache", cache.getNombre()).register(registry);
+            FunctionCounter.builder("cache.invalidations", cache, CacheAcotado::getInvalidaciones)
+                    .tag("cache", cache.getNombre()).register(registry);
+            Gauge.builder("cache.size", cache, CacheAcotado::getTamano)
+                    .tag("cache", cache.getNombre()).register(registry);
+        }
+        Gauge.builder("catalogo.version", version, AtomicLong::get).register(registry);
+    }
+
+    /** {@code copiar} separa lo guardado de lo entregado, en ambos sentidos. */
+    private <K, V> V obtenerOCargar(CacheAcotado<K, V> cache, K clave, Supplier<V> cargador,
+                                    UnaryOperator<V> copiar) {
+        Optional<V> cacheado = cache.obtener(clave);
+        if (cacheado.isPresent()) {
+            return copiar.apply(cacheado.get());
+        }
+        long versionLectura = version.get();
+        V cargado = cargador.get();
+        guardarSiVigente(cache, clave, copiar.apply(cargado), versionLectura);
+        return cargado;
+    }
+
+    private <K, V> void guardarSiVigente(CacheAcotado<K, V> cache, K clave, V valor, long versionLectura) {
+        synchronized (lock) {
+            if (version.get() == versionLectura) {
+                cache.guardar(clave, valor);
+            }
+        }
+    }
+
+    private static ProductoPaginaDTO copiar(ProductoPaginaDTO pagina) {
+        return pagina.toBuilder().items(copiar(pagina.getItems())).build();
+    }
+
+    private static List<ProductoDTO> copiar(List<ProductoDTO> productos) {
+        return productos == null ? null : productos.stream().map(CatalogoCache::copiar).toList();
+    }
+
+    private static ProductoDTO copiar(ProductoDTO dto) {
+        return dto.toBuilder()
+                .imagenes(inmodificable(dto.getImagenes()))
+                .imagenVariantes(dto.getImagenVariantes() == null ? null
+                        : Collections.unmodifiableMap(new LinkedHashMap<>(dto.getImagenVariantes())))
+                .categoria(dto.getCategoria() == null ? null : dto.getCategoria().toBuilder().build())
+                .calificaciones(dto.getCalificaciones() == null ? null : dto.getCalificaciones().toBuilder()
+                        .histograma(inmodificable(dto.getCalificaciones().getHistograma()))
+                        .build())
+                .vendedor(dto.getVendedor() == null ? null : dto.getVendedor().toBuilder().build())
+                .build();
+    }
+
+    private static <T> List<T> inmodificable(List<T> lista) {
+        return lista == null ? null : Collections.unmodifiableList(new ArrayList<>(lista));
+    }
+
+    private record Cambio(long version, LocalDateTime momento) {
+
+        Huella huella(String instancia) {
+            return new Huella(momento, version, instancia);
+        }
+    }
+}
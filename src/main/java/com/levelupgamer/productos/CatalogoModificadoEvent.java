@@ -0,0 +1,85 @@
+package com.levelupgamer.productos;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Se publica en cada escritura que altera lo que ve el catálogo (alta, edición,
+ * baja o cambio de stock de productos, y cambios de categorías). Un evento sin
+ * productos indica un cambio de categoría que afecta a todo el catálogo;
+ * {@code soloStock} marca los movimientos de inventario del checkout, que no
+ * tocan nombre, precio ni categoría. {@code disponible} lleva, cuando se conoce, el
+ * {@code stock - stockReservado} resultante de esos movimientos (lo mismo que muestra
+ * {@code ProductoDTO.stockDisponible}), para que los índices en memoria se actualicen
+ * sin volver a leer los productos.
+ */
+public record CatalogoModificadoEvent(Set<Long> productoIds, Set<Long> categoriaIds, boolean soloStock,
+                                      Map<Long, Integer> disponible) {
+
+    public CatalogoModificadoEvent {
+        productoIds = Set.copyOf(productoIds);
+        categoriaIds = Set.copyOf(categoriaIds);
+        disponible = Map.copyOf(disponible);
+    }
+
+    public CatalogoModificadoEvent(Set<Long> productoIds, Set<Long> categoriaIds, boolean soloStock) {
+        this(productoIds, categoriaIds, soloStock, Map.of());
+    }
+
+    public static CatalogoModificadoEvent deProductos(Collection<Producto> productos) {
+        return deProductos(productos, false, Map.of());
+    }
+
+    /**
+     * @param disponible disponible actual por producto, leído de la base tras el movimiento:
+     *                   las entidades no lo reflejan porque stock y reservas sólo cambian
+     *                   con UPDATE relativos.
+     */
+    public static CatalogoModificadoEvent deStock(Collection<Producto> productos, Map<Long, Integer> disponible) {
+        return deProductos(productos, true, disponible);
+    }
+
+    private static CatalogoModificadoEvent deProductos(Collection<Producto> productos, boolean soloStock,
+                                                       Map<Long, Integer> disponible) {
+        Set<Long> productoIds = new HashSet<>();
+        Set<Long> categoriaIds = new HashSet<>();
+        for (Producto producto : productos) {
+            if (producto.getId() != null) {
+                productoIds.add(producto.getId());
+            }
+            if (producto.getCategoria() != null && producto.getCategoria().getId() != null) {
+                categoriaIds.add(producto.getCategoria().getId());
+            }
+        }
+        Map<Long, Integer> disponibleDeProductos = new HashMap<>(disponible);
+        disponibleDeProductos.keySet().retainAll(productoIds);
+        return new CatalogoModificadoEvent(productoIds, categoriaIds, soloStock, disponibleDeProductos);
+    }
+
+    public static CatalogoModificadoEvent deProducto(Long productoId, Long... categoriaIds) {
+        Set<Long> categorias = new HashSet<>();
+        for (Long categoriaId : categoriaIds) {
+            if (categoriaId != null) {
+                categorias.add(categoriaId);
+            }
+        }
+        return new CatalogoModificadoEvent(Set.of(Objects.requireNonNull(productoId)), categorias, false);
+    }
+
+    public static CatalogoModificadoEvent deCategoria(Long categoriaId) {
+        return new CatalogoModificadoEvent(Set.of(), Set.of(Objects.requireNonNull(categoriaId)), false);
+    }
+
+    /** Cambio visible en todo el catálogo que no es de un producto ni de una categoría (p. ej. un vendedor). */
+    public static CatalogoModificadoEvent deTodoElCatalogo() {
+        return new CatalogoModificadoEvent(Set.of(), Set.of(), false);
+    }
+
+    public boolean esCambioDeCategoria() {
+        return productoIds.isEmpty();
+    }
+}
@@ -7,14 +7,19 @@ import com.levelupgamer.validation.StepValue;
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrimaryKeyJoinColumn;
+import jakarta.persistence.SecondaryTable;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -23,6 +28,7 @@ import jakarta.validation.constraints.Size;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -39,6 +45,15 @@ import lombok.Builder;
 @Builder
 @Entity
 @EntityListeners(AuditingEntityListener.class)
+@Table(indexes = {
+        @Index(name = "idx_producto_categoria", columnList = "categoria_id, id"),
+        @Index(name = "idx_producto_vendedor", columnList = "usuario_id, id"),
+        @Index(name = "idx_producto_precio", columnList = "precio, id"),
+        @Index(name = "idx_producto_puntos", columnList = "puntos_level_up, id"),
+        @Index(name = "idx_producto_created_at", columnList = "created_at, id")
+})
+@SecondaryTable(name = ResumenCalificaciones.TABLA, pkJoinColumns = @PrimaryKeyJoinColumn(name = "producto_id"),
+        indexes = @Index(name = "idx_producto_calificacion_promedio", columnList = "promedio, producto_id"))
 public class Producto {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -62,11 +77,24 @@ public class Producto {
     @DecimalMin("0.0")
     private BigDecimal precio;
 
-    @Column(nullable = false)
+    /**
+     * Sólo se escribe con UPDATE relativos o explícitos (ventas, anulaciones, ajustes y
+     * {@link ProductoRepository#fijarStock}); un flush de la entidad nunca pisa el stock
+     * que otra transacción acaba de descontar.
+     */
+    @Column(nullable = false, updatable = false)
     @NotNull
     @Min(0)
     private Integer stock;
 
+    /**
+     * Unidades retenidas por reservas vigentes; el disponible para quien no reservó es
+     * {@code stock - stockReservado}. Como el stock, sólo lo mueven UPDATE relativos.
+     */
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    @Builder.Default
+    private Integer stockReservado = 0;
+
     @Min(0)
     private Integer stockCritico;
 
@@ -83,10 +111,18 @@ public class Producto {
     private Integer puntosLevelUp = 0;
 
     @ElementCollection(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @CollectionTable(name = "producto_imagenes", joinColumns = @JoinColumn(name = "producto_id"))
     @Column(name = "imagen_url")
     private List<String> imagenes;
 
+    @Embedded
+    private VariantesImagen variantes;
+
+    @Embedded
+    @Builder.Default
+    private ResumenCalificaciones calificaciones = new ResumenCalificaciones();
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "usuario_id", nullable = false, updatable = false)
     @NotNull
@@ -1,25 +1,40 @@
 package com.levelupgamer.productos;
 
+import com.levelupgamer.common.cache.Huella;
+import com.levelupgamer.productos.busqueda.ProductoBusquedaService;
+import com.levelupgamer.productos.dto.AjusteInventarioRequest;
+import com.levelupgamer.productos.dto.AjusteInventarioRespuestaDTO;
+import com.levelupgamer.productos.dto.ProductoBusquedaDTO;
 import com.levelupgamer.productos.dto.ProductoDTO;
+import com.levelupgamer.productos.dto.ProductoFiltro;
+import com.levelupgamer.productos.dto.ProductoPaginaDTO;
 import com.levelupgamer.productos.dto.ProductoRequest;
+import com.levelupgamer.productos.imagenes.VariantesImagenService;
+import com.levelupgamer.productos.inventario.AjusteInventarioService;
+import com.levelupgamer.productos.ranking.ModoRanking;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import java.io.IOException;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 @RestController
@@ -29,26 +44,83 @@ public class ProductoController {
     @Autowired
     private ProductoService productoService;
 
+    @Autowired
+    private ProductoBusquedaService productoBusquedaService;
+
+    @Autowired
+    private AjusteInventarioService ajusteInventarioService;
+
+    @Autowired
+    private VariantesImagenService variantesImagenService;
+
     @Operation(summary = "Listar productos",
-            description = "Admins/Clientes ven el catálogo completo. Vendedores sólo ven los productos cuyo vendedor coincide con su sesión.")
+            description = "Listado paginado por cursor (keyset). Filtros: categoriaId, precioMin, precioMax, activo, vendedorId. "
+                    + "Orden: sort=precio|puntosLevelUp|createdAt|id y direction=asc|desc. Reenvíe siguienteCursor en el parámetro cursor para la página siguiente. "
+                    + "Con facets=true incluye conteos por categoría, tramo de precio, puntos LevelUp y stock para los filtros aplicados. "
+                    + "Admins/Clientes ven el catálogo completo. Vendedores sólo ven los productos cuyo vendedor coincide con su sesión. "
+                    + "Responde con ETag y Last-Modified; con If-None-Match vigente devuelve 304 sin cuerpo.")
     @GetMapping
-    public ResponseEntity<List<ProductoDTO>> listarProductos() {
-        return ResponseEntity.ok(productoService.listarProductos());
+    public ResponseEntity<ProductoPaginaDTO> listarProductos(@ModelAttribute ProductoFiltro filtro, WebRequest request) {
+        Huella huella = productoService.huellaListado(filtro);
+        if (request.checkNotModified(huella.etag(), huella.ultimaModificacionEnMilis())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(productoService.listarProductos(filtro));
+    }
+
+    @Operation(summary = "Buscar productos",
+            description = "Búsqueda de texto libre sobre nombre, descripción, código y categoría. Ignora tildes y mayúsculas, tolera errores de tipeo y ordena por relevancia (BM25).")
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductoBusquedaDTO>> buscarProductos(@RequestParam("q") String consulta,
+                                                                     @RequestParam(name = "size", required = false) Integer size) {
+        return ResponseEntity.ok(productoBusquedaService.buscar(consulta, size));
     }
 
+    @Operation(summary = "Productos destacados",
+            description = "mode=points (por defecto) ordena por puntos LevelUp; mode=sales por unidades vendidas; "
+                    + "mode=trending por ventas recientes con decaimiento exponencial.")
     @GetMapping("/featured")
-    public ResponseEntity<List<ProductoDTO>> listarDestacados() {
-        return ResponseEntity.ok(productoService.listarDestacados());
+    public ResponseEntity<List<ProductoDTO>> listarDestacados(@RequestParam(name = "mode", required = false) String mode,
+                                                              WebRequest request) {
+        ModoRanking modo = ModoRanking.desdeParametro(mode);
+        Huella huella = productoService.huellaDestacados(modo);
+        if (request.checkNotModified(huella.etag(), huella.ultimaModificacionEnMilis())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(productoService.listarDestacados(modo));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProductoDTO> getProducto(@PathVariable Long id) {
-        return productoService.buscarPorId(id)
-                .map(ProductoMapper::toDTO)
+    public ResponseEntity<ProductoDTO> getProducto(@PathVariable Long id, WebRequest request) {
+        Huella huella = productoService.huellaDetalle(id).orElse(null);
+        if (huella != null && request.checkNotModified(huella.etag(), huella.ultimaModificacionEnMilis())) {
+            return null;
+        }
+        return productoService.buscarDTOPorId(id)
+                .map(producto -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(producto))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Comprados juntos",
+            description = "Productos que más se compran en la misma boleta que el indicado.")
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<ProductoDTO>> listarRelacionados(@PathVariable Long id,
+                                                                @RequestParam(required = false) Integer limit) {
+        return productoService.listarRelacionados(id, limit)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @Operation(summary = "Sugerencias para un carrito",
+            description = "Productos que más se compran junto a los indicados, excluyéndolos.")
+    @GetMapping("/related")
+    public ResponseEntity<List<ProductoDTO>> listarRelacionadosDeVarios(@RequestParam List<Long> ids,
+                                                                        @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productoService.listarRelacionados(ids, limit));
+    }
+
     @GetMapping("/{id}/assets")
     public ResponseEntity<List<String>> listarAssets(@PathVariable Long id) {
         return productoService.listarAssets(id)
@@ -72,11 +144,30 @@ public class ProductoController {
     @PutMapping("/{id}")
         public ResponseEntity<ProductoDTO> actualizarProducto(@PathVariable Long id, @Valid @RequestBody ProductoRequest producto) {
         return productoService.actualizarProducto(id, producto)
-                .map(ProductoMapper::toDTO)
+                .map(productoService::toDTO)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+        @Operation(summary = "Ajustar inventario en lote",
+            description = "Aplica ajustes de stock (delta) y precio por código de producto y devuelve el resultado de cada uno. Un vendedor sólo afecta sus propios productos.")
+        @PreAuthorize("hasAnyRole('ADMINISTRADOR','VENDEDOR')")
+    @PatchMapping("/inventory")
+    public ResponseEntity<AjusteInventarioRespuestaDTO> ajustarInventario(@RequestBody List<AjusteInventarioRequest> ajustes) {
+        return ResponseEntity.ok(ajusteInventarioService.aplicar(ajustes));
+    }
+
+        @Operation(summary = "Regenerar variantes de imagen",
+            description = "Recorre el catálogo en segundo plano y genera las miniaturas que falten o estén desactualizadas.")
+        @PreAuthorize("hasRole('ADMINISTRADOR')")
+    @PostMapping("/images/backfill")
+    public ResponseEntity<Void> regenerarVariantesImagen() {
+        if (!variantesImagenService.iniciarBackfill()) {
+            throw new IllegalStateException("Ya hay una regeneración de variantes en curso");
+        }
+        return ResponseEntity.accepted().build();
+    }
+
         @Operation(summary = "Eliminar producto",
             description = "Elimina definitivamente el producto y sus recursos asociados. Los vendedores sólo pueden operar sobre su inventario y nunca sobre LevelUp.")
         @PreAuthorize("hasAnyRole('ADMINISTRADOR','VENDEDOR')")
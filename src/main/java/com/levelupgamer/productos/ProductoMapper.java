@@ -1,14 +1,26 @@
 package com.levelupgamer.productos;
 
+import com.levelupgamer.productos.categorias.Categoria;
 import com.levelupgamer.productos.categorias.CategoriaMapper;
+import com.levelupgamer.productos.dto.CategoriaDTO;
+import com.levelupgamer.productos.dto.CalificacionesDTO;
 import com.levelupgamer.productos.dto.ProductoDTO;
 import com.levelupgamer.productos.dto.VendedorResumenDTO;
 import com.levelupgamer.usuarios.RolUsuario;
 import com.levelupgamer.usuarios.Usuario;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 public class ProductoMapper {
     public static ProductoDTO toDTO(Producto p) {
+        return toDTO(p, CategoriaMapper::toDTO);
+    }
+
+    /** {@code categorias} resuelve el DTO de la categoría, p. ej. desde el registro en memoria. */
+    public static ProductoDTO toDTO(Producto p, Function<Categoria, CategoriaDTO> categorias) {
         ProductoDTO dto = new ProductoDTO();
         dto.setId(p.getId());
         dto.setCodigo(p.getCodigo());
@@ -16,15 +28,44 @@ public class ProductoMapper {
         dto.setDescripcion(p.getDescripcion());
         dto.setPrecio(p.getPrecio());
         dto.setStock(p.getStock());
+        dto.setStockDisponible(p.getStock() == null ? null
+                : p.getStock() - (p.getStockReservado() != null ? p.getStockReservado() : 0));
         dto.setStockCritico(p.getStockCritico());
-        dto.setCategoria(CategoriaMapper.toDTO(p.getCategoria()));
+        dto.setCategoria(categorias.apply(p.getCategoria()));
         dto.setPuntosLevelUp(p.getPuntosLevelUp());
         dto.setImagenes(p.getImagenes());
+        dto.setImagenVariantes(buildVariantes(p));
         dto.setActivo(p.getActivo());
+        dto.setCalificaciones(buildCalificaciones(p.getCalificaciones()));
         dto.setVendedor(buildVendedorDTO(p.getVendedor()));
         return dto;
     }
 
+    private static CalificacionesDTO buildCalificaciones(ResumenCalificaciones resumen) {
+        if (resumen == null || resumen.getCantidad() == null) {
+            return CalificacionesDTO.builder()
+                    .promedio(BigDecimal.ZERO)
+                    .cantidad(0)
+                    .histograma(List.of(0, 0, 0, 0, 0))
+                    .build();
+        }
+        return CalificacionesDTO.builder()
+                .promedio(resumen.getPromedio())
+                .cantidad(resumen.getCantidad())
+                .histograma(List.of(resumen.getEstrellas1(), resumen.getEstrellas2(), resumen.getEstrellas3(),
+                        resumen.getEstrellas4(), resumen.getEstrellas5()))
+                .build();
+    }
+
+    private static Map<String, String> buildVariantes(Producto p) {
+        List<String> imagenes = p.getImagenes();
+        VariantesImagen variantes = p.getVariantes();
+        if (variantes == null || imagenes == null || imagenes.isEmpty() || !variantes.vigentePara(imagenes.get(0))) {
+            return null;
+        }
+        return variantes.comoMapa();
+    }
+
     private static VendedorResumenDTO buildVendedorDTO(Usuario vendedor) {
         if (vendedor == null) {
             return null;
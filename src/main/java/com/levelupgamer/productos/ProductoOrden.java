@@ -0,0 +1,71 @@
+package com.levelupgamer.productos;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Claves de orden soportadas por el listado paginado del catálogo. Cada clave
+ * sabe extraer y reconstruir su valor para armar el cursor keyset; el id siempre
+ * actúa como desempate para que el orden sea total.
+ */
+public enum ProductoOrden {
+    ID("id", Producto::getId, Long::valueOf),
+    PRECIO("precio", Producto::getPrecio, BigDecimal::new),
+    PUNTOS("puntosLevelUp", Producto::getPuntosLevelUp, Integer::valueOf),
+    RECIENTES("createdAt", Producto::getCreatedAt, LocalDateTime::parse),
+    CALIFICACION("calificaciones.promedio",
+            p -> p.getCalificaciones() != null ? p.getCalificaciones().getPromedio() : null, BigDecimal::new);
+
+    private final String atributo;
+    private final Function<Producto, ? extends Comparable<?>> extractor;
+    private final Function<String, ? extends Comparable<?>> parser;
+
+    ProductoOrden(String atributo,
+                  Function<Producto, ? extends Comparable<?>> extractor,
+                  Function<String, ? extends Comparable<?>> parser) {
+        this.atributo = atributo;
+        this.extractor = extractor;
+        this.parser = parser;
+    }
+
+    public String getAtributo() {
+        return atributo;
+    }
+
+    public static ProductoOrden desdeParametro(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return ID;
+        }
+        for (ProductoOrden orden : values()) {
+            if (orden.atributo.equalsIgnoreCase(valor.trim()) || orden.name().equalsIgnoreCase(valor.trim())) {
+                return orden;
+            }
+        }
+        throw new IllegalArgumentException("Orden no soportado: " + valor + ". Use precio, puntosLevelUp, createdAt, calificacion o id");
+    }
+
+    /** Clave que identifica orden y dirección dentro del cursor. */
+    String claveCursor(boolean descendente) {
+        return atributo + (descendente ? ":desc" : ":asc");
+    }
+
+    String valorCursor(Producto producto) {
+        Comparable<?> valor = extractor.apply(producto);
+        if (valor instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return valor != null ? valor.toString() : null;
+    }
+
+    Comparable<?> parsearValor(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return parser.apply(valor);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+}
@@ -1,13 +1,75 @@
 package com.levelupgamer.productos;
 
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
-public interface ProductoRepository extends JpaRepository<Producto, Long> {
+/**
+ * Las lecturas que terminan en {@link ProductoMapper#toDTO} traen el vendedor en el
+ * mismo SELECT y la categoría sale de
+ * {@link com.levelupgamer.productos.categorias.RegistroCategorias} sin tocar el proxy;
+ * imágenes y roles del vendedor se cargan por lotes ({@code @BatchSize}), así que
+ * mapear N productos cuesta un número fijo de sentencias.
+ */
+public interface ProductoRepository extends JpaRepository<Producto, Long>, JpaSpecificationExecutor<Producto> {
     Optional<Producto> findByCodigo(String codigo);
     boolean existsByCodigo(String codigo);
+
+    @EntityGraph(attributePaths = { "vendedor" })
     List<Producto> findTop5ByActivoTrueOrderByPuntosLevelUpDesc();
-    List<Producto> findByVendedorId(Long vendedorId);
-}
 
+    @EntityGraph(attributePaths = { "vendedor" })
+    Optional<Producto> findConRelacionesById(Long id);
+
+    @EntityGraph(attributePaths = { "categoria" })
+    List<Producto> findByActivoTrue();
+
+    @EntityGraph(attributePaths = { "categoria" })
+    List<Producto> findByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = { "categoria" })
+    List<Producto> findByCategoriaId(Long categoriaId);
+
+    @Query("select p.codigo from Producto p where p.codigo in :codigos")
+    Set<String> findCodigosExistentes(Collection<String> codigos);
+
+    /** Marcas de tiempo de todo lo que muestra el detalle de un producto activo. */
+    @Query("select new com.levelupgamer.productos.ProductoRepository$MarcasProducto(p.updatedAt, c.updatedAt, v.updatedAt) "
+            + "from Producto p left join p.categoria c join p.vendedor v where p.id = :id and p.activo = true")
+    Optional<MarcasProducto> findMarcasById(Long id);
+
+    /** Recorre por id los productos con imágenes, para regenerar sus variantes por tandas. */
+    @Query("select p.id from Producto p where p.id > :desde and p.imagenes is not empty order by p.id")
+    List<Long> findIdsConImagenesDesde(Long desde, Limit limite);
+
+    /**
+     * Guarda las variantes sólo si el origen guardado sigue siendo {@code origenLeido}
+     * ({@code ""} si no había variantes): si otra generación las reemplazó entretanto,
+     * devuelve 0 y no pisa lo más reciente con variantes de una imagen anterior.
+     */
+    @Modifying
+    @Query("update Producto p set p.variantes.origen = :origen, p.variantes.miniatura = :miniatura, "
+            + "p.variantes.tarjeta = :tarjeta, p.variantes.detalle = :detalle, p.updatedAt = :ahora "
+            + "where p.id = :id and coalesce(p.variantes.origen, '') = :origenLeido")
+    int actualizarVariantes(Long id, String origenLeido, String origen, String miniatura, String tarjeta, String detalle,
+                            LocalDateTime ahora);
+
+    /**
+     * Fija el stock absoluto que pidió un administrador o vendedor; {@code stock} no se escribe
+     * desde la entidad. Devuelve 0 si el nuevo stock no cubre las unidades reservadas.
+     */
+    @Modifying
+    @Query("update Producto p set p.stock = :stock, p.updatedAt = :ahora where p.id = :id and p.stockReservado <= :stock")
+    int fijarStock(Long id, int stock, LocalDateTime ahora);
+
+    record MarcasProducto(LocalDateTime producto, LocalDateTime categoria, LocalDateTime vendedor) {
+    }
+}
@@ -1,19 +1,37 @@
 package com.levelupgamer.productos;
 
+import com.levelupgamer.common.cache.Huella;
+import com.levelupgamer.common.paginacion.CursorKeyset;
 import com.levelupgamer.common.storage.FileStorageService;
+import com.levelupgamer.productos.alertas.StockCriticoEvent;
 import com.levelupgamer.productos.categorias.Categoria;
 import com.levelupgamer.productos.categorias.CategoriaRepository;
+import com.levelupgamer.productos.categorias.RegistroCategorias;
 import com.levelupgamer.productos.dto.ProductoDTO;
+import com.levelupgamer.productos.facetas.FacetasService;
+import com.levelupgamer.productos.imagenes.VariantesImagenService;
+import com.levelupgamer.productos.ranking.ModoRanking;
+import com.levelupgamer.productos.ranking.RankingVentasService;
+import com.levelupgamer.productos.relacionados.CoocurrenciasService;
+import com.levelupgamer.productos.dto.ProductoFiltro;
+import com.levelupgamer.productos.dto.ProductoPaginaDTO;
 import com.levelupgamer.productos.dto.ProductoRequest;
 import com.levelupgamer.usuarios.RolUsuario;
 import com.levelupgamer.usuarios.Usuario;
 import com.levelupgamer.usuarios.UsuarioRepository;
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -29,14 +47,94 @@ import org.springframework.util.StringUtils;
 @SuppressWarnings("null")
 public class ProductoService {
 
-    private static final String PRODUCT_IMAGE_FOLDER = "products";
+    public static final String PRODUCT_IMAGE_FOLDER = "products";
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+    static final int LIMITE_DESTACADOS = 5;
+    static final int DEFAULT_RELACIONADOS = 8;
+    static final int MAX_RELACIONADOS = 20;
+    static final int MAX_IDS_RELACIONADOS = 50;
     private final ProductoRepository productoRepository;
     private final FileStorageService fileStorageService;
     private final CategoriaRepository categoriaRepository;
+    private final RegistroCategorias registroCategorias;
     private final UsuarioRepository usuarioRepository;
+    private final CatalogoCache catalogoCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FacetasService facetasService;
+    private final RankingVentasService rankingVentasService;
+    private final CoocurrenciasService coocurrenciasService;
 
     @Transactional(readOnly = true)
-    public List<ProductoDTO> listarProductos() {
+    public ProductoPaginaDTO listarProductos(ProductoFiltro filtro) {
+        ProductoFiltro criterio = filtro != null ? filtro : new ProductoFiltro();
+        Long vendedorId = resolverVendedorDelListado(criterio);
+
+        ProductoOrden orden = ProductoOrden.desdeParametro(criterio.getSort());
+        boolean descendente = esDescendente(criterio.getDirection());
+        int tamano = normalizarTamanoPagina(criterio.getSize());
+
+        Comparable<?> valorCursor = null;
+        Long idCursor = null;
+        if (StringUtils.hasText(criterio.getCursor())) {
+            CursorKeyset cursor = CursorKeyset.decodificar(criterio.getCursor());
+            if (!orden.claveCursor(descendente).equals(cursor.orden())) {
+                throw new IllegalArgumentException("El cursor no corresponde al orden solicitado");
+            }
+            valorCursor = orden.parsearValor(cursor.valor());
+            idCursor = cursor.id();
+        }
+
+        // El filtro normalizado (con el vendedor efectivo) es también la clave del caché.
+        ProductoFiltro clave = ProductoFiltro.builder()
+                .categoriaId(criterio.getCategoriaId())
+                .precioMin(criterio.getPrecioMin())
+                .precioMax(criterio.getPrecioMax())
+                .activo(criterio.getActivo())
+                .vendedorId(vendedorId)
+                .sort(orden.name())
+                .direction(descendente ? "desc" : "asc")
+                .cursor(criterio.getCursor())
+                .size(tamano)
+                .build();
+        Comparable<?> valor = valorCursor;
+        Long id = idCursor;
+        ProductoPaginaDTO pagina = catalogoCache.listado(clave, () -> cargarPagina(clave, orden, descendente, valor, id, tamano));
+        if (!Boolean.TRUE.equals(criterio.getFacets())) {
+            return pagina;
+        }
+        // El caché entrega una copia propia de la página: se le pueden agregar las facetas.
+        pagina.setFacetas(facetasService.contar(clave));
+        return pagina;
+    }
+
+    /**
+     * Huella del listado para las lecturas condicionales. Sigue la versión del
+     * {@link CatalogoCache} para la categoría pedida (sin consultas, también cuando la
+     * página sale del caché) y se acota a los parámetros recibidos y al vendedor
+     * efectivo, que para un vendedor es siempre su propia sesión. Con facetas sigue la
+     * versión de todo el catálogo: los conteos por categoría no respetan el filtro de
+     * categoría, así que un cambio en cualquiera de ellas altera la respuesta.
+     */
+    @Transactional(readOnly = true)
+    public Huella huellaListado(ProductoFiltro filtro) {
+        ProductoFiltro criterio = filtro != null ? filtro : new ProductoFiltro();
+        Long categoriaId = Boolean.TRUE.equals(criterio.getFacets()) ? null : criterio.getCategoriaId();
+        return catalogoCache.huellaListado(categoriaId)
+                .conAlcance(criterio, resolverVendedorDelListado(criterio));
+    }
+
+    public Huella huellaDestacados(ModoRanking modo) {
+        return catalogoCache.huellaDestacados().conAlcance("destacados", modo);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Huella> huellaDetalle(Long id) {
+        return productoRepository.findMarcasById(id)
+                .map(marcas -> Huella.de(marcas.producto(), marcas.categoria(), marcas.vendedor()).conAlcance(id));
+    }
+
+    private Long resolverVendedorDelListado(ProductoFiltro criterio) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         boolean isAuthenticated = authentication != null
                 && authentication.isAuthenticated()
@@ -44,17 +142,33 @@ public class ProductoService {
         boolean isAdmin = isAuthenticated && hasRole(authentication, RolUsuario.ADMINISTRADOR);
         boolean isVendor = isAuthenticated && hasRole(authentication, RolUsuario.VENDEDOR);
 
-        List<Producto> productos;
         if (isAuthenticated && isVendor && !isAdmin) {
-            Usuario vendedor = resolveCurrentUser(authentication);
-            productos = productoRepository.findByVendedorId(vendedor.getId());
-        } else {
-            productos = productoRepository.findAll();
+            return resolveCurrentUser(authentication).getId();
+        }
+        return criterio.getVendedorId();
+    }
+
+    private ProductoPaginaDTO cargarPagina(ProductoFiltro filtro, ProductoOrden orden, boolean descendente,
+                                           Comparable<?> valorCursor, Long idCursor, int tamano) {
+        Specification<Producto> spec = ProductoSpecifications.listado(filtro, orden, descendente, valorCursor, idCursor);
+        // El orden va en la especificación: Sort no admite ubicar los nulos en consultas Criteria.
+        List<Producto> productos = productoRepository.findBy(spec,
+                query -> query.project("vendedor").limit(tamano + 1).all());
+
+        boolean hayMas = productos.size() > tamano;
+        List<Producto> pagina = hayMas ? productos.subList(0, tamano) : productos;
+        String siguienteCursor = null;
+        if (hayMas) {
+            Producto ultimo = pagina.get(pagina.size() - 1);
+            siguienteCursor = new CursorKeyset(orden.claveCursor(descendente), orden.valorCursor(ultimo), ultimo.getId())
+                    .codificar();
         }
 
-        return productos.stream()
-                .map(ProductoMapper::toDTO)
-                .collect(Collectors.toList());
+        return ProductoPaginaDTO.builder()
+                .items(pagina.stream().map(this::toDTO).collect(Collectors.toList()))
+                .siguienteCursor(siguienteCursor)
+                .hayMas(hayMas)
+                .build();
     }
 
     @Transactional
@@ -95,12 +209,25 @@ public class ProductoService {
 
         producto.setActivo(true);
         Producto guardado = productoRepository.save(producto);
-        return ProductoMapper.toDTO(guardado);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deProductos(List.of(guardado)));
+        StockCriticoEvent.detectar(guardado.getId(), null, guardado.getStock(), guardado.getStockCritico())
+                .ifPresent(eventPublisher::publishEvent);
+        return toDTO(guardado);
     }
 
     @Transactional(readOnly = true)
     public Optional<Producto> buscarPorId(Long id) {
-        return productoRepository.findById(id).filter(Producto::getActivo);
+        return productoRepository.findConRelacionesById(id).filter(Producto::getActivo);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ProductoDTO> buscarDTOPorId(Long id) {
+        return catalogoCache.producto(id, () -> buscarPorId(id).map(this::toDTO));
+    }
+
+    /** La categoría del DTO sale del {@link RegistroCategorias}, no de la asociación. */
+    public ProductoDTO toDTO(Producto producto) {
+        return ProductoMapper.toDTO(producto, registroCategorias::dtoDe);
     }
 
     @Transactional
@@ -112,6 +239,9 @@ public class ProductoService {
 
         return productoRepository.findById(id).map(producto -> {
             validarPermisosSobreProducto(producto, usuarioActual, isAdmin, isVendor);
+            Long categoriaAnteriorId = producto.getCategoria() != null ? producto.getCategoria().getId() : null;
+            Integer stockAnterior = producto.getStock();
+            Integer stockCriticoAnterior = producto.getStockCritico();
             producto.setNombre(request.getNombre());
             producto.setDescripcion(request.getDescripcion());
             producto.setPrecio(request.getPrecio());
@@ -125,18 +255,73 @@ public class ProductoService {
             if (request.getImagenes() != null) {
                 producto.setImagenes(request.getImagenes());
             }
-            
-            
             productoRepository.save(producto);
+            if (!Objects.equals(stockAnterior, producto.getStock())
+                    && productoRepository.fijarStock(producto.getId(), producto.getStock(), LocalDateTime.now()) == 0) {
+                throw new IllegalArgumentException("El stock no puede quedar por debajo de las unidades reservadas");
+            }
+            eventPublisher.publishEvent(CatalogoModificadoEvent.deProducto(producto.getId(), categoriaAnteriorId,
+                    producto.getCategoria() != null ? producto.getCategoria().getId() : null));
+            StockCriticoEvent.detectar(producto.getId(), stockAnterior, stockCriticoAnterior,
+                    producto.getStock(), producto.getStockCritico()).ifPresent(eventPublisher::publishEvent);
             return producto;
         });
     }
 
     @Transactional(readOnly = true)
-    public List<ProductoDTO> listarDestacados() {
-        return productoRepository.findTop5ByActivoTrueOrderByPuntosLevelUpDesc().stream()
-                .map(ProductoMapper::toDTO)
-                .collect(Collectors.toList());
+    public List<ProductoDTO> listarDestacados(ModoRanking modo) {
+        List<ProductoDTO> porPuntos = catalogoCache.destacados(() -> productoRepository.findTop5ByActivoTrueOrderByPuntosLevelUpDesc().stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList()));
+        if (modo == ModoRanking.PUNTOS) {
+            return porPuntos;
+        }
+
+        // Se piden ids de sobra por si alguno fue desactivado; cada DTO sale del caché por id.
+        List<ProductoDTO> destacados = new ArrayList<>(LIMITE_DESTACADOS);
+        Set<Long> incluidos = new HashSet<>();
+        for (Long id : rankingVentasService.top(modo, LIMITE_DESTACADOS * 2)) {
+            buscarDTOPorId(id).ifPresent(dto -> {
+                destacados.add(dto);
+                incluidos.add(id);
+            });
+            if (destacados.size() == LIMITE_DESTACADOS) {
+                return destacados;
+            }
+        }
+        // Con pocas ventas registradas se completa con los destacados por puntos.
+        for (ProductoDTO dto : porPuntos) {
+            if (destacados.size() == LIMITE_DESTACADOS) {
+                break;
+            }
+            if (incluidos.add(dto.getId())) {
+                destacados.add(dto);
+            }
+        }
+        return destacados;
+    }
+
+    /**
+     * Sin transacción propia: la matriz está en memoria y los DTO salen del caché por
+     * id, así que una consulta caliente no toca la base.
+     */
+    public Optional<List<ProductoDTO>> listarRelacionados(Long id, Integer limit) {
+        int limite = normalizarLimiteRelacionados(limit);
+        if (buscarDTOPorId(id).isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(cargarRelacionados(coocurrenciasService.relacionados(id, limite * 2), limite));
+    }
+
+    public List<ProductoDTO> listarRelacionados(List<Long> ids, Integer limit) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos un producto");
+        }
+        if (ids.size() > MAX_IDS_RELACIONADOS) {
+            throw new IllegalArgumentException("Se admiten como máximo " + MAX_IDS_RELACIONADOS + " productos");
+        }
+        int limite = normalizarLimiteRelacionados(limit);
+        return cargarRelacionados(coocurrenciasService.relacionados(ids, limite * 2), limite);
     }
 
     @Transactional(readOnly = true)
@@ -155,15 +340,56 @@ public class ProductoService {
         return productoRepository.findById(id).map(producto -> {
             validarPermisosSobreProducto(producto, usuarioActual, isAdmin, isVendor);
             eliminarImagenes(producto.getImagenes());
+            if (producto.getVariantes() != null) {
+                eliminarImagenes(new ArrayList<>(producto.getVariantes().comoMapa().values()));
+            }
+            CatalogoModificadoEvent evento = CatalogoModificadoEvent.deProductos(List.of(producto));
             productoRepository.delete(producto);
+            eventPublisher.publishEvent(evento);
             return true;
         }).orElse(false);
     }
 
-    public void verificarStockCritico(Producto producto) {
-        if (producto.getStock() != null && producto.getStockCritico() != null && producto.getStock() <= producto.getStockCritico()) {
-            System.out.println("ALERTA: Stock crítico para producto " + producto.getNombre());
+    // Se piden ids de sobra por si alguno fue desactivado, como en los destacados.
+    private List<ProductoDTO> cargarRelacionados(List<Long> ids, int limite) {
+        List<ProductoDTO> relacionados = new ArrayList<>(limite);
+        for (Long relacionadoId : ids) {
+            buscarDTOPorId(relacionadoId).ifPresent(relacionados::add);
+            if (relacionados.size() == limite) {
+                break;
+            }
+        }
+        return relacionados;
+    }
+
+    private int normalizarLimiteRelacionados(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_RELACIONADOS;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("El límite debe ser mayor a 0");
+        }
+        return Math.min(limit, MAX_RELACIONADOS);
+    }
+
+    private int normalizarTamanoPagina(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor a 0");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private boolean esDescendente(String direction) {
+        if (direction == null || direction.isBlank() || "asc".equalsIgnoreCase(direction.trim())) {
+            return false;
+        }
+        if ("desc".equalsIgnoreCase(direction.trim())) {
+            return true;
         }
+        throw new IllegalArgumentException("Dirección de orden inválida: " + direction + ". Use asc o desc");
     }
 
     private int normalizarPuntos(Integer puntos) {
@@ -180,8 +406,8 @@ public class ProductoService {
         if (categoriaId == null) {
             throw new IllegalArgumentException("Debe especificar una categoría válida (categoriaId)");
         }
-        return categoriaRepository.findById(categoriaId)
-                .filter(Categoria::getActivo)
+        return registroCategorias.buscarActiva(categoriaId)
+                .map(categoria -> categoriaRepository.getReferenceById(categoria.getId()))
                 .orElseThrow(() -> new IllegalArgumentException("Categoría no encontrada o inactiva"));
     }
 
@@ -271,7 +497,11 @@ public class ProductoService {
             if (producto == null || !StringUtils.hasText(producto.getCodigo())) {
                 return Collections.emptyList();
             }
-            return fileStorageService.listPublicUrls(PRODUCT_IMAGE_FOLDER + "/" + producto.getCodigo());
+            String carpeta = PRODUCT_IMAGE_FOLDER + "/" + producto.getCodigo();
+            String carpetaVariantes = "/" + carpeta + "/" + VariantesImagenService.CARPETA_VARIANTES + "/";
+            return fileStorageService.listPublicUrls(carpeta).stream()
+                    .filter(url -> !url.contains(carpetaVariantes))
+                    .toList();
         } catch (IOException e) {
             throw new IllegalStateException("No se pudieron listar los assets del producto " + producto.getCodigo(), e);
         }
@@ -0,0 +1,96 @@
+package com.levelupgamer.productos;
+
+import com.levelupgamer.productos.dto.ProductoFiltro;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.query.NullPrecedence;
+import org.hibernate.query.criteria.JpaOrder;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Predicados y orden del listado de catálogo. Los filtros usan las columnas indexadas
+ * en {@link Producto} y el cursor se traduce a una condición keyset
+ * {@code (clave, id) > (valor, ultimoId)} para evitar OFFSET. Una clave nula (producto
+ * sin calificación) va siempre al final, en ambas direcciones: el orden lo dice
+ * explícito porque cada base tiene su propio default, y el cursor lo respeta.
+ */
+final class ProductoSpecifications {
+
+    private ProductoSpecifications() {
+    }
+
+    static Specification<Producto> listado(ProductoFiltro filtro, ProductoOrden orden, boolean descendente,
+                                           Comparable<?> valorCursor, Long idCursor) {
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+            if (filtro.getCategoriaId() != null) {
+                predicados.add(cb.equal(root.get("categoria").get("id"), filtro.getCategoriaId()));
+            }
+            if (filtro.getPrecioMin() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("precio"), filtro.getPrecioMin()));
+            }
+            if (filtro.getPrecioMax() != null) {
+                predicados.add(cb.lessThanOrEqualTo(root.get("precio"), filtro.getPrecioMax()));
+            }
+            if (filtro.getActivo() != null) {
+                predicados.add(cb.equal(root.get("activo"), filtro.getActivo()));
+            }
+            if (filtro.getVendedorId() != null) {
+                predicados.add(cb.equal(root.get("vendedor").get("id"), filtro.getVendedorId()));
+            }
+            if (idCursor != null) {
+                predicados.add(despuesDe(root, cb, orden, descendente, valorCursor, idCursor));
+            }
+            if (!Long.class.equals(query.getResultType())) {
+                query.orderBy(ordenar(root, cb, orden, descendente));
+            }
+            return cb.and(predicados.toArray(new Predicate[0]));
+        };
+    }
+
+    private static List<Order> ordenar(Root<Producto> root, CriteriaBuilder cb, ProductoOrden orden,
+                                       boolean descendente) {
+        Order porId = descendente ? cb.desc(root.get("id")) : cb.asc(root.get("id"));
+        if (orden == ProductoOrden.ID) {
+            return List.of(porId);
+        }
+        Expression<?> clave = clave(root, orden);
+        JpaOrder porClave = (JpaOrder) (descendente ? cb.desc(clave) : cb.asc(clave));
+        return List.of(porClave.nullPrecedence(NullPrecedence.LAST), porId);
+    }
+
+    /**
+     * Filas posteriores al cursor con las nulas al final: tras un valor, las de clave
+     * mayor (o menor), las empatadas de id posterior y todas las nulas; tras una nula,
+     * sólo las nulas de id posterior.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate despuesDe(Root<Producto> root, CriteriaBuilder cb, ProductoOrden orden,
+                                       boolean descendente, Comparable valor, Long id) {
+        Expression<Long> idExpr = root.get("id");
+        Predicate porId = descendente ? cb.lessThan(idExpr, id) : cb.greaterThan(idExpr, id);
+        if (orden == ProductoOrden.ID) {
+            return porId;
+        }
+        Expression<Comparable> clave = (Expression<Comparable>) clave(root, orden);
+        if (valor == null) {
+            return cb.and(cb.isNull(clave), porId);
+        }
+        Predicate porClave = descendente ? cb.lessThan(clave, valor) : cb.greaterThan(clave, valor);
+        return cb.or(porClave, cb.and(cb.equal(clave, valor), porId), cb.isNull(clave));
+    }
+
+    private static Expression<?> clave(Root<Producto> root, ProductoOrden orden) {
+        Path<?> ruta = root;
+        for (String atributo : orden.getAtributo().split("\\.")) {
+            ruta = ruta.get(atributo);
+        }
+        return ruta;
+    }
+}
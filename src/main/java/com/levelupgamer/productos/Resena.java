@@ -16,6 +16,10 @@ import java.time.LocalDateTime;
 @Builder
 @Entity
 @EntityListeners(AuditingEntityListener.class)
+@Table(indexes = {
+        @Index(name = "idx_resena_producto_fecha", columnList = "producto_id, created_at, id"),
+        @Index(name = "idx_resena_producto_calificacion", columnList = "producto_id, calificacion, id")
+})
 public class Resena {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
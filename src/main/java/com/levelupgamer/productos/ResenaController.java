@@ -1,6 +1,7 @@
 package com.levelupgamer.productos;
 
 import com.levelupgamer.productos.dto.ResenaDTO;
+import com.levelupgamer.productos.dto.ResenaPaginaDTO;
 import com.levelupgamer.usuarios.Usuario;
 import com.levelupgamer.usuarios.UsuarioRepository;
 import jakarta.validation.Valid;
@@ -10,9 +11,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @RestController
 @RequestMapping("/api/v1")
 public class ResenaController {
@@ -46,17 +44,11 @@ public class ResenaController {
     }
 
     @GetMapping("/products/{productId}/reviews")
-    public ResponseEntity<List<ResenaDTO>> listarResenas(@PathVariable Long productId) {
-        List<Resena> resenas = resenaService.listarResenasPorProducto(productId);
-        List<ResenaDTO> dtos = resenas.stream().map(r -> ResenaDTO.builder()
-                .id(r.getId())
-                .texto(r.getTexto())
-                .calificacion(r.getCalificacion())
-                .nombreUsuario(r.getUsuario().getNombre() + " " + r.getUsuario().getApellidos())
-                .productoId(r.getProducto().getId())
-                .createdAt(r.getCreatedAt())
-                .build()).collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<ResenaPaginaDTO> listarResenas(@PathVariable Long productId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(resenaService.listarResenas(productId, sort, cursor, size));
     }
     
     @PreAuthorize("hasAnyRole('CLIENTE', 'ADMINISTRADOR')")
@@ -0,0 +1,39 @@
+package com.levelupgamer.productos;
+
+import java.time.LocalDateTime;
+
+/**
+ * Órdenes del listado de reseñas de un producto. Cada uno pagina por keyset sobre
+ * {@code (clave, id)} en la misma dirección, apoyado en los índices
+ * {@code (producto_id, clave, id)} de {@link Resena}.
+ */
+public enum ResenaOrden {
+    RECIENTES("newest"),
+    MEJORES("highest"),
+    PEORES("lowest");
+
+    /** Fecha que queda por encima de cualquier reseña, para la primera página. */
+    static final LocalDateTime SIN_FECHA = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private final String parametro;
+
+    ResenaOrden(String parametro) {
+        this.parametro = parametro;
+    }
+
+    public String getParametro() {
+        return parametro;
+    }
+
+    public static ResenaOrden desdeParametro(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return RECIENTES;
+        }
+        for (ResenaOrden orden : values()) {
+            if (orden.parametro.equalsIgnoreCase(valor.trim()) || orden.name().equalsIgnoreCase(valor.trim())) {
+                return orden;
+            }
+        }
+        throw new IllegalArgumentException("Orden de reseñas no soportado: " + valor + ". Use newest, highest o lowest");
+    }
+}
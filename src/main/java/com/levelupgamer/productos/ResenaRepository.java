@@ -1,8 +1,44 @@
 package com.levelupgamer.productos;
 
+import java.time.LocalDateTime;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import java.util.List;
 
+/**
+ * Las páginas de reseñas se leen como {@link ResenaResumen}: un único SELECT con el
+ * nombre del autor y la marca de compra verificada (una subconsulta por clave primaria
+ * sobre {@code compra_verificada}), sin cargar {@code Usuario} ni {@code Producto}. Cada orden recibe
+ * la última fila entregada como cursor; la primera página usa un cursor centinela que
+ * queda antes de cualquier reseña.
+ */
 public interface ResenaRepository extends JpaRepository<Resena, Long> {
-    List<Resena> findByProductoId(Long productoId);
+    String COMPRA_VERIFICADA = "case when exists (select 1 from CompraVerificada c "
+            + "where c.usuarioId = u.id and c.productoId = r.producto.id) then true else false end";
+
+    @Query("select new com.levelupgamer.productos.ResenaRepository$ResenaResumen(r.id, r.texto, r.calificacion, "
+            + "u.nombre, u.apellidos, r.createdAt, " + COMPRA_VERIFICADA + ") from Resena r join r.usuario u "
+            + "where r.producto.id = :productoId "
+            + "and (r.createdAt < :fecha or (r.createdAt = :fecha and r.id < :id)) "
+            + "order by r.createdAt desc, r.id desc")
+    List<ResenaResumen> findRecientes(Long productoId, LocalDateTime fecha, Long id, Limit limite);
+
+    @Query("select new com.levelupgamer.productos.ResenaRepository$ResenaResumen(r.id, r.texto, r.calificacion, "
+            + "u.nombre, u.apellidos, r.createdAt, " + COMPRA_VERIFICADA + ") from Resena r join r.usuario u "
+            + "where r.producto.id = :productoId "
+            + "and (r.calificacion < :calificacion or (r.calificacion = :calificacion and r.id < :id)) "
+            + "order by r.calificacion desc, r.id desc")
+    List<ResenaResumen> findMejores(Long productoId, Integer calificacion, Long id, Limit limite);
+
+    @Query("select new com.levelupgamer.productos.ResenaRepository$ResenaResumen(r.id, r.texto, r.calificacion, "
+            + "u.nombre, u.apellidos, r.createdAt, " + COMPRA_VERIFICADA + ") from Resena r join r.usuario u "
+            + "where r.producto.id = :productoId "
+            + "and (r.calificacion > :calificacion or (r.calificacion = :calificacion and r.id > :id)) "
+            + "order by r.calificacion asc, r.id asc")
+    List<ResenaResumen> findPeores(Long productoId, Integer calificacion, Long id, Limit limite);
+
+    record ResenaResumen(Long id, String texto, Integer calificacion, String nombre, String apellidos,
+                         LocalDateTime createdAt, Boolean compraVerificada) {
+    }
 }
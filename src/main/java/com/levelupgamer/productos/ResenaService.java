@@ -1,13 +1,21 @@
 package com.levelupgamer.productos;
 
-import com.levelupgamer.boletas.BoletaRepository;
+import com.levelupgamer.boletas.compras.ComprasVerificadasService;
+import com.levelupgamer.common.paginacion.CursorKeyset;
+import com.levelupgamer.productos.dto.ResenaDTO;
+import com.levelupgamer.productos.dto.ResenaPaginaDTO;
 import com.levelupgamer.usuarios.Usuario;
 import com.levelupgamer.usuarios.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @Service
@@ -22,7 +30,16 @@ public class ResenaService {
     private UsuarioRepository usuarioRepository;
 
     @Autowired
-    private BoletaRepository boletaRepository;
+    private ComprasVerificadasService comprasVerificadasService;
+
+    @Autowired
+    private CalificacionesRepository calificacionesRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    private static final int MAX_PAGE_SIZE = 50;
 
     @Transactional
     @SuppressWarnings("null")
@@ -33,7 +50,7 @@ public class ResenaService {
         Usuario usuario = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
 
-        boolean comproProducto = boletaRepository.existsByUsuarioIdAndDetallesProductoId(usuarioId, productoId);
+        boolean comproProducto = comprasVerificadasService.compro(usuarioId, productoId);
         if (!comproProducto) {
             throw new IllegalStateException("Solo puedes reseñar productos que ya compraste");
         }
@@ -41,12 +58,65 @@ public class ResenaService {
         resena.setProducto(producto);
         resena.setUsuario(usuario);
 
-        return resenaRepository.save(resena);
+        Resena guardada = resenaRepository.save(resena);
+        calificacionesRepository.registrar(productoId, guardada.getCalificacion(), true);
+        publicarCambio(producto);
+        return guardada;
     }
 
     @Transactional(readOnly = true)
-    public List<Resena> listarResenasPorProducto(Long productoId) {
-        return resenaRepository.findByProductoId(productoId);
+    public ResenaPaginaDTO listarResenas(Long productoId, String sort, String cursor, Integer size) {
+        ResenaOrden orden = ResenaOrden.desdeParametro(sort);
+        int tamano = normalizarTamanoPagina(size);
+        Limit limite = Limit.of(tamano + 1);
+
+        CursorKeyset posicion = null;
+        if (StringUtils.hasText(cursor)) {
+            posicion = CursorKeyset.decodificar(cursor);
+            if (!orden.getParametro().equals(posicion.orden()) || posicion.valor() == null) {
+                throw new IllegalArgumentException("El cursor no corresponde al orden solicitado");
+            }
+        }
+
+        List<ResenaRepository.ResenaResumen> filas;
+        try {
+            filas = switch (orden) {
+                case RECIENTES -> resenaRepository.findRecientes(productoId,
+                        posicion != null ? LocalDateTime.parse(posicion.valor()) : ResenaOrden.SIN_FECHA,
+                        posicion != null ? posicion.id() : Long.MAX_VALUE, limite);
+                case MEJORES -> resenaRepository.findMejores(productoId,
+                        posicion != null ? Integer.valueOf(posicion.valor()) : Integer.MAX_VALUE,
+                        posicion != null ? posicion.id() : Long.MAX_VALUE, limite);
+                case PEORES -> resenaRepository.findPeores(productoId,
+                        posicion != null ? Integer.valueOf(posicion.valor()) : Integer.MIN_VALUE,
+                        posicion != null ? posicion.id() : Long.MIN_VALUE, limite);
+            };
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+
+        boolean hayMas = filas.size() > tamano;
+        List<ResenaRepository.ResenaResumen> pagina = hayMas ? filas.subList(0, tamano) : filas;
+        String siguienteCursor = null;
+        if (hayMas) {
+            ResenaRepository.ResenaResumen ultima = pagina.get(pagina.size() - 1);
+            String valor = orden == ResenaOrden.RECIENTES ? ultima.createdAt().toString() : ultima.calificacion().toString();
+            siguienteCursor = new CursorKeyset(orden.getParametro(), valor, ultima.id()).codificar();
+        }
+
+        return ResenaPaginaDTO.builder()
+                .items(pagina.stream().map(fila -> ResenaDTO.builder()
+                        .id(fila.id())
+                        .texto(fila.texto())
+                        .calificacion(fila.calificacion())
+                        .nombreUsuario(fila.nombre() + " " + fila.apellidos())
+                        .productoId(productoId)
+                        .createdAt(fila.createdAt())
+                        .compraVerificada(fila.compraVerificada())
+                        .build()).toList())
+                .siguienteCursor(siguienteCursor)
+                .hayMas(hayMas)
+                .build();
     }
 
     @Transactional
@@ -59,6 +129,26 @@ public class ResenaService {
             throw new AccessDeniedException("No puedes eliminar reseñas de otros usuarios");
         }
 
+        Producto producto = resena.getProducto();
         resenaRepository.delete(resena);
+        // La baja debe llegar a la base antes de ajustar el agregado, por si hay que reconstruirlo.
+        resenaRepository.flush();
+        calificacionesRepository.registrar(producto.getId(), resena.getCalificacion(), false);
+        publicarCambio(producto);
+    }
+
+    private int normalizarTamanoPagina(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor a 0");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private void publicarCambio(Producto producto) {
+        Long categoriaId = producto.getCategoria() != null ? producto.getCategoria().getId() : null;
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deProducto(producto.getId(), categoriaId));
     }
 }
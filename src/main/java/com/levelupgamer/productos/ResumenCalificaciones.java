@@ -0,0 +1,59 @@
+package com.levelupgamer.productos;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Agregados de reseñas de un producto, en la tabla {@value #TABLA}. Hibernate sólo
+ * inserta la fila en ceros al crear el producto; después la mantiene
+ * {@link CalificacionesRepository} con UPDATE atómicos en la misma transacción que
+ * escribe la reseña, por eso las columnas no son actualizables desde la entidad.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Embeddable
+public class ResumenCalificaciones {
+
+    static final String TABLA = "producto_calificacion";
+
+    @Builder.Default
+    @Column(table = TABLA, name = "cantidad", nullable = false, updatable = false)
+    private Integer cantidad = 0;
+
+    @Builder.Default
+    @Column(table = TABLA, name = "suma", nullable = false, updatable = false)
+    private Integer suma = 0;
+
+    @Builder.Default
+    @Column(table = TABLA, name = "promedio", nullable = false, updatable = false, precision = 3, scale = 2)
+    private BigDecimal promedio = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(table = TABLA, name = "estrellas_1", nullable = false, updatable = false)
+    private Integer estrellas1 = 0;
+
+    @Builder.Default
+    @Column(table = TABLA, name = "estrellas_2", nullable = false, updatable = false)
+    private Integer estrellas2 = 0;
+
+    @Builder.Default
+    @Column(table = TABLA, name = "estrellas_3", nullable = false, updatable = false)
+    private Integer estrellas3 = 0;
+
+    @Builder.Default
+    @Column(table = TABLA, name = "estrellas_4", nullable = false, updatable = false)
+    private Integer estrellas4 = 0;
+
+    @Builder.Default
+    @Column(table = TABLA, name = "estrellas_5", nullable = false, updatable = false)
+    private Integer estrellas5 = 0;
+}
@@ -0,0 +1,49 @@
+package com.levelupgamer.productos;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Versiones reducidas de la imagen principal de un producto. {@code origen} guarda la
+ * URL de la que se generaron: si la imagen principal cambia, las variantes dejan de
+ * publicarse hasta que el pipeline las regenere.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Embeddable
+public class VariantesImagen {
+
+    @Column(name = "imagen_origen")
+    private String origen;
+
+    @Column(name = "imagen_miniatura")
+    private String miniatura;
+
+    @Column(name = "imagen_tarjeta")
+    private String tarjeta;
+
+    @Column(name = "imagen_detalle")
+    private String detalle;
+
+    public boolean vigentePara(String imagenPrincipal) {
+        return origen != null && origen.equals(imagenPrincipal);
+    }
+
+    public Map<String, String> comoMapa() {
+        Map<String, String> variantes = new LinkedHashMap<>();
+        variantes.put("thumbnail", miniatura);
+        variantes.put("card", tarjeta);
+        variantes.put("detail", detalle);
+        return variantes;
+    }
+}
@@ -0,0 +1,32 @@
+package com.levelupgamer.productos.alertas;
+
+import com.levelupgamer.productos.dto.AlertaStockPaginaDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/stock-alerts")
+@Tag(name = "Alertas de stock", description = "Cruces del umbral de stock crítico para administradores y vendedores")
+public class AlertaStockController {
+
+    private final AlertasStockService alertasStockService;
+
+    public AlertaStockController(AlertasStockService alertasStockService) {
+        this.alertasStockService = alertasStockService;
+    }
+
+    @Operation(summary = "Feed de alertas de stock",
+            description = "Alertas de stock crítico y de reposición, de la más reciente a la más antigua. Los vendedores sólo ven las de sus productos.")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR','VENDEDOR')")
+    @GetMapping
+    public ResponseEntity<AlertaStockPaginaDTO> listar(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(alertasStockService.listar(cursor, size));
+    }
+}
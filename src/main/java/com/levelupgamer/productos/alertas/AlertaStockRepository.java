@@ -0,0 +1,11 @@
+package com.levelupgamer.productos.alertas;
+
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AlertaStockRepository extends JpaRepository<AlertaStock, Long> {
+    List<AlertaStock> findByIdLessThanOrderByIdDesc(Long id, Limit limite);
+
+    List<AlertaStock> findByVendedorIdAndIdLessThanOrderByIdDesc(Long vendedorId, Long id, Limit limite);
+}
@@ -0,0 +1,228 @@
+package com.levelupgamer.productos.alertas;
+
+import com.levelupgamer.common.paginacion.CursorKeyset;
+import com.levelupgamer.productos.Producto;
+import com.levelupgamer.productos.ProductoRepository;
+import com.levelupgamer.productos.dto.AlertaStockDTO;
+import com.levelupgamer.productos.dto.AlertaStockPaginaDTO;
+import com.levelupgamer.usuarios.RolUsuario;
+import com.levelupgamer.usuarios.Usuario;
+import com.levelupgamer.usuarios.UsuarioRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+/**
+ * Alertas de stock crítico. Cada {@link StockCriticoEvent} se guarda como
+ * {@link CruceStock} dentro de la transacción que lo publica (checkout vía outbox,
+ * edición, ajustes masivos), así que se confirma o se descarta junto con el stock que
+ * lo provocó. Una tarea periódica agrupa los cruces guardados por producto con
+ * {@link VentanaAlertas} y, en la misma transacción que elimina los de cada ventana
+ * cerrada, guarda una {@link AlertaStock} en el feed que consultan administradores
+ * (todas) y vendedores (las de sus productos).
+ */
+@Service
+public class AlertasStockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertasStockService.class);
+    private static final String ORDEN_CURSOR = "recientes";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final AlertaStockRepository alertaStockRepository;
+    private final CruceStockRepository cruceStockRepository;
+    private final ProductoRepository productoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final TransactionTemplate escritura;
+    private final Duration ventana;
+
+    public AlertasStockService(AlertaStockRepository alertaStockRepository,
+                               CruceStockRepository cruceStockRepository,
+                               ProductoRepository productoRepository,
+                               UsuarioRepository usuarioRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${catalogo.alertas.ventana:PT1M}") Duration ventana) {
+        this.alertaStockRepository = alertaStockRepository;
+        this.cruceStockRepository = cruceStockRepository;
+        this.productoRepository = productoRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.escritura = new TransactionTemplate(transactionManager);
+        this.ventana = ventana;
+    }
+
+    @EventListener
+    public void alCruzarUmbral(StockCriticoEvent evento) {
+        cruceStockRepository.save(CruceStock.de(evento));
+    }
+
+    @Scheduled(fixedDelayString = "${catalogo.alertas.cierre:PT5S}",
+            initialDelayString = "${catalogo.alertas.cierre:PT5S}")
+    public void cerrarVentanas() {
+        try {
+            escritura.executeWithoutResult(status -> cerrarVencidas(Instant.now()));
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron guardar las alertas de stock: {}", e.getMessage());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public AlertaStockPaginaDTO listar(String cursor, Integer size) {
+        Long vendedorId = resolverVendedorRestringido();
+        int tamano = normalizarTamanoPagina(size);
+        long desdeId = Long.MAX_VALUE;
+        if (StringUtils.hasText(cursor)) {
+            CursorKeyset posicion = CursorKeyset.decodificar(cursor);
+            if (!ORDEN_CURSOR.equals(posicion.orden())) {
+                throw new IllegalArgumentException("El cursor no corresponde al feed de alertas");
+            }
+            desdeId = posicion.id();
+        }
+
+        Limit limite = Limit.of(tamano + 1);
+        List<AlertaStock> filas = vendedorId == null
+                ? alertaStockRepository.findByIdLessThanOrderByIdDesc(desdeId, limite)
+                : alertaStockRepository.findByVendedorIdAndIdLessThanOrderByIdDesc(vendedorId, desdeId, limite);
+        boolean hayMas = filas.size() > tamano;
+        List<AlertaStock> pagina = hayMas ? filas.subList(0, tamano) : filas;
+        return AlertaStockPaginaDTO.builder()
+                .items(pagina.stream().map(AlertasStockService::toDTO).toList())
+                .siguienteCursor(hayMas
+                        ? new CursorKeyset(ORDEN_CURSOR, null, pagina.get(pagina.size() - 1).getId()).codificar()
+                        : null)
+                .hayMas(hayMas)
+                .build();
+    }
+
+    /**
+     * Rearma las ventanas con todos los cruces guardados y cierra las vencidas en
+     * {@code ahora}. Los cruces de una ventana abierta quedan para la próxima pasada. Si
+     * otra instancia ya eliminó alguno de los cerrados, la transacción se revierte en vez
+     * de duplicar sus alertas.
+     */
+    void cerrarVencidas(Instant ahora) {
+        List<CruceStock> cruces = cruceStockRepository.findAllByOrderByMomentoAscIdAsc();
+        if (cruces.isEmpty()) {
+            return;
+        }
+        VentanaAlertas ventanas = new VentanaAlertas(ventana);
+        List<VentanaAlertas.Alerta> alertas = ventanas.reproducir(
+                cruces.stream().map(CruceStock::toEvento).toList(), ahora);
+        List<Long> cerrados = cruces.stream()
+                .filter(cruce -> {
+                    Instant abierta = ventanas.abiertaDesde(cruce.getProductoId());
+                    return abierta == null || cruce.getMomento().isBefore(abierta);
+                })
+                .map(CruceStock::getId)
+                .toList();
+        if (cerrados.isEmpty()) {
+            return;
+        }
+        if (cruceStockRepository.eliminar(cerrados) != cerrados.size()) {
+            throw new IllegalStateException("Otra instancia ya cerró estas ventanas de alertas");
+        }
+        guardar(alertas);
+    }
+
+    private void guardar(List<VentanaAlertas.Alerta> alertas) {
+        if (alertas.isEmpty()) {
+            return;
+        }
+        Map<Long, Producto> productos = productoRepository.findAllById(
+                        alertas.stream().map(alerta -> alerta.ultimo().productoId()).toList()).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        List<AlertaStock> nuevas = new ArrayList<>(alertas.size());
+        for (VentanaAlertas.Alerta alerta : alertas) {
+            StockCriticoEvent ultimo = alerta.ultimo();
+            Producto producto = productos.get(ultimo.productoId());
+            if (producto == null) {
+                continue;
+            }
+            nuevas.add(AlertaStock.builder()
+                    .productoId(producto.getId())
+                    .vendedorId(producto.getVendedor() != null ? producto.getVendedor().getId() : null)
+                    .codigo(producto.getCodigo())
+                    .nombre(producto.getNombre())
+                    .tipo(ultimo.bajoUmbral() ? TipoAlertaStock.STOCK_CRITICO : TipoAlertaStock.STOCK_REPUESTO)
+                    .stock(ultimo.stock())
+                    .stockCritico(ultimo.stockCritico())
+                    .cruces(alerta.cruces())
+                    .desde(LocalDateTime.ofInstant(alerta.desde(), ZoneId.systemDefault()))
+                    .hasta(LocalDateTime.ofInstant(ultimo.momento(), ZoneId.systemDefault()))
+                    .build());
+            logger.info("Alerta {} para el producto {}: stock {} (crítico {})",
+                    ultimo.bajoUmbral() ? "de stock crítico" : "de stock repuesto",
+                    producto.getCodigo(), ultimo.stock(), ultimo.stockCritico());
+        }
+        alertaStockRepository.saveAll(nuevas);
+    }
+
+    private static AlertaStockDTO toDTO(AlertaStock alerta) {
+        return AlertaStockDTO.builder()
+                .id(alerta.getId())
+                .productoId(alerta.getProductoId())
+                .codigo(alerta.getCodigo())
+                .nombre(alerta.getNombre())
+                .tipo(alerta.getTipo().name())
+                .stock(alerta.getStock())
+                .stockCritico(alerta.getStockCritico())
+                .cruces(alerta.getCruces())
+                .desde(alerta.getDesde())
+                .hasta(alerta.getHasta())
+                .build();
+    }
+
+    private int normalizarTamanoPagina(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor a 0");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Devuelve el id del vendedor al que se restringe el feed, o {@code null} si quien
+     * consulta es administrador.
+     */
+    private Long resolverVendedorRestringido() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new AccessDeniedException("No hay un usuario autenticado en el contexto");
+        }
+        if (tieneRol(authentication, RolUsuario.ADMINISTRADOR)) {
+            return null;
+        }
+        if (!tieneRol(authentication, RolUsuario.VENDEDOR)) {
+            throw new AccessDeniedException("Sólo administradores y vendedores reciben alertas de stock");
+        }
+        return usuarioRepository.findByCorreo(authentication.getName())
+                .map(Usuario::getId)
+                .orElseThrow(() -> new AccessDeniedException("Usuario autenticado no encontrado"));
+    }
+
+    private boolean tieneRol(Authentication authentication, RolUsuario rol) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(a -> ("ROLE_" + rol.name()).equals(a.getAuthority()));
+    }
+}
@@ -0,0 +1,58 @@
+package com.levelupgamer.productos.alertas;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Cruce de umbral todavía sin alerta. Se guarda en la misma transacción que lo
+ * publica (para el checkout, la que elimina la fila del outbox) y se elimina en la
+ * que guarda la {@link AlertaStock} de su ventana, así que ninguno se pierde.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+public class CruceStock {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(nullable = false)
+    private boolean bajoUmbral;
+
+    @Column(nullable = false)
+    private Integer stock;
+
+    private Integer stockCritico;
+
+    @Column(nullable = false)
+    private Instant momento;
+
+    static CruceStock de(StockCriticoEvent evento) {
+        return CruceStock.builder()
+                .productoId(evento.productoId())
+                .bajoUmbral(evento.bajoUmbral())
+                .stock(evento.stock())
+                .stockCritico(evento.stockCritico())
+                .momento(evento.momento())
+                .build();
+    }
+
+    StockCriticoEvent toEvento() {
+        return new StockCriticoEvent(productoId, bajoUmbral, stock, stockCritico, momento);
+    }
+}
@@ -0,0 +1,15 @@
+package com.levelupgamer.productos.alertas;
+
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface CruceStockRepository extends JpaRepository<CruceStock, Long> {
+    List<CruceStock> findAllByOrderByMomentoAscIdAsc();
+
+    @Modifying
+    @Query("delete from CruceStock c where c.id in :ids")
+    int eliminar(Collection<Long> ids);
+}
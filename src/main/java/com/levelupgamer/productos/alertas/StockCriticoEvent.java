@@ -0,0 +1,40 @@
+package com.levelupgamer.productos.alertas;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Cruce del umbral de stock crítico de un producto: {@code bajoUmbral} es {@code true}
+ * cuando el stock quedó en o por debajo de {@code stockCritico} y {@code false} cuando
+ * se repuso por encima. Sólo se publica en la transición, nunca en cada movimiento que
+ * deja el producto del mismo lado del umbral.
+ */
+public record StockCriticoEvent(Long productoId, boolean bajoUmbral, int stock, Integer stockCritico,
+                                Instant momento) {
+
+    /**
+     * Compara el estado antes y después de una escritura. Un stock anterior
+     * {@code null} (producto recién creado) cuenta como por encima del umbral.
+     */
+    public static Optional<StockCriticoEvent> detectar(Long productoId, Integer stockAnterior, Integer criticoAnterior,
+                                                       Integer stockActual, Integer criticoActual) {
+        if (productoId == null || stockActual == null) {
+            return Optional.empty();
+        }
+        boolean antes = bajoUmbral(stockAnterior, criticoAnterior);
+        boolean despues = bajoUmbral(stockActual, criticoActual);
+        if (antes == despues) {
+            return Optional.empty();
+        }
+        return Optional.of(new StockCriticoEvent(productoId, despues, stockActual, criticoActual, Instant.now()));
+    }
+
+    public static Optional<StockCriticoEvent> detectar(Long productoId, Integer stockAnterior, Integer stockActual,
+                                                       Integer stockCritico) {
+        return detectar(productoId, stockAnterior, stockCritico, stockActual, stockCritico);
+    }
+
+    private static boolean bajoUmbral(Integer stock, Integer critico) {
+        return stock != null && critico != null && stock <= critico;
+    }
+}
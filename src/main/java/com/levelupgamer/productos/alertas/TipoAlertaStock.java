@@ -0,0 +1,6 @@
+package com.levelupgamer.productos.alertas;
+
+public enum TipoAlertaStock {
+    STOCK_CRITICO,
+    STOCK_REPUESTO
+}
@@ -0,0 +1,103 @@
+package com.levelupgamer.productos.alertas;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agrupa los cruces de umbral por producto en ventanas fijas que se abren con el
+ * primer cruce. Al cerrar una ventana se emite el último estado si difiere del que
+ * tenía el producto al abrirla; un producto que bajó y se repuso (o al revés) dentro
+ * de la misma ventana no genera alerta. Todas las ventanas duran lo mismo, así que el
+ * orden de apertura es también el de cierre. No es seguro para hilos: cada pasada de
+ * {@link AlertasStockService} arma la suya a partir de los cruces guardados.
+ */
+class VentanaAlertas {
+
+    private final Duration duracion;
+    private final Map<Long, Pendiente> pendientes = new LinkedHashMap<>();
+
+    VentanaAlertas(Duration duracion) {
+        this.duracion = duracion;
+    }
+
+    void registrar(StockCriticoEvent evento) {
+        Pendiente pendiente = pendientes.get(evento.productoId());
+        if (pendiente == null) {
+            pendientes.put(evento.productoId(), new Pendiente(evento, evento.momento().plus(duracion)));
+        } else {
+            pendiente.ultimo = evento;
+            pendiente.cruces++;
+        }
+    }
+
+    /** Cierra las ventanas vencidas en {@code ahora}; con {@code null} cierra todas. */
+    List<Alerta> cerrar(Instant ahora) {
+        List<Alerta> alertas = new ArrayList<>();
+        Iterator<Pendiente> it = pendientes.values().iterator();
+        while (it.hasNext()) {
+            Pendiente pendiente = it.next();
+            if (ahora != null && pendiente.cierre.isAfter(ahora)) {
+                break;
+            }
+            it.remove();
+            if (pendiente.ultimo.bajoUmbral() != pendiente.estadoInicial) {
+                alertas.add(new Alerta(pendiente.ultimo, pendiente.cruces, pendiente.desde));
+            }
+        }
+        return alertas;
+    }
+
+    /**
+     * Registra cruces guardados en orden de {@code momento} cerrando, antes de cada uno,
+     * las ventanas que ya habían vencido cuando ocurrió; al final cierra las vencidas en
+     * {@code ahora}. Es lo mismo que habría emitido recibiéndolos en vivo.
+     */
+    List<Alerta> reproducir(List<StockCriticoEvent> cruces, Instant ahora) {
+        List<Alerta> alertas = new ArrayList<>();
+        for (StockCriticoEvent cruce : cruces) {
+            alertas.addAll(cerrar(cruce.momento()));
+            registrar(cruce);
+        }
+        alertas.addAll(cerrar(ahora));
+        return alertas;
+    }
+
+    /** Inicio de la ventana abierta del producto, o {@code null} si no tiene. */
+    Instant abiertaDesde(Long productoId) {
+        Pendiente pendiente = pendientes.get(productoId);
+        return pendiente == null ? null : pendiente.desde;
+    }
+
+    /** Próximo cierre pendiente, o {@code null} si no hay ventanas abiertas. */
+    Instant proximoCierre() {
+        Iterator<Pendiente> it = pendientes.values().iterator();
+        return it.hasNext() ? it.next().cierre : null;
+    }
+
+    int getAbiertas() {
+        return pendientes.size();
+    }
+
+    record Alerta(StockCriticoEvent ultimo, int cruces, Instant desde) {
+    }
+
+    private static final class Pendiente {
+        private final boolean estadoInicial;
+        private final Instant desde;
+        private final Instant cierre;
+        private StockCriticoEvent ultimo;
+        private int cruces = 1;
+
+        private Pendiente(StockCriticoEvent primero, Instant cierre) {
+            this.estadoInicial = !primero.bajoUmbral();
+            this.desde = primero.momento();
+            this.cierre = cierre;
+            this.ultimo = primero;
+        }
+    }
+}
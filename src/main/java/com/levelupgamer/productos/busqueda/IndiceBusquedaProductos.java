@@ -0,0 +1,246 @@
+package com.levelupgamer.productos.busqueda;
+
+import com.levelupgamer.productos.Producto;
+import com.levelupgamer.productos.dto.ProductoBusquedaDTO;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en memoria sobre nombre, código, categoría y descripción de los
+ * productos activos. Puntúa con BM25 (los campos pesan distinto repitiendo sus
+ * términos) y tolera errores de tipeo expandiendo cada término de la consulta a
+ * los términos del vocabulario que comparten prefijo o suficientes trigramas.
+ *
+ * <p>Las lecturas comparten un read lock; indexar y eliminar toman el write lock.
+ */
+public class IndiceBusquedaProductos {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int PESO_NOMBRE = 3;
+    private static final int PESO_CODIGO = 3;
+    private static final int PESO_CATEGORIA = 2;
+    private static final int PESO_DESCRIPCION = 1;
+    private static final double PESO_PREFIJO = 0.8;
+    private static final double PESO_APROXIMADO = 0.7;
+    private static final double SIMILITUD_MINIMA = 0.45;
+    private static final int MAX_EXPANSIONES = 8;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Documento> documentos = new HashMap<>();
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> terminosPorTrigrama = new HashMap<>();
+    private long longitudTotal;
+
+    public void indexar(Producto producto) {
+        lock.writeLock().lock();
+        try {
+            eliminarSinBloqueo(producto.getId());
+            if (!Boolean.TRUE.equals(producto.getActivo())) {
+                return;
+            }
+            Map<String, Integer> frecuencias = new HashMap<>();
+            agregar(frecuencias, producto.getNombre(), PESO_NOMBRE);
+            agregar(frecuencias, producto.getCodigo(), PESO_CODIGO);
+            if (producto.getCodigo() != null) {
+                // "JM-001" también se encuentra como "jm001"
+                agregar(frecuencias, producto.getCodigo().replaceAll("[^\\p{Alnum}]", ""), PESO_CODIGO);
+            }
+            String categoria = producto.getCategoria() != null ? producto.getCategoria().getNombre() : null;
+            agregar(frecuencias, categoria, PESO_CATEGORIA);
+            agregar(frecuencias, producto.getDescripcion(), PESO_DESCRIPCION);
+
+            int longitud = frecuencias.values().stream().mapToInt(Integer::intValue).sum();
+            documentos.put(producto.getId(), new Documento(resumir(producto, categoria), frecuencias, longitud));
+            longitudTotal += longitud;
+            frecuencias.forEach((termino, frecuencia) -> {
+                Map<Long, Integer> lista = postings.get(termino);
+                if (lista == null) {
+                    lista = new HashMap<>();
+                    postings.put(termino, lista);
+                    for (String trigrama : NormalizadorTexto.trigramas(termino)) {
+                        terminosPorTrigrama.computeIfAbsent(trigrama, t -> new HashSet<>()).add(termino);
+                    }
+                }
+                lista.put(producto.getId(), frecuencia);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void eliminar(Long productoId) {
+        lock.writeLock().lock();
+        try {
+            eliminarSinBloqueo(productoId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int getTamano() {
+        lock.readLock().lock();
+        try {
+            return documentos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<ProductoBusquedaDTO> buscar(String consulta, int limite) {
+        List<String> terminos = NormalizadorTexto.terminos(consulta).stream().distinct().toList();
+        if (terminos.isEmpty() || limite < 1) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            if (documentos.isEmpty()) {
+                return List.of();
+            }
+            double longitudPromedio = (double) longitudTotal / documentos.size();
+            Map<Long, Double> puntajes = new HashMap<>();
+            for (String termino : terminos) {
+                // Por cada término de la consulta cuenta sólo su mejor expansión en cada documento.
+                Map<Long, Double> mejorPorDocumento = new HashMap<>();
+                expandir(termino).forEach((variante, peso) -> {
+                    Map<Long, Integer> lista = postings.get(variante);
+                    double idf = idf(lista.size());
+                    lista.forEach((id, frecuencia) -> {
+                        double puntaje = peso * idf * bm25(frecuencia, documentos.get(id).longitud(), longitudPromedio);
+                        mejorPorDocumento.merge(id, puntaje, Math::max);
+                    });
+                });
+                mejorPorDocumento.forEach((id, puntaje) -> puntajes.merge(id, puntaje, Double::sum));
+            }
+            return mejores(puntajes, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<String, Double> expandir(String termino) {
+        Map<String, Double> variantes = new LinkedHashMap<>();
+        if (postings.containsKey(termino)) {
+            variantes.put(termino, 1.0);
+        }
+        if (termino.length() >= 3) {
+            for (String candidato : postings.subMap(termino, false, termino + Character.MAX_VALUE, false).keySet()) {
+                if (variantes.size() >= MAX_EXPANSIONES) {
+                    break;
+                }
+                variantes.putIfAbsent(candidato, PESO_PREFIJO);
+            }
+        }
+        if (variantes.isEmpty() && termino.length() >= 3) {
+            aproximados(termino).forEach((candidato, similitud) -> variantes.put(candidato, PESO_APROXIMADO * similitud));
+        }
+        return variantes;
+    }
+
+    /** Términos del vocabulario con coeficiente de Dice sobre trigramas ≥ {@link #SIMILITUD_MINIMA}. */
+    private Map<String, Double> aproximados(String termino) {
+        Set<String> trigramasConsulta = NormalizadorTexto.trigramas(termino);
+        Map<String, Integer> comunes = new HashMap<>();
+        for (String trigrama : trigramasConsulta) {
+            for (String candidato : terminosPorTrigrama.getOrDefault(trigrama, Set.of())) {
+                comunes.merge(candidato, 1, Integer::sum);
+            }
+        }
+        Map<String, Double> similares = new HashMap<>();
+        comunes.forEach((candidato, enComun) -> {
+            int total = trigramasConsulta.size() + NormalizadorTexto.trigramas(candidato).size();
+            double similitud = 2.0 * enComun / total;
+            if (similitud >= SIMILITUD_MINIMA) {
+                similares.put(candidato, similitud);
+            }
+        });
+        Map<String, Double> seleccion = new LinkedHashMap<>();
+        similares.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(MAX_EXPANSIONES)
+                .forEach(entry -> seleccion.put(entry.getKey(), entry.getValue()));
+        return seleccion;
+    }
+
+    private double idf(int frecuenciaDocumental) {
+        int total = documentos.size();
+        return Math.log(1 + (total - frecuenciaDocumental + 0.5) / (frecuenciaDocumental + 0.5));
+    }
+
+    private static double bm25(int frecuencia, int longitud, double longitudPromedio) {
+        return frecuencia * (K1 + 1) / (frecuencia + K1 * (1 - B + B * longitud / longitudPromedio));
+    }
+
+    private List<ProductoBusquedaDTO> mejores(Map<Long, Double> puntajes, int limite) {
+        Comparator<Map.Entry<Long, Double>> porPuntaje = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(porPuntaje);
+        for (Map.Entry<Long, Double> entrada : puntajes.entrySet()) {
+            heap.offer(entrada);
+            if (heap.size() > limite) {
+                heap.poll();
+            }
+        }
+        List<ProductoBusquedaDTO> resultado = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            Map.Entry<Long, Double> entrada = heap.poll();
+            resultado.add(documentos.get(entrada.getKey()).resumen().toBuilder().puntuacion(entrada.getValue()).build());
+        }
+        Collections.reverse(resultado);
+        return resultado;
+    }
+
+    private void eliminarSinBloqueo(Long productoId) {
+        Documento documento = documentos.remove(productoId);
+        if (documento == null) {
+            return;
+        }
+        longitudTotal -= documento.longitud();
+        for (String termino : documento.frecuencias().keySet()) {
+            Map<Long, Integer> lista = postings.get(termino);
+            lista.remove(productoId);
+            if (lista.isEmpty()) {
+                postings.remove(termino);
+                for (String trigrama : NormalizadorTexto.trigramas(termino)) {
+                    Set<String> terminos = terminosPorTrigrama.get(trigrama);
+                    terminos.remove(termino);
+                    if (terminos.isEmpty()) {
+                        terminosPorTrigrama.remove(trigrama);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void agregar(Map<String, Integer> frecuencias, String texto, int peso) {
+        for (String termino : NormalizadorTexto.terminos(texto)) {
+            frecuencias.merge(termino, peso, Integer::sum);
+        }
+    }
+
+    private static ProductoBusquedaDTO resumir(Producto producto, String categoria) {
+        List<String> imagenes = producto.getImagenes();
+        return ProductoBusquedaDTO.builder()
+                .id(producto.getId())
+                .codigo(producto.getCodigo())
+                .nombre(producto.getNombre())
+                .precio(producto.getPrecio())
+                .categoria(categoria)
+                .imagen(imagenes != null && !imagenes.isEmpty() ? imagenes.get(0) : null)
+                .build();
+    }
+
+    private record Documento(ProductoBusquedaDTO resumen, Map<String, Integer> frecuencias, int longitud) {}
+}
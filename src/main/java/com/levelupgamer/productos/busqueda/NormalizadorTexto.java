@@ -0,0 +1,54 @@
+package com.levelupgamer.productos.busqueda;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Pliega mayúsculas y tildes ("Auriculáres" → "auriculares", "Ñandú" → "nandu")
+ * y separa en términos alfanuméricos, descartando las palabras vacías más comunes
+ * del español.
+ */
+final class NormalizadorTexto {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los",
+            "o", "para", "por", "se", "su", "un", "una", "y");
+
+    private NormalizadorTexto() {
+    }
+
+    static String plegar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return sinTildes.toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> terminos(String texto) {
+        List<String> terminos = new ArrayList<>();
+        for (String termino : SEPARADORES.split(plegar(texto))) {
+            if (!termino.isEmpty() && !PALABRAS_VACIAS.contains(termino)) {
+                terminos.add(termino);
+            }
+        }
+        return terminos;
+    }
+
+    /** Trigramas con relleno al estilo pg_trgm: "ps5" → {"  p", " ps", "ps5", "s5 "}. */
+    static Set<String> trigramas(String termino) {
+        String relleno = "  " + termino + " ";
+        Set<String> trigramas = new HashSet<>();
+        for (int i = 0; i + 3 <= relleno.length(); i++) {
+            trigramas.add(relleno.substring(i, i + 3));
+        }
+        return trigramas;
+    }
+}
@@ -0,0 +1,96 @@
+package com.levelupgamer.productos.busqueda;
+
+import com.levelupgamer.common.indices.IndiceReconstruible;
+import com.levelupgamer.productos.CatalogoModificadoEvent;
+import com.levelupgamer.productos.Producto;
+import com.levelupgamer.productos.ProductoRepository;
+import com.levelupgamer.productos.dto.ProductoBusquedaDTO;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Búsqueda de texto libre del catálogo servida íntegramente desde memoria. El
+ * índice se construye al arrancar y se mantiene con los {@link CatalogoModificadoEvent}
+ * confirmados: sólo se releen de la base los productos tocados por cada escritura.
+ * Los eventos que llegan mientras se reconstruye se reaplican sobre el índice nuevo.
+ */
+@Service
+public class ProductoBusquedaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductoBusquedaService.class);
+    static final int DEFAULT_LIMIT = 20;
+    static final int MAX_LIMIT = 50;
+
+    private final ProductoRepository productoRepository;
+    private final TransactionTemplate lectura;
+    private final IndiceReconstruible<IndiceBusquedaProductos, CatalogoModificadoEvent> indice =
+            new IndiceReconstruible<>(new IndiceBusquedaProductos());
+
+    public ProductoBusquedaService(ProductoRepository productoRepository, PlatformTransactionManager transactionManager) {
+        this.productoRepository = productoRepository;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.lectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public List<ProductoBusquedaDTO> buscar(String consulta, Integer limite) {
+        if (consulta == null || consulta.isBlank()) {
+            throw new IllegalArgumentException("Debe indicar un texto de búsqueda (q)");
+        }
+        int tamano = limite == null ? DEFAULT_LIMIT : limite;
+        if (tamano < 1) {
+            throw new IllegalArgumentException("El límite debe ser mayor a 0");
+        }
+        return indice.actual().buscar(consulta, Math.min(tamano, MAX_LIMIT));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        IndiceBusquedaProductos nuevo = new IndiceBusquedaProductos();
+        indice.iniciarReconstruccion();
+        try {
+            lectura.executeWithoutResult(status -> productoRepository.findByActivoTrue().forEach(nuevo::indexar));
+        } catch (RuntimeException e) {
+            indice.cancelarReconstruccion();
+            throw e;
+        }
+        List<CatalogoModificadoEvent> pendientes = indice.reemplazar(nuevo);
+        pendientes.forEach(evento -> aplicar(nuevo, evento));
+        logger.info("Índice de búsqueda de productos construido con {} productos ({} cambios reaplicados)",
+                nuevo.getTamano(), pendientes.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarCatalogo(CatalogoModificadoEvent evento) {
+        if (evento.soloStock()) {
+            return;
+        }
+        aplicar(indice.registrar(evento), evento);
+    }
+
+    private void aplicar(IndiceBusquedaProductos destino, CatalogoModificadoEvent evento) {
+        lectura.executeWithoutResult(status -> {
+            List<Producto> productos = evento.esCambioDeCategoria()
+                    ? evento.categoriaIds().stream().flatMap(id -> productoRepository.findByCategoriaId(id).stream()).toList()
+                    : productoRepository.findByIdIn(evento.productoIds());
+            Set<Long> vigentes = new HashSet<>();
+            for (Producto producto : productos) {
+                destino.indexar(producto);
+                vigentes.add(producto.getId());
+            }
+            evento.productoIds().stream()
+                    .filter(id -> !vigentes.contains(id))
+                    .forEach(destino::eliminar);
+        });
+    }
+}
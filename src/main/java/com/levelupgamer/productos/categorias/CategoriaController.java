@@ -2,8 +2,10 @@ package com.levelupgamer.productos.categorias;
 
 import com.levelupgamer.productos.dto.CategoriaDTO;
 import com.levelupgamer.productos.dto.CategoriaRequest;
+import com.levelupgamer.common.cache.Huella;
 import jakarta.validation.Valid;
 import java.util.List;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,6 +17,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/v1/categories")
@@ -27,14 +30,23 @@ public class CategoriaController {
     }
 
     @GetMapping
-    public ResponseEntity<List<CategoriaDTO>> listar(@RequestParam(name = "includeInactive", defaultValue = "false") boolean includeInactive) {
-        return ResponseEntity.ok(categoriaService.listar(includeInactive));
+    public ResponseEntity<List<CategoriaDTO>> listar(@RequestParam(name = "includeInactive", defaultValue = "false") boolean includeInactive,
+                                                     WebRequest request) {
+        Huella huella = categoriaService.huellaListado(includeInactive);
+        if (request.checkNotModified(huella.etag(), huella.ultimaModificacionEnMilis())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(categoriaService.listar(includeInactive));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CategoriaDTO> obtenerPorId(@PathVariable Long id) {
+    public ResponseEntity<CategoriaDTO> obtenerPorId(@PathVariable Long id, WebRequest request) {
+        Huella huella = categoriaService.huellaDe(id).orElse(null);
+        if (huella != null && request.checkNotModified(huella.etag(), huella.ultimaModificacionEnMilis())) {
+            return null;
+        }
         return categoriaService.buscarPorId(id)
-                .map(ResponseEntity::ok)
+                .map(categoria -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(categoria))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -1,7 +1,9 @@
 package com.levelupgamer.productos.categorias;
 
+import com.levelupgamer.common.cache.Huella;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
     Optional<Categoria> findByCodigoIgnoreCase(String codigo);
@@ -9,4 +11,10 @@ public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
     boolean existsByCodigoIgnoreCase(String codigo);
 
     boolean existsByNombreIgnoreCase(String nombre);
+
+    @Query("select new com.levelupgamer.common.cache.Huella(max(c.updatedAt), count(c)) from Categoria c")
+    Huella huella();
+
+    @Query("select new com.levelupgamer.common.cache.Huella(max(c.updatedAt), count(c)) from Categoria c where c.id = :id")
+    Huella huellaDe(Long id);
 }
@@ -1,12 +1,14 @@
 package com.levelupgamer.productos.categorias;
 
+import com.levelupgamer.common.cache.Huella;
+import com.levelupgamer.productos.CatalogoModificadoEvent;
 import com.levelupgamer.productos.dto.CategoriaDTO;
 import com.levelupgamer.productos.dto.CategoriaRequest;
 import jakarta.transaction.Transactional;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -14,6 +16,8 @@ import org.springframework.stereotype.Service;
 public class CategoriaService {
 
     private final CategoriaRepository categoriaRepository;
+    private final RegistroCategorias registroCategorias;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public CategoriaDTO crear(CategoriaRequest request) {
@@ -27,7 +31,9 @@ public class CategoriaService {
         validarCodigoUnico(categoria.getCodigo());
         validarNombreUnico(categoria.getNombre());
 
-        return CategoriaMapper.toDTO(categoriaRepository.save(categoria));
+        Categoria guardada = categoriaRepository.save(categoria);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deCategoria(guardada.getId()));
+        return CategoriaMapper.toDTO(guardada);
     }
 
     @Transactional
@@ -53,7 +59,9 @@ public class CategoriaService {
             if (request.getActivo() != null) {
                 existing.setActivo(request.getActivo());
             }
-            return CategoriaMapper.toDTO(categoriaRepository.save(existing));
+            Categoria guardada = categoriaRepository.save(existing);
+            eventPublisher.publishEvent(CatalogoModificadoEvent.deCategoria(guardada.getId()));
+            return CategoriaMapper.toDTO(guardada);
         });
     }
 
@@ -62,20 +70,22 @@ public class CategoriaService {
         return categoriaRepository.findById(id).map(categoria -> {
             categoria.setActivo(false);
             categoriaRepository.save(categoria);
+            eventPublisher.publishEvent(CatalogoModificadoEvent.deCategoria(categoria.getId()));
             return true;
         }).orElse(false);
     }
 
     @Transactional
     public Categoria asegurarActiva(Long categoriaId) {
-        return categoriaRepository.findById(categoriaId)
-                .filter(Categoria::getActivo)
+        return registroCategorias.buscarActiva(categoriaId)
+                .map(categoria -> categoriaRepository.getReferenceById(categoria.getId()))
                 .orElseThrow(() -> new IllegalArgumentException("Categoría no encontrada o inactiva"));
     }
 
     @Transactional
     public Categoria asegurarPorCodigo(String codigo) {
-        return categoriaRepository.findByCodigoIgnoreCase(codigo)
+        return registroCategorias.buscarPorCodigo(codigo)
+                .map(categoria -> categoriaRepository.getReferenceById(categoria.getId()))
                 .orElseThrow(() -> new IllegalArgumentException("Categoría no encontrada"));
     }
 
@@ -85,14 +95,20 @@ public class CategoriaService {
     }
 
     public List<CategoriaDTO> listar(boolean includeInactive) {
-        return categoriaRepository.findAll().stream()
-                .filter(cat -> includeInactive || Boolean.TRUE.equals(cat.getActivo()))
-                .map(CategoriaMapper::toDTO)
-                .collect(Collectors.toList());
+        return registroCategorias.listar(includeInactive);
+    }
+
+    public Huella huellaListado(boolean includeInactive) {
+        return categoriaRepository.huella().conAlcance(includeInactive);
+    }
+
+    public Optional<Huella> huellaDe(Long id) {
+        Huella huella = categoriaRepository.huellaDe(id);
+        return huella.existe() ? Optional.of(huella.conAlcance(id)) : Optional.empty();
     }
 
     public Optional<CategoriaDTO> buscarPorId(Long id) {
-        return categoriaRepository.findById(id).map(CategoriaMapper::toDTO);
+        return registroCategorias.buscar(id);
     }
 
     private void validarCodigoUnico(String codigo) {
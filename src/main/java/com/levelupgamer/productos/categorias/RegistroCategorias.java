@@ -0,0 +1,122 @@
+package com.levelupgamer.productos.categorias;
+
+import com.levelupgamer.productos.CatalogoModificadoEvent;
+import com.levelupgamer.productos.dto.CategoriaDTO;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Las categorías en memoria: una {@link Instantanea} inmutable por id y por código que
+ * se reemplaza completa cada vez que se confirma un cambio de categoría. Las lecturas
+ * no toman locks ni van a la base; si un id o código no está en la instantánea (una
+ * categoría escrita por fuera de {@link CategoriaService}, o todavía sin confirmar) se
+ * consulta el repositorio.
+ */
+@Component
+public class RegistroCategorias {
+
+    private final CategoriaRepository categoriaRepository;
+    private final TransactionTemplate lectura;
+    private volatile Instantanea instantanea;
+
+    public RegistroCategorias(CategoriaRepository categoriaRepository, PlatformTransactionManager transactionManager) {
+        this.categoriaRepository = categoriaRepository;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.lectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public Optional<CategoriaDTO> buscar(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        CategoriaDTO categoria = actual().porId().get(id);
+        return categoria != null ? Optional.of(categoria)
+                : categoriaRepository.findById(id).map(CategoriaMapper::toDTO);
+    }
+
+    public Optional<CategoriaDTO> buscarActiva(Long id) {
+        return buscar(id).filter(categoria -> Boolean.TRUE.equals(categoria.getActivo()));
+    }
+
+    public Optional<CategoriaDTO> buscarPorCodigo(String codigo) {
+        if (codigo == null) {
+            return Optional.empty();
+        }
+        CategoriaDTO categoria = actual().porCodigo().get(codigo.trim().toLowerCase(Locale.ROOT));
+        return categoria != null ? Optional.of(categoria)
+                : categoriaRepository.findByCodigoIgnoreCase(codigo.trim()).map(CategoriaMapper::toDTO);
+    }
+
+    public List<CategoriaDTO> listar(boolean incluirInactivas) {
+        Instantanea actual = actual();
+        return incluirInactivas ? actual.todas() : actual.activas();
+    }
+
+    /**
+     * DTO de la categoría de un producto sin inicializarla: basta el id, que Hibernate
+     * conoce aunque la asociación sea un proxy perezoso.
+     */
+    public CategoriaDTO dtoDe(Categoria categoria) {
+        if (categoria == null || categoria.getId() == null) {
+            return CategoriaMapper.toDTO(categoria);
+        }
+        CategoriaDTO registrada = actual().porId().get(categoria.getId());
+        return registrada != null ? registrada : CategoriaMapper.toDTO(categoria);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        recargar();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarseCatalogo(CatalogoModificadoEvent evento) {
+        if (evento.esCambioDeCategoria()) {
+            recargar();
+        }
+    }
+
+    /** Sincronizado para que una recarga más vieja nunca pise a una más nueva. */
+    synchronized void recargar() {
+        List<Categoria> categorias = lectura.execute(status -> categoriaRepository.findAll(Sort.by("id")));
+        instantanea = Instantanea.de(categorias.stream().map(CategoriaMapper::toDTO).toList());
+    }
+
+    private Instantanea actual() {
+        Instantanea actual = instantanea;
+        if (actual == null) {
+            recargar();
+            actual = instantanea;
+        }
+        return actual;
+    }
+
+    record Instantanea(Map<Long, CategoriaDTO> porId, Map<String, CategoriaDTO> porCodigo,
+                       List<CategoriaDTO> todas, List<CategoriaDTO> activas) {
+
+        static Instantanea de(List<CategoriaDTO> categorias) {
+            Map<Long, CategoriaDTO> porId = new HashMap<>();
+            Map<String, CategoriaDTO> porCodigo = new HashMap<>();
+            for (CategoriaDTO categoria : categorias) {
+                porId.put(categoria.getId(), categoria);
+                if (categoria.getCodigo() != null) {
+                    porCodigo.put(categoria.getCodigo().toLowerCase(Locale.ROOT), categoria);
+                }
+            }
+            return new Instantanea(Map.copyOf(porId), Map.copyOf(porCodigo), List.copyOf(categorias),
+                    categorias.stream().filter(categoria -> Boolean.TRUE.equals(categoria.getActivo())).toList());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.levelupgamer.productos.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AjusteInventarioRequest {
+    private String codigo;
+    /** Unidades a sumar (o restar, si es negativo) al stock actual. */
+    private Integer stockDelta;
+    /** Nuevo precio; {@code null} lo deja como está. */
+    private BigDecimal precio;
+}
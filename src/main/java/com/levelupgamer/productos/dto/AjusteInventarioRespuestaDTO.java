@@ -0,0 +1,29 @@
+package com.levelupgamer.productos.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AjusteInventarioRespuestaDTO {
+    private int aplicados;
+    private int rechazados;
+    /** Un resultado por ajuste, en el mismo orden de la solicitud. */
+    private List<Resultado> resultados;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Resultado {
+        private String codigo;
+        private String estado;
+        /** Stock luego del lote en que se aplicó el ajuste. */
+        private Integer stock;
+        private String mensaje;
+    }
+}
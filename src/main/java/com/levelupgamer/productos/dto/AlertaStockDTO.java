@@ -0,0 +1,24 @@
+package com.levelupgamer.productos.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AlertaStockDTO {
+    private Long id;
+    private Long productoId;
+    private String codigo;
+    private String nombre;
+    private String tipo;
+    private Integer stock;
+    private Integer stockCritico;
+    private Integer cruces;
+    private LocalDateTime desde;
+    private LocalDateTime hasta;
+}
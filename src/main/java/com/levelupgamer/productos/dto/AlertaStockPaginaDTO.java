@@ -0,0 +1,17 @@
+package com.levelupgamer.productos.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AlertaStockPaginaDTO {
+    private List<AlertaStockDTO> items;
+    private String siguienteCursor;
+    private boolean hayMas;
+}
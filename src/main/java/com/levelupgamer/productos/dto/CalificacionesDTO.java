@@ -0,0 +1,19 @@
+package com.levelupgamer.productos.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class CalificacionesDTO {
+    private BigDecimal promedio;
+    private Integer cantidad;
+    /** Cantidad de reseñas por estrellas: posición 0 = 1 estrella, ..., posición 4 = 5 estrellas. */
+    private List<Integer> histograma;
+}
@@ -0,0 +1,32 @@
+package com.levelupgamer.productos.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetasDTO {
+    private int total;
+    private Map<Long, Integer> categorias;
+    private List<RangoPrecio> precios;
+    private Map<Integer, Integer> puntosLevelUp;
+    private int conStock;
+    private int sinStock;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RangoPrecio {
+        private BigDecimal desde;
+        /** Límite superior exclusivo; {@code null} en el último tramo. */
+        private BigDecimal hasta;
+        private int cantidad;
+    }
+}
@@ -0,0 +1,35 @@
+package com.levelupgamer.productos.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportacionProductosDTO {
+    private String id;
+    private String estado;
+    private String formato;
+    private long filasLeidas;
+    private long filasImportadas;
+    private long filasConError;
+    /** Primeros errores por fila; {@code filasConError} tiene el total. */
+    private List<ErrorFila> errores;
+    private String mensaje;
+    private LocalDateTime creadaEn;
+    private LocalDateTime finalizadaEn;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErrorFila {
+        private long fila;
+        private String codigo;
+        private String mensaje;
+    }
+}
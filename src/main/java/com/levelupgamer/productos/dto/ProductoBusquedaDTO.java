@@ -0,0 +1,21 @@
+package com.levelupgamer.productos.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class ProductoBusquedaDTO {
+    private Long id;
+    private String codigo;
+    private String nombre;
+    private BigDecimal precio;
+    private String categoria;
+    private String imagen;
+    private double puntuacion;
+}
@@ -2,6 +2,7 @@ package com.levelupgamer.productos.dto;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,7 +11,7 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class ProductoDTO {
     private Long id;
     private String codigo;
@@ -18,10 +19,15 @@ public class ProductoDTO {
     private String descripcion;
     private BigDecimal precio;
     private Integer stock;
+    /** {@code stock} menos las unidades reservadas: lo que puede comprar quien no tiene reserva. */
+    private Integer stockDisponible;
     private Integer stockCritico;
     private CategoriaDTO categoria;
     private Integer puntosLevelUp;
     private List<String> imagenes;
+    /** Tamaños reducidos de la imagen principal (thumbnail, card, detail), si ya se generaron. */
+    private Map<String, String> imagenVariantes;
     private Boolean activo;
+    private CalificacionesDTO calificaciones;
     private VendedorResumenDTO vendedor;
 }
@@ -0,0 +1,25 @@
+package com.levelupgamer.productos.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductoFiltro {
+    private Long categoriaId;
+    private BigDecimal precioMin;
+    private BigDecimal precioMax;
+    private Boolean activo;
+    private Long vendedorId;
+    private String sort;
+    private String direction;
+    private String cursor;
+    private Integer size;
+    /** Si es {@code true} la respuesta incluye los conteos de facetas. No forma parte de la clave del caché. */
+    private Boolean facets;
+}
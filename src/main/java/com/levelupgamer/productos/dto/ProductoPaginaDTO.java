@@ -0,0 +1,18 @@
+package com.levelupgamer.productos.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class ProductoPaginaDTO {
+    private List<ProductoDTO> items;
+    private String siguienteCursor;
+    private boolean hayMas;
+    private FacetasDTO facetas;
+}
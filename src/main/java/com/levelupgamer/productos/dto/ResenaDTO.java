@@ -33,4 +33,7 @@ public class ResenaDTO {
     private Long productoId;
 
     private LocalDateTime createdAt;
+
+    /** El autor tiene una boleta vigente con el producto. Sólo en los listados. */
+    private Boolean compraVerificada;
 }
@@ -0,0 +1,15 @@
+package com.levelupgamer.productos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservaStockRequest {
+    private Long productoId;
+    private Integer cantidad;
+}
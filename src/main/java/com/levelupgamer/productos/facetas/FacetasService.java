@@ -0,0 +1,110 @@
+package com.levelupgamer.productos.facetas;
+
+import com.levelupgamer.common.indices.IndiceReconstruible;
+import com.levelupgamer.productos.CatalogoModificadoEvent;
+import com.levelupgamer.productos.Producto;
+import com.levelupgamer.productos.ProductoRepository;
+import com.levelupgamer.productos.dto.FacetasDTO;
+import com.levelupgamer.productos.dto.ProductoFiltro;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Conteos de facetas del listado de productos servidos desde un {@link IndiceFacetas}
+ * en memoria. A diferencia de la búsqueda, el índice cubre también productos inactivos
+ * (el listado filtra por {@code activo}) y escucha los cambios de stock.
+ */
+@Service
+public class FacetasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FacetasService.class);
+
+    private final ProductoRepository productoRepository;
+    private final TransactionTemplate lectura;
+    private final IndiceReconstruible<IndiceFacetas, CatalogoModificadoEvent> indice =
+            new IndiceReconstruible<>(new IndiceFacetas());
+
+    public FacetasService(ProductoRepository productoRepository, PlatformTransactionManager transactionManager) {
+        this.productoRepository = productoRepository;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.lectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @param filtro filtro ya normalizado por {@code ProductoService} (vendedor efectivo incluido);
+     *               el cursor, el orden y el tamaño de página no afectan los conteos.
+     */
+    public FacetasDTO contar(ProductoFiltro filtro) {
+        return indice.actual().contar(filtro);
+    }
+
+    /**
+     * Los eventos recibidos durante la carga se reaplican releyendo sus productos, no
+     * con el disponible que traen: otro evento más reciente puede haber llegado ya al índice
+     * nuevo y no hay que pisarlo con un valor anterior.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        IndiceFacetas nuevo = new IndiceFacetas();
+        indice.iniciarReconstruccion();
+        try {
+            lectura.executeWithoutResult(status -> productoRepository.findAll().forEach(nuevo::indexar));
+        } catch (RuntimeException e) {
+            indice.cancelarReconstruccion();
+            throw e;
+        }
+        List<CatalogoModificadoEvent> pendientes = indice.reemplazar(nuevo);
+        pendientes.forEach(evento -> recargar(nuevo, evento, evento.productoIds()));
+        logger.info("Índice de facetas construido con {} productos ({} cambios reaplicados)",
+                nuevo.getTamano(), pendientes.size());
+    }
+
+    /**
+     * Los movimientos de stock del checkout traen el disponible resultante y se aplican sin
+     * leer la base: este listener corre tras el commit con la conexión de la venta aún
+     * tomada, y pedir otra por cada venta agota el pool cuando hay muchas en paralelo.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarCatalogo(CatalogoModificadoEvent evento) {
+        IndiceFacetas destino = indice.registrar(evento);
+        Set<Long> pendientes = new HashSet<>(evento.productoIds());
+        if (evento.soloStock()) {
+            evento.disponible().forEach((productoId, disponible) -> {
+                if (destino.actualizarDisponible(productoId, disponible)) {
+                    pendientes.remove(productoId);
+                }
+            });
+            if (pendientes.isEmpty()) {
+                return;
+            }
+        }
+        recargar(destino, evento, pendientes);
+    }
+
+    private void recargar(IndiceFacetas destino, CatalogoModificadoEvent evento, Set<Long> productoIds) {
+        lectura.executeWithoutResult(status -> {
+            List<Producto> productos = evento.esCambioDeCategoria()
+                    ? evento.categoriaIds().stream().flatMap(id -> productoRepository.findByCategoriaId(id).stream()).toList()
+                    : productoRepository.findByIdIn(productoIds);
+            Set<Long> vigentes = new HashSet<>();
+            for (Producto producto : productos) {
+                destino.indexar(producto);
+                vigentes.add(producto.getId());
+            }
+            productoIds.stream()
+                    .filter(id -> !vigentes.contains(id))
+                    .forEach(destino::eliminar);
+        });
+    }
+}
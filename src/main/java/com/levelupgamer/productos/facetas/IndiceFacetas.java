@@ -0,0 +1,264 @@
+package com.levelupgamer.productos.facetas;
+
+import com.levelupgamer.productos.Producto;
+import com.levelupgamer.productos.dto.FacetasDTO;
+import com.levelupgamer.productos.dto.ProductoFiltro;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Conteos de facetas del catálogo mantenidos en memoria. Cada producto recibe un
+ * ordinal denso y cada valor de faceta (categoría, tramo de precio, escalón de
+ * puntos, con/sin stock, vendedor, activo) es un {@link BitSet} sobre esos
+ * ordinales: aplicar filtros es un AND de bitsets y contar es {@code cardinality()}.
+ *
+ * <p>Las facetas de categoría y precio se cuentan sin su propio filtro, para que
+ * el front pueda ofrecer las alternativas a la selección actual.
+ */
+public class IndiceFacetas {
+
+    /** Límites inferiores de los tramos de precio, en pesos. */
+    static final long[] TRAMOS_PRECIO = { 0, 20_000, 50_000, 100_000, 250_000, 500_000 };
+    private static final int PASO_PUNTOS = 100;
+    private static final int ESCALONES_PUNTOS = 11;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinales = new HashMap<>();
+    private final Deque<Integer> ordinalesLibres = new ArrayDeque<>();
+    private long[] precioCentavos = new long[64];
+    private int siguienteOrdinal;
+
+    private final BitSet presentes = new BitSet();
+    private final BitSet activos = new BitSet();
+    private final BitSet conStock = new BitSet();
+    private final Map<Long, BitSet> porCategoria = new HashMap<>();
+    private final Map<Long, BitSet> porVendedor = new HashMap<>();
+    private final BitSet[] porTramoPrecio = nuevosBitsets(TRAMOS_PRECIO.length);
+    private final BitSet[] porPuntos = nuevosBitsets(ESCALONES_PUNTOS);
+
+    public void indexar(Producto producto) {
+        lock.writeLock().lock();
+        try {
+            eliminarSinBloqueo(producto.getId());
+            int ordinal = asignarOrdinal(producto.getId());
+            presentes.set(ordinal);
+            if (Boolean.TRUE.equals(producto.getActivo())) {
+                activos.set(ordinal);
+            }
+            if (producto.getStock() != null && disponible(producto) > 0) {
+                conStock.set(ordinal);
+            }
+            if (producto.getCategoria() != null) {
+                porCategoria.computeIfAbsent(producto.getCategoria().getId(), id -> new BitSet()).set(ordinal);
+            }
+            if (producto.getVendedor() != null) {
+                porVendedor.computeIfAbsent(producto.getVendedor().getId(), id -> new BitSet()).set(ordinal);
+            }
+            long centavos = producto.getPrecio() != null
+                    ? producto.getPrecio().movePointRight(2).longValue()
+                    : 0;
+            precioCentavos[ordinal] = centavos;
+            porTramoPrecio[tramoPrecio(centavos)].set(ordinal);
+            int puntos = producto.getPuntosLevelUp() != null ? producto.getPuntosLevelUp() : 0;
+            porPuntos[Math.min(Math.max(puntos / PASO_PUNTOS, 0), ESCALONES_PUNTOS - 1)].set(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sólo el bit "con stock", a partir de {@code stock - stockReservado}; devuelve
+     * {@code false} si el producto no está indexado.
+     */
+    public boolean actualizarDisponible(Long productoId, int disponible) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinales.get(productoId);
+            if (ordinal == null) {
+                return false;
+            }
+            conStock.set(ordinal, disponible > 0);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void eliminar(Long productoId) {
+        lock.writeLock().lock();
+        try {
+            eliminarSinBloqueo(productoId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int getTamano() {
+        lock.readLock().lock();
+        try {
+            return ordinales.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public FacetasDTO contar(ProductoFiltro filtro) {
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) presentes.clone();
+            if (filtro.getActivo() != null) {
+                if (filtro.getActivo()) {
+                    base.and(activos);
+                } else {
+                    base.andNot(activos);
+                }
+            }
+            if (filtro.getVendedorId() != null) {
+                base.and(porVendedor.getOrDefault(filtro.getVendedorId(), new BitSet()));
+            }
+            BitSet filtroCategoria = filtro.getCategoriaId() != null
+                    ? porCategoria.getOrDefault(filtro.getCategoriaId(), new BitSet())
+                    : null;
+            BitSet filtroPrecio = enRangoDePrecio(filtro.getPrecioMin(), filtro.getPrecioMax());
+
+            BitSet sinFiltroCategoria = interseccion(base, filtroPrecio);
+            BitSet sinFiltroPrecio = interseccion(base, filtroCategoria);
+            BitSet completo = interseccion(sinFiltroCategoria, filtroCategoria);
+
+            Map<Long, Integer> categorias = new TreeMap<>();
+            porCategoria.forEach((categoriaId, bits) -> {
+                int cantidad = contarInterseccion(sinFiltroCategoria, bits);
+                if (cantidad > 0) {
+                    categorias.put(categoriaId, cantidad);
+                }
+            });
+
+            List<FacetasDTO.RangoPrecio> precios = new ArrayList<>();
+            for (int i = 0; i < TRAMOS_PRECIO.length; i++) {
+                BigDecimal hasta = i + 1 < TRAMOS_PRECIO.length ? BigDecimal.valueOf(TRAMOS_PRECIO[i + 1]) : null;
+                precios.add(new FacetasDTO.RangoPrecio(BigDecimal.valueOf(TRAMOS_PRECIO[i]), hasta,
+                        contarInterseccion(sinFiltroPrecio, porTramoPrecio[i])));
+            }
+
+            Map<Integer, Integer> puntos = new LinkedHashMap<>();
+            for (int i = 0; i < ESCALONES_PUNTOS; i++) {
+                puntos.put(i * PASO_PUNTOS, contarInterseccion(completo, porPuntos[i]));
+            }
+
+            int total = completo.cardinality();
+            int disponibles = contarInterseccion(completo, conStock);
+            return FacetasDTO.builder()
+                    .total(total)
+                    .categorias(categorias)
+                    .precios(precios)
+                    .puntosLevelUp(puntos)
+                    .conStock(disponibles)
+                    .sinStock(total - disponibles)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet enRangoDePrecio(BigDecimal minimo, BigDecimal maximo) {
+        if (minimo == null && maximo == null) {
+            return null;
+        }
+        long desde = minimo != null ? minimo.movePointRight(2).longValue() : Long.MIN_VALUE;
+        long hasta = maximo != null ? maximo.movePointRight(2).longValue() : Long.MAX_VALUE;
+        BitSet rango = new BitSet();
+        for (int ordinal = presentes.nextSetBit(0); ordinal >= 0; ordinal = presentes.nextSetBit(ordinal + 1)) {
+            if (precioCentavos[ordinal] >= desde && precioCentavos[ordinal] <= hasta) {
+                rango.set(ordinal);
+            }
+        }
+        return rango;
+    }
+
+    private int asignarOrdinal(Long productoId) {
+        Integer ordinal = ordinalesLibres.pollFirst();
+        if (ordinal == null) {
+            ordinal = siguienteOrdinal++;
+            if (ordinal >= precioCentavos.length) {
+                precioCentavos = Arrays.copyOf(precioCentavos, precioCentavos.length * 2);
+            }
+        }
+        ordinales.put(productoId, ordinal);
+        return ordinal;
+    }
+
+    private void eliminarSinBloqueo(Long productoId) {
+        Integer ordinal = ordinales.remove(productoId);
+        if (ordinal == null) {
+            return;
+        }
+        presentes.clear(ordinal);
+        activos.clear(ordinal);
+        conStock.clear(ordinal);
+        limpiar(porCategoria, ordinal);
+        limpiar(porVendedor, ordinal);
+        for (BitSet bits : porTramoPrecio) {
+            bits.clear(ordinal);
+        }
+        for (BitSet bits : porPuntos) {
+            bits.clear(ordinal);
+        }
+        precioCentavos[ordinal] = 0;
+        ordinalesLibres.push(ordinal);
+    }
+
+    /** Lo mismo que {@code ProductoMapper} publica como {@code stockDisponible}. */
+    private static int disponible(Producto producto) {
+        return producto.getStock() - (producto.getStockReservado() != null ? producto.getStockReservado() : 0);
+    }
+
+    private static void limpiar(Map<Long, BitSet> porValor, int ordinal) {
+        porValor.values().removeIf(bits -> {
+            bits.clear(ordinal);
+            return bits.isEmpty();
+        });
+    }
+
+    private static int tramoPrecio(long centavos) {
+        long pesos = centavos / 100;
+        for (int i = TRAMOS_PRECIO.length - 1; i > 0; i--) {
+            if (pesos >= TRAMOS_PRECIO[i]) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static BitSet interseccion(BitSet base, BitSet filtro) {
+        BitSet resultado = (BitSet) base.clone();
+        if (filtro != null) {
+            resultado.and(filtro);
+        }
+        return resultado;
+    }
+
+    private static int contarInterseccion(BitSet a, BitSet b) {
+        BitSet copia = (BitSet) a.clone();
+        copia.and(b);
+        return copia.cardinality();
+    }
+
+    private static BitSet[] nuevosBitsets(int cantidad) {
+        BitSet[] bitsets = new BitSet[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            bitsets[i] = new BitSet();
+        }
+        return bitsets;
+    }
+}
@@ -0,0 +1,24 @@
+package com.levelupgamer.productos.imagenes;
+
+/** Tamaños derivados de la imagen principal; {@code lado} es el lado mayor en píxeles. */
+public enum TamanoImagen {
+    MINIATURA("thumbnail", 160),
+    TARJETA("card", 480),
+    DETALLE("detail", 1200);
+
+    private final String nombreArchivo;
+    private final int lado;
+
+    TamanoImagen(String nombreArchivo, int lado) {
+        this.nombreArchivo = nombreArchivo;
+        this.lado = lado;
+    }
+
+    public String getNombreArchivo() {
+        return nombreArchivo;
+    }
+
+    public int getLado() {
+        return lado;
+    }
+}
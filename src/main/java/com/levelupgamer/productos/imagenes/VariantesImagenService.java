@@ -0,0 +1,271 @@
+package com.levelupgamer.productos.imagenes;
+
+import com.levelupgamer.common.storage.FileStorageService;
+import com.levelupgamer.productos.CatalogoModificadoEvent;
+import com.levelupgamer.productos.Producto;
+import com.levelupgamer.productos.ProductoRepository;
+import com.levelupgamer.productos.ProductoService;
+import com.levelupgamer.productos.VariantesImagen;
+import jakarta.annotation.PreDestroy;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Genera las variantes (miniatura, tarjeta y detalle) de la imagen principal de cada
+ * producto fuera del hilo de la petición. Reacciona a los {@link CatalogoModificadoEvent}
+ * confirmados con un pool acotado: si la cola está llena el producto se descarta y lo
+ * recoge el backfill, que recorre el catálogo por tandas en un único hilo propio.
+ * Las variantes se guardan en {@code products/<codigo>/variantes}.
+ */
+@Service
+public class VariantesImagenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariantesImagenService.class);
+    public static final String CARPETA_VARIANTES = "variantes";
+    private static final int CAPACIDAD_COLA = 1000;
+    private static final int TANDA_BACKFILL = 200;
+
+    private final ProductoRepository productoRepository;
+    private final FileStorageService fileStorageService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate lectura;
+    private final TransactionTemplate escritura;
+    private final boolean backfillAlIniciar;
+    private final Set<Long> encolados = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean backfillEnCurso = new AtomicBoolean();
+    private final ThreadPoolExecutor ejecutor;
+    private final ExecutorService ejecutorBackfill;
+
+    public VariantesImagenService(ProductoRepository productoRepository,
+                                  FileStorageService fileStorageService,
+                                  ApplicationEventPublisher eventPublisher,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${catalogo.imagenes.hilos:2}") int hilos,
+                                  @Value("${catalogo.imagenes.backfill-al-iniciar:false}") boolean backfillAlIniciar) {
+        this.productoRepository = productoRepository;
+        this.fileStorageService = fileStorageService;
+        this.eventPublisher = eventPublisher;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.lectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.escritura = new TransactionTemplate(transactionManager);
+        this.escritura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.backfillAlIniciar = backfillAlIniciar;
+        AtomicInteger numero = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(CAPACIDAD_COLA), tarea -> hiloDemonio(tarea, "variantes-imagen-" + numero.incrementAndGet()));
+        this.ejecutor.allowCoreThreadTimeOut(true);
+        this.ejecutorBackfill = Executors.newSingleThreadExecutor(tarea -> hiloDemonio(tarea, "variantes-imagen-backfill"));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarCatalogo(CatalogoModificadoEvent evento) {
+        if (evento.soloStock() || evento.esCambioDeCategoria()) {
+            return;
+        }
+        evento.productoIds().forEach(this::encolar);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        if (backfillAlIniciar) {
+            iniciarBackfill();
+        }
+    }
+
+    /** Devuelve {@code false} si ya hay un backfill en curso. */
+    public boolean iniciarBackfill() {
+        if (!backfillEnCurso.compareAndSet(false, true)) {
+            return false;
+        }
+        ejecutorBackfill.execute(() -> {
+            try {
+                backfill();
+            } finally {
+                backfillEnCurso.set(false);
+            }
+        });
+        return true;
+    }
+
+    @PreDestroy
+    void detener() {
+        ejecutor.shutdownNow();
+        ejecutorBackfill.shutdownNow();
+    }
+
+    void encolar(Long productoId) {
+        if (!encolados.add(productoId)) {
+            return;
+        }
+        try {
+            ejecutor.execute(() -> {
+                encolados.remove(productoId);
+                generar(productoId);
+            });
+        } catch (RejectedExecutionException e) {
+            encolados.remove(productoId);
+            logger.debug("Cola de variantes llena; el producto {} quedará para el backfill", productoId);
+        }
+    }
+
+    void backfill() {
+        long desde = 0;
+        int revisados = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            long cursor = desde;
+            List<Long> ids = lectura.execute(status -> productoRepository.findIdsConImagenesDesde(cursor, Limit.of(TANDA_BACKFILL)));
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+            ids.forEach(this::generar);
+            revisados += ids.size();
+            desde = ids.get(ids.size() - 1);
+        }
+        logger.info("Backfill de variantes de imagen terminado; {} productos revisados", revisados);
+    }
+
+    /** Regenera las variantes del producto si su imagen principal cambió desde la última vez. */
+    void generar(Long productoId) {
+        Optional<Pendiente> pendiente = lectura.execute(status -> productoRepository.findById(productoId)
+                .filter(producto -> producto.getImagenes() != null && !producto.getImagenes().isEmpty())
+                .filter(producto -> producto.getVariantes() == null
+                        || !producto.getVariantes().vigentePara(producto.getImagenes().get(0)))
+                .map(Pendiente::de));
+        if (pendiente == null || pendiente.isEmpty()) {
+            return;
+        }
+
+        Map<TamanoImagen, String> urls = new EnumMap<>(TamanoImagen.class);
+        try {
+            if (!subirVariantes(pendiente.get(), urls)) {
+                return;
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("No se pudieron generar las variantes del producto {}: {}", productoId, e.getMessage());
+            eliminar(urls.values());
+            return;
+        }
+
+        Pendiente datos = pendiente.get();
+        Integer filas = escritura.execute(status -> {
+            int actualizadas = productoRepository.actualizarVariantes(productoId, datos.origenLeido(), datos.origen(),
+                    urls.get(TamanoImagen.MINIATURA), urls.get(TamanoImagen.TARJETA), urls.get(TamanoImagen.DETALLE),
+                    LocalDateTime.now());
+            if (actualizadas > 0) {
+                eventPublisher.publishEvent(CatalogoModificadoEvent.deProducto(productoId, datos.categoriaId()));
+            }
+            return actualizadas;
+        });
+        // Si el producto se eliminó o otra generación guardó sus variantes entretanto se
+        // descartan las nuevas y se vuelve a revisar; si no, se eliminan las que reemplazan.
+        if (filas == null || filas == 0) {
+            eliminar(urls.values());
+            encolar(productoId);
+        } else {
+            eliminar(datos.anteriores());
+        }
+    }
+
+    private boolean subirVariantes(Pendiente pendiente, Map<TamanoImagen, String> urls) throws IOException {
+        Optional<InputStream> contenido = fileStorageService.openIfManaged(pendiente.origen());
+        if (contenido == null || contenido.isEmpty()) {
+            logger.debug("La imagen {} no está en el almacenamiento gestionado; se omiten sus variantes", pendiente.origen());
+            return false;
+        }
+        BufferedImage imagen;
+        try (InputStream entrada = contenido.get()) {
+            imagen = EscaladorImagenes.leer(entrada, TamanoImagen.DETALLE.getLado());
+        }
+        if (imagen == null) {
+            logger.info("Formato de imagen no soportado para variantes: {}", pendiente.origen());
+            return false;
+        }
+
+        String carpeta = ProductoService.PRODUCT_IMAGE_FOLDER + "/" + pendiente.codigo() + "/" + CARPETA_VARIANTES;
+        String nombreBase = nombreBase(pendiente.origen());
+        // De mayor a menor, reduciendo cada tamaño a partir del anterior.
+        TamanoImagen[] tamanos = TamanoImagen.values();
+        for (int i = tamanos.length - 1; i >= 0; i--) {
+            imagen = EscaladorImagenes.reducir(imagen, tamanos[i].getLado());
+            byte[] jpeg = EscaladorImagenes.comoJpeg(imagen);
+            urls.put(tamanos[i], fileStorageService.uploadFile(new ByteArrayInputStream(jpeg),
+                    tamanos[i].getNombreArchivo() + "-" + nombreBase + ".jpg", jpeg.length, carpeta, "image/jpeg"));
+        }
+        return true;
+    }
+
+    private void eliminar(Collection<String> urls) {
+        for (String url : urls) {
+            try {
+                fileStorageService.deleteIfManaged(url);
+            } catch (IOException e) {
+                logger.warn("No se pudo eliminar la variante {}: {}", url, e.getMessage());
+            }
+        }
+    }
+
+    static String nombreBase(String url) {
+        String nombre = url.substring(url.lastIndexOf('/') + 1);
+        int consulta = nombre.indexOf('?');
+        if (consulta >= 0) {
+            nombre = nombre.substring(0, consulta);
+        }
+        int punto = nombre.lastIndexOf('.');
+        return punto > 0 ? nombre.substring(0, punto) : nombre;
+    }
+
+    private static Thread hiloDemonio(Runnable tarea, String nombre) {
+        Thread hilo = new Thread(tarea, nombre);
+        hilo.setDaemon(true);
+        hilo.setPriority(Thread.NORM_PRIORITY - 1);
+        return hilo;
+    }
+
+    /** {@code origenLeido}: origen de las variantes guardadas al leer el producto, {@code ""} si no había. */
+    private record Pendiente(String codigo, String origen, String origenLeido, Long categoriaId, List<String> anteriores) {
+
+        static Pendiente de(Producto producto) {
+            List<String> anteriores = new ArrayList<>();
+            VariantesImagen variantes = producto.getVariantes();
+            String origenLeido = variantes != null && variantes.getOrigen() != null ? variantes.getOrigen() : "";
+            if (variantes != null) {
+                variantes.comoMapa().values().stream().filter(url -> url != null).forEach(anteriores::add);
+            }
+            Long categoriaId = producto.getCategoria() != null ? producto.getCategoria().getId() : null;
+            return new Pendiente(producto.getCodigo(), producto.getImagenes().get(0), origenLeido, categoriaId,
+                    anteriores);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.levelupgamer.productos.importacion;
+
+import com.levelupgamer.productos.dto.ProductoRequest;
+
+/**
+ * Una fila leída del archivo. {@code error} viene informado cuando la fila no se
+ * pudo interpretar; en ese caso {@code request} es {@code null}.
+ */
+record FilaImportacion(long numero, ProductoRequest request, String categoriaCodigo, String error) {
+
+    static FilaImportacion valida(long numero, ProductoRequest request, String categoriaCodigo) {
+        return new FilaImportacion(numero, request, categoriaCodigo, null);
+    }
+
+    static FilaImportacion invalida(long numero, String error) {
+        return new FilaImportacion(numero, null, null, error);
+    }
+
+    String codigo() {
+        return request != null ? request.getCodigo() : null;
+    }
+}
@@ -0,0 +1,42 @@
+package com.levelupgamer.productos.importacion;
+
+/**
+ * Formatos aceptados por la importación masiva. El CSV lleva encabezado con los
+ * nombres de campo de {@code ProductoRequest}; en NDJSON cada línea es un objeto.
+ */
+public enum FormatoImportacion {
+    CSV("text/csv", ".csv"),
+    NDJSON("application/x-ndjson", ".ndjson");
+
+    private final String tipoContenido;
+    private final String extension;
+
+    FormatoImportacion(String tipoContenido, String extension) {
+        this.tipoContenido = tipoContenido;
+        this.extension = extension;
+    }
+
+    String getExtension() {
+        return extension;
+    }
+
+    /** Resuelve el formato desde el parámetro {@code format} o, si no viene, desde el Content-Type. */
+    public static FormatoImportacion desde(String parametro, String contentType) {
+        if (parametro != null && !parametro.isBlank()) {
+            for (FormatoImportacion formato : values()) {
+                if (formato.name().equalsIgnoreCase(parametro.trim())) {
+                    return formato;
+                }
+            }
+            throw new IllegalArgumentException("Formato de importación no soportado: " + parametro + ". Use csv o ndjson");
+        }
+        if (contentType != null) {
+            for (FormatoImportacion formato : values()) {
+                if (contentType.toLowerCase().startsWith(formato.tipoContenido)) {
+                    return formato;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Indique el formato con Content-Type text/csv o application/x-ndjson, o con el parámetro format");
+    }
+}
@@ -0,0 +1,88 @@
+package com.levelupgamer.productos.importacion;
+
+import com.levelupgamer.productos.dto.ImportacionProductosDTO;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estado en memoria de una importación en curso o terminada. Lo escribe el hilo
+ * que procesa el archivo y lo leen las consultas de progreso.
+ */
+class ImportacionProductos {
+
+    enum Estado { EN_COLA, PROCESANDO, COMPLETADA, FALLIDA }
+
+    static final int MAX_ERRORES_REPORTADOS = 200;
+
+    private final String id;
+    private final Long usuarioId;
+    private final FormatoImportacion formato;
+    private final LocalDateTime creadaEn = LocalDateTime.now();
+    private final List<ImportacionProductosDTO.ErrorFila> errores = new ArrayList<>();
+    private Estado estado = Estado.EN_COLA;
+    private long filasLeidas;
+    private long filasImportadas;
+    private long filasConError;
+    private String mensaje;
+    private LocalDateTime finalizadaEn;
+
+    ImportacionProductos(String id, Long usuarioId, FormatoImportacion formato) {
+        this.id = id;
+        this.usuarioId = usuarioId;
+        this.formato = formato;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    synchronized void iniciar() {
+        estado = Estado.PROCESANDO;
+    }
+
+    synchronized void registrarLectura(long filas) {
+        filasLeidas += filas;
+    }
+
+    synchronized void registrarImportadas(long filas) {
+        filasImportadas += filas;
+    }
+
+    synchronized void registrarError(long fila, String codigo, String detalle) {
+        filasConError++;
+        if (errores.size() < MAX_ERRORES_REPORTADOS) {
+            errores.add(new ImportacionProductosDTO.ErrorFila(fila, codigo, detalle));
+        }
+    }
+
+    synchronized void completar() {
+        estado = Estado.COMPLETADA;
+        finalizadaEn = LocalDateTime.now();
+    }
+
+    synchronized void fallar(String detalle) {
+        estado = Estado.FALLIDA;
+        mensaje = detalle;
+        finalizadaEn = LocalDateTime.now();
+    }
+
+    synchronized ImportacionProductosDTO toDTO() {
+        return ImportacionProductosDTO.builder()
+                .id(id)
+                .estado(estado.name())
+                .formato(formato.name())
+                .filasLeidas(filasLeidas)
+                .filasImportadas(filasImportadas)
+                .filasConError(filasConError)
+                .errores(List.copyOf(errores))
+                .mensaje(mensaje)
+                .creadaEn(creadaEn)
+                .finalizadaEn(finalizadaEn)
+                .build();
+    }
+}
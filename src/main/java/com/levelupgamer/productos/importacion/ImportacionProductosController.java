@@ -0,0 +1,55 @@
+package com.levelupgamer.productos.importacion;
+
+import com.levelupgamer.productos.dto.ImportacionProductosDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/products/imports")
+@Tag(name = "Importación de productos", description = "Carga masiva de productos para el vendedor autenticado")
+public class ImportacionProductosController {
+
+    @Autowired
+    private ImportacionProductosService importacionProductosService;
+
+    @Operation(summary = "Importar productos",
+            description = "Recibe el archivo como cuerpo crudo (Content-Type text/csv o application/x-ndjson, o parámetro format=csv|ndjson) "
+                    + "y lo procesa en segundo plano. El CSV requiere encabezado con codigo, nombre, precio, stock y categoriaId o categoriaCodigo; "
+                    + "opcionales: descripcion, stockCritico, puntosLevelUp e imagenes (URLs separadas por |). "
+                    + "Responde 202 con la importación; consulte su progreso y los errores por fila en Location.")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR','VENDEDOR')")
+    @PostMapping
+    public ResponseEntity<ImportacionProductosDTO> importar(
+            @RequestParam(name = "format", required = false) String format,
+            @RequestHeader(name = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            InputStream cuerpo) throws IOException {
+        ImportacionProductosDTO importacion = importacionProductosService.iniciar(cuerpo, FormatoImportacion.desde(format, contentType));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/products/imports/" + importacion.getId()))
+                .body(importacion);
+    }
+
+    @Operation(summary = "Estado de una importación",
+            description = "Filas leídas, importadas y con error (con el detalle de las primeras 200). Visible para quien la inició y para administradores.")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR','VENDEDOR')")
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportacionProductosDTO> consultar(@PathVariable String id) {
+        return importacionProductosService.consultar(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,352 @@
+package com.levelupgamer.productos.importacion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.levelupgamer.common.cache.CacheAcotado;
+import com.levelupgamer.productos.CatalogoModificadoEvent;
+import com.levelupgamer.productos.ProductoRepository;
+import com.levelupgamer.productos.alertas.StockCriticoEvent;
+import com.levelupgamer.productos.categorias.RegistroCategorias;
+import com.levelupgamer.productos.dto.CategoriaDTO;
+import com.levelupgamer.productos.dto.ImportacionProductosDTO;
+import com.levelupgamer.productos.dto.ProductoRequest;
+import com.levelupgamer.usuarios.RolUsuario;
+import com.levelupgamer.usuarios.Usuario;
+import com.levelupgamer.usuarios.UsuarioRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Importación masiva de productos desde CSV o NDJSON. El cuerpo se vuelca a un
+ * archivo temporal y se procesa en segundo plano por lotes de {@value #TAMANO_LOTE}
+ * filas: categorías y vendedor se resuelven una sola vez, la unicidad de códigos se
+ * verifica con una consulta por lote y cada lote se inserta con sentencias JDBC por
+ * lotes en su propia transacción, de modo que un error de base de datos sólo
+ * descarta ese lote.
+ *
+ * <p>Las importaciones pendientes o en curso se guardan aparte y no se desalojan
+ * (el ejecutor acota cuántas puede haber); al terminar pasan al caché acotado de
+ * terminadas, desde donde se pueden consultar durante unas horas.
+ */
+@Service
+public class ImportacionProductosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacionProductosService.class);
+    static final int TAMANO_LOTE = 500;
+    private static final String INSERT_PRODUCTO = "insert into producto (codigo, nombre, descripcion, precio, stock, "
+            + "stock_reservado, stock_critico, categoria_id, puntos_level_up, usuario_id, activo, created_at, updated_at) "
+            + "values (?, ?, ?, ?, ?, 0, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_IMAGEN = "insert into producto_imagenes (producto_id, imagen_url) values (?, ?)";
+    private static final String INSERT_CALIFICACION = "insert into producto_calificacion (producto_id, cantidad, suma, "
+            + "promedio, estrellas_1, estrellas_2, estrellas_3, estrellas_4, estrellas_5) values (?, 0, 0, 0, 0, 0, 0, 0, 0)";
+    private static final String SELECT_IDS = "select id, codigo from producto where codigo in (:codigos)";
+
+    private final ProductoRepository productoRepository;
+    private final RegistroCategorias registroCategorias;
+    private final UsuarioRepository usuarioRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate escritura;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final Map<String, ImportacionProductos> enCurso = new ConcurrentHashMap<>();
+    private final CacheAcotado<String, ImportacionProductos> terminadas =
+            new CacheAcotado<>("productos.importaciones", 100, Duration.ofHours(6));
+    private final ThreadPoolExecutor ejecutor;
+
+    public ImportacionProductosService(ProductoRepository productoRepository,
+                                       RegistroCategorias registroCategorias,
+                                       UsuarioRepository usuarioRepository,
+                                       JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       ApplicationEventPublisher eventPublisher,
+                                       ObjectMapper objectMapper,
+                                       Validator validator) {
+        this.productoRepository = productoRepository;
+        this.registroCategorias = registroCategorias;
+        this.usuarioRepository = usuarioRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.escritura = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        AtomicInteger hilos = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(1, 2, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(10), tarea -> {
+            Thread hilo = new Thread(tarea, "importacion-productos-" + hilos.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    public ImportacionProductosDTO iniciar(InputStream cuerpo, FormatoImportacion formato) throws IOException {
+        Usuario usuario = resolverImportador();
+        Path archivo = Files.createTempFile("importacion-productos-", formato.getExtension());
+        try (cuerpo) {
+            Files.copy(cuerpo, archivo, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(archivo);
+            throw e;
+        }
+
+        ImportacionProductos importacion = new ImportacionProductos(UUID.randomUUID().toString(), usuario.getId(), formato);
+        enCurso.put(importacion.getId(), importacion);
+        try {
+            ejecutor.execute(() -> procesar(importacion, formato, archivo));
+        } catch (RejectedExecutionException e) {
+            enCurso.remove(importacion.getId());
+            Files.deleteIfExists(archivo);
+            throw new IllegalStateException("Hay demasiadas importaciones en curso; intente nuevamente en unos minutos");
+        }
+        return importacion.toDTO();
+    }
+
+    /** Sólo quien inició la importación o un administrador pueden consultarla. */
+    public Optional<ImportacionProductosDTO> consultar(String id) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(a -> ("ROLE_" + RolUsuario.ADMINISTRADOR.name()).equals(a.getAuthority()));
+        Long usuarioId = authentication != null
+                ? usuarioRepository.findByCorreo(authentication.getName()).map(Usuario::getId).orElse(null)
+                : null;
+        return Optional.ofNullable(enCurso.get(id))
+                .or(() -> terminadas.obtener(id))
+                .filter(importacion -> isAdmin || importacion.getUsuarioId().equals(usuarioId))
+                .map(ImportacionProductos::toDTO);
+    }
+
+    @PreDestroy
+    void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    void procesar(ImportacionProductos importacion, FormatoImportacion formato, Path archivo) {
+        importacion.iniciar();
+        try (Reader reader = Files.newBufferedReader(archivo, StandardCharsets.UTF_8);
+             LectorFilasProductos lector = new LectorFilasProductos(reader, formato, objectMapper)) {
+            Set<String> codigosVistos = new HashSet<>();
+            List<FilaImportacion> lote = new ArrayList<>(TAMANO_LOTE);
+            while (lector.hasNext()) {
+                lote.add(lector.next());
+                if (lote.size() == TAMANO_LOTE) {
+                    procesarLote(importacion, lote, codigosVistos);
+                    lote.clear();
+                }
+            }
+            if (!lote.isEmpty()) {
+                procesarLote(importacion, lote, codigosVistos);
+            }
+            importacion.completar();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Importación de productos {} fallida: {}", importacion.getId(), e.getMessage());
+            importacion.fallar(e.getMessage());
+        } finally {
+            // Primero a terminadas y después fuera de las en curso, para que siempre se encuentre.
+            terminadas.guardar(importacion.getId(), importacion);
+            enCurso.remove(importacion.getId());
+            try {
+                Files.deleteIfExists(archivo);
+            } catch (IOException e) {
+                logger.warn("No se pudo eliminar el archivo temporal {}", archivo);
+            }
+        }
+    }
+
+    private void procesarLote(ImportacionProductos importacion, List<FilaImportacion> lote,
+                              Set<String> codigosVistos) {
+        importacion.registrarLectura(lote.size());
+        List<ProductoValidado> validos = new ArrayList<>(lote.size());
+        for (FilaImportacion fila : lote) {
+            if (fila.error() != null) {
+                importacion.registrarError(fila.numero(), null, fila.error());
+                continue;
+            }
+            CategoriaDTO categoria = resolverCategoria(fila);
+            String error = categoria == null ? "Categoría no encontrada o inactiva" : validar(fila.request());
+            if (error == null && !codigosVistos.add(fila.codigo())) {
+                error = "Código repetido dentro del archivo";
+            }
+            if (error != null) {
+                importacion.registrarError(fila.numero(), fila.codigo(), error);
+            } else {
+                validos.add(new ProductoValidado(fila.numero(), fila.request(), categoria.getId()));
+            }
+        }
+        if (validos.isEmpty()) {
+            return;
+        }
+
+        Set<String> existentes = productoRepository.findCodigosExistentes(
+                validos.stream().map(v -> v.request().getCodigo()).toList());
+        List<ProductoValidado> nuevos = new ArrayList<>(validos.size());
+        for (ProductoValidado valido : validos) {
+            if (existentes.contains(valido.request().getCodigo())) {
+                importacion.registrarError(valido.fila(), valido.request().getCodigo(), "Código de producto ya existe");
+            } else {
+                nuevos.add(valido);
+            }
+        }
+        if (nuevos.isEmpty()) {
+            return;
+        }
+
+        try {
+            escritura.executeWithoutResult(status -> insertar(nuevos, importacion.getUsuarioId()));
+            importacion.registrarImportadas(nuevos.size());
+        } catch (DataAccessException e) {
+            logger.warn("Lote de importación {} descartado: {}", importacion.getId(), e.getMessage());
+            for (ProductoValidado valido : nuevos) {
+                importacion.registrarError(valido.fila(), valido.request().getCodigo(),
+                        "No se pudo guardar el lote: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private void insertar(List<ProductoValidado> productos, Long vendedorId) {
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_PRODUCTO, productos, productos.size(), (ps, producto) -> {
+            ProductoRequest request = producto.request();
+            ps.setString(1, request.getCodigo());
+            ps.setString(2, request.getNombre());
+            ps.setString(3, request.getDescripcion());
+            ps.setBigDecimal(4, request.getPrecio());
+            ps.setInt(5, request.getStock());
+            if (request.getStockCritico() != null) {
+                ps.setInt(6, request.getStockCritico());
+            } else {
+                ps.setNull(6, Types.INTEGER);
+            }
+            ps.setLong(7, producto.categoriaId());
+            ps.setInt(8, request.getPuntosLevelUp());
+            ps.setLong(9, vendedorId);
+            ps.setBoolean(10, true);
+            ps.setTimestamp(11, ahora);
+            ps.setTimestamp(12, ahora);
+        });
+
+        Map<String, Long> ids = new HashMap<>();
+        namedJdbcTemplate.query(SELECT_IDS,
+                Map.of("codigos", productos.stream().map(p -> p.request().getCodigo()).toList()),
+                rs -> {
+                    ids.put(rs.getString("codigo"), rs.getLong("id"));
+                });
+
+        jdbcTemplate.batchUpdate(INSERT_CALIFICACION, ids.values().stream().map(id -> new Object[] { id }).toList());
+
+        List<Object[]> imagenes = new ArrayList<>();
+        for (ProductoValidado producto : productos) {
+            ProductoRequest request = producto.request();
+            StockCriticoEvent.detectar(ids.get(request.getCodigo()), null, request.getStock(), request.getStockCritico())
+                    .ifPresent(eventPublisher::publishEvent);
+            List<String> urls = request.getImagenes();
+            if (urls != null) {
+                Long id = ids.get(request.getCodigo());
+                urls.forEach(url -> imagenes.add(new Object[] { id, url }));
+            }
+        }
+        if (!imagenes.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_IMAGEN, imagenes);
+        }
+
+        // Dentro de la transacción, para que cachés e índices reaccionen al confirmarse el lote.
+        eventPublisher.publishEvent(new CatalogoModificadoEvent(new HashSet<>(ids.values()),
+                productos.stream().map(ProductoValidado::categoriaId).collect(Collectors.toSet()), false));
+    }
+
+    private CategoriaDTO resolverCategoria(FilaImportacion fila) {
+        ProductoRequest request = fila.request();
+        if (request.getCategoriaId() != null) {
+            return registroCategorias.buscarActiva(request.getCategoriaId()).orElse(null);
+        }
+        if (fila.categoriaCodigo() != null) {
+            CategoriaDTO categoria = registroCategorias.buscarPorCodigo(fila.categoriaCodigo())
+                    .filter(encontrada -> Boolean.TRUE.equals(encontrada.getActivo()))
+                    .orElse(null);
+            if (categoria != null) {
+                request.setCategoriaId(categoria.getId());
+            }
+            return categoria;
+        }
+        return null;
+    }
+
+    private String validar(ProductoRequest request) {
+        if (request.getCodigo() == null || request.getCodigo().isBlank()) {
+            return "El código del producto es obligatorio";
+        }
+        if (request.getPuntosLevelUp() == null) {
+            request.setPuntosLevelUp(0);
+        }
+        Set<ConstraintViolation<ProductoRequest>> violaciones = validator.validate(request);
+        if (!violaciones.isEmpty()) {
+            return violaciones.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (request.getPuntosLevelUp() % 100 != 0) {
+            return "puntosLevelUp debe estar entre 0 y 1000 en incrementos de 100";
+        }
+        if (request.getPrecio().scale() > 2) {
+            return "precio admite como máximo 2 decimales";
+        }
+        return null;
+    }
+
+    private Usuario resolverImportador() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new AccessDeniedException("No hay un usuario autenticado en el contexto");
+        }
+        boolean autorizado = authentication.getAuthorities().stream()
+                .anyMatch(a -> ("ROLE_" + RolUsuario.ADMINISTRADOR.name()).equals(a.getAuthority())
+                        || ("ROLE_" + RolUsuario.VENDEDOR.name()).equals(a.getAuthority()));
+        if (!autorizado) {
+            throw new AccessDeniedException("Solo administradores o vendedores pueden importar productos");
+        }
+        return usuarioRepository.findByCorreo(authentication.getName())
+                .orElseThrow(() -> new AccessDeniedException("Usuario autenticado no encontrado"));
+    }
+
+    private record ProductoValidado(long fila, ProductoRequest request, Long categoriaId) {
+    }
+}
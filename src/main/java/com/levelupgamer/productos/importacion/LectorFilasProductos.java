@@ -0,0 +1,247 @@
+package com.levelupgamer.productos.importacion;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.levelupgamer.productos.dto.ProductoRequest;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Lee el archivo de importación fila a fila sin cargarlo completo en memoria. Las
+ * filas se numeran desde 1 sin contar el encabezado del CSV. Un valor que no se
+ * puede interpretar invalida sólo su fila; un encabezado incompleto invalida el archivo.
+ */
+class LectorFilasProductos implements Iterator<FilaImportacion>, Closeable {
+
+    private static final List<String> COLUMNAS_OBLIGATORIAS = List.of("codigo", "nombre", "precio", "stock");
+
+    private final BufferedReader reader;
+    private final FormatoImportacion formato;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader lectorRequest;
+    private Map<String, Integer> columnas;
+    private char separador = ',';
+    private long numero;
+    private FilaImportacion siguiente;
+
+    LectorFilasProductos(Reader reader, FormatoImportacion formato, ObjectMapper objectMapper) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.formato = formato;
+        this.objectMapper = objectMapper;
+        // categoriaCodigo no es parte de ProductoRequest; se lee aparte.
+        this.lectorRequest = objectMapper.readerFor(ProductoRequest.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        if (formato == FormatoImportacion.CSV) {
+            leerEncabezado();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (siguiente == null) {
+            try {
+                siguiente = formato == FormatoImportacion.CSV ? leerFilaCsv() : leerFilaNdjson();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return siguiente != null;
+    }
+
+    @Override
+    public FilaImportacion next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        FilaImportacion fila = siguiente;
+        siguiente = null;
+        return fila;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void leerEncabezado() {
+        List<String> encabezado;
+        try {
+            encabezado = leerRegistroCsv();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (encabezado == null) {
+            throw new IllegalArgumentException("El archivo CSV está vacío");
+        }
+        String primera = encabezado.get(0);
+        if (primera.startsWith("\uFEFF")) {
+            encabezado.set(0, primera.substring(1));
+        }
+        // Planillas exportadas con configuración regional en español usan ';'.
+        if (encabezado.size() == 1 && encabezado.get(0).contains(";")) {
+            separador = ';';
+            encabezado = new ArrayList<>(Arrays.asList(encabezado.get(0).split(";", -1)));
+        }
+        columnas = new HashMap<>();
+        for (int i = 0; i < encabezado.size(); i++) {
+            columnas.put(encabezado.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> faltantes = COLUMNAS_OBLIGATORIAS.stream().filter(c -> !columnas.containsKey(c)).toList();
+        if (!faltantes.isEmpty()) {
+            throw new IllegalArgumentException("Faltan columnas obligatorias en el CSV: " + String.join(", ", faltantes));
+        }
+        if (!columnas.containsKey("categoriaid") && !columnas.containsKey("categoriacodigo")) {
+            throw new IllegalArgumentException("El CSV debe incluir la columna categoriaId o categoriaCodigo");
+        }
+    }
+
+    private FilaImportacion leerFilaCsv() throws IOException {
+        List<String> campos;
+        do {
+            campos = leerRegistroCsv();
+            if (campos == null) {
+                return null;
+            }
+        } while (campos.size() == 1 && campos.get(0).isBlank());
+
+        long fila = ++numero;
+        try {
+            ProductoRequest request = ProductoRequest.builder()
+                    .codigo(texto(campos, "codigo"))
+                    .nombre(texto(campos, "nombre"))
+                    .descripcion(texto(campos, "descripcion"))
+                    .precio(decimal(campos, "precio"))
+                    .stock(entero(campos, "stock"))
+                    .stockCritico(entero(campos, "stockcritico"))
+                    .categoriaId(largo(campos, "categoriaid"))
+                    .puntosLevelUp(entero(campos, "puntoslevelup"))
+                    .imagenes(imagenes(texto(campos, "imagenes")))
+                    .build();
+            return FilaImportacion.valida(fila, request, texto(campos, "categoriacodigo"));
+        } catch (IllegalArgumentException e) {
+            return FilaImportacion.invalida(fila, e.getMessage());
+        }
+    }
+
+    private FilaImportacion leerFilaNdjson() throws IOException {
+        String linea;
+        do {
+            linea = reader.readLine();
+            if (linea == null) {
+                return null;
+            }
+        } while (linea.isBlank());
+
+        long fila = ++numero;
+        try {
+            JsonNode nodo = objectMapper.readTree(linea);
+            if (!nodo.isObject()) {
+                return FilaImportacion.invalida(fila, "Cada línea debe ser un objeto JSON");
+            }
+            ProductoRequest request = lectorRequest.treeToValue(nodo, ProductoRequest.class);
+            String categoriaCodigo = nodo.hasNonNull("categoriaCodigo") ? nodo.get("categoriaCodigo").asText() : null;
+            return FilaImportacion.valida(fila, request, categoriaCodigo);
+        } catch (JsonProcessingException e) {
+            return FilaImportacion.invalida(fila, "JSON inválido: " + e.getOriginalMessage());
+        }
+    }
+
+    /** Un registro CSV (RFC 4180): comillas dobles para campos con separadores o saltos de línea. */
+    private List<String> leerRegistroCsv() throws IOException {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        boolean leyoAlgo = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            leyoAlgo = true;
+            char caracter = (char) c;
+            if (entreComillas) {
+                if (caracter == '"') {
+                    reader.mark(1);
+                    int siguienteCaracter = reader.read();
+                    if (siguienteCaracter == '"') {
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                        if (siguienteCaracter != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    campo.append(caracter);
+                }
+            } else if (caracter == '"') {
+                entreComillas = true;
+            } else if (caracter == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (caracter == '\n') {
+                break;
+            } else if (caracter != '\r') {
+                campo.append(caracter);
+            }
+        }
+        if (!leyoAlgo) {
+            return null;
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    private String texto(List<String> campos, String columna) {
+        Integer indice = columnas.get(columna);
+        if (indice == null || indice >= campos.size()) {
+            return null;
+        }
+        String valor = campos.get(indice).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private BigDecimal decimal(List<String> campos, String columna) {
+        return numero(campos, columna, BigDecimal::new);
+    }
+
+    private Integer entero(List<String> campos, String columna) {
+        return numero(campos, columna, Integer::valueOf);
+    }
+
+    private Long largo(List<String> campos, String columna) {
+        return numero(campos, columna, Long::valueOf);
+    }
+
+    private <T> T numero(List<String> campos, String columna, Function<String, T> parser) {
+        String valor = texto(campos, columna);
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return parser.apply(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor numérico inválido en " + columna + ": " + valor);
+        }
+    }
+
+    private static List<String> imagenes(String valor) {
+        if (valor == null) {
+            return List.of();
+        }
+        return Arrays.stream(valor.split("\\|")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+}
@@ -0,0 +1,277 @@
+package com.levelupgamer.productos.inventario;
+
+import com.levelupgamer.productos.CatalogoModificadoEvent;
+import com.levelupgamer.productos.alertas.StockCriticoEvent;
+import com.levelupgamer.productos.dto.AjusteInventarioRequest;
+import com.levelupgamer.productos.dto.AjusteInventarioRespuestaDTO;
+import com.levelupgamer.usuarios.RolUsuario;
+import com.levelupgamer.usuarios.Usuario;
+import com.levelupgamer.usuarios.UsuarioRepository;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Ajustes masivos de stock y precio por código de producto, pensados para que los
+ * vendedores sincronicen su inventario varias veces por minuto. Cada ajuste es un
+ * UPDATE condicional sin cargar entidades: el stock nunca queda negativo y, para un
+ * vendedor, sólo afecta filas propias, que es lo mismo que exige
+ * {@code ProductoService.validarPermisosSobreProducto} (los productos corporativos
+ * pertenecen a administradores, así que nunca coinciden). Los ajustes se envían en
+ * lotes JDBC de {@value #TAMANO_LOTE} con una transacción por lote; los que no
+ * afectan filas se clasifican con una única consulta por lote. Un código repetido en
+ * la misma solicitud se rechaza desde su segunda aparición, y si la base rechaza un
+ * lote sus ajustes se informan como fallidos sin detener los lotes siguientes.
+ */
+@Service
+public class AjusteInventarioService {
+
+    static final int TAMANO_LOTE = 1000;
+    static final int MAXIMO_AJUSTES = 50_000;
+    /** Columna {@code precio}: {@code precision = 10, scale = 2}. */
+    static final int MAXIMO_DIGITOS_ENTEROS_PRECIO = 8;
+    static final int MAXIMO_DELTA_STOCK = 1_000_000;
+    private static final String UPDATE_AJUSTE = "update producto set stock = stock + ?, "
+            + "precio = coalesce(?, precio), updated_at = ? where codigo = ? and stock - stock_reservado + ? >= 0";
+    private static final String UPDATE_AJUSTE_VENDEDOR = UPDATE_AJUSTE + " and usuario_id = ?";
+    private static final String SELECT_ESTADO = "select id, codigo, stock, stock_reservado, stock_critico, "
+            + "usuario_id, categoria_id from producto where codigo in (:codigos)";
+
+    private static final Logger logger = LoggerFactory.getLogger(AjusteInventarioService.class);
+
+    private final UsuarioRepository usuarioRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate escritura;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AjusteInventarioService(UsuarioRepository usuarioRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.usuarioRepository = usuarioRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.escritura = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    public AjusteInventarioRespuestaDTO aplicar(List<AjusteInventarioRequest> ajustes) {
+        if (ajustes == null || ajustes.isEmpty()) {
+            throw new IllegalArgumentException("Debe enviar al menos un ajuste");
+        }
+        if (ajustes.size() > MAXIMO_AJUSTES) {
+            throw new IllegalArgumentException("Se admiten como máximo " + MAXIMO_AJUSTES + " ajustes por solicitud");
+        }
+        Long vendedorId = resolverVendedorRestringido();
+
+        AjusteInventarioRespuestaDTO.Resultado[] resultados = new AjusteInventarioRespuestaDTO.Resultado[ajustes.size()];
+        List<Integer> validos = new ArrayList<>(Math.min(ajustes.size(), TAMANO_LOTE));
+        Set<String> codigosVistos = new HashSet<>();
+        for (int i = 0; i < ajustes.size(); i++) {
+            AjusteInventarioRequest ajuste = ajustes.get(i);
+            String error = validar(ajuste);
+            if (error == null && !codigosVistos.add(ajuste.getCodigo())) {
+                error = "Código repetido dentro de la solicitud";
+            }
+            if (error != null) {
+                resultados[i] = new AjusteInventarioRespuestaDTO.Resultado(
+                        ajuste != null ? ajuste.getCodigo() : null, EstadoAjuste.INVALIDO.name(), null, error);
+                continue;
+            }
+            validos.add(i);
+            if (validos.size() == TAMANO_LOTE) {
+                aplicarLote(ajustes, validos, vendedorId, resultados);
+                validos.clear();
+            }
+        }
+        if (!validos.isEmpty()) {
+            aplicarLote(ajustes, validos, vendedorId, resultados);
+        }
+
+        int aplicados = 0;
+        for (AjusteInventarioRespuestaDTO.Resultado resultado : resultados) {
+            if (EstadoAjuste.APLICADO.name().equals(resultado.getEstado())) {
+                aplicados++;
+            }
+        }
+        return AjusteInventarioRespuestaDTO.builder()
+                .aplicados(aplicados)
+                .rechazados(resultados.length - aplicados)
+                .resultados(List.of(resultados))
+                .build();
+    }
+
+    private void aplicarLote(List<AjusteInventarioRequest> ajustes, List<Integer> indices, Long vendedorId,
+                             AjusteInventarioRespuestaDTO.Resultado[] resultados) {
+        try {
+            escritura.executeWithoutResult(status -> actualizarLote(ajustes, indices, vendedorId, resultados));
+        } catch (DataAccessException e) {
+            logger.warn("Lote de {} ajustes de inventario descartado: {}", indices.size(), e.getMessage());
+            String error = "No se pudo guardar el lote: " + e.getMostSpecificCause().getMessage();
+            for (Integer i : indices) {
+                resultados[i] = new AjusteInventarioRespuestaDTO.Resultado(ajustes.get(i).getCodigo(),
+                        EstadoAjuste.FALLIDO.name(), null, error);
+            }
+        }
+    }
+
+    /** Los códigos de {@code indices} no se repiten: {@link #aplicar} descarta los duplicados. */
+    private void actualizarLote(List<AjusteInventarioRequest> ajustes, List<Integer> indices, Long vendedorId,
+                                AjusteInventarioRespuestaDTO.Resultado[] resultados) {
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        int[] filas = jdbcTemplate.batchUpdate(vendedorId != null ? UPDATE_AJUSTE_VENDEDOR : UPDATE_AJUSTE,
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        AjusteInventarioRequest ajuste = ajustes.get(indices.get(i));
+                        int delta = ajuste.getStockDelta() != null ? ajuste.getStockDelta() : 0;
+                        ps.setInt(1, delta);
+                        if (ajuste.getPrecio() != null) {
+                            ps.setBigDecimal(2, ajuste.getPrecio());
+                        } else {
+                            ps.setNull(2, Types.NUMERIC);
+                        }
+                        ps.setTimestamp(3, ahora);
+                        ps.setString(4, ajuste.getCodigo());
+                        ps.setInt(5, delta);
+                        if (vendedorId != null) {
+                            ps.setLong(6, vendedorId);
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return indices.size();
+                    }
+                });
+
+        Set<String> codigos = new HashSet<>(indices.size());
+        indices.forEach(i -> codigos.add(ajustes.get(i).getCodigo()));
+        Map<String, EstadoProducto> estados = new HashMap<>(codigos.size());
+        namedJdbcTemplate.query(SELECT_ESTADO, Map.of("codigos", codigos), rs -> {
+            estados.put(rs.getString("codigo"), new EstadoProducto(rs.getLong("id"), rs.getInt("stock"),
+                    rs.getInt("stock_reservado"), rs.getObject("stock_critico", Integer.class),
+                    rs.getLong("usuario_id"), rs.getObject("categoria_id", Long.class)));
+        });
+
+        Set<Long> productoIds = new HashSet<>();
+        Set<Long> categoriaIds = new HashSet<>();
+        Map<Long, Integer> disponible = new HashMap<>();
+        boolean soloStock = true;
+        for (int j = 0; j < indices.size(); j++) {
+            AjusteInventarioRequest ajuste = ajustes.get(indices.get(j));
+            EstadoProducto estado = estados.get(ajuste.getCodigo());
+            EstadoAjuste resultado;
+            if (filas[j] > 0 || filas[j] == Statement.SUCCESS_NO_INFO) {
+                resultado = EstadoAjuste.APLICADO;
+                productoIds.add(estado.id());
+                disponible.put(estado.id(), estado.stock() - estado.stockReservado());
+                if (estado.categoriaId() != null) {
+                    categoriaIds.add(estado.categoriaId());
+                }
+                soloStock &= ajuste.getPrecio() == null;
+                if (ajuste.getStockDelta() != null) {
+                    StockCriticoEvent.detectar(estado.id(), estado.stock() - ajuste.getStockDelta(), estado.stock(),
+                            estado.stockCritico()).ifPresent(eventPublisher::publishEvent);
+                }
+            } else if (estado == null) {
+                resultado = EstadoAjuste.NO_ENCONTRADO;
+            } else if (vendedorId != null && !vendedorId.equals(estado.vendedorId())) {
+                resultado = EstadoAjuste.SIN_PERMISO;
+            } else {
+                resultado = EstadoAjuste.STOCK_INSUFICIENTE;
+            }
+            resultados[indices.get(j)] = new AjusteInventarioRespuestaDTO.Resultado(ajuste.getCodigo(),
+                    resultado.name(), resultado == EstadoAjuste.SIN_PERMISO || estado == null ? null : estado.stock(),
+                    mensaje(resultado));
+        }
+
+        if (!productoIds.isEmpty()) {
+            // Dentro de la transacción, para que cachés e índices reaccionen al confirmarse el lote.
+            eventPublisher.publishEvent(new CatalogoModificadoEvent(productoIds, categoriaIds, soloStock, disponible));
+        }
+    }
+
+    private String validar(AjusteInventarioRequest ajuste) {
+        if (ajuste == null || ajuste.getCodigo() == null || ajuste.getCodigo().isBlank()) {
+            return "El código del producto es obligatorio";
+        }
+        if (ajuste.getStockDelta() == null && ajuste.getPrecio() == null) {
+            return "Debe indicar stockDelta o precio";
+        }
+        Integer delta = ajuste.getStockDelta();
+        if (delta != null && (delta < -MAXIMO_DELTA_STOCK || delta > MAXIMO_DELTA_STOCK)) {
+            return "stockDelta debe estar entre -" + MAXIMO_DELTA_STOCK + " y " + MAXIMO_DELTA_STOCK;
+        }
+        BigDecimal precio = ajuste.getPrecio();
+        if (precio != null && (precio.signum() < 0 || precio.scale() > 2)) {
+            return "precio debe ser mayor o igual a 0 y admite como máximo 2 decimales";
+        }
+        if (precio != null && precio.precision() - precio.scale() > MAXIMO_DIGITOS_ENTEROS_PRECIO) {
+            return "precio admite como máximo " + MAXIMO_DIGITOS_ENTEROS_PRECIO + " dígitos enteros";
+        }
+        return null;
+    }
+
+    private String mensaje(EstadoAjuste estado) {
+        return switch (estado) {
+            case APLICADO, INVALIDO, FALLIDO -> null;
+            case NO_ENCONTRADO -> "Producto no encontrado";
+            case SIN_PERMISO -> "No puede modificar productos de otro vendedor ni productos corporativos";
+            case STOCK_INSUFICIENTE -> "El ajuste dejaría el stock por debajo de las unidades reservadas";
+        };
+    }
+
+    /**
+     * Devuelve el id del vendedor al que se restringen los ajustes, o {@code null}
+     * si quien llama es administrador y puede ajustar cualquier producto.
+     */
+    private Long resolverVendedorRestringido() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new AccessDeniedException("No hay un usuario autenticado en el contexto");
+        }
+        if (tieneRol(authentication, RolUsuario.ADMINISTRADOR)) {
+            return null;
+        }
+        if (!tieneRol(authentication, RolUsuario.VENDEDOR)) {
+            throw new AccessDeniedException("No cuenta con permisos sobre este producto");
+        }
+        return usuarioRepository.findByCorreo(authentication.getName())
+                .map(Usuario::getId)
+                .orElseThrow(() -> new AccessDeniedException("Usuario autenticado no encontrado"));
+    }
+
+    private boolean tieneRol(Authentication authentication, RolUsuario rol) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(a -> ("ROLE_" + rol.name()).equals(a.getAuthority()));
+    }
+
+    private record EstadoProducto(Long id, int stock, int stockReservado, Integer stockCritico, Long vendedorId,
+                                  Long categoriaId) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.levelupgamer.productos.inventario;
+
+enum EstadoAjuste {
+    APLICADO,
+    INVALIDO,
+    NO_ENCONTRADO,
+    SIN_PERMISO,
+    STOCK_INSUFICIENTE,
+    FALLIDO
+}
@@ -0,0 +1,144 @@
+package com.levelupgamer.productos.inventario;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Movimientos de stock de ventas y anulaciones como UPDATE relativos, en la transacción
+ * del llamador. El descuento es condicional ({@code stock >= cantidad}), así que dos
+ * ventas concurrentes nunca dejan el stock negativo aunque ambas hayan leído el mismo
+ * valor; cada lote se envía en orden de id para que las transacciones bloqueen las
+ * filas en el mismo orden. {@code Producto.stock} no es actualizable desde la entidad:
+ * este repositorio, {@link AjusteInventarioService} y
+ * {@code ProductoRepository.fijarStock} son las únicas escrituras. Lo mismo vale para
+ * {@code stockReservado}, el contador que mantienen las {@link ReservaStock}: quien no
+ * reservó sólo puede llevarse {@code stock - stock_reservado}, y ninguna escritura deja
+ * el stock por debajo de lo reservado. Como el disponible se muestra en el catálogo,
+ * reservar y liberar también marcan {@code updated_at}.
+ */
+@Repository
+public class InventarioRepository {
+
+    private static final String DESCONTAR = "update producto set stock = stock - ?, "
+            + "stock_reservado = stock_reservado - ?, updated_at = ? where id = ? and stock - stock_reservado + ? >= ?";
+    private static final String RESERVAR = "update producto set stock_reservado = stock_reservado + ?, updated_at = ? "
+            + "where id = ? and stock - stock_reservado >= ?";
+    private static final String LIBERAR = "update producto set stock_reservado = stock_reservado - ?, updated_at = ? "
+            + "where id = ?";
+    private static final String REPONER = "update producto set stock = stock + ?, updated_at = ? where id = ?";
+    private static final String SELECT_STOCK = "select id, stock from producto where id in (:ids)";
+    private static final String SELECT_DISPONIBLE = "select id, stock - stock_reservado as disponible "
+            + "from producto where id in (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public InventarioRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Descuenta {@code cantidades} (producto → unidades, sin repetidos). {@code reservadas}
+     * son las unidades de reservas que la venta acaba de consumir: salen del contador y
+     * cuentan como disponibles para esta venta. Los productos sin stock suficiente quedan
+     * intactos y se informan en {@link Descuento#insuficientes()}; el llamador decide si
+     * revierte el resto.
+     */
+    public Descuento descontar(Map<Long, Integer> cantidades, Map<Long, Integer> reservadas) {
+        TreeMap<Long, Integer> ordenadas = new TreeMap<>(cantidades);
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> filas = new ArrayList<>(ordenadas.size());
+        ordenadas.forEach((productoId, cantidad) -> {
+            int reservada = reservadas.getOrDefault(productoId, 0);
+            filas.add(new Object[] {cantidad, reservada, ahora, productoId, reservada, cantidad});
+        });
+
+        int[] afectadas = jdbcTemplate.batchUpdate(DESCONTAR, filas);
+        Set<Long> insuficientes = new LinkedHashSet<>();
+        int i = 0;
+        for (Long productoId : ordenadas.keySet()) {
+            // Falla cerrado: sin un conteo exacto de 1 (p. ej. SUCCESS_NO_INFO) no se da por descontado.
+            if (afectadas[i] != 1) {
+                insuficientes.add(productoId);
+            }
+            i++;
+        }
+        return new Descuento(stockDe(ordenadas.keySet()), insuficientes);
+    }
+
+    /** Devuelve {@code cantidades} al stock; retorna el stock resultante de los productos que aún existen. */
+    public Map<Long, Integer> reponer(Map<Long, Integer> cantidades) {
+        TreeMap<Long, Integer> ordenadas = new TreeMap<>(cantidades);
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> filas = new ArrayList<>(ordenadas.size());
+        ordenadas.forEach((productoId, cantidad) -> filas.add(new Object[] {cantidad, ahora, productoId}));
+        jdbcTemplate.batchUpdate(REPONER, filas);
+        return stockDe(ordenadas.keySet());
+    }
+
+    /**
+     * Retiene {@code cantidad} unidades si hay disponibles sin contar otras reservas;
+     * {@code false} si no alcanzan o el producto no existe.
+     */
+    public boolean reservar(Long productoId, int cantidad) {
+        return jdbcTemplate.update(RESERVAR, cantidad, Timestamp.valueOf(LocalDateTime.now()), productoId, cantidad) > 0;
+    }
+
+    /** Devuelve al disponible las unidades de reservas eliminadas sin venta (vencidas o canceladas). */
+    public void liberar(Map<Long, Integer> cantidades) {
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> filas = new ArrayList<>(cantidades.size());
+        new TreeMap<>(cantidades).forEach((productoId, cantidad) -> filas.add(new Object[] {cantidad, ahora, productoId}));
+        jdbcTemplate.batchUpdate(LIBERAR, filas);
+    }
+
+    /**
+     * {@code stock - stock_reservado} de los productos que aún existen, para los eventos
+     * de catálogo: las entidades cargadas no ven los UPDATE relativos de este repositorio.
+     */
+    public Map<Long, Integer> disponibleDe(Collection<Long> productoIds) {
+        if (productoIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Integer> disponible = new HashMap<>(productoIds.size());
+        namedJdbcTemplate.query(SELECT_DISPONIBLE, Map.of("ids", productoIds), rs -> {
+            disponible.put(rs.getLong("id"), rs.getInt("disponible"));
+        });
+        return disponible;
+    }
+
+    private Map<Long, Integer> stockDe(Set<Long> productoIds) {
+        Map<Long, Integer> stock = new HashMap<>(productoIds.size());
+        namedJdbcTemplate.query(SELECT_STOCK, Map.of("ids", productoIds), rs -> {
+            stock.put(rs.getLong("id"), rs.getInt("stock"));
+        });
+        return stock;
+    }
+
+    /**
+     * {@code stockActual}: stock tras el descuento de cada producto existente (las filas
+     * quedan bloqueadas por esta transacción). {@code insuficientes}: productos que no
+     * se descontaron, incluidos los que no existen; cualquier resultado del driver distinto
+     * de 1, incluido {@link Statement#SUCCESS_NO_INFO}, cuenta como no aplicado y hace
+     * revertir la venta.
+     */
+    public record Descuento(Map<Long, Integer> stockActual, Set<Long> insuficientes) {
+
+        public boolean completo() {
+            return insuficientes.isEmpty();
+        }
+    }
+}
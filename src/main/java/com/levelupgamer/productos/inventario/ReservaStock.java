@@ -0,0 +1,57 @@
+package com.levelupgamer.productos.inventario;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+/**
+ * Unidades de un producto retenidas para un usuario hasta {@code expiraEn}. Las filas
+ * no se modifican: sólo se insertan y se eliminan (al venderse, al cancelarse o al
+ * vencer), y quien logra eliminarla es quien descuenta su cantidad de
+ * {@code producto.stock_reservado}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@EntityListeners(AuditingEntityListener.class)
+@Table(name = "reserva_stock", indexes = {
+        @Index(name = "idx_reserva_stock_expira_en", columnList = "expira_en, id"),
+        @Index(name = "idx_reserva_stock_usuario", columnList = "usuario_id, producto_id")
+})
+public class ReservaStock {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "producto_id", nullable = false, updatable = false)
+    private Long productoId;
+
+    @Column(name = "usuario_id", nullable = false, updatable = false)
+    private Long usuarioId;
+
+    @Column(nullable = false, updatable = false)
+    private Integer cantidad;
+
+    @Column(name = "expira_en", nullable = false, updatable = false)
+    private LocalDateTime expiraEn;
+
+    @CreatedDate
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
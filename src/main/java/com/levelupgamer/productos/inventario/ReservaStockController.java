@@ -0,0 +1,52 @@
+package com.levelupgamer.productos.inventario;
+
+import com.levelupgamer.productos.dto.ReservaStockDTO;
+import com.levelupgamer.productos.dto.ReservaStockRequest;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/stock-reservations")
+@Tag(name = "Reservas de stock", description = "Unidades retenidas para el usuario autenticado hasta que compre o venza la reserva")
+public class ReservaStockController {
+
+    private final ReservaStockService reservaStockService;
+
+    public ReservaStockController(ReservaStockService reservaStockService) {
+        this.reservaStockService = reservaStockService;
+    }
+
+    @Operation(summary = "Reservar stock",
+            description = "Retiene unidades de un producto para el usuario autenticado. La boleta siguiente del usuario consume la reserva; si no compra antes de expiraEn, las unidades se liberan.")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'CLIENTE')")
+    @PostMapping
+    public ResponseEntity<ReservaStockDTO> reservar(@RequestBody ReservaStockRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservaStockService.reservar(request));
+    }
+
+    @Operation(summary = "Reservas vigentes del usuario autenticado")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'CLIENTE')")
+    @GetMapping
+    public ResponseEntity<List<ReservaStockDTO>> listar() {
+        return ResponseEntity.ok(reservaStockService.listarVigentes());
+    }
+
+    @Operation(summary = "Cancelar una reserva", description = "Devuelve de inmediato las unidades al stock disponible.")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'CLIENTE')")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelar(@PathVariable Long id) {
+        reservaStockService.cancelar(id);
+        return ResponseEntity.noContent().build();
+    }
+}
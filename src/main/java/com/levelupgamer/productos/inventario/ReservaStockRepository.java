@@ -0,0 +1,17 @@
+package com.levelupgamer.productos.inventario;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ReservaStockRepository extends JpaRepository<ReservaStock, Long> {
+
+    List<ReservaStock> findByUsuarioIdAndProductoIdIn(Long usuarioId, Collection<Long> productoIds);
+
+    List<ReservaStock> findByUsuarioIdAndExpiraEnAfterOrderByExpiraEnAsc(Long usuarioId, LocalDateTime ahora);
+
+    /** Recorre {@code idx_reserva_stock_expira_en}: las vencidas primero, sin ordenar en memoria. */
+    List<ReservaStock> findByExpiraEnLessThanEqualOrderByExpiraEnAscIdAsc(LocalDateTime ahora, Limit limite);
+}
@@ -0,0 +1,225 @@
+package com.levelupgamer.productos.inventario;
+
+import com.levelupgamer.productos.CatalogoModificadoEvent;
+import com.levelupgamer.productos.Producto;
+import com.levelupgamer.productos.ProductoRepository;
+import com.levelupgamer.productos.dto.ReservaStockDTO;
+import com.levelupgamer.productos.dto.ReservaStockRequest;
+import com.levelupgamer.usuarios.RolUsuario;
+import com.levelupgamer.usuarios.Usuario;
+import com.levelupgamer.usuarios.UsuarioRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reservas de stock entre el carrito y la boleta. Reservar suma al contador
+ * {@code producto.stock_reservado} con un UPDATE condicional y deja una
+ * {@link ReservaStock} que vence a los {@code inventario.reservas.ttl}; la boleta del
+ * mismo usuario la consume y un barrido periódico libera las vencidas en lotes por el
+ * índice de {@code expira_en}. Nunca se suman reservas para saber el disponible: el
+ * contador ya lo tiene, y la única fila disputada es la del producto. Cada movimiento
+ * del contador publica un {@link CatalogoModificadoEvent} de stock, porque el catálogo
+ * muestra el disponible.
+ */
+@Service
+public class ReservaStockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservaStockService.class);
+    private static final int MAXIMO_POR_RESERVA = 100;
+    private static final String ELIMINAR = "delete from reserva_stock where id = ?";
+    private static final String ELIMINAR_VENCIDA = ELIMINAR + " and expira_en <= ?";
+
+    private final ReservaStockRepository reservaStockRepository;
+    private final ProductoRepository productoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final InventarioRepository inventarioRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate escritura;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration ttl;
+    private final int tamanoLote;
+
+    public ReservaStockService(ReservaStockRepository reservaStockRepository,
+                               ProductoRepository productoRepository,
+                               UsuarioRepository usuarioRepository,
+                               InventarioRepository inventarioRepository,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${inventario.reservas.ttl:PT10M}") Duration ttl,
+                               @Value("${inventario.reservas.lote-barrido:500}") int tamanoLote) {
+        this.reservaStockRepository = reservaStockRepository;
+        this.productoRepository = productoRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.inventarioRepository = inventarioRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.escritura = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.ttl = ttl;
+        this.tamanoLote = tamanoLote;
+    }
+
+    @Transactional
+    public ReservaStockDTO reservar(ReservaStockRequest request) {
+        if (request == null || request.getProductoId() == null) {
+            throw new IllegalArgumentException("El id de producto es obligatorio");
+        }
+        Integer cantidad = request.getCantidad();
+        if (cantidad == null || cantidad < 1 || cantidad > MAXIMO_POR_RESERVA) {
+            throw new IllegalArgumentException("La cantidad a reservar debe estar entre 1 y " + MAXIMO_POR_RESERVA);
+        }
+        Long usuarioId = resolverUsuarioActual();
+        Producto producto = productoRepository.findById(request.getProductoId())
+                .filter(p -> !Boolean.FALSE.equals(p.getActivo()))
+                .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado"));
+
+        if (!inventarioRepository.reservar(producto.getId(), cantidad)) {
+            throw new IllegalArgumentException("Stock insuficiente para reservar: " + producto.getNombre());
+        }
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deStock(List.of(producto),
+                inventarioRepository.disponibleDe(List.of(producto.getId()))));
+        return toDTO(reservaStockRepository.save(ReservaStock.builder()
+                .productoId(producto.getId())
+                .usuarioId(usuarioId)
+                .cantidad(cantidad)
+                .expiraEn(LocalDateTime.now().plus(ttl))
+                .build()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReservaStockDTO> listarVigentes() {
+        return reservaStockRepository
+                .findByUsuarioIdAndExpiraEnAfterOrderByExpiraEnAsc(resolverUsuarioActual(), LocalDateTime.now())
+                .stream()
+                .map(ReservaStockService::toDTO)
+                .toList();
+    }
+
+    @Transactional
+    public void cancelar(Long reservaId) {
+        ReservaStock reserva = reservaStockRepository.findById(reservaId)
+                .orElseThrow(() -> new IllegalArgumentException("Reserva no encontrada"));
+        if (!reserva.getUsuarioId().equals(resolverUsuarioActual())) {
+            throw new AccessDeniedException("La reserva pertenece a otro usuario");
+        }
+        // Si el barrido o una venta la eliminó primero, ya devolvieron sus unidades.
+        if (jdbcTemplate.update(ELIMINAR, reservaId) > 0) {
+            liberar(Map.of(reserva.getProductoId(), reserva.getCantidad()));
+        }
+    }
+
+    /**
+     * Elimina las reservas del usuario sobre {@code productoIds}, vencidas o no (si el
+     * barrido aún no pasó, siguen retenidas), y devuelve sus unidades por producto. No
+     * toca el contador: lo descuenta {@link InventarioRepository#descontar} junto con el
+     * stock, y si la venta falla el rollback devuelve también las filas.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Integer> consumir(Long usuarioId, Set<Long> productoIds) {
+        List<ReservaStock> reservas = reservaStockRepository.findByUsuarioIdAndProductoIdIn(usuarioId, productoIds);
+        if (reservas.isEmpty()) {
+            return Map.of();
+        }
+        int[] eliminadas = jdbcTemplate.batchUpdate(ELIMINAR, reservas.stream()
+                .map(reserva -> new Object[] {reserva.getId()})
+                .toList());
+        return cantidadesEliminadas(reservas, eliminadas);
+    }
+
+    @Scheduled(fixedDelayString = "${inventario.reservas.barrido:PT5S}",
+            initialDelayString = "${inventario.reservas.barrido:PT5S}")
+    public void liberarVencidas() {
+        int liberadas = 0;
+        int lote;
+        do {
+            lote = escritura.execute(status -> liberarLote(LocalDateTime.now()));
+            liberadas += lote;
+        } while (lote == tamanoLote);
+        if (liberadas > 0) {
+            logger.info("Liberadas {} reservas de stock vencidas", liberadas);
+        }
+    }
+
+    /**
+     * Un lote de vencidas, de la más antigua a la más nueva. El {@code expira_en} del
+     * DELETE evita pisar a otra instancia del barrido: si dos leen la misma fila, sólo
+     * la que la elimina libera sus unidades.
+     */
+    int liberarLote(LocalDateTime ahora) {
+        List<ReservaStock> vencidas = reservaStockRepository
+                .findByExpiraEnLessThanEqualOrderByExpiraEnAscIdAsc(ahora, Limit.of(tamanoLote));
+        if (vencidas.isEmpty()) {
+            return 0;
+        }
+        int[] eliminadas = jdbcTemplate.batchUpdate(ELIMINAR_VENCIDA, vencidas.stream()
+                .map(reserva -> new Object[] {reserva.getId(), ahora})
+                .toList());
+        Map<Long, Integer> liberadas = cantidadesEliminadas(vencidas, eliminadas);
+        if (!liberadas.isEmpty()) {
+            liberar(liberadas);
+        }
+        return vencidas.size();
+    }
+
+    private void liberar(Map<Long, Integer> cantidades) {
+        inventarioRepository.liberar(cantidades);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deStock(productoRepository.findAllById(cantidades.keySet()),
+                inventarioRepository.disponibleDe(cantidades.keySet())));
+    }
+
+    private static Map<Long, Integer> cantidadesEliminadas(List<ReservaStock> reservas, int[] eliminadas) {
+        Map<Long, Integer> cantidades = new HashMap<>();
+        for (int i = 0; i < reservas.size(); i++) {
+            if (eliminadas[i] > 0) {
+                cantidades.merge(reservas.get(i).getProductoId(), reservas.get(i).getCantidad(), Integer::sum);
+            }
+        }
+        return cantidades;
+    }
+
+    private static ReservaStockDTO toDTO(ReservaStock reserva) {
+        return ReservaStockDTO.builder()
+                .id(reserva.getId())
+                .productoId(reserva.getProductoId())
+                .cantidad(reserva.getCantidad())
+                .expiraEn(reserva.getExpiraEn())
+                .build();
+    }
+
+    private Long resolverUsuarioActual() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new AccessDeniedException("No hay un usuario autenticado en el contexto");
+        }
+        if (!tieneRol(authentication, RolUsuario.CLIENTE) && !tieneRol(authentication, RolUsuario.ADMINISTRADOR)) {
+            throw new AccessDeniedException("Sólo clientes y administradores pueden reservar stock");
+        }
+        return usuarioRepository.findByCorreo(authentication.getName())
+                .map(Usuario::getId)
+                .orElseThrow(() -> new AccessDeniedException("Usuario autenticado no encontrado"));
+    }
+
+    private boolean tieneRol(Authentication authentication, RolUsuario rol) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(a -> ("ROLE_" + rol.name()).equals(a.getAuthority()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.levelupgamer.productos.ranking;
+
+/**
+ * Criterios para los productos destacados: puntos LevelUp configurados por el
+ * catálogo, unidades vendidas históricas o ventas recientes con decaimiento.
+ */
+public enum ModoRanking {
+    PUNTOS("points"),
+    VENTAS("sales"),
+    TENDENCIA("trending");
+
+    private final String parametro;
+
+    ModoRanking(String parametro) {
+        this.parametro = parametro;
+    }
+
+    public static ModoRanking desdeParametro(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return PUNTOS;
+        }
+        for (ModoRanking modo : values()) {
+            if (modo.parametro.equalsIgnoreCase(valor.trim()) || modo.name().equalsIgnoreCase(valor.trim())) {
+                return modo;
+            }
+        }
+        throw new IllegalArgumentException("Modo de ranking no soportado: " + valor + ". Use points, sales o trending");
+    }
+}
@@ -0,0 +1,158 @@
+package com.levelupgamer.productos.ranking;
+
+import com.levelupgamer.common.colecciones.MapaLongDouble;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Puntajes de venta por producto con los {@code capacidadTop} mejores siempre
+ * ordenados, de modo que leer el ranking cuesta O(K).
+ *
+ * <p>Con vida media el puntaje decae exponencialmente usando <em>forward decay</em>:
+ * cada venta suma {@code cantidad * e^(λ(t - t0))} respecto de un instante de
+ * referencia fijo {@code t0}. Como el factor {@code e^(-λ(ahora - t0))} es común a
+ * todos los productos no hace falta aplicarlo para ordenar, y una anulación resta
+ * exactamente lo que sumó su venta. Cuando el exponente crece demasiado se mueve la
+ * referencia y se reescalan todos los puntajes.
+ */
+public class RankingVentas {
+
+    private static final double EXPONENTE_MAXIMO = 500;
+
+    private final int capacidadTop;
+    private final double lambda;
+    private final MapaLongDouble puntajes = new MapaLongDouble(256);
+    private final long[] top;
+    private int tamanoTop;
+    private long referenciaSegundos;
+    private boolean referenciaFijada;
+
+    /** @param vidaMedia {@code null} para acumular unidades sin decaimiento */
+    public RankingVentas(int capacidadTop, Duration vidaMedia) {
+        if (capacidadTop < 1) {
+            throw new IllegalArgumentException("La capacidad del ranking debe ser mayor a 0");
+        }
+        this.capacidadTop = capacidadTop;
+        this.lambda = vidaMedia == null ? 0 : Math.log(2) / vidaMedia.toSeconds();
+        this.top = new long[capacidadTop];
+    }
+
+    /**
+     * Registra la venta (cantidad positiva) o su anulación (negativa) de un producto
+     * ocurrida en {@code epochSegundos}.
+     */
+    public synchronized void registrar(long productoId, int cantidad, long epochSegundos) {
+        if (cantidad == 0) {
+            return;
+        }
+        double delta = cantidad * peso(epochSegundos);
+        double puntaje = puntajes.sumar(productoId, delta);
+        int posicion = posicionEnTop(productoId);
+        if (posicion >= 0) {
+            if (delta > 0) {
+                subir(posicion);
+            } else if (tamanoTop == capacidadTop) {
+                // Al bajar, alguien fuera del top podría superarlo: se recalcula.
+                recalcularTop();
+            } else {
+                bajar(posicion);
+            }
+        } else if (tamanoTop < capacidadTop) {
+            top[tamanoTop++] = productoId;
+            subir(tamanoTop - 1);
+        } else if (mejorQue(productoId, puntaje, top[tamanoTop - 1])) {
+            top[tamanoTop - 1] = productoId;
+            subir(tamanoTop - 1);
+        }
+    }
+
+    /** Ids de los mejores productos con puntaje positivo, del mayor al menor. */
+    public synchronized List<Long> top(int limite) {
+        List<Long> ids = new ArrayList<>(Math.min(limite, tamanoTop));
+        for (int i = 0; i < tamanoTop && ids.size() < limite; i++) {
+            if (puntajes.obtener(top[i], 0) > 1e-9) {
+                ids.add(top[i]);
+            }
+        }
+        return ids;
+    }
+
+    public synchronized double puntaje(long productoId) {
+        return puntajes.obtener(productoId, 0);
+    }
+
+    public synchronized int getTamano() {
+        return puntajes.tamano();
+    }
+
+    private double peso(long epochSegundos) {
+        if (lambda == 0) {
+            return 1;
+        }
+        if (!referenciaFijada) {
+            referenciaSegundos = epochSegundos;
+            referenciaFijada = true;
+        }
+        double exponente = lambda * (epochSegundos - referenciaSegundos);
+        if (exponente > EXPONENTE_MAXIMO) {
+            puntajes.escalar(Math.exp(-exponente));
+            referenciaSegundos = epochSegundos;
+            exponente = 0;
+        }
+        return Math.exp(exponente);
+    }
+
+    private int posicionEnTop(long productoId) {
+        for (int i = 0; i < tamanoTop; i++) {
+            if (top[i] == productoId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void subir(int posicion) {
+        long id = top[posicion];
+        double puntaje = puntajes.obtener(id, 0);
+        while (posicion > 0 && mejorQue(id, puntaje, top[posicion - 1])) {
+            top[posicion] = top[posicion - 1];
+            posicion--;
+        }
+        top[posicion] = id;
+    }
+
+    private void bajar(int posicion) {
+        long id = top[posicion];
+        double puntaje = puntajes.obtener(id, 0);
+        while (posicion < tamanoTop - 1 && !mejorQue(id, puntaje, top[posicion + 1])) {
+            top[posicion] = top[posicion + 1];
+            posicion++;
+        }
+        top[posicion] = id;
+    }
+
+    private boolean mejorQue(long id, double puntaje, long otroId) {
+        double otro = puntajes.obtener(otroId, 0);
+        return puntaje > otro || (puntaje == otro && id < otroId);
+    }
+
+    private void recalcularTop() {
+        // Montículo de mínimos acotado a K: O(n log K) sobre todos los puntajes.
+        PriorityQueue<Long> candidatos = new PriorityQueue<>(capacidadTop + 1,
+                (a, b) -> mejorQue(a, puntajes.obtener(a, 0), b) ? 1 : -1);
+        puntajes.paraCada((id, puntaje) -> {
+            candidatos.offer(id);
+            if (candidatos.size() > capacidadTop) {
+                candidatos.poll();
+            }
+        });
+        tamanoTop = candidatos.size();
+        for (int i = tamanoTop - 1; i >= 0; i--) {
+            top[i] = candidatos.poll();
+        }
+        Arrays.fill(top, tamanoTop, capacidadTop, 0);
+    }
+}
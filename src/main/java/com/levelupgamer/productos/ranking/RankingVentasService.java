@@ -0,0 +1,118 @@
+package com.levelupgamer.productos.ranking;
+
+import com.levelupgamer.boletas.BoletaRepository;
+import com.levelupgamer.boletas.VentaRegistradaEvent;
+import com.levelupgamer.common.indices.IndiceReconstruible;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Rankings de ventas en memoria para los destacados: unidades totales y tendencia
+ * con decaimiento exponencial. Se reconstruyen desde el historial de
+ * {@code BoletaDetalle} al arrancar y se mantienen con los {@link VentaRegistradaEvent}
+ * confirmados. Como son acumulados, los eventos recibidos durante la reconstrucción
+ * se reaplican sólo si la lectura del historial no los incluyó.
+ */
+@Service
+public class RankingVentasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RankingVentasService.class);
+    static final int CAPACIDAD_TOP = 50;
+
+    private final BoletaRepository boletaRepository;
+    private final TransactionTemplate lectura;
+    private final Duration vidaMedia;
+    private final IndiceReconstruible<Rankings, VentaRegistradaEvent> rankings;
+
+    public RankingVentasService(BoletaRepository boletaRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${catalogo.ranking.vida-media:P7D}") Duration vidaMedia) {
+        this.boletaRepository = boletaRepository;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.lectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.vidaMedia = vidaMedia;
+        this.rankings = new IndiceReconstruible<>(new Rankings(vidaMedia));
+    }
+
+    /** Ids de los productos mejor rankeados; vacío para {@link ModoRanking#PUNTOS}, que no sale de las ventas. */
+    public List<Long> top(ModoRanking modo, int limite) {
+        Rankings actuales = rankings.actual();
+        return switch (modo) {
+            case VENTAS -> actuales.ventas.top(limite);
+            case TENDENCIA -> actuales.tendencia.top(limite);
+            case PUNTOS -> List.of();
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        Rankings nuevos = new Rankings(vidaMedia);
+        BitSet leidas = new BitSet();
+        rankings.iniciarReconstruccion();
+        try {
+            lectura.executeWithoutResult(status -> {
+                try (Stream<BoletaRepository.VentaProducto> ventas = boletaRepository.streamVentasVigentes()) {
+                    ventas.forEach(venta -> {
+                        leidas.set(Math.toIntExact(venta.boletaId()));
+                        nuevos.registrar(venta.productoId(), venta.cantidad(), venta.fecha());
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            rankings.cancelarReconstruccion();
+            throw e;
+        }
+        List<VentaRegistradaEvent> faltantes =
+                VentaRegistradaEvent.faltantes(rankings.reemplazar(nuevos), id -> leidas.get(Math.toIntExact(id)));
+        faltantes.forEach(evento -> aplicar(nuevos, evento));
+        logger.info("Rankings de ventas construidos con {} productos ({} ventas reaplicadas)",
+                nuevos.ventas.getTamano(), faltantes.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alRegistrarVenta(VentaRegistradaEvent evento) {
+        aplicar(rankings.registrar(evento), evento);
+    }
+
+    private static void aplicar(Rankings destino, VentaRegistradaEvent evento) {
+        for (Map.Entry<Long, Integer> linea : evento.cantidadPorProducto().entrySet()) {
+            int cantidad = evento.anulacion() ? -linea.getValue() : linea.getValue();
+            destino.registrar(linea.getKey(), cantidad, evento.fecha());
+        }
+    }
+
+    private static final class Rankings {
+        private final RankingVentas ventas;
+        private final RankingVentas tendencia;
+
+        private Rankings(Duration vidaMedia) {
+            this.ventas = new RankingVentas(CAPACIDAD_TOP, null);
+            this.tendencia = new RankingVentas(CAPACIDAD_TOP, vidaMedia);
+        }
+
+        private void registrar(Long productoId, Integer cantidad, LocalDateTime fecha) {
+            if (productoId == null || cantidad == null || fecha == null) {
+                return;
+            }
+            long segundos = fecha.atZone(ZoneId.systemDefault()).toEpochSecond();
+            ventas.registrar(productoId, cantidad, segundos);
+            tendencia.registrar(productoId, cantidad, segundos);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.levelupgamer.productos.relacionados;
+
+import com.levelupgamer.boletas.BoletaRepository;
+import com.levelupgamer.boletas.VentaRegistradaEvent;
+import com.levelupgamer.common.indices.IndiceReconstruible;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * "Comprados juntos": una {@link MatrizCoocurrencias} en memoria sobre las boletas no
+ * canceladas. Al arrancar se lee el historial con una sola consulta y la matriz se
+ * construye en paralelo, repartiendo las filas por producto entre los hilos; después
+ * se mantiene con los {@link VentaRegistradaEvent} confirmados; los que llegan durante
+ * la construcción se reaplican si la lectura no los incluyó. Las consultas nunca
+ * van a la base.
+ */
+@Service
+public class CoocurrenciasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoocurrenciasService.class);
+    static final int CAPACIDAD_TOP = 20;
+
+    private final BoletaRepository boletaRepository;
+    private final TransactionTemplate lectura;
+    private final ExecutorService ejecutor;
+    private final int hilos;
+    private final IndiceReconstruible<MatrizCoocurrencias, VentaRegistradaEvent> matriz =
+            new IndiceReconstruible<>(new MatrizCoocurrencias(CAPACIDAD_TOP));
+
+    public CoocurrenciasService(BoletaRepository boletaRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${catalogo.relacionados.hilos:0}") int hilos) {
+        this.boletaRepository = boletaRepository;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.lectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.hilos = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        AtomicInteger numero = new AtomicInteger();
+        this.ejecutor = Executors.newFixedThreadPool(this.hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "coocurrencias-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /** Productos comprados junto a {@code productoId}, del más al menos frecuente. */
+    public List<Long> relacionados(Long productoId, int limite) {
+        return matriz.actual().relacionados(productoId, limite).stream()
+                .map(MatrizCoocurrencias.Relacionado::productoId)
+                .toList();
+    }
+
+    /**
+     * Sugerencias para un conjunto (un carrito): suma los tops de cada producto y
+     * excluye los que ya están en el conjunto.
+     */
+    public List<Long> relacionados(Collection<Long> productoIds, int limite) {
+        MatrizCoocurrencias actual = matriz.actual();
+        Set<Long> excluidos = new HashSet<>(productoIds);
+        Map<Long, Integer> puntajes = new HashMap<>();
+        for (Long productoId : new LinkedHashSet<>(productoIds)) {
+            for (MatrizCoocurrencias.Relacionado relacionado : actual.relacionados(productoId, CAPACIDAD_TOP)) {
+                if (!excluidos.contains(relacionado.productoId())) {
+                    puntajes.merge(relacionado.productoId(), relacionado.veces(), Integer::sum);
+                }
+            }
+        }
+        return puntajes.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limite)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() throws InterruptedException {
+        BitSet leidas = new BitSet();
+        matriz.iniciarReconstruccion();
+        try {
+            construir(leidas);
+        } catch (RuntimeException | InterruptedException e) {
+            matriz.cancelarReconstruccion();
+            throw e;
+        }
+    }
+
+    private void construir(BitSet leidas) throws InterruptedException {
+        List<long[]> canastas = lectura.execute(status -> leerCanastas(leidas));
+        MatrizCoocurrencias nueva = new MatrizCoocurrencias(CAPACIDAD_TOP);
+        List<Callable<Void>> tareas = new ArrayList<>(hilos);
+        for (int i = 0; i < hilos; i++) {
+            int dueno = i;
+            tareas.add(() -> {
+                MatrizCoocurrencias.FiltroFilas filtro = id -> Math.floorMod(Long.hashCode(id), hilos) == dueno;
+                for (long[] canasta : canastas) {
+                    nueva.registrarFilas(canasta, filtro);
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> resultado : ejecutor.invokeAll(tareas)) {
+                resultado.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("No se pudo construir la matriz de co-compras", e.getCause());
+        }
+        List<VentaRegistradaEvent> faltantes =
+                VentaRegistradaEvent.faltantes(matriz.reemplazar(nueva), id -> leidas.get(Math.toIntExact(id)));
+        faltantes.forEach(evento -> aplicar(nueva, evento));
+        logger.info("Matriz de co-compras construida con {} boletas y {} productos ({} ventas reaplicadas)",
+                canastas.size(), nueva.getProductos(), faltantes.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alRegistrarVenta(VentaRegistradaEvent evento) {
+        aplicar(matriz.registrar(evento), evento);
+    }
+
+    private static void aplicar(MatrizCoocurrencias destino, VentaRegistradaEvent evento) {
+        long[] canasta = evento.cantidadPorProducto().keySet().stream().mapToLong(Long::longValue).toArray();
+        destino.registrar(canasta, evento.anulacion() ? -1 : 1);
+    }
+
+    @PreDestroy
+    void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    private List<long[]> leerCanastas(BitSet leidas) {
+        List<long[]> canastas = new ArrayList<>();
+        try (Stream<BoletaRepository.LineaCanasta> lineas = boletaRepository.streamCanastasVigentes()) {
+            Long boletaActual = null;
+            Set<Long> productos = new LinkedHashSet<>();
+            for (BoletaRepository.LineaCanasta linea : (Iterable<BoletaRepository.LineaCanasta>) lineas::iterator) {
+                if (!linea.boletaId().equals(boletaActual)) {
+                    agregarCanasta(canastas, productos);
+                    boletaActual = linea.boletaId();
+                    leidas.set(Math.toIntExact(boletaActual));
+                }
+                productos.add(linea.productoId());
+            }
+            agregarCanasta(canastas, productos);
+        }
+        return canastas;
+    }
+
+    private static void agregarCanasta(List<long[]> canastas, Set<Long> productos) {
+        // Las boletas de un solo producto no aportan pares.
+        if (productos.size() > 1) {
+            canastas.add(productos.stream().mapToLong(Long::longValue).toArray());
+        }
+        productos.clear();
+    }
+}
@@ -0,0 +1,190 @@
+package com.levelupgamer.productos.relacionados;
+
+import com.levelupgamer.common.colecciones.MapaLongInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Matriz dispersa de co-compras: para cada producto, en cuántas boletas apareció junto
+ * a cada otro producto. Cada fila guarda sus conteos en un {@link MapaLongInt} y
+ * mantiene ordenados los {@code capacidadTop} más frecuentes; lo que leen las consultas
+ * es una copia inmutable de ese top que se publica tras cada escritura, así que leer
+ * no toma locks ni recorre la fila.
+ *
+ * <p>Las escrituras de {@link #registrar} se serializan entre sí. La construcción
+ * inicial puede repartirse entre hilos con {@link #registrarFilas}, siempre que cada
+ * fila tenga un único hilo dueño.
+ */
+public class MatrizCoocurrencias {
+
+    private final int capacidadTop;
+    private final ConcurrentHashMap<Long, Fila> filas = new ConcurrentHashMap<>();
+
+    public MatrizCoocurrencias(int capacidadTop) {
+        if (capacidadTop < 1) {
+            throw new IllegalArgumentException("La capacidad del top debe ser mayor a 0");
+        }
+        this.capacidadTop = capacidadTop;
+    }
+
+    /** Suma ({@code signo = 1}) o descuenta ({@code -1}) una boleta con los productos de {@code canasta}, sin repetidos. */
+    public synchronized void registrar(long[] canasta, int signo) {
+        for (long productoId : canasta) {
+            registrarFila(productoId, canasta, signo);
+        }
+    }
+
+    /** Registra la canasta sólo en las filas que {@code dueno} acepta; para construir en paralelo. */
+    void registrarFilas(long[] canasta, FiltroFilas dueno) {
+        for (long productoId : canasta) {
+            if (dueno.acepta(productoId)) {
+                registrarFila(productoId, canasta, 1);
+            }
+        }
+    }
+
+    /** Productos comprados junto a {@code productoId}, del más al menos frecuente. */
+    public List<Relacionado> relacionados(long productoId, int limite) {
+        Fila fila = filas.get(productoId);
+        if (fila == null) {
+            return List.of();
+        }
+        Top top = fila.publicado;
+        int cantidad = Math.min(limite, top.ids.length);
+        List<Relacionado> relacionados = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            relacionados.add(new Relacionado(top.ids[i], top.conteos[i]));
+        }
+        return relacionados;
+    }
+
+    public int getProductos() {
+        return filas.size();
+    }
+
+    private void registrarFila(long productoId, long[] canasta, int signo) {
+        if (canasta.length < 2) {
+            return;
+        }
+        Fila fila = filas.computeIfAbsent(productoId, id -> new Fila(capacidadTop));
+        for (long otro : canasta) {
+            if (otro != productoId) {
+                fila.sumar(otro, signo);
+            }
+        }
+        fila.publicar();
+    }
+
+    public record Relacionado(long productoId, int veces) {
+    }
+
+    @FunctionalInterface
+    interface FiltroFilas {
+        boolean acepta(long productoId);
+    }
+
+    private record Top(long[] ids, int[] conteos) {
+    }
+
+    private static final class Fila {
+        private static final Top VACIO = new Top(new long[0], new int[0]);
+
+        private final MapaLongInt conteos = new MapaLongInt(8);
+        private final long[] top;
+        private int tamanoTop;
+        private volatile Top publicado = VACIO;
+
+        private Fila(int capacidadTop) {
+            this.top = new long[capacidadTop];
+        }
+
+        private void sumar(long otro, int delta) {
+            int conteo = conteos.sumar(otro, delta);
+            int posicion = posicionEnTop(otro);
+            if (posicion >= 0) {
+                if (delta > 0) {
+                    subir(posicion);
+                } else if (tamanoTop == top.length) {
+                    // Al bajar, alguien fuera del top podría superarlo: se recalcula.
+                    recalcularTop();
+                } else {
+                    bajar(posicion);
+                }
+            } else if (conteo > 0) {
+                if (tamanoTop < top.length) {
+                    top[tamanoTop++] = otro;
+                    subir(tamanoTop - 1);
+                } else if (mejorQue(otro, top[tamanoTop - 1])) {
+                    top[tamanoTop - 1] = otro;
+                    subir(tamanoTop - 1);
+                }
+            }
+        }
+
+        private void publicar() {
+            int cantidad = tamanoTop;
+            while (cantidad > 0 && conteos.obtener(top[cantidad - 1], 0) <= 0) {
+                cantidad--;
+            }
+            long[] ids = Arrays.copyOf(top, cantidad);
+            int[] valores = new int[cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                valores[i] = conteos.obtener(ids[i], 0);
+            }
+            publicado = new Top(ids, valores);
+        }
+
+        private int posicionEnTop(long id) {
+            for (int i = 0; i < tamanoTop; i++) {
+                if (top[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private boolean mejorQue(long a, long b) {
+            int conteoA = conteos.obtener(a, 0);
+            int conteoB = conteos.obtener(b, 0);
+            return conteoA != conteoB ? conteoA > conteoB : a < b;
+        }
+
+        private void subir(int posicion) {
+            while (posicion > 0 && mejorQue(top[posicion], top[posicion - 1])) {
+                intercambiar(posicion, posicion - 1);
+                posicion--;
+            }
+        }
+
+        private void bajar(int posicion) {
+            while (posicion < tamanoTop - 1 && mejorQue(top[posicion + 1], top[posicion])) {
+                intercambiar(posicion, posicion + 1);
+                posicion++;
+            }
+        }
+
+        private void intercambiar(int i, int j) {
+            long aux = top[i];
+            top[i] = top[j];
+            top[j] = aux;
+        }
+
+        private void recalcularTop() {
+            tamanoTop = 0;
+            conteos.paraCada((id, conteo) -> {
+                if (conteo <= 0) {
+                    return;
+                }
+                if (tamanoTop < top.length) {
+                    top[tamanoTop++] = id;
+                    subir(tamanoTop - 1);
+                } else if (mejorQue(id, top[tamanoTop - 1])) {
+                    top[tamanoTop - 1] = id;
+                    subir(tamanoTop - 1);
+                }
+            });
+        }
+    }
+}
@@ -5,9 +5,11 @@ import com.levelupgamer.gamificacion.Puntos;
 import com.levelupgamer.gamificacion.PuntosRepository;
 import com.levelupgamer.gamificacion.PuntosService;
 import com.levelupgamer.gamificacion.dto.PuntosDTO;
+import com.levelupgamer.productos.CatalogoModificadoEvent;
 import com.levelupgamer.usuarios.dto.UsuarioRegistroDTO;
 import com.levelupgamer.usuarios.dto.UsuarioRespuestaDTO;
 import com.levelupgamer.usuarios.dto.UsuarioUpdateDTO;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,13 +29,16 @@ public class UsuarioService {
     private final PuntosRepository puntosRepository;
     private final PuntosService puntosService;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     public UsuarioService(UsuarioRepository usuarioRepository, PuntosRepository puntosRepository,
-            PuntosService puntosService, BCryptPasswordEncoder passwordEncoder) {
+            PuntosService puntosService, BCryptPasswordEncoder passwordEncoder,
+            ApplicationEventPublisher eventPublisher) {
         this.usuarioRepository = usuarioRepository;
         this.puntosRepository = puntosRepository;
         this.puntosService = puntosService;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -145,6 +150,11 @@ public class UsuarioService {
         }
 
         usuarioRepository.save(usuario);
+        // El catálogo muestra nombre y correo de quien vende cada producto (vendedor o administrador).
+        if (usuario.getRoles() != null && (usuario.getRoles().contains(RolUsuario.VENDEDOR)
+                || usuario.getRoles().contains(RolUsuario.ADMINISTRADOR))) {
+            eventPublisher.publishEvent(CatalogoModificadoEvent.deTodoElCatalogo());
+        }
         PuntosDTO puntosDTO = puntosService.obtenerPuntosPorUsuario(id);
         return UsuarioMapper.toDTO(usuario, puntosDTO.getPuntosAcumulados());
     }
@@ -0,0 +1,74 @@
+package com.levelupgamer.analitica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class AcumuladoVentasTest {
+
+    private static final LocalDate DIA = LocalDate.of(2026, 3, 14);
+
+    @Test
+    void repartePorSubtotalYCuadraConElTotalDeLaBoleta() {
+        AcumuladoVentas acumulado = new AcumuladoVentas();
+        // 30 % (20 DUOC + 10 cupón) sobre 100: 70 cobrados.
+        acumulado.sumar(venta(new BigDecimal("100.00"), new BigDecimal("70.00"), 20, 10,
+                linea(1L, 7L, 3, "33.33", 300),
+                linea(2L, 7L, 1, "33.33", 0),
+                linea(3L, 8L, 1, "33.34", 100)), 1);
+
+        List<AcumuladoVentas.FilaVenta> filas = acumulado.filas();
+        BigDecimal descuentoProductos = filas.stream()
+                .filter(fila -> fila.dimension() == DimensionVentas.PRODUCTO)
+                .map(fila -> fila.descuentoDuoc().add(fila.descuentoCupon()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(new BigDecimal("30.00"), descuentoProductos);
+
+        AcumuladoVentas.FilaVenta producto1 = filas.get(0);
+        assertEquals(new BigDecimal("6.67"), producto1.descuentoDuoc());
+        assertEquals(new BigDecimal("3.33"), producto1.descuentoCupon());
+
+        AcumuladoVentas.FilaVenta categoria7 = fila(filas, DimensionVentas.CATEGORIA, 7L);
+        assertEquals(4, categoria7.unidades());
+        assertEquals(1, categoria7.boletas());
+        assertEquals(new BigDecimal("66.66"), categoria7.ingresoBruto());
+        assertEquals(300, categoria7.puntos());
+        assertEquals(1, fila(filas, DimensionVentas.VENDEDOR, 50L).boletas());
+    }
+
+    @Test
+    void laAnulacionDejaLasFilasEnCero() {
+        AcumuladoVentas.VentaBoleta venta = venta(new BigDecimal("59.97"), new BigDecimal("47.98"), 20, 0,
+                linea(2L, 7L, 1, "19.99", 100),
+                linea(1L, 7L, 2, "39.98", 200));
+        AcumuladoVentas acumulado = new AcumuladoVentas();
+        acumulado.sumar(venta, 1);
+        acumulado.sumar(venta, -1);
+
+        assertTrue(acumulado.filas().stream().allMatch(fila -> fila.unidades() == 0 && fila.boletas() == 0
+                && fila.puntos() == 0 && fila.ingresoBruto().signum() == 0 && fila.descuentoDuoc().signum() == 0
+                && fila.descuentoCupon().signum() == 0));
+    }
+
+    private static AcumuladoVentas.FilaVenta fila(List<AcumuladoVentas.FilaVenta> filas, DimensionVentas dimension,
+                                                  Long clave) {
+        return filas.stream()
+                .filter(fila -> fila.dimension() == dimension && fila.clave().equals(clave))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static AcumuladoVentas.VentaBoleta venta(BigDecimal bruto, BigDecimal total, int duoc, int cupon,
+                                                     AcumuladoVentas.LineaVenta... lineas) {
+        return new AcumuladoVentas.VentaBoleta(DIA, bruto, total, duoc, cupon, List.of(lineas));
+    }
+
+    private static AcumuladoVentas.LineaVenta linea(Long productoId, Long categoriaId, int cantidad, String subtotal,
+                                                    int puntos) {
+        return new AcumuladoVentas.LineaVenta(productoId, categoriaId, 50L, cantidad, new BigDecimal(subtotal), puntos);
+    }
+}
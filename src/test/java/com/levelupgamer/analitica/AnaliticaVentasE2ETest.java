@@ -0,0 +1,184 @@
+package com.levelupgamer.analitica;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.levelupgamer.boletas.BoletaService;
+import com.levelupgamer.boletas.EstadoBoleta;
+import com.levelupgamer.boletas.dto.BoletaCrearDTO;
+import com.levelupgamer.boletas.dto.BoletaDetalleCrearDTO;
+import com.levelupgamer.common.UsuariosDePrueba;
+import com.levelupgamer.productos.Producto;
+import com.levelupgamer.productos.ProductoRepository;
+import com.levelupgamer.productos.categorias.Categoria;
+import com.levelupgamer.productos.categorias.CategoriaRepository;
+import com.levelupgamer.usuarios.RolUsuario;
+import com.levelupgamer.usuarios.Usuario;
+import com.levelupgamer.usuarios.UsuarioRepository;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@ActiveProfiles("test")
+@SuppressWarnings("null")
+class AnaliticaVentasE2ETest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private UsuarioRepository usuarioRepository;
+
+        @Autowired
+        private ProductoRepository productoRepository;
+
+        @Autowired
+        private CategoriaRepository categoriaRepository;
+
+        @Autowired
+        private BoletaService boletaService;
+
+        @Autowired
+        private AnaliticaVentasService analiticaVentasService;
+
+        @Autowired
+        private EntityManager entityManager;
+
+        private UsuariosDePrueba usuarios;
+        private Usuario admin;
+        private Usuario duoc;
+        private Usuario cliente;
+        private Usuario vendedor;
+        private Categoria categoria;
+        private Producto consola;
+        private Producto control;
+
+        @BeforeEach
+        void setUp() {
+                String uniqueId = UUID.randomUUID().toString().substring(0, 8);
+                usuarios = new UsuariosDePrueba(usuarioRepository, mockMvc, objectMapper);
+                admin = usuarios.crear("ana-admin-" + uniqueId + "@example.com", "17171717-1", RolUsuario.ADMINISTRADOR);
+                duoc = usuarios.crear("ana-" + uniqueId + "@duoc.cl", "18181818-1", RolUsuario.CLIENTE);
+                cliente = usuarios.crear("ana-cli-" + uniqueId + "@example.com", "19191919-1", RolUsuario.CLIENTE);
+                vendedor = usuarios.crear("ana-ven-" + uniqueId + "@example.com", "20202020-1", RolUsuario.VENDEDOR);
+                categoria = categoriaRepository.save(Categoria.builder()
+                                .codigo("ANA-" + uniqueId)
+                                .nombre("Consolas analítica")
+                                .activo(true)
+                                .build());
+                consola = producto("ANA-C-" + uniqueId, "10000.00", 100);
+                control = producto("ANA-K-" + uniqueId, "5000.00", 0);
+        }
+
+        @Test
+        void laVentaSumaLaAnulacionRestaYLaReconstruccionCoincide() throws Exception {
+                // DUOC: 25.000 con 20 % de descuento, repartido 4.000 a la consola y 1.000 al control.
+                comprar(duoc, List.of(new BoletaDetalleCrearDTO(consola.getId(), 2), new BoletaDetalleCrearDTO(control.getId(), 1)));
+                Long segunda = comprar(cliente, List.of(new BoletaDetalleCrearDTO(consola.getId(), 1)));
+                String token = usuarios.login(admin);
+
+                JsonNode categoriaHoy = fila("categorias", categoria.getId(), token);
+                assertEquals(4, categoriaHoy.get("unidades").asLong());
+                assertEquals(2, categoriaHoy.get("boletas").asLong());
+                assertEquals(0, new BigDecimal("35000.00").compareTo(categoriaHoy.get("ingresoBruto").decimalValue()));
+                assertEquals(0, new BigDecimal("5000.00").compareTo(categoriaHoy.get("descuentoDuoc").decimalValue()));
+                assertEquals(0, new BigDecimal("30000.00").compareTo(categoriaHoy.get("ingresoNeto").decimalValue()));
+                assertEquals(300, categoriaHoy.get("puntos").asLong());
+                assertEquals("Consolas analítica", categoriaHoy.get("nombre").asText());
+                JsonNode consolaHoy = fila("productos", consola.getId(), token);
+                assertEquals(0, new BigDecimal("26000.00").compareTo(consolaHoy.get("ingresoNeto").decimalValue()));
+
+                boletaService.actualizarEstado(segunda, EstadoBoleta.CANCELADO);
+                JsonNode vendedorHoy = fila("vendedores", vendedor.getId(), token);
+                assertEquals(3, vendedorHoy.get("unidades").asLong());
+                assertEquals(1, vendedorHoy.get("boletas").asLong());
+                assertEquals(0, new BigDecimal("20000.00").compareTo(vendedorHoy.get("ingresoNeto").decimalValue()));
+                assertEquals(200, vendedorHoy.get("puntos").asLong());
+
+                // La reconstrucción lee con JDBC: la cancelación tiene que estar escrita.
+                entityManager.flush();
+                analiticaVentasService.reconstruir(LocalDate.now(), LocalDate.now());
+                assertEquals(vendedorHoy, fila("vendedores", vendedor.getId(), token));
+                mockMvc.perform(get("/api/v1/analytics/sales/categorias/" + categoria.getId() + "/daily")
+                                                .header("Authorization", "Bearer " + token))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()").value(1))
+                                .andExpect(jsonPath("$[0].dia").value(LocalDate.now().toString()))
+                                .andExpect(jsonPath("$[0].unidades").value(3));
+        }
+
+        @Test
+        void soloAdministradoresYDimensionesConocidas() throws Exception {
+                comprar(cliente, List.of(new BoletaDetalleCrearDTO(control.getId(), 1)));
+                mockMvc.perform(get("/api/v1/analytics/sales/productos")
+                                                .param("desde", LocalDate.now().plusDays(1).toString())
+                                                .param("hasta", LocalDate.now().plusDays(7).toString())
+                                                .header("Authorization", "Bearer " + usuarios.login(admin)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[*].id", not(hasItem(control.getId().intValue()))));
+                mockMvc.perform(get("/api/v1/analytics/sales/regiones").header("Authorization", "Bearer " + usuarios.login(admin)))
+                                .andExpect(status().isBadRequest());
+                mockMvc.perform(post("/api/v1/analytics/sales/rebuild")
+                                                .param("desde", LocalDate.now().toString())
+                                                .param("hasta", LocalDate.now().toString())
+                                                .header("Authorization", "Bearer " + usuarios.login(vendedor)))
+                                .andExpect(status().isForbidden());
+        }
+
+        private JsonNode fila(String dimension, Long id, String token) throws Exception {
+                String respuesta = mockMvc.perform(get("/api/v1/analytics/sales/" + dimension)
+                                                .param("limite", "100")
+                                                .header("Authorization", "Bearer " + token))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getContentAsString();
+                for (JsonNode fila : objectMapper.readTree(respuesta)) {
+                        if (fila.get("id").asLong() == id) {
+                                return fila;
+                        }
+                }
+                throw new AssertionError("Sin acumulado para " + dimension + " " + id + ": " + respuesta);
+        }
+
+        private Long comprar(Usuario usuario, List<BoletaDetalleCrearDTO> detalles) {
+                return boletaService.crearBoletaInterna(BoletaCrearDTO.builder()
+                                .usuarioId(usuario.getId())
+                                .detalles(detalles)
+                                .build()).getId();
+        }
+
+        private Producto producto(String codigo, String precio, int puntos) {
+                return productoRepository.save(Producto.builder()
+                                .codigo(codigo)
+                                .nombre("Producto " + codigo)
+                                .precio(new BigDecimal(precio))
+                                .stock(10)
+                                .puntosLevelUp(puntos)
+                                .categoria(categoria)
+                                .vendedor(vendedor)
+                                .activo(true)
+                                .build());
+        }
+}
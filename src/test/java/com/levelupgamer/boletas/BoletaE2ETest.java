@@ -3,10 +3,13 @@ package com.levelupgamer.boletas;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.levelupgamer.autenticacion.LoginRequest;
+import com.levelupgamer.boletas.dto.BoletaCrearDTO;
 import com.levelupgamer.boletas.dto.BoletaCrearRequest;
+import com.levelupgamer.boletas.dto.BoletaDetalleCrearDTO;
 import com.levelupgamer.boletas.dto.BoletaDetalleRequest;
 import com.levelupgamer.productos.Producto;
 import com.levelupgamer.productos.ProductoRepository;
+import com.levelupgamer.productos.dto.ResenaDTO;
 import com.levelupgamer.productos.categorias.Categoria;
 import com.levelupgamer.productos.categorias.CategoriaRepository;
 import com.levelupgamer.usuarios.RolUsuario;
@@ -27,11 +30,14 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -60,6 +66,9 @@ class BoletaE2ETest {
         @Autowired
         private CategoriaRepository categoriaRepository;
 
+        @Autowired
+        private BoletaService boletaService;
+
         private String clienteToken;
         private Long clienteId;
         private Producto producto;
@@ -154,4 +163,185 @@ class BoletaE2ETest {
                 Producto productoActualizado = productoRepository.findById(producto.getId()).orElseThrow();
                 assertEquals(18, productoActualizado.getStock());
         }
+
+        @Test
+        void soloResenaQuienTieneUnaBoletaVigenteDelProducto() throws Exception {
+                ResenaDTO resena = ResenaDTO.builder()
+                                .texto("Muy bueno")
+                                .calificacion(5)
+                                .productoId(producto.getId())
+                                .build();
+                mockMvc.perform(post("/api/v1/reviews")
+                                .header("Authorization", "Bearer " + clienteToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(resena)))
+                                .andExpect(status().isBadRequest());
+
+                BoletaCrearRequest boletaRequest = BoletaCrearRequest.builder()
+                                .clienteId(clienteId)
+                                .total(new BigDecimal("100.00"))
+                                .detalles(Collections.singletonList(BoletaDetalleRequest.builder()
+                                                .productoId(producto.getId())
+                                                .cantidad(1)
+                                                .build()))
+                                .build();
+                JsonNode boleta = objectMapper.readTree(mockMvc.perform(post("/api/v1/boletas")
+                                .header("Authorization", "Bearer " + clienteToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(boletaRequest)))
+                                .andExpect(status().isCreated())
+                                .andReturn().getResponse().getContentAsString());
+
+                mockMvc.perform(post("/api/v1/reviews")
+                                .header("Authorization", "Bearer " + clienteToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(resena)))
+                                .andExpect(status().isOk());
+                mockMvc.perform(get("/api/v1/products/" + producto.getId() + "/reviews"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items[0].compraVerificada").value(true));
+
+                boletaService.actualizarEstado(boleta.get("id").asLong(), EstadoBoleta.CANCELADO);
+
+                mockMvc.perform(get("/api/v1/products/" + producto.getId() + "/reviews"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items[0].compraVerificada").value(false));
+                mockMvc.perform(post("/api/v1/reviews")
+                                .header("Authorization", "Bearer " + clienteToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(resena)))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        void reintentoConLaMismaIdempotencyKeyDevuelveLaBoletaOriginal() throws Exception {
+                BoletaCrearRequest boletaRequest = BoletaCrearRequest.builder()
+                                .clienteId(clienteId)
+                                .total(new BigDecimal("200.00"))
+                                .detalles(Collections.singletonList(BoletaDetalleRequest.builder()
+                                                .productoId(producto.getId())
+                                                .cantidad(2)
+                                                .build()))
+                                .build();
+                String cuerpo = objectMapper.writeValueAsString(boletaRequest);
+
+                JsonNode original = objectMapper.readTree(mockMvc.perform(post("/api/v1/boletas")
+                                .header("Authorization", "Bearer " + clienteToken)
+                                .header("Idempotency-Key", "pedido-1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(cuerpo))
+                                .andExpect(status().isCreated())
+                                .andExpect(header().string("Idempotent-Replayed", "false"))
+                                .andReturn().getResponse().getContentAsString());
+                mockMvc.perform(post("/api/v1/boletas")
+                                .header("Authorization", "Bearer " + clienteToken)
+                                .header("Idempotency-Key", "pedido-1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(cuerpo))
+                                .andExpect(status().isCreated())
+                                .andExpect(header().string("Idempotent-Replayed", "true"))
+                                .andExpect(jsonPath("$.id").value(original.get("id").asLong()));
+
+                boletaRequest.getDetalles().get(0).setCantidad(3);
+                boletaRequest.setTotal(new BigDecimal("300.00"));
+                mockMvc.perform(post("/api/v1/boletas")
+                                .header("Authorization", "Bearer " + clienteToken)
+                                .header("Idempotency-Key", "pedido-1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(boletaRequest)))
+                                .andExpect(status().isBadRequest());
+
+                mockMvc.perform(get("/api/v1/boletas/user/" + clienteId)
+                                .header("Authorization", "Bearer " + clienteToken))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(1));
+                assertEquals(18, productoRepository.findById(producto.getId()).orElseThrow().getStock());
+        }
+
+        @Test
+        void listadoPaginadoPorCursorYAcotadoAlVendedor() throws Exception {
+                Usuario otroVendedor = usuarioRepository.saveAndFlush(Usuario.builder()
+                                .run("77" + UUID.randomUUID().toString().substring(0, 8))
+                                .nombre("Otro")
+                                .apellidos("Vendedor")
+                                .correo("otro-" + UUID.randomUUID().toString().substring(0, 8) + "@gmail.com")
+                                .contrasena(passwordEncoder.encode("vend1234"))
+                                .fechaNacimiento(LocalDate.now().minusYears(30))
+                                .roles(Set.of(RolUsuario.VENDEDOR))
+                                .activo(true)
+                                .build());
+                Producto ajeno = productoRepository.saveAndFlush(Producto.builder()
+                                .codigo("E2E-BOLETA-002")
+                                .nombre("Producto de otro vendedor")
+                                .precio(new BigDecimal("50.00"))
+                                .stock(20)
+                                .categoria(categoria)
+                                .activo(true)
+                                .vendedor(otroVendedor)
+                                .build());
+                for (int i = 0; i < 3; i++) {
+                        comprar(producto);
+                }
+                comprar(ajeno);
+                String vendedorToken = login(vendedor.getCorreo(), "vend1234");
+
+                JsonNode primera = objectMapper.readTree(mockMvc.perform(get("/api/v1/boletas")
+                                .header("Authorization", "Bearer " + vendedorToken)
+                                .param("size", "2"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(2))
+                                .andExpect(jsonPath("$.items[0].detalles").doesNotExist())
+                                .andExpect(jsonPath("$.hayMas").value(true))
+                                .andReturn().getResponse().getContentAsString());
+                mockMvc.perform(get("/api/v1/boletas")
+                                .header("Authorization", "Bearer " + vendedorToken)
+                                .param("size", "2")
+                                .param("cursor", primera.get("siguienteCursor").asText()))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(1))
+                                .andExpect(jsonPath("$.hayMas").value(false));
+                // El vendedorId enviado no amplía el alcance de un vendedor.
+                mockMvc.perform(get("/api/v1/boletas")
+                                .header("Authorization", "Bearer " + vendedorToken)
+                                .param("vendedorId", otroVendedor.getId().toString())
+                                .param("detalles", "true"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(3))
+                                .andExpect(jsonPath("$.items[0].detalles[0].productoId").value(producto.getId()));
+                mockMvc.perform(get("/api/v1/boletas")
+                                .header("Authorization", "Bearer " + vendedorToken)
+                                .param("productoId", ajeno.getId().toString()))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(0));
+
+                mockMvc.perform(get("/api/v1/boletas/user/" + clienteId)
+                                .header("Authorization", "Bearer " + clienteToken)
+                                .param("estado", "PENDIENTE")
+                                .param("desde", LocalDate.now().toString())
+                                .param("hasta", LocalDate.now().toString()))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(4));
+                mockMvc.perform(get("/api/v1/boletas/user/" + otroVendedor.getId())
+                                .header("Authorization", "Bearer " + clienteToken))
+                                .andExpect(status().isForbidden());
+        }
+
+        private void comprar(Producto comprado) {
+                boletaService.crearBoletaInterna(BoletaCrearDTO.builder()
+                                .usuarioId(clienteId)
+                                .detalles(List.of(new BoletaDetalleCrearDTO(comprado.getId(), 1)))
+                                .build());
+        }
+
+        private String login(String correo, String contrasena) throws Exception {
+                MvcResult result = mockMvc.perform(post("/api/v1/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(LoginRequest.builder()
+                                                .correo(correo)
+                                                .contrasena(contrasena)
+                                                .build())))
+                                .andExpect(status().isOk())
+                                .andReturn();
+                return objectMapper.readTree(result.getResponse().getContentAsString()).get("accessToken").asText();
+        }
 }
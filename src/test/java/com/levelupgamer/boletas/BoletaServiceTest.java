@@ -4,36 +4,50 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.levelupgamer.analitica.AnaliticaVentasService;
 import com.levelupgamer.boletas.Boleta;
 import com.levelupgamer.boletas.BoletaDetalle;
 import com.levelupgamer.boletas.EstadoBoleta;
+import com.levelupgamer.boletas.compras.ComprasVerificadasService;
 import com.levelupgamer.boletas.dto.BoletaCrearDTO;
 import com.levelupgamer.boletas.dto.BoletaDetalleCrearDTO;
 import com.levelupgamer.boletas.dto.BoletaRespuestaDTO;
+import com.levelupgamer.boletas.outbox.OutboxService;
+import com.levelupgamer.boletas.outbox.TipoEventoOutbox;
+import com.levelupgamer.gamificacion.PuntosGanadosEvent;
 import com.levelupgamer.gamificacion.PuntosService;
 import com.levelupgamer.gamificacion.cupones.Cupon;
 import com.levelupgamer.gamificacion.cupones.CuponService;
 import com.levelupgamer.gamificacion.cupones.EstadoCupon;
 import com.levelupgamer.gamificacion.dto.PuntosDTO;
+import com.levelupgamer.productos.CatalogoModificadoEvent;
 import com.levelupgamer.productos.Producto;
 import com.levelupgamer.productos.ProductoRepository;
+import com.levelupgamer.productos.alertas.StockCriticoEvent;
+import com.levelupgamer.productos.inventario.InventarioRepository;
+import com.levelupgamer.productos.inventario.ReservaStockService;
 import com.levelupgamer.usuarios.Usuario;
 import com.levelupgamer.usuarios.UsuarioRepository;
 import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 @SuppressWarnings("null")
 class BoletaServiceTest {
@@ -47,12 +61,30 @@ class BoletaServiceTest {
     @Mock
     private ProductoRepository productoRepository;
 
+    @Mock
+    private InventarioRepository inventarioRepository;
+
+    @Mock
+    private ReservaStockService reservaStockService;
+
     @Mock
     private PuntosService puntosService;
 
     @Mock
     private CuponService cuponService;
 
+    @Mock
+    private ComprasVerificadasService comprasVerificadasService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AnaliticaVentasService analiticaVentasService;
+
     @InjectMocks
     private BoletaService boletaService;
 
@@ -93,12 +125,24 @@ class BoletaServiceTest {
                 .usuarioId(1L)
                 .detalles(Collections.singletonList(detalle))
                 .build();
+
+        // El stock de "producto" hace de fila en la base para los UPDATE relativos.
+        when(inventarioRepository.descontar(any(), any())).thenAnswer(invocation -> {
+            int cantidad = invocation.<Map<Long, Integer>>getArgument(0).get(producto.getId());
+            if (producto.getStock() < cantidad) {
+                return new InventarioRepository.Descuento(Map.of(producto.getId(), producto.getStock()),
+                        Set.of(producto.getId()));
+            }
+            return new InventarioRepository.Descuento(Map.of(producto.getId(), producto.getStock() - cantidad), Set.of());
+        });
+        when(inventarioRepository.reponer(any())).thenAnswer(invocation -> Map.of(producto.getId(),
+                producto.getStock() + invocation.<Map<Long, Integer>>getArgument(0).get(producto.getId())));
     }
 
     @Test
     void crearBoleta_conDatosValidos_creaBoletaYActualizaStock() {
         when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
-        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
+        when(productoRepository.findAllById(any())).thenReturn(List.of(producto));
         when(boletaRepository.save(any(Boleta.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         BoletaRespuestaDTO result = boletaService.crearBoletaInterna(boletaCrearDTO);
@@ -112,17 +156,113 @@ class BoletaServiceTest {
         assertEquals("Demo", result.getUsuario().getApellidos());
         assertEquals("test@example.com", result.getUsuario().getCorreo());
 
-        verify(puntosService, times(1)).sumarPuntos(new PuntosDTO(1L, 200));
-        verify(productoRepository, times(1)).save(producto);
+        verify(outboxService, times(1)).registrar(TipoEventoOutbox.PUNTOS_GANADOS, null,
+                new PuntosGanadosEvent(1L, 200, null));
+        verifyNoInteractions(puntosService);
+        verify(inventarioRepository).descontar(Map.of(1L, 2), Map.of());
+        verify(productoRepository, never()).save(any(Producto.class));
+        verify(eventPublisher).publishEvent(any(CatalogoModificadoEvent.class));
         verify(boletaRepository, times(1)).save(any(Boleta.class));
+        verify(comprasVerificadasService).registrarCompra(1L, Set.of(1L));
         verifyNoInteractions(cuponService);
     }
 
+    @Test
+    void crearBoleta_conLineasRepetidas_lasAgrupaEnUnDetalle() {
+        BoletaDetalleCrearDTO otra = new BoletaDetalleCrearDTO();
+        otra.setProductoId(1L);
+        otra.setCantidad(3);
+        boletaCrearDTO.setDetalles(List.of(boletaCrearDTO.getDetalles().get(0), otra));
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(productoRepository.findAllById(any())).thenReturn(List.of(producto));
+        when(boletaRepository.save(any(Boleta.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        BoletaRespuestaDTO result = boletaService.crearBoletaInterna(boletaCrearDTO);
+
+        assertEquals(1, result.getDetalles().size());
+        assertEquals(5, result.getDetalles().get(0).getCantidad());
+        assertEquals(new BigDecimal("500.00"), result.getTotal());
+        assertEquals(5, producto.getStock());
+        verify(inventarioRepository, times(1)).descontar(Map.of(1L, 5), Map.of());
+    }
+
+    @Test
+    void crearBoleta_conProductoInexistente_noTocaElStock() {
+        BoletaDetalleCrearDTO inexistente = new BoletaDetalleCrearDTO();
+        inexistente.setProductoId(2L);
+        inexistente.setCantidad(1);
+        boletaCrearDTO.setDetalles(List.of(boletaCrearDTO.getDetalles().get(0), inexistente));
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(productoRepository.findAllById(any())).thenReturn(List.of(producto));
+
+        assertThrows(IllegalArgumentException.class, () -> boletaService.crearBoletaInterna(boletaCrearDTO));
+        assertEquals(10, producto.getStock());
+        verify(boletaRepository, never()).save(any(Boleta.class));
+    }
+
+    @Test
+    void crearBoleta_conReservaPropia_puedeUsarLoQueOtrosNoVen() {
+        producto.setStockReservado(9);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(productoRepository.findAllById(any())).thenReturn(List.of(producto));
+        when(reservaStockService.consumir(1L, Set.of(1L))).thenReturn(Map.of(1L, 2));
+        when(boletaRepository.save(any(Boleta.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        boletaService.crearBoletaInterna(boletaCrearDTO);
+
+        verify(inventarioRepository).descontar(Map.of(1L, 2), Map.of(1L, 2));
+        assertEquals(8, producto.getStock());
+    }
+
+    @Test
+    void crearBoleta_sinReserva_noPuedeLlevarseLoReservadoPorOtros() {
+        producto.setStockReservado(9);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(productoRepository.findAllById(any())).thenReturn(List.of(producto));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> boletaService.crearBoletaInterna(boletaCrearDTO));
+
+        assertEquals("Stock insuficiente para producto: Producto Test", error.getMessage());
+        verify(inventarioRepository, never()).descontar(any(), any());
+    }
+
+    @Test
+    void crearBoleta_siOtraVentaSeLlevoElStock_rechazaSinGuardar() {
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(productoRepository.findAllById(any())).thenReturn(List.of(producto));
+        doReturn(new InventarioRepository.Descuento(Map.of(1L, 1), Set.of(1L)))
+                .when(inventarioRepository).descontar(any(), any());
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> boletaService.crearBoletaInterna(boletaCrearDTO));
+
+        assertEquals("Stock insuficiente para producto: Producto Test", error.getMessage());
+        verify(boletaRepository, never()).save(any(Boleta.class));
+        verify(eventPublisher, never()).publishEvent(any(CatalogoModificadoEvent.class));
+    }
+
+    @Test
+    void crearBoleta_queDejaElStockEnElUmbral_publicaUnSoloCruce() {
+        producto.setStock(7);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(productoRepository.findAllById(any())).thenReturn(List.of(producto));
+        when(boletaRepository.save(any(Boleta.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        boletaService.crearBoletaInterna(boletaCrearDTO);
+        boletaService.crearBoletaInterna(boletaCrearDTO);
+
+        assertEquals(3, producto.getStock());
+        verify(outboxService, times(1)).registrar(eq(TipoEventoOutbox.STOCK_CRITICO), eq(1L),
+                any(StockCriticoEvent.class));
+        verify(eventPublisher, never()).publishEvent(any(StockCriticoEvent.class));
+    }
+
     @Test
     void crearBoleta_conUsuarioDuoc_aplicaDescuento() {
         usuario.setCorreo("cliente@duoc.cl");
         when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
-        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
+        when(productoRepository.findAllById(any())).thenReturn(List.of(producto));
         when(boletaRepository.save(any(Boleta.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         BoletaRespuestaDTO result = boletaService.crearBoletaInterna(boletaCrearDTO);
@@ -132,7 +272,8 @@ class BoletaServiceTest {
         assertEquals(new BigDecimal("160.00"), result.getTotal());
         assertEquals(20, result.getDescuentoDuoc());
 
-        verify(puntosService, times(1)).sumarPuntos(new PuntosDTO(1L, 200));
+        verify(outboxService, times(1)).registrar(TipoEventoOutbox.PUNTOS_GANADOS, null,
+                new PuntosGanadosEvent(1L, 200, null));
     }
 
     @Test
@@ -145,7 +286,7 @@ class BoletaServiceTest {
         boletaCrearDTO.setCuponId(99L);
 
         when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
-        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
+        when(productoRepository.findAllById(any())).thenReturn(List.of(producto));
         when(cuponService.buscarCuponValido(1L, 99L, null)).thenReturn(Optional.of(cupon));
         when(boletaRepository.save(any(Boleta.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -163,11 +304,11 @@ class BoletaServiceTest {
     void crearBoleta_conStockInsuficiente_lanzaExcepcion() {
         producto.setStock(1);
         when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
-        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
+        when(productoRepository.findAllById(any())).thenReturn(List.of(producto));
 
         assertThrows(IllegalArgumentException.class, () -> boletaService.crearBoletaInterna(boletaCrearDTO));
         verify(boletaRepository, never()).save(any(Boleta.class));
-        verify(puntosService, never()).sumarPuntos(any());
+        verifyNoInteractions(outboxService);
     }
 
     @Test
@@ -183,11 +324,25 @@ class BoletaServiceTest {
 
         assertEquals("CANCELADO", result.getEstado());
         assertEquals(10, producto.getStock());
-        verify(productoRepository).save(producto);
+        verify(inventarioRepository).reponer(Map.of(1L, 2));
+        verify(comprasVerificadasService).registrarAnulacion(1L, Set.of(1L));
         verify(puntosService).restarPuntosPorAjuste(1L, 200, "Reverso boleta #10");
         verify(cuponService).reactivarCupon(boleta.getCupon());
     }
 
+    @Test
+    void actualizarEstado_cancelaAntesDeAcreditar_descartaLosPuntosPendientes() {
+        Boleta boleta = construirBoletaPersistida(EstadoBoleta.PENDIENTE);
+        when(boletaRepository.findById(boleta.getId())).thenReturn(Optional.of(boleta));
+        when(boletaRepository.save(any(Boleta.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(outboxService.descartar(TipoEventoOutbox.PUNTOS_GANADOS, 10L)).thenReturn(true);
+
+        boletaService.actualizarEstado(boleta.getId(), EstadoBoleta.CANCELADO);
+
+        verify(outboxService).descartar(TipoEventoOutbox.PUNTOS_GANADOS, 10L);
+        verifyNoInteractions(puntosService);
+    }
+
     @Test
     void actualizarEstado_noPermiteReabrirBoletaCancelada() {
         Boleta boleta = construirBoletaPersistida(EstadoBoleta.CANCELADO);
@@ -209,7 +364,7 @@ class BoletaServiceTest {
         boletaService.eliminarBoleta(boleta.getId());
 
         assertEquals(10, producto.getStock());
-        verify(productoRepository).save(producto);
+        verify(inventarioRepository).reponer(Map.of(1L, 2));
         verify(puntosService).restarPuntosPorAjuste(1L, 200, "Reverso boleta #10");
         verify(cuponService).reactivarCupon(boleta.getCupon());
         verify(boletaRepository).delete(boleta);
@@ -0,0 +1,44 @@
+package com.levelupgamer.boletas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class VentaRegistradaEventTest {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+    private static VentaRegistradaEvent venta(long boletaId) {
+        return new VentaRegistradaEvent(boletaId, Map.of(1L, 1), FECHA, false);
+    }
+
+    private static VentaRegistradaEvent anulacion(long boletaId) {
+        return new VentaRegistradaEvent(boletaId, Map.of(1L, 1), FECHA, true);
+    }
+
+    @Test
+    void faltantes_sumaSoloLasVentasQueLaLecturaNoVio() {
+        List<VentaRegistradaEvent> recibidos = List.of(venta(1), venta(2));
+
+        assertEquals(List.of(venta(2)), VentaRegistradaEvent.faltantes(recibidos, Set.of(1L)::contains));
+    }
+
+    @Test
+    void faltantes_descuentaLaAnulacionSoloSiLaLecturaContoLaBoleta() {
+        List<VentaRegistradaEvent> recibidos = List.of(anulacion(1), anulacion(2));
+
+        assertEquals(List.of(anulacion(1)), VentaRegistradaEvent.faltantes(recibidos, Set.of(1L)::contains));
+    }
+
+    @Test
+    void faltantes_ventaYAnulacionDuranteLaLecturaSeCompensan() {
+        List<VentaRegistradaEvent> recibidos = List.of(venta(1), anulacion(1), venta(2), anulacion(2));
+
+        // La 1 se leyó vigente (anulada después); la 2 no se leyó (anulada antes o vendida después).
+        assertEquals(List.of(anulacion(1)), VentaRegistradaEvent.faltantes(recibidos, Set.of(1L)::contains));
+    }
+}
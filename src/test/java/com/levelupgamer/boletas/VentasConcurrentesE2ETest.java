@@ -0,0 +1,173 @@
+package com.levelupgamer.boletas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.levelupgamer.boletas.dto.BoletaCrearDTO;
+import com.levelupgamer.boletas.dto.BoletaDetalleCrearDTO;
+import com.levelupgamer.productos.CatalogoModificadoEvent;
+import com.levelupgamer.productos.Producto;
+import com.levelupgamer.productos.ProductoRepository;
+import com.levelupgamer.productos.categorias.Categoria;
+import com.levelupgamer.productos.categorias.CategoriaRepository;
+import com.levelupgamer.usuarios.RolUsuario;
+import com.levelupgamer.usuarios.Usuario;
+import com.levelupgamer.usuarios.UsuarioRepository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Muchos compradores contra un mismo producto. Sin {@code @Transactional}: cada compra
+ * confirma su propia transacción, así que la prueba limpia lo que crea.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@SuppressWarnings("null")
+class VentasConcurrentesE2ETest {
+
+        private static final Logger logger = LoggerFactory.getLogger(VentasConcurrentesE2ETest.class);
+        private static final int COMPRADORES = 120;
+        private static final int STOCK_INICIAL = 50;
+
+        @Autowired
+        private BoletaService boletaService;
+
+        @Autowired
+        private BoletaRepository boletaRepository;
+
+        @Autowired
+        private UsuarioRepository usuarioRepository;
+
+        @Autowired
+        private ProductoRepository productoRepository;
+
+        @Autowired
+        private CategoriaRepository categoriaRepository;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private TransactionTemplate transactionTemplate;
+
+        @Autowired
+        private ApplicationEventPublisher eventPublisher;
+
+        private final List<Usuario> compradores = new ArrayList<>();
+        private Categoria categoria;
+        private Producto producto;
+
+        @BeforeEach
+        void setUp() {
+                String uniqueId = UUID.randomUUID().toString().substring(0, 6);
+                for (int i = 0; i < COMPRADORES; i++) {
+                        compradores.add(Usuario.builder()
+                                        .run(uniqueId + String.format("%03d", i))
+                                        .nombre("Comprador")
+                                        .apellidos("Concurrente")
+                                        .correo("comprador-" + uniqueId + "-" + i + "@example.com")
+                                        .contrasena("sin-login")
+                                        .fechaNacimiento(LocalDate.now().minusYears(25))
+                                        .roles(Set.of(RolUsuario.CLIENTE))
+                                        .activo(true)
+                                        .build());
+                }
+                usuarioRepository.saveAll(compradores);
+                categoria = categoriaRepository.save(Categoria.builder()
+                                .codigo("CON-" + uniqueId)
+                                .nombre("Categoria Concurrencia " + uniqueId)
+                                .activo(true)
+                                .build());
+                producto = productoRepository.save(Producto.builder()
+                                .codigo("CON-" + uniqueId)
+                                .nombre("Producto disputado")
+                                .precio(new BigDecimal("1000.00"))
+                                .stock(STOCK_INICIAL)
+                                .puntosLevelUp(0)
+                                .categoria(categoria)
+                                .vendedor(compradores.get(0))
+                                .activo(true)
+                                .build());
+                // Como un alta por ProductoService: los índices en memoria conocen el producto
+                // y los movimientos de stock de cada venta se aplican sin volver a la base.
+                eventPublisher.publishEvent(CatalogoModificadoEvent.deProducto(producto.getId(), categoria.getId()));
+        }
+
+        @AfterEach
+        void tearDown() {
+                transactionTemplate.executeWithoutResult(status -> {
+                        for (Usuario comprador : compradores) {
+                                boletaRepository.deleteAll(boletaRepository.findByUsuarioId(comprador.getId()));
+                        }
+                        jdbcTemplate.update("delete from compra_verificada where producto_id = ?", producto.getId());
+                        productoRepository.deleteById(producto.getId());
+                        categoriaRepository.deleteById(categoria.getId());
+                        usuarioRepository.deleteAll(compradores);
+                });
+                eventPublisher.publishEvent(CatalogoModificadoEvent.deProducto(producto.getId(), categoria.getId()));
+        }
+
+        @Test
+        void compradoresParalelosNuncaSobrevendenElStock() throws Exception {
+                AtomicInteger vendidas = new AtomicInteger();
+                AtomicInteger sinStock = new AtomicInteger();
+                ConcurrentLinkedQueue<Throwable> inesperados = new ConcurrentLinkedQueue<>();
+                CountDownLatch largada = new CountDownLatch(1);
+                ExecutorService ejecutor = Executors.newFixedThreadPool(COMPRADORES);
+                for (Usuario comprador : compradores) {
+                        ejecutor.execute(() -> {
+                                try {
+                                        largada.await();
+                                        boletaService.crearBoletaInterna(BoletaCrearDTO.builder()
+                                                        .usuarioId(comprador.getId())
+                                                        .detalles(List.of(new BoletaDetalleCrearDTO(producto.getId(), 1)))
+                                                        .build());
+                                        vendidas.incrementAndGet();
+                                } catch (IllegalArgumentException e) {
+                                        sinStock.incrementAndGet();
+                                } catch (Throwable e) {
+                                        inesperados.add(e);
+                                }
+                        });
+                }
+
+                long inicio = System.nanoTime();
+                largada.countDown();
+                ejecutor.shutdown();
+                assertTrue(ejecutor.awaitTermination(60, TimeUnit.SECONDS));
+                long milisegundos = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+                logger.info("{} compradores, {} ventas y {} rechazos en {} ms ({} intentos/s)", COMPRADORES,
+                                vendidas.get(), sinStock.get(), milisegundos, COMPRADORES * 1000L / milisegundos);
+
+                assertTrue(inesperados.isEmpty(),
+                                () -> inesperados.size() + " errores inesperados, el primero: " + inesperados.peek());
+                assertEquals(STOCK_INICIAL, vendidas.get());
+                assertEquals(COMPRADORES - STOCK_INICIAL, sinStock.get());
+                assertEquals(0, jdbcTemplate.queryForObject("select stock from producto where id = ?", Integer.class,
+                                producto.getId()));
+                assertEquals(STOCK_INICIAL, jdbcTemplate.queryForObject(
+                                "select coalesce(sum(cantidad), 0) from boleta_detalle where producto_id = ?", Integer.class,
+                                producto.getId()));
+        }
+}
@@ -0,0 +1,53 @@
+package com.levelupgamer.boletas.compras;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class FiltroBloomTest {
+
+    @Test
+    void nuncaDaFalsosNegativos() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (long usuario = 1; usuario <= 100; usuario++) {
+            for (long producto = 1; producto <= 100; producto++) {
+                filtro.agregar(usuario, producto);
+            }
+        }
+
+        for (long usuario = 1; usuario <= 100; usuario++) {
+            for (long producto = 1; producto <= 100; producto++) {
+                assertTrue(filtro.puedeContener(usuario, producto));
+            }
+        }
+    }
+
+    @Test
+    void losFalsosPositivosQuedanCercaDeLaTasaPedida() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (long usuario = 1; usuario <= 100; usuario++) {
+            for (long producto = 1; producto <= 100; producto++) {
+                filtro.agregar(usuario, producto);
+            }
+        }
+
+        int falsosPositivos = 0;
+        int consultas = 0;
+        for (long usuario = 101; usuario <= 300; usuario++) {
+            for (long producto = 1; producto <= 100; producto++) {
+                consultas++;
+                if (filtro.puedeContener(usuario, producto)) {
+                    falsosPositivos++;
+                }
+            }
+        }
+        assertTrue(falsosPositivos < consultas * 0.03, "Falsos positivos: " + falsosPositivos + "/" + consultas);
+    }
+
+    @Test
+    void rechazaParametrosInvalidos() {
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(100, 1));
+    }
+}
@@ -0,0 +1,128 @@
+package com.levelupgamer.boletas.idempotencia;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.levelupgamer.boletas.dto.BoletaRespuestaDTO;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class IdempotenciaServiceTest {
+
+    private ClaveIdempotenciaRepository repository;
+    private IdempotenciaService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ClaveIdempotenciaRepository.class);
+        when(repository.findByUsuarioAndClave(any(), any())).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        service = new IdempotenciaService(repository, new ObjectMapper().registerModule(new JavaTimeModule()),
+                mock(PlatformTransactionManager.class), Duration.ofHours(1), 100, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void elDuplicadoConcurrenteEsperaElResultadoEnVezDeEjecutarse() throws Exception {
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger ejecuciones = new AtomicInteger();
+        BoletaRespuestaDTO boleta = BoletaRespuestaDTO.builder().id(7L).build();
+
+        CompletableFuture<IdempotenciaService.Resultado> primera = CompletableFuture.supplyAsync(() ->
+                comoCliente(() -> service.ejecutar("k-1", Map.of("cantidad", 1), () -> {
+                    ejecuciones.incrementAndGet();
+                    enCurso.countDown();
+                    esperar(liberar);
+                    return boleta;
+                })));
+        assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+        CompletableFuture<IdempotenciaService.Resultado> segunda = CompletableFuture.supplyAsync(() ->
+                comoCliente(() -> service.ejecutar("k-1", Map.of("cantidad", 1), () -> {
+                    ejecuciones.incrementAndGet();
+                    return BoletaRespuestaDTO.builder().id(8L).build();
+                })));
+        Thread.sleep(100);
+        assertFalse(segunda.isDone());
+        liberar.countDown();
+
+        assertFalse(primera.get(5, TimeUnit.SECONDS).repetida());
+        IdempotenciaService.Resultado repetida = segunda.get(5, TimeUnit.SECONDS);
+        assertTrue(repetida.repetida());
+        assertSame(boleta, repetida.respuesta());
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    void losReintentosSeSirvenDesdeMemoriaYNoAceptanOtroCuerpo() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("cliente@example.com", null, "ROLE_CLIENTE"));
+        BoletaRespuestaDTO boleta = BoletaRespuestaDTO.builder().id(7L).build();
+
+        service.ejecutar("k-2", Map.of("cantidad", 1), () -> boleta);
+        IdempotenciaService.Resultado reintento = service.ejecutar("k-2", Map.of("cantidad", 1),
+                () -> BoletaRespuestaDTO.builder().id(8L).build());
+
+        assertTrue(reintento.repetida());
+        assertEquals(7L, reintento.respuesta().getId());
+        verify(repository, times(1)).findByUsuarioAndClave("cliente@example.com", "k-2");
+        assertThrows(IllegalArgumentException.class,
+                () -> service.ejecutar("k-2", Map.of("cantidad", 2), () -> boleta));
+    }
+
+    @Test
+    void laPurgaBorraPorLotesDeIds() {
+        when(repository.findIdsVencidas(any(), any())).thenReturn(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L),
+                List.of(11L));
+
+        service.purgarVencidas();
+
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L));
+        verify(repository).deleteAllByIdInBatch(List.of(11L));
+    }
+
+    private static <T> T comoCliente(Supplier<T> accion) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("cliente@example.com", null, "ROLE_CLIENTE"));
+        try {
+            return accion.get();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.levelupgamer.boletas.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.levelupgamer.boletas.BoletaService;
+import com.levelupgamer.boletas.EstadoBoleta;
+import com.levelupgamer.boletas.dto.BoletaCrearDTO;
+import com.levelupgamer.boletas.dto.BoletaDetalleCrearDTO;
+import com.levelupgamer.boletas.dto.BoletaRespuestaDTO;
+import com.levelupgamer.common.UsuariosDePrueba;
+import com.levelupgamer.gamificacion.PuntosService;
+import com.levelupgamer.productos.Producto;
+import com.levelupgamer.productos.ProductoRepository;
+import com.levelupgamer.productos.alertas.AlertasStockService;
+import com.levelupgamer.productos.categorias.Categoria;
+import com.levelupgamer.productos.categorias.CategoriaRepository;
+import com.levelupgamer.usuarios.RolUsuario;
+import com.levelupgamer.usuarios.Usuario;
+import com.levelupgamer.usuarios.UsuarioRepository;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+@ActiveProfiles("test")
+@SuppressWarnings("null")
+class OutboxE2ETest {
+
+        @Autowired
+        private UsuarioRepository usuarioRepository;
+
+        @Autowired
+        private ProductoRepository productoRepository;
+
+        @Autowired
+        private CategoriaRepository categoriaRepository;
+
+        @Autowired
+        private BoletaService boletaService;
+
+        @Autowired
+        private PuntosService puntosService;
+
+        @Autowired
+        private OutboxService outboxService;
+
+        @Autowired
+        private AlertasStockService alertasStockService;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private EntityManager entityManager;
+
+        private Usuario cliente;
+        private Producto producto;
+
+        @BeforeEach
+        void setUp() {
+                String uniqueId = UUID.randomUUID().toString().substring(0, 8);
+                cliente = new UsuariosDePrueba(usuarioRepository)
+                                .crear("outbox-" + uniqueId + "@example.com", "14141414-1", RolUsuario.CLIENTE);
+                Categoria categoria = categoriaRepository.save(Categoria.builder()
+                                .codigo("OUT-" + uniqueId)
+                                .nombre("Categoria outbox")
+                                .activo(true)
+                                .build());
+                producto = productoRepository.save(Producto.builder()
+                                .codigo("OUT-" + uniqueId)
+                                .nombre("Control inalámbrico")
+                                .precio(new BigDecimal("40000.00"))
+                                .stock(10)
+                                .stockCritico(5)
+                                .puntosLevelUp(100)
+                                .categoria(categoria)
+                                .vendedor(cliente)
+                                .activo(true)
+                                .build());
+        }
+
+        @Test
+        void losPuntosSeAcreditanAlDespacharYUnaSolaVez() {
+                BoletaRespuestaDTO boleta = comprar(2);
+                assertEquals(0, puntos());
+                assertEquals(1, pendientes(boleta.getId()));
+
+                outboxService.despachar();
+                outboxService.despachar();
+
+                assertEquals(200, puntos());
+                assertEquals(0, pendientes(boleta.getId()));
+                assertEquals("Compra boleta #" + boleta.getId(), jdbcTemplate.queryForObject(
+                                "select descripcion from movimiento_puntos where puntos_usuario_id = ?", String.class,
+                                cliente.getId()));
+        }
+
+        @Test
+        void cancelarAntesDeDespacharDescartaLosPuntosPendientes() {
+                BoletaRespuestaDTO boleta = comprar(1);
+
+                boletaService.actualizarEstado(boleta.getId(), EstadoBoleta.CANCELADO);
+                outboxService.despachar();
+
+                assertEquals(0, puntos());
+                assertEquals(0, pendientes(boleta.getId()));
+        }
+
+        @Test
+        void elCruceDeStockCriticoSeGuardaAlDespacharYTerminaEnUnaAlerta() {
+                comprar(6);
+                assertEquals(1, jdbcTemplate.queryForObject("select count(*) from outbox_evento where tipo = ?",
+                                Integer.class, TipoEventoOutbox.STOCK_CRITICO.name()));
+
+                outboxService.despachar();
+
+                assertEquals(0, jdbcTemplate.queryForObject("select count(*) from outbox_evento where tipo = ?",
+                                Integer.class, TipoEventoOutbox.STOCK_CRITICO.name()));
+                assertEquals(4, jdbcTemplate.queryForObject(
+                                "select stock from cruce_stock where producto_id = ? and bajo_umbral", Integer.class,
+                                producto.getId()));
+
+                // Vence la ventana sin esperarla.
+                jdbcTemplate.update("update cruce_stock set momento = ? where producto_id = ?",
+                                Timestamp.from(Instant.now().minus(Duration.ofHours(1))), producto.getId());
+                entityManager.clear();
+                alertasStockService.cerrarVentanas();
+
+                assertEquals(0, jdbcTemplate.queryForObject("select count(*) from cruce_stock where producto_id = ?",
+                                Integer.class, producto.getId()));
+                assertEquals(4, jdbcTemplate.queryForObject(
+                                "select stock from alerta_stock where producto_id = ? and tipo = 'STOCK_CRITICO'", Integer.class,
+                                producto.getId()));
+        }
+
+        private BoletaRespuestaDTO comprar(int cantidad) {
+                return boletaService.crearBoletaInterna(BoletaCrearDTO.builder()
+                                .usuarioId(cliente.getId())
+                                .detalles(List.of(new BoletaDetalleCrearDTO(producto.getId(), cantidad)))
+                                .build());
+        }
+
+        private int puntos() {
+                return puntosService.obtenerPuntosPorUsuario(cliente.getId()).getPuntosAcumulados();
+        }
+
+        private int pendientes(Long boletaId) {
+                return jdbcTemplate.queryForObject("select count(*) from outbox_evento where tipo = ? and referencia = ?",
+                                Integer.class, TipoEventoOutbox.PUNTOS_GANADOS.name(), boletaId);
+        }
+}
@@ -0,0 +1,92 @@
+package com.levelupgamer.boletas.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.levelupgamer.gamificacion.PuntosGanadosEvent;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class OutboxServiceTest {
+
+    private static final PuntosGanadosEvent PUNTOS = new PuntosGanadosEvent(1L, 200, 10L);
+
+    private EventoOutboxRepository repository;
+    private JdbcTemplate jdbcTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private OutboxService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = mock(EventoOutboxRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        ObjectMapper objectMapper = new ObjectMapper();
+        service = new OutboxService(repository, jdbcTemplate, objectMapper, eventPublisher,
+                mock(PlatformTransactionManager.class), Duration.ofMinutes(1), Duration.ofSeconds(5), 10);
+
+        when(repository.findByDisponibleEnLessThanEqualOrderByDisponibleEnAscIdAsc(any(), any()))
+                .thenReturn(List.of(EventoOutbox.builder()
+                        .id(7L)
+                        .tipo(TipoEventoOutbox.PUNTOS_GANADOS)
+                        .referencia(10L)
+                        .payload(objectMapper.writeValueAsString(PUNTOS))
+                        .intentos(0)
+                        .disponibleEn(LocalDateTime.now())
+                        .build()));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] {1});
+        when(jdbcTemplate.update(startsWith("delete"), eq(7L), eq(1))).thenReturn(1);
+    }
+
+    @Test
+    void loReclamadoSeEliminaYSePublica() {
+        assertEquals(1, service.despacharLote(LocalDateTime.now()));
+
+        verify(jdbcTemplate).update(startsWith("delete"), eq(7L), eq(1));
+        verify(eventPublisher).publishEvent(PUNTOS);
+    }
+
+    @Test
+    void loQueReclamoOtraInstanciaNoSeEntrega() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] {0});
+
+        service.despacharLote(LocalDateTime.now());
+
+        verify(jdbcTemplate, never()).update(startsWith("delete"), any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void siElConsumidorFallaSePosponeSinPerderLaFila() {
+        doThrow(new IllegalArgumentException("Usuario no encontrado para asignar puntos"))
+                .when(eventPublisher).publishEvent(PUNTOS);
+
+        service.despacharLote(LocalDateTime.now());
+
+        verify(jdbcTemplate).update(startsWith("update outbox_evento set disponible_en"), any(),
+                eq("Usuario no encontrado para asignar puntos"), eq(7L), eq(1));
+    }
+
+    @Test
+    void laEsperaSeDuplicaHastaUnaHora() {
+        assertEquals(Duration.ofSeconds(5), service.esperaPara(1));
+        assertEquals(Duration.ofSeconds(20), service.esperaPara(3));
+        assertEquals(Duration.ofHours(1), service.esperaPara(40));
+    }
+}
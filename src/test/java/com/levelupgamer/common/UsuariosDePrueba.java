@@ -0,0 +1,74 @@
+package com.levelupgamer.common;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.levelupgamer.autenticacion.LoginRequest;
+import com.levelupgamer.usuarios.RolUsuario;
+import com.levelupgamer.usuarios.Usuario;
+import com.levelupgamer.usuarios.UsuarioRepository;
+import java.time.LocalDate;
+import java.util.Set;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Usuarios de las pruebas E2E y su login por la API. Todos comparten
+ * {@link #CONTRASENA}, cifrada una sola vez: BCrypt es lento a propósito y cada
+ * prueba crea varios usuarios.
+ */
+public class UsuariosDePrueba {
+
+        public static final String CONTRASENA = "clave123";
+        private static final String CONTRASENA_CIFRADA = new BCryptPasswordEncoder().encode(CONTRASENA);
+
+        private final UsuarioRepository usuarioRepository;
+        private final MockMvc mockMvc;
+        private final ObjectMapper objectMapper;
+
+        /** Sin {@link MockMvc}: sólo para pruebas que no inician sesión. */
+        public UsuariosDePrueba(UsuarioRepository usuarioRepository) {
+                this(usuarioRepository, null, null);
+        }
+
+        public UsuariosDePrueba(UsuarioRepository usuarioRepository, MockMvc mockMvc, ObjectMapper objectMapper) {
+                this.usuarioRepository = usuarioRepository;
+                this.mockMvc = mockMvc;
+                this.objectMapper = objectMapper;
+        }
+
+        public Usuario crear(String correo, String run, RolUsuario rol) {
+                return crear(correo, run, "Usuario", rol);
+        }
+
+        public Usuario crear(String correo, String run, String nombre, RolUsuario rol) {
+                return usuarioRepository.save(Usuario.builder()
+                                .run(run)
+                                .nombre(nombre)
+                                .apellidos("Prueba")
+                                .correo(correo)
+                                .contrasena(CONTRASENA_CIFRADA)
+                                .fechaNacimiento(LocalDate.now().minusYears(25))
+                                .roles(Set.of(rol))
+                                .activo(true)
+                                .build());
+        }
+
+        /** Devuelve el access token de {@code usuario}, creado con {@link #crear}. */
+        public String login(Usuario usuario) throws Exception {
+                if (mockMvc == null) {
+                        throw new IllegalStateException("Estos usuarios de prueba no tienen MockMvc para iniciar sesión");
+                }
+                String respuesta = mockMvc.perform(post("/api/v1/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(LoginRequest.builder()
+                                                .correo(usuario.getCorreo())
+                                                .contrasena(CONTRASENA)
+                                                .build())))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getContentAsString();
+                return objectMapper.readTree(respuesta).get("accessToken").asText();
+        }
+}
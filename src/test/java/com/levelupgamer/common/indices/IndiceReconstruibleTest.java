@@ -0,0 +1,44 @@
+package com.levelupgamer.common.indices;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class IndiceReconstruibleTest {
+
+    @Test
+    void registrar_sinReconstruccionNoAnotaNada() {
+        IndiceReconstruible<String, Integer> indice = new IndiceReconstruible<>("viejo");
+
+        assertSame("viejo", indice.registrar(1));
+        assertEquals(List.of(), indice.reemplazar("nuevo"));
+        assertSame("nuevo", indice.actual());
+    }
+
+    @Test
+    void reemplazar_devuelveLosEventosRecibidosDuranteLaCarga() {
+        IndiceReconstruible<String, Integer> indice = new IndiceReconstruible<>("viejo");
+        indice.iniciarReconstruccion();
+
+        assertSame("viejo", indice.registrar(1));
+        assertSame("viejo", indice.registrar(2));
+
+        assertEquals(List.of(1, 2), indice.reemplazar("nuevo"));
+        assertSame("nuevo", indice.registrar(3));
+        assertEquals(List.of(), indice.reemplazar("otro"));
+    }
+
+    @Test
+    void cancelarReconstruccion_mantieneElIndiceYDescartaLoAnotado() {
+        IndiceReconstruible<String, Integer> indice = new IndiceReconstruible<>("viejo");
+        indice.iniciarReconstruccion();
+        indice.registrar(1);
+
+        indice.cancelarReconstruccion();
+
+        assertSame("viejo", indice.actual());
+        assertEquals(List.of(), indice.reemplazar("nuevo"));
+    }
+}
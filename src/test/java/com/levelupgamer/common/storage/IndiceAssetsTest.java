@@ -0,0 +1,117 @@
+package com.levelupgamer.common.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class IndiceAssetsTest {
+
+    private final Map<String, String> backend = new HashMap<>();
+    private final AtomicInteger listados = new AtomicInteger();
+
+    private Map<String, String> listar(String carpeta) {
+        listados.incrementAndGet();
+        Map<String, String> resultado = new HashMap<>();
+        backend.forEach((clave, url) -> {
+            if (clave.startsWith(carpeta + "/")) {
+                resultado.put(clave, url);
+            }
+        });
+        return resultado;
+    }
+
+    @Test
+    void listar_consultaElBackendSoloLaPrimeraVez() throws Exception {
+        backend.put("products/A/2.jpg", "/u/products/A/2.jpg");
+        backend.put("products/A/1.jpg", "/u/products/A/1.jpg");
+        IndiceAssets indice = new IndiceAssets(10, true);
+
+        assertEquals(List.of("/u/products/A/1.jpg", "/u/products/A/2.jpg"), indice.listar("products/A", this::listar));
+        assertEquals(List.of("/u/products/A/1.jpg", "/u/products/A/2.jpg"), indice.listar("products/A", this::listar));
+        assertEquals(1, listados.get());
+        assertEquals(1, indice.getAciertos());
+    }
+
+    @Test
+    void registrarYQuitar_actualizanLasCarpetasIndexadas() throws Exception {
+        IndiceAssets indice = new IndiceAssets(10, true);
+        indice.listar("products", this::listar);
+        indice.listar("products/A", this::listar);
+
+        indice.registrar("products/A/variantes/t.jpg", "/u/t.jpg");
+        assertEquals(List.of("/u/t.jpg"), indice.listar("products/A", this::listar));
+        assertEquals(List.of("/u/t.jpg"), indice.listar("products", this::listar));
+
+        indice.quitar("products/A/variantes/t.jpg");
+        assertEquals(List.of(), indice.listar("products/A", this::listar));
+        assertEquals(2, listados.get());
+    }
+
+    @Test
+    void registrar_sinRecursividadSoloAfectaLaCarpetaDirecta() throws Exception {
+        IndiceAssets indice = new IndiceAssets(10, false);
+        indice.listar("products/A", this::listar);
+
+        indice.registrar("products/A/variantes/t.jpg", "/u/t.jpg");
+        indice.registrar("products/A/1.jpg", "/u/1.jpg");
+
+        assertEquals(List.of("/u/1.jpg"), indice.listar("products/A", this::listar));
+    }
+
+    @Test
+    void listar_noGuardaUnListadoLeidoMientrasHabiaEscrituras() throws Exception {
+        IndiceAssets indice = new IndiceAssets(10, true);
+
+        indice.listar("products/A", carpeta -> {
+            indice.registrar("products/A/1.jpg", "/u/1.jpg");
+            return Map.of();
+        });
+
+        assertEquals(0, indice.getTamano());
+    }
+
+    @Test
+    void reconciliar_recogeCambiosHechosPorFueraDelServicio() throws Exception {
+        IndiceAssets indice = new IndiceAssets(10, true);
+        indice.listar("products/A", this::listar);
+        backend.put("products/A/1.jpg", "/u/1.jpg");
+
+        indice.reconciliar(this::listar);
+
+        assertEquals(List.of("/u/1.jpg"), indice.listar("products/A", this::listar));
+        assertEquals(2, listados.get());
+    }
+
+    @Test
+    void reconciliar_soloListaLasCarpetasLeidasDesdeLaPasadaAnterior() throws Exception {
+        IndiceAssets indice = new IndiceAssets(10, true);
+        indice.listar("products/A", this::listar);
+        indice.listar("products/B", this::listar);
+        indice.reconciliar(this::listar);
+        assertEquals(4, listados.get());
+
+        indice.listar("products/A", this::listar);
+        indice.reconciliar(this::listar);
+
+        assertEquals(5, listados.get());
+        assertEquals(1, indice.getTamano());
+    }
+
+    @Test
+    void listar_desalojaLaCarpetaMenosUsadaAlSuperarLaCapacidad() throws Exception {
+        IndiceAssets indice = new IndiceAssets(2, true);
+        indice.listar("a", this::listar);
+        indice.listar("b", this::listar);
+        indice.listar("a", this::listar);
+        indice.listar("c", this::listar);
+
+        indice.listar("a", this::listar);
+        assertEquals(3, listados.get());
+        indice.listar("b", this::listar);
+        assertEquals(4, listados.get());
+    }
+}
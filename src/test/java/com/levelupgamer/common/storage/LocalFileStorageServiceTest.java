@@ -0,0 +1,34 @@
+package com.levelupgamer.common.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LocalFileStorageServiceTest {
+
+    @TempDir
+    Path base;
+
+    @Test
+    void listado_seMantieneAlSubirYEliminarYSeReconciliaConElDisco() throws Exception {
+        LocalFileStorageService storage = new LocalFileStorageService(base.toString(), "/uploads/", "", 100);
+        assertEquals(List.of(), storage.listPublicUrls("products/JM001"));
+
+        String url = storage.uploadFile(new ByteArrayInputStream(new byte[] { 1 }), "foto.jpg", 1, "products/JM001");
+        assertEquals(List.of(url), storage.listPublicUrls("products/JM001"));
+
+        assertTrue(storage.deleteIfManaged(url));
+        assertEquals(List.of(), storage.listPublicUrls("products/JM001"));
+
+        Files.write(base.resolve("products/JM001/externo.jpg"), new byte[] { 2 });
+        assertEquals(List.of(), storage.listPublicUrls("products/JM001"));
+        storage.reconcileIndex();
+        assertEquals(List.of("/uploads/products/JM001/externo.jpg"), storage.listPublicUrls("products/JM001"));
+    }
+}
@@ -1,5 +1,6 @@
 package com.levelupgamer.contenido;
 
+import com.levelupgamer.common.cache.Huella;
 import com.levelupgamer.common.storage.FileStorageService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,11 +15,15 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class BlogE2ETest {
@@ -92,5 +97,16 @@ class BlogE2ETest {
         mockMvc.perform(get("/api/v1/blog-posts/1/content"))
                 .andExpect(status().isNotFound());
     }
-}
 
+    @Test
+    void getBlog_conEtagVigente_respondeNotModifiedSinCargarElBlog() throws Exception {
+        Huella huella = new Huella(LocalDateTime.of(2025, 1, 10, 12, 0), 1L).conAlcance(1L);
+        when(blogService.huellaDe(1L)).thenReturn(Optional.of(huella));
+
+        mockMvc.perform(get("/api/v1/blog-posts/1").header("If-None-Match", huella.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", huella.etag()));
+
+        verify(blogService, never()).buscarPorId(1L);
+    }
+}
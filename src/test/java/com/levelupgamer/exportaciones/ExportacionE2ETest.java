@@ -0,0 +1,166 @@
+package com.levelupgamer.exportaciones;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.levelupgamer.common.UsuariosDePrueba;
+import com.levelupgamer.gamificacion.PuntosService;
+import com.levelupgamer.gamificacion.dto.PuntosDTO;
+import com.levelupgamer.usuarios.RolUsuario;
+import com.levelupgamer.usuarios.Usuario;
+import com.levelupgamer.usuarios.UsuarioRepository;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@ActiveProfiles("test")
+@SuppressWarnings("null")
+class ExportacionE2ETest {
+
+        private static final String ENCABEZADO_USUARIOS =
+                        "id,run,nombre,apellidos,correo,fecha_nacimiento,region,comuna,duoc,codigo_referido,activo,created_at";
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private UsuarioRepository usuarioRepository;
+
+        @Autowired
+        private PuntosService puntosService;
+
+        @Autowired
+        private ExportacionService exportacionService;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        private UsuariosDePrueba usuarios;
+        private String uniqueId;
+        private Usuario admin;
+        private Usuario antigua;
+        private Usuario reciente;
+
+        @BeforeEach
+        void setUp() {
+                uniqueId = UUID.randomUUID().toString().substring(0, 8);
+                usuarios = new UsuariosDePrueba(usuarioRepository, mockMvc, objectMapper);
+                admin = usuarios.crear("exp-admin-" + uniqueId + "@example.com", "14141414-1", "Admin", RolUsuario.ADMINISTRADOR);
+                antigua = usuarios.crear("exp-a-" + uniqueId + "@example.com", "15151515-1", "Ana, \"la\" antigua",
+                                RolUsuario.CLIENTE);
+                reciente = usuarios.crear("exp-b-" + uniqueId + "@example.com", "16161616-1", "Beatriz", RolUsuario.CLIENTE);
+                jdbcTemplate.update("update usuario set created_at = ? where id = ?",
+                                LocalDateTime.now().minusYears(1), antigua.getId());
+        }
+
+        @Test
+        void csvEscapaLosCamposFiltraPorFechaYReanudaSinEncabezado() throws Exception {
+                List<String> todas = lineas(exportar("usuarios", "csv", null, null));
+                assertEquals(ENCABEZADO_USUARIOS, todas.get(0));
+                List<String> propias = propias(todas);
+                assertEquals(2, propias.size());
+                assertTrue(propias.get(0).startsWith(antigua.getId() + ",15151515-1,\"Ana, \"\"la\"\" antigua\",Prueba,"));
+
+                List<String> recientes = propias(lineas(exportar("usuarios", "csv", LocalDate.now().minusDays(1), null)));
+                assertEquals(1, recientes.size());
+                assertTrue(recientes.get(0).startsWith(reciente.getId() + ","));
+
+                List<String> reanudadas = lineas(exportar("usuarios", "csv", null, antigua.getId()));
+                assertTrue(reanudadas.stream().noneMatch(ENCABEZADO_USUARIOS::equals));
+                assertEquals(List.of(reciente.getCorreo()), propias(reanudadas).stream()
+                                .map(linea -> linea.split(",")[4])
+                                .toList());
+        }
+
+        @Test
+        void ndjsonDelLibroDePuntos() throws Exception {
+                puntosService.sumarPuntos(new PuntosDTO(reciente.getId(), 300));
+
+                List<JsonNode> movimientos = lineas(exportar("movimientos-puntos", "ndjson", null, null)).stream()
+                                .map(this::leerJson)
+                                .filter(json -> json.get("usuario_id").asLong() == reciente.getId())
+                                .toList();
+                assertEquals(1, movimientos.size());
+                assertEquals("GANANCIA", movimientos.get(0).get("tipo").asText());
+                assertEquals(300, movimientos.get(0).get("puntos").asInt());
+                assertEquals("Suma directa de puntos", movimientos.get(0).get("descripcion").asText());
+        }
+
+        @Test
+        void laDescargaComprimidaEsSoloParaAdministradores() throws Exception {
+                MvcResult inicio = mockMvc.perform(get("/api/v1/exports/usuarios")
+                                                .param("gzip", "true")
+                                                .header("Authorization", "Bearer " + usuarios.login(admin)))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+                byte[] cuerpo = mockMvc.perform(asyncDispatch(inicio))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType("application/gzip"))
+                                .andExpect(header().string("Content-Disposition", "attachment; filename=\"usuarios.csv.gz\""))
+                                .andReturn().getResponse().getContentAsByteArray();
+                try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(cuerpo))) {
+                        assertTrue(new String(gzip.readAllBytes(), StandardCharsets.UTF_8).startsWith(ENCABEZADO_USUARIOS + "\n"));
+                }
+
+                mockMvc.perform(get("/api/v1/exports/usuarios").param("format", "xml")
+                                                .header("Authorization", "Bearer " + usuarios.login(admin)))
+                                .andExpect(status().isBadRequest());
+                mockMvc.perform(get("/api/v1/exports/usuarios").header("Authorization", "Bearer " + usuarios.login(reciente)))
+                                .andExpect(status().isForbidden());
+        }
+
+        /** Directo al servicio: la descarga por HTTP corre en otro hilo y no ve los datos de la prueba. */
+        private String exportar(String tipo, String formato, LocalDate desde, Long despuesDe) throws Exception {
+                ByteArrayOutputStream salida = new ByteArrayOutputStream();
+                exportacionService.escribir(exportacionService.preparar(tipo, formato, desde, null, despuesDe, false), salida);
+                return salida.toString(StandardCharsets.UTF_8);
+        }
+
+        private static List<String> lineas(String cuerpo) {
+                return Arrays.stream(cuerpo.split("\n")).filter(linea -> !linea.isEmpty()).toList();
+        }
+
+        private List<String> propias(List<String> lineas) {
+                return lineas.stream()
+                                .filter(linea -> linea.contains("exp-a-" + uniqueId) || linea.contains("exp-b-" + uniqueId))
+                                .toList();
+        }
+
+        private JsonNode leerJson(String linea) {
+                try {
+                        return objectMapper.readTree(linea);
+                } catch (Exception e) {
+                        throw new AssertionError("Línea NDJSON inválida: " + linea, e);
+                }
+        }
+}
@@ -0,0 +1,149 @@
+package com.levelupgamer.productos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.levelupgamer.productos.dto.CategoriaDTO;
+import com.levelupgamer.productos.dto.ProductoDTO;
+import com.levelupgamer.productos.dto.ProductoFiltro;
+import com.levelupgamer.productos.dto.ProductoPaginaDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CatalogoCacheTest {
+
+    private CatalogoCache cache;
+    private AtomicInteger cargas;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CatalogoCache(2, 10, Duration.ofMinutes(5));
+        cargas = new AtomicInteger();
+    }
+
+    @Test
+    void producto_segundaLecturaEsAcierto() {
+        cache.producto(1L, () -> cargar(1L));
+        Optional<ProductoDTO> segunda = cache.producto(1L, () -> cargar(1L));
+
+        assertTrue(segunda.isPresent());
+        assertEquals(1, cargas.get());
+    }
+
+    @Test
+    void producto_respetaCapacidadYCuentaDesalojos() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.producto(1L, () -> cargar(1L));
+        cache.producto(2L, () -> cargar(2L));
+        cache.producto(3L, () -> cargar(3L));
+        cache.producto(1L, () -> cargar(1L));
+
+        assertEquals(4, cargas.get());
+        assertEquals(2.0, registry.get("cache.evictions").tag("cache", "catalogo.productos").functionCounter().count());
+        assertEquals(4.0, registry.get("cache.gets").tag("cache", "catalogo.productos").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void invalidar_desalojaProductoYListadosDeSuCategoria() {
+        ProductoFiltro deCategoria = ProductoFiltro.builder().categoriaId(7L).build();
+        ProductoFiltro deOtraCategoria = ProductoFiltro.builder().categoriaId(8L).build();
+        cache.producto(1L, () -> cargar(1L));
+        ProductoPaginaDTO paginaOtra = cache.listado(deOtraCategoria, this::pagina);
+        cache.listado(deCategoria, this::pagina);
+        long versionInicial = cache.getVersion();
+
+        cache.invalidar(CatalogoModificadoEvent.deProducto(1L, 7L));
+
+        assertEquals(versionInicial + 1, cache.getVersion());
+        cache.producto(1L, () -> cargar(1L));
+        cache.listado(deCategoria, this::pagina);
+        assertEquals(paginaOtra, cache.listado(deOtraCategoria, this::pagina));
+        assertEquals(5, cargas.get());
+    }
+
+    @Test
+    void huellaListado_cambiaSoloParaLasCategoriasAfectadas() {
+        String todos = cache.huellaListado(null).etag();
+        String categoria7 = cache.huellaListado(7L).etag();
+        String categoria8 = cache.huellaListado(8L).etag();
+        String destacados = cache.huellaDestacados().etag();
+
+        cache.invalidar(CatalogoModificadoEvent.deProducto(1L, 7L));
+
+        assertNotEquals(todos, cache.huellaListado(null).etag());
+        assertNotEquals(categoria7, cache.huellaListado(7L).etag());
+        assertEquals(categoria8, cache.huellaListado(8L).etag());
+        assertNotEquals(destacados, cache.huellaDestacados().etag());
+
+        cache.invalidar(CatalogoModificadoEvent.deCategoria(9L));
+
+        assertNotEquals(categoria8, cache.huellaListado(8L).etag());
+    }
+
+    @Test
+    void modificarLoLeidoNoAlteraLoGuardado() {
+        ProductoDTO cargado = cache.producto(1L, () -> cargar(1L)).orElseThrow();
+        cargado.setNombre("Modificado al cargar");
+        ProductoDTO leido = cache.producto(1L, () -> cargar(1L)).orElseThrow();
+        leido.setNombre("Modificado al leer");
+        leido.getCategoria().setNombre("Otra");
+
+        ProductoDTO otraLectura = cache.producto(1L, () -> cargar(1L)).orElseThrow();
+        assertNotSame(leido, otraLectura);
+        assertEquals("Producto 1", otraLectura.getNombre());
+        assertEquals("Categoria", otraLectura.getCategoria().getNombre());
+        assertThrows(UnsupportedOperationException.class, () -> otraLectura.getImagenes().add("otra.png"));
+
+        ProductoFiltro filtro = ProductoFiltro.builder().categoriaId(7L).build();
+        cache.listado(filtro, this::pagina).setSiguienteCursor("alterado");
+        assertNull(cache.listado(filtro, this::pagina).getSiguienteCursor());
+        assertEquals(2, cargas.get());
+    }
+
+    @Test
+    void valorCargadoDuranteUnaEscrituraNoSeGuarda() {
+        Optional<ProductoDTO> leido = cache.producto(1L, () -> {
+            cache.invalidar(CatalogoModificadoEvent.deProducto(1L));
+            return cargar(1L);
+        });
+
+        assertTrue(leido.isPresent());
+        cache.producto(1L, () -> cargar(1L));
+        assertEquals(2, cargas.get());
+    }
+
+    @Test
+    void productoInexistenteNoSeGuarda() {
+        assertFalse(cache.producto(9L, Optional::empty).isPresent());
+        cache.producto(9L, () -> cargar(9L));
+        assertEquals(1, cargas.get());
+    }
+
+    private Optional<ProductoDTO> cargar(Long id) {
+        cargas.incrementAndGet();
+        return Optional.of(ProductoDTO.builder()
+                .id(id)
+                .nombre("Producto " + id)
+                .imagenes(List.of("principal.png"))
+                .categoria(CategoriaDTO.builder().id(7L).nombre("Categoria").build())
+                .build());
+    }
+
+    private ProductoPaginaDTO pagina() {
+        cargas.incrementAndGet();
+        return ProductoPaginaDTO.builder().items(List.of()).build();
+    }
+}
@@ -4,38 +4,53 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.levelupgamer.autenticacion.LoginRequest;
 import com.levelupgamer.common.storage.FileStorageService;
+import com.levelupgamer.productos.alertas.AlertaStock;
+import com.levelupgamer.productos.alertas.AlertaStockRepository;
+import com.levelupgamer.productos.alertas.TipoAlertaStock;
 import com.levelupgamer.productos.categorias.Categoria;
 import com.levelupgamer.productos.categorias.CategoriaRepository;
+import com.levelupgamer.productos.dto.AjusteInventarioRequest;
 import com.levelupgamer.productos.dto.ProductoRequest;
 import com.levelupgamer.usuarios.RolUsuario;
 import com.levelupgamer.usuarios.Usuario;
 import com.levelupgamer.usuarios.UsuarioRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.mock.web.MockMultipartFile;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -61,10 +76,32 @@ class ProductoE2ETest {
         @Autowired
         private CategoriaRepository categoriaRepository;
 
+        @Autowired
+        private ProductoRepository productoRepository;
+
         @MockBean
         private FileStorageService fileStorageService;
 
+        @Autowired
+        private EntityManager entityManager;
+
+        @Autowired
+        private ResenaRepository resenaRepository;
+
+        @Autowired
+        private CalificacionesRepository calificacionesRepository;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        @Autowired
+        private AlertaStockRepository alertaStockRepository;
+
         private String adminToken;
+        private Usuario adminUsuario;
         private Categoria categoriaDefault;
 
         @BeforeEach
@@ -81,7 +118,7 @@ class ProductoE2ETest {
                                 .roles(Set.of(RolUsuario.ADMINISTRADOR))
                                 .activo(true)
                                 .build();
-                usuarioRepository.save(admin);
+                adminUsuario = usuarioRepository.save(admin);
 
                 categoriaDefault = categoriaRepository.save(Categoria.builder()
                                 .codigo("CAT-" + uniqueId)
@@ -152,14 +189,14 @@ class ProductoE2ETest {
                 mockMvc.perform(get("/api/v1/products")
                                 .header("Authorization", "Bearer " + adminToken))
                                 .andExpect(status().isOk())
-                                .andExpect(jsonPath("$").isArray())
-                                .andExpect(jsonPath("$[?(@.codigo=='E2E-001')]").exists());
+                                .andExpect(jsonPath("$.items").isArray())
+                                .andExpect(jsonPath("$.items[?(@.codigo=='E2E-001')]").exists());
 
                 
                 mockMvc.perform(get("/api/v1/products"))
                                 .andExpect(status().isOk())
-                                .andExpect(jsonPath("$").isArray())
-                                .andExpect(jsonPath("$[?(@.codigo=='E2E-001')]").exists());
+                                .andExpect(jsonPath("$.items").isArray())
+                                .andExpect(jsonPath("$.items[?(@.codigo=='E2E-001')]").exists());
 
                 mockMvc.perform(get("/api/v1/products/" + productId))
                                 .andExpect(status().isOk())
@@ -240,4 +277,577 @@ class ProductoE2ETest {
                                 .header("Authorization", "Bearer " + vendorAccessToken))
                                 .andExpect(status().isForbidden());
         }
+
+        @Test
+        void deberiaPaginarCatalogoPorPrecioConCursor() throws Exception {
+                String[] precios = {"30.00", "10.00", "50.00", "20.00", "40.00"};
+                for (int i = 0; i < precios.length; i++) {
+                        productoRepository.save(Producto.builder()
+                                        .codigo("E2E-PAG-" + categoriaDefault.getId() + "-" + i)
+                                        .nombre("Producto paginado " + i)
+                                        .precio(new BigDecimal(precios[i]))
+                                        .stock(5)
+                                        .categoria(categoriaDefault)
+                                        .vendedor(adminUsuario)
+                                        .activo(true)
+                                        .build());
+                }
+
+                List<String> preciosObtenidos = new ArrayList<>();
+                String cursor = null;
+                int paginas = 0;
+                do {
+                        MockHttpServletRequestBuilder request = get("/api/v1/products")
+                                        .param("categoriaId", categoriaDefault.getId().toString())
+                                        .param("sort", "precio")
+                                        .param("direction", "desc")
+                                        .param("size", "2");
+                        if (cursor != null) {
+                                request.param("cursor", cursor);
+                        }
+                        JsonNode pagina = objectMapper.readTree(mockMvc.perform(request)
+                                        .andExpect(status().isOk())
+                                        .andExpect(jsonPath("$.items.length()").value(org.hamcrest.Matchers.lessThanOrEqualTo(2)))
+                                        .andReturn().getResponse().getContentAsString());
+                        pagina.get("items").forEach(item -> preciosObtenidos.add(item.get("precio").decimalValue().setScale(2).toPlainString()));
+                        cursor = pagina.get("hayMas").asBoolean() ? pagina.get("siguienteCursor").asText() : null;
+                        paginas++;
+                } while (cursor != null);
+
+                assertEquals(3, paginas);
+                assertEquals(List.of("50.00", "40.00", "30.00", "20.00", "10.00"), preciosObtenidos);
+
+                mockMvc.perform(get("/api/v1/products")
+                                .param("categoriaId", categoriaDefault.getId().toString())
+                                .param("precioMin", "20")
+                                .param("precioMax", "40"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(3))
+                                .andExpect(jsonPath("$.hayMas").value(false));
+        }
+
+        @Test
+        void listadoIncluyeFacetasSoloCuandoSeSolicitan() throws Exception {
+                mockMvc.perform(get("/api/v1/products").param("facets", "true"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.facetas.precios.length()").value(6))
+                                .andExpect(jsonPath("$.facetas.puntosLevelUp").exists());
+
+                mockMvc.perform(get("/api/v1/products"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.facetas").doesNotExist());
+        }
+
+        @Test
+        void lecturasDelCatalogoRespondenNotModifiedConEtagVigente() throws Exception {
+                Producto producto = productoRepository.saveAndFlush(Producto.builder()
+                                .codigo("E2E-ETAG-" + UUID.randomUUID().toString().substring(0, 8))
+                                .nombre("Producto ETag")
+                                .precio(new BigDecimal("10.00"))
+                                .stock(5)
+                                .categoria(categoriaDefault)
+                                .vendedor(adminUsuario)
+                                .activo(true)
+                                .build());
+                String detalle = "/api/v1/products/" + producto.getId();
+
+                String etagDetalle = mockMvc.perform(get(detalle))
+                                .andExpect(status().isOk())
+                                .andExpect(header().exists("Last-Modified"))
+                                .andReturn().getResponse().getHeader("ETag");
+                String etagListado = mockMvc.perform(get("/api/v1/products").param("sort", "precio"))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getHeader("ETag");
+                String otraCategoria = crearCategoria().getId().toString();
+                String etagOtraCategoria = mockMvc.perform(get("/api/v1/products").param("categoriaId", otraCategoria))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getHeader("ETag");
+
+                mockMvc.perform(get(detalle).header("If-None-Match", etagDetalle))
+                                .andExpect(status().isNotModified())
+                                .andExpect(content().string(""));
+                mockMvc.perform(get("/api/v1/products").param("sort", "precio").header("If-None-Match", etagListado))
+                                .andExpect(status().isNotModified());
+                mockMvc.perform(get("/api/v1/products").param("sort", "createdAt").header("If-None-Match", etagListado))
+                                .andExpect(status().isOk());
+
+                mockMvc.perform(patch("/api/v1/products/inventory")
+                                .header("Authorization", "Bearer " + adminToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(List.of(AjusteInventarioRequest.builder()
+                                                .codigo(producto.getCodigo())
+                                                .precio(new BigDecimal("12.00"))
+                                                .build()))))
+                                .andExpect(status().isOk());
+
+                mockMvc.perform(get(detalle).header("If-None-Match", etagDetalle))
+                                .andExpect(status().isOk());
+                mockMvc.perform(get("/api/v1/products").param("sort", "precio").header("If-None-Match", etagListado))
+                                .andExpect(status().isOk());
+                // El cambio es de otra categoría: ese listado sigue vigente.
+                mockMvc.perform(get("/api/v1/products").param("categoriaId", otraCategoria)
+                                .header("If-None-Match", etagOtraCategoria))
+                                .andExpect(status().isNotModified());
+        }
+
+        @Test
+        void listadoConFacetasSeInvalidaConCambiosDeOtraCategoria() throws Exception {
+                Producto producto = productoRepository.saveAndFlush(Producto.builder()
+                                .codigo("E2E-FAC-" + UUID.randomUUID().toString().substring(0, 8))
+                                .nombre("Producto de otra categoría")
+                                .precio(new BigDecimal("10.00"))
+                                .stock(5)
+                                .categoria(categoriaDefault)
+                                .vendedor(adminUsuario)
+                                .activo(true)
+                                .build());
+                String otraCategoria = crearCategoria().getId().toString();
+                String etagConFacetas = mockMvc.perform(get("/api/v1/products")
+                                .param("categoriaId", otraCategoria)
+                                .param("facets", "true"))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getHeader("ETag");
+
+                mockMvc.perform(patch("/api/v1/products/inventory")
+                                .header("Authorization", "Bearer " + adminToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(List.of(AjusteInventarioRequest.builder()
+                                                .codigo(producto.getCodigo())
+                                                .stockDelta(-5)
+                                                .build()))))
+                                .andExpect(status().isOk());
+
+                // Los conteos por categoría de las facetas incluyen la categoría modificada.
+                mockMvc.perform(get("/api/v1/products")
+                                .param("categoriaId", otraCategoria)
+                                .param("facets", "true")
+                                .header("If-None-Match", etagConFacetas))
+                                .andExpect(status().isOk());
+        }
+
+        @Test
+        void destacadosAceptanModoDeRankingYValidanElParametro() throws Exception {
+                mockMvc.perform(get("/api/v1/products/featured").param("mode", "trending"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$").isArray());
+
+                mockMvc.perform(get("/api/v1/products/featured").param("mode", "popular"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        void busquedaEsPublicaYValidaLaConsulta() throws Exception {
+                mockMvc.perform(get("/api/v1/products/search").param("q", "auriculares"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$").isArray());
+
+                mockMvc.perform(get("/api/v1/products/search").param("q", " "))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        void ajusteMasivoDeInventarioRespetaPropiedadYStock() throws Exception {
+                String uniqueId = UUID.randomUUID().toString().substring(0, 8);
+                Usuario vendedor = usuarioRepository.save(Usuario.builder()
+                                .run("66666666-6")
+                                .nombre("Vera")
+                                .apellidos("Vendedora")
+                                .correo("vend-inv-" + uniqueId + "@example.com")
+                                .contrasena(passwordEncoder.encode("vend12345"))
+                                .fechaNacimiento(LocalDate.now().minusYears(28))
+                                .roles(Set.of(RolUsuario.VENDEDOR))
+                                .activo(true)
+                                .build());
+                Producto propio = productoRepository.save(Producto.builder()
+                                .codigo("E2E-INV-" + uniqueId)
+                                .nombre("Producto propio")
+                                .precio(new BigDecimal("10.00"))
+                                .stock(5)
+                                .categoria(categoriaDefault)
+                                .vendedor(vendedor)
+                                .activo(true)
+                                .build());
+                Producto corporativo = productoRepository.save(Producto.builder()
+                                .codigo("E2E-CORP-" + uniqueId)
+                                .nombre("Producto corporativo")
+                                .precio(new BigDecimal("20.00"))
+                                .stock(5)
+                                .categoria(categoriaDefault)
+                                .vendedor(adminUsuario)
+                                .activo(true)
+                                .build());
+
+                String vendorToken = objectMapper.readTree(mockMvc.perform(post("/api/v1/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(LoginRequest.builder()
+                                                .correo(vendedor.getCorreo())
+                                                .contrasena("vend12345")
+                                                .rol(RolUsuario.VENDEDOR)
+                                                .build())))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getContentAsString()).get("accessToken").asText();
+
+                String ajustes = objectMapper.writeValueAsString(List.of(
+                                AjusteInventarioRequest.builder().codigo(propio.getCodigo()).stockDelta(-2).build(),
+                                AjusteInventarioRequest.builder().codigo(propio.getCodigo()).stockDelta(-10).build(),
+                                AjusteInventarioRequest.builder().codigo(corporativo.getCodigo()).stockDelta(1).build(),
+                                AjusteInventarioRequest.builder().codigo("NO-EXISTE-" + uniqueId).stockDelta(1).build(),
+                                AjusteInventarioRequest.builder().codigo(" ").stockDelta(1).build()));
+
+                mockMvc.perform(patch("/api/v1/products/inventory")
+                                .header("Authorization", "Bearer " + vendorToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(ajustes))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.aplicados").value(1))
+                                .andExpect(jsonPath("$.rechazados").value(4))
+                                .andExpect(jsonPath("$.resultados[0].estado").value("APLICADO"))
+                                .andExpect(jsonPath("$.resultados[0].stock").value(3))
+                                .andExpect(jsonPath("$.resultados[1].estado").value("INVALIDO"))
+                                .andExpect(jsonPath("$.resultados[1].mensaje").value("Código repetido dentro de la solicitud"))
+                                .andExpect(jsonPath("$.resultados[2].estado").value("SIN_PERMISO"))
+                                .andExpect(jsonPath("$.resultados[3].estado").value("NO_ENCONTRADO"))
+                                .andExpect(jsonPath("$.resultados[4].estado").value("INVALIDO"));
+
+                mockMvc.perform(patch("/api/v1/products/inventory")
+                                .header("Authorization", "Bearer " + adminToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(List.of(
+                                                AjusteInventarioRequest.builder().codigo(corporativo.getCodigo())
+                                                                .precio(new BigDecimal("25.50")).build(),
+                                                AjusteInventarioRequest.builder().codigo(propio.getCodigo())
+                                                                .stockDelta(-10).build(),
+                                                AjusteInventarioRequest.builder().codigo("E2E-PRECIO-" + uniqueId)
+                                                                .precio(new BigDecimal("123456789.00")).build(),
+                                                AjusteInventarioRequest.builder().codigo("E2E-DELTA-" + uniqueId)
+                                                                .stockDelta(Integer.MAX_VALUE).build()))))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.resultados[0].estado").value("APLICADO"))
+                                .andExpect(jsonPath("$.resultados[0].stock").value(5))
+                                .andExpect(jsonPath("$.resultados[1].estado").value("STOCK_INSUFICIENTE"))
+                                .andExpect(jsonPath("$.resultados[2].estado").value("INVALIDO"))
+                                .andExpect(jsonPath("$.resultados[3].estado").value("INVALIDO"));
+
+                entityManager.clear();
+                assertEquals(3, productoRepository.findById(propio.getId()).orElseThrow().getStock());
+                assertEquals(0, new BigDecimal("25.50").compareTo(
+                                productoRepository.findById(corporativo.getId()).orElseThrow().getPrecio()));
+        }
+
+        @Test
+        void calificacionesSeMantienenPorResenaYPermitenOrdenarElListado() throws Exception {
+                Producto[] productos = new Producto[3];
+                for (int i = 0; i < productos.length; i++) {
+                        productos[i] = productoRepository.save(Producto.builder()
+                                        .codigo("E2E-CAL-" + categoriaDefault.getId() + "-" + i)
+                                        .nombre("Producto calificado " + i)
+                                        .precio(new BigDecimal("10.00"))
+                                        .stock(5)
+                                        .categoria(categoriaDefault)
+                                        .vendedor(adminUsuario)
+                                        .activo(true)
+                                        .build());
+                }
+                entityManager.flush();
+                assertEquals(3, jdbcTemplate.queryForObject(
+                                "select count(*) from producto_calificacion where producto_id in (?, ?, ?)", Integer.class,
+                                productos[0].getId(), productos[1].getId(), productos[2].getId()));
+
+                resenar(productos[1], 5);
+                resenar(productos[1], 4);
+                resenar(productos[0], 2);
+                resenar(productos[0], 1);
+                calificacionesRepository.registrar(productos[0].getId(), 1, false);
+                entityManager.flush();
+                entityManager.clear();
+
+                mockMvc.perform(get("/api/v1/products/" + productos[1].getId()))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.calificaciones.promedio").value(4.5))
+                                .andExpect(jsonPath("$.calificaciones.cantidad").value(2))
+                                .andExpect(jsonPath("$.calificaciones.histograma[3]").value(1))
+                                .andExpect(jsonPath("$.calificaciones.histograma[4]").value(1));
+
+                assertEquals(List.of(productos[1].getCodigo(), productos[0].getCodigo(), productos[2].getCodigo()),
+                                codigosPorCalificacion("desc", 2));
+        }
+
+        @Test
+        void ordenarPorCalificacionDejaAlFinalLosProductosSinResumen() throws Exception {
+                Producto[] productos = new Producto[4];
+                for (int i = 0; i < productos.length; i++) {
+                        productos[i] = productoRepository.save(Producto.builder()
+                                        .codigo("E2E-NUL-" + categoriaDefault.getId() + "-" + i)
+                                        .nombre("Producto sin resumen " + i)
+                                        .precio(new BigDecimal("10.00"))
+                                        .stock(5)
+                                        .categoria(categoriaDefault)
+                                        .vendedor(adminUsuario)
+                                        .activo(true)
+                                        .build());
+                }
+                entityManager.flush();
+                resenar(productos[0], 2);
+                resenar(productos[1], 5);
+                // Como los productos importados por JDBC: sin fila en producto_calificacion, promedio nulo.
+                jdbcTemplate.update("delete from producto_calificacion where producto_id in (?, ?)",
+                                productos[2].getId(), productos[3].getId());
+                entityManager.flush();
+                entityManager.clear();
+
+                List<String> sinResumen = List.of(productos[2].getCodigo(), productos[3].getCodigo());
+                assertEquals(List.of(productos[0].getCodigo(), productos[1].getCodigo(), sinResumen.get(0),
+                                sinResumen.get(1)), codigosPorCalificacion("asc", 1));
+                assertEquals(List.of(productos[1].getCodigo(), productos[0].getCodigo(), sinResumen.get(1),
+                                sinResumen.get(0)), codigosPorCalificacion("desc", 1));
+        }
+
+        private List<String> codigosPorCalificacion(String direccion, int tamano) throws Exception {
+                List<String> codigos = new ArrayList<>();
+                String cursor = null;
+                do {
+                        MockHttpServletRequestBuilder request = get("/api/v1/products")
+                                        .param("categoriaId", categoriaDefault.getId().toString())
+                                        .param("sort", "calificacion")
+                                        .param("direction", direccion)
+                                        .param("size", String.valueOf(tamano));
+                        if (cursor != null) {
+                                request.param("cursor", cursor);
+                        }
+                        JsonNode pagina = objectMapper.readTree(mockMvc.perform(request)
+                                        .andExpect(status().isOk())
+                                        .andReturn().getResponse().getContentAsString());
+                        pagina.get("items").forEach(item -> codigos.add(item.get("codigo").asText()));
+                        cursor = pagina.get("hayMas").asBoolean() ? pagina.get("siguienteCursor").asText() : null;
+                } while (cursor != null);
+                return codigos;
+        }
+
+        private void resenar(Producto producto, int calificacion) {
+                resenaRepository.save(Resena.builder()
+                                .texto("Reseña de prueba")
+                                .calificacion(calificacion)
+                                .producto(producto)
+                                .usuario(adminUsuario)
+                                .build());
+                calificacionesRepository.registrar(producto.getId(), calificacion, true);
+        }
+
+        @Test
+        void relacionadosSonPublicosYResponden404ParaProductosInexistentes() throws Exception {
+                Producto producto = productoRepository.save(Producto.builder()
+                                .codigo("E2E-REL-" + categoriaDefault.getId())
+                                .nombre("Producto sin ventas")
+                                .precio(new BigDecimal("10.00"))
+                                .stock(5)
+                                .categoria(categoriaDefault)
+                                .vendedor(adminUsuario)
+                                .activo(true)
+                                .build());
+
+                mockMvc.perform(get("/api/v1/products/" + producto.getId() + "/related"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()").value(0));
+                mockMvc.perform(get("/api/v1/products/related").param("ids", producto.getId().toString()))
+                                .andExpect(status().isOk());
+                mockMvc.perform(get("/api/v1/products/" + (producto.getId() + 1000) + "/related"))
+                                .andExpect(status().isNotFound());
+        }
+
+        @Test
+        void feedDeAlertasDeStockMuestraAlVendedorSoloSusProductos() throws Exception {
+                String uniqueId = UUID.randomUUID().toString().substring(0, 8);
+                Usuario vendor = usuarioRepository.save(Usuario.builder()
+                                .run("66666666-6")
+                                .nombre("Valeria")
+                                .apellidos("Vendedora")
+                                .correo("vendor-alertas-" + uniqueId + "@example.com")
+                                .contrasena(passwordEncoder.encode("vend1234"))
+                                .fechaNacimiento(LocalDate.now().minusYears(25))
+                                .roles(Set.of(RolUsuario.VENDEDOR))
+                                .activo(true)
+                                .build());
+                LocalDateTime ahora = LocalDateTime.now();
+                for (Long vendedorId : List.of(vendor.getId(), adminUsuario.getId(), vendor.getId())) {
+                        alertaStockRepository.save(AlertaStock.builder()
+                                        .productoId(1L)
+                                        .vendedorId(vendedorId)
+                                        .codigo("ALERTA-" + vendedorId)
+                                        .nombre("Producto con poco stock")
+                                        .tipo(TipoAlertaStock.STOCK_CRITICO)
+                                        .stock(1)
+                                        .stockCritico(3)
+                                        .cruces(1)
+                                        .desde(ahora)
+                                        .hasta(ahora)
+                                        .build());
+                }
+
+                String vendorToken = objectMapper.readTree(mockMvc.perform(post("/api/v1/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(LoginRequest.builder()
+                                                .correo(vendor.getCorreo())
+                                                .contrasena("vend1234")
+                                                .rol(RolUsuario.VENDEDOR)
+                                                .build())))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getContentAsString()).get("accessToken").asText();
+
+                JsonNode primera = objectMapper.readTree(mockMvc.perform(get("/api/v1/stock-alerts")
+                                .param("size", "1")
+                                .header("Authorization", "Bearer " + vendorToken))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(1))
+                                .andExpect(jsonPath("$.items[0].codigo").value("ALERTA-" + vendor.getId()))
+                                .andExpect(jsonPath("$.items[0].tipo").value("STOCK_CRITICO"))
+                                .andExpect(jsonPath("$.hayMas").value(true))
+                                .andReturn().getResponse().getContentAsString());
+                mockMvc.perform(get("/api/v1/stock-alerts")
+                                .param("cursor", primera.get("siguienteCursor").asText())
+                                .header("Authorization", "Bearer " + vendorToken))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(1))
+                                .andExpect(jsonPath("$.hayMas").value(false));
+
+                mockMvc.perform(get("/api/v1/stock-alerts").header("Authorization", "Bearer " + adminToken))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(org.hamcrest.Matchers.greaterThanOrEqualTo(3)));
+                mockMvc.perform(get("/api/v1/stock-alerts"))
+                                .andExpect(status().is4xxClientError());
+        }
+
+        @Test
+        void resenasSePaginanPorCalificacionConUnaSolaSentenciaPorPagina() throws Exception {
+                Producto producto = productoRepository.save(Producto.builder()
+                                .codigo("E2E-RES-" + categoriaDefault.getId())
+                                .nombre("Producto reseñado")
+                                .precio(new BigDecimal("10.00"))
+                                .stock(5)
+                                .categoria(categoriaDefault)
+                                .vendedor(adminUsuario)
+                                .activo(true)
+                                .build());
+                int[] calificaciones = {3, 5, 1, 5, 4};
+                for (int i = 0; i < calificaciones.length; i++) {
+                        String uniqueId = UUID.randomUUID().toString().substring(0, 8);
+                        Usuario autor = usuarioRepository.save(Usuario.builder()
+                                        .run("4" + uniqueId.substring(0, 7))
+                                        .nombre("Autor" + i)
+                                        .apellidos("Reseña")
+                                        .correo("autor-" + uniqueId + "@example.com")
+                                        .contrasena("x")
+                                        .fechaNacimiento(LocalDate.now().minusYears(30))
+                                        .roles(Set.of(RolUsuario.CLIENTE))
+                                        .activo(true)
+                                        .build());
+                        resenaRepository.save(Resena.builder()
+                                        .texto("Reseña " + i)
+                                        .calificacion(calificaciones[i])
+                                        .producto(producto)
+                                        .usuario(autor)
+                                        .build());
+                }
+                entityManager.flush();
+                entityManager.clear();
+
+                Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+                List<Integer> obtenidas = new ArrayList<>();
+                String cursor = null;
+                int paginas = 0;
+                do {
+                        MockHttpServletRequestBuilder request = get("/api/v1/products/" + producto.getId() + "/reviews")
+                                        .param("sort", "highest")
+                                        .param("size", "2");
+                        if (cursor != null) {
+                                request.param("cursor", cursor);
+                        }
+                        statistics.clear();
+                        JsonNode pagina = objectMapper.readTree(mockMvc.perform(request)
+                                        .andExpect(status().isOk())
+                                        .andExpect(jsonPath("$.items[0].nombreUsuario").value(org.hamcrest.Matchers.startsWith("Autor")))
+                                        .andReturn().getResponse().getContentAsString());
+                        assertEquals(1, statistics.getPrepareStatementCount());
+                        pagina.get("items").forEach(item -> obtenidas.add(item.get("calificacion").asInt()));
+                        cursor = pagina.get("hayMas").asBoolean() ? pagina.get("siguienteCursor").asText() : null;
+                        paginas++;
+                } while (cursor != null);
+
+                assertEquals(3, paginas);
+                assertEquals(List.of(5, 5, 4, 3, 1), obtenidas);
+
+                mockMvc.perform(get("/api/v1/products/" + producto.getId() + "/reviews"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(5))
+                                .andExpect(jsonPath("$.items[0].texto").value("Reseña 4"))
+                                .andExpect(jsonPath("$.hayMas").value(false));
+                mockMvc.perform(get("/api/v1/products/" + producto.getId() + "/reviews").param("sort", "popular"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        void listadoDeProductos_usaNumeroConstanteDeSentencias() throws Exception {
+                Categoria categoriaPequena = crearCategoria();
+                Categoria categoriaGrande = crearCategoria();
+                sembrarProductosConVendedoresDistintos(categoriaPequena, 3);
+                sembrarProductosConVendedoresDistintos(categoriaGrande, 25);
+                entityManager.flush();
+                entityManager.clear();
+
+                long sentenciasPequena = contarSentenciasListado(categoriaPequena, 3);
+                long sentenciasGrande = contarSentenciasListado(categoriaGrande, 25);
+
+                // el ETag sale de la versión del caché; productos + vendedor en un SELECT, imágenes y roles por
+                // lote; la categoría, sin confirmar, no está en RegistroCategorias y se carga una sola vez por página
+                assertEquals(4, sentenciasPequena);
+                assertEquals(sentenciasPequena, sentenciasGrande);
+        }
+
+        private long contarSentenciasListado(Categoria categoria, int esperados) throws Exception {
+                entityManager.clear();
+                Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+                statistics.clear();
+                mockMvc.perform(get("/api/v1/products")
+                                .param("categoriaId", categoria.getId().toString())
+                                .param("size", "50"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(esperados))
+                                .andExpect(jsonPath("$.items[0].imagenes.length()").value(2))
+                                .andExpect(jsonPath("$.items[0].vendedor.nombre").exists());
+                return statistics.getPrepareStatementCount();
+        }
+
+        private Categoria crearCategoria() {
+                String uniqueId = UUID.randomUUID().toString().substring(0, 8);
+                return categoriaRepository.save(Categoria.builder()
+                                .codigo("CAT-N1-" + uniqueId)
+                                .nombre("Categoria N+1 " + uniqueId)
+                                .activo(true)
+                                .build());
+        }
+
+        private void sembrarProductosConVendedoresDistintos(Categoria categoria, int cantidad) {
+                for (int i = 0; i < cantidad; i++) {
+                        String uniqueId = UUID.randomUUID().toString().substring(0, 8);
+                        Usuario vendedor = usuarioRepository.save(Usuario.builder()
+                                        .run("5" + uniqueId.substring(0, 7))
+                                        .nombre("Vendedor " + i)
+                                        .apellidos("N1")
+                                        .correo("vend-n1-" + uniqueId + "@example.com")
+                                        .contrasena("x")
+                                        .fechaNacimiento(LocalDate.now().minusYears(30))
+                                        .roles(Set.of(RolUsuario.VENDEDOR))
+                                        .activo(true)
+                                        .build());
+                        productoRepository.save(Producto.builder()
+                                        .codigo("E2E-N1-" + uniqueId)
+                                        .nombre("Producto N+1 " + i)
+                                        .precio(new BigDecimal("10.00"))
+                                        .stock(5)
+                                        .categoria(categoria)
+                                        .vendedor(vendedor)
+                                        .imagenes(List.of("/uploads/a-" + i + ".jpg", "/uploads/b-" + i + ".jpg"))
+                                        .activo(true)
+                                        .build());
+                }
+        }
 }
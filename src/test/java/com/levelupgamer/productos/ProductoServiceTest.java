@@ -1,9 +1,19 @@
 package com.levelupgamer.productos;
 
+import com.levelupgamer.common.paginacion.CursorKeyset;
 import com.levelupgamer.common.storage.FileStorageService;
 import com.levelupgamer.productos.categorias.Categoria;
+import com.levelupgamer.productos.categorias.CategoriaMapper;
 import com.levelupgamer.productos.categorias.CategoriaRepository;
+import com.levelupgamer.productos.categorias.RegistroCategorias;
+import com.levelupgamer.productos.dto.FacetasDTO;
 import com.levelupgamer.productos.dto.ProductoDTO;
+import com.levelupgamer.productos.facetas.FacetasService;
+import com.levelupgamer.productos.ranking.ModoRanking;
+import com.levelupgamer.productos.ranking.RankingVentasService;
+import com.levelupgamer.productos.relacionados.CoocurrenciasService;
+import com.levelupgamer.productos.dto.ProductoFiltro;
+import com.levelupgamer.productos.dto.ProductoPaginaDTO;
 import com.levelupgamer.productos.dto.ProductoRequest;
 import com.levelupgamer.usuarios.RolUsuario;
 import com.levelupgamer.usuarios.Usuario;
@@ -11,9 +21,13 @@ import com.levelupgamer.usuarios.UsuarioRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.AfterEach;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.TestingAuthenticationToken;
@@ -21,6 +35,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -28,6 +43,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -44,9 +60,27 @@ class ProductoServiceTest {
     @Mock
     private CategoriaRepository categoriaRepository;
 
+    @Mock
+    private RegistroCategorias registroCategorias;
+
     @Mock
     private UsuarioRepository usuarioRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private FacetasService facetasService;
+
+    @Mock
+    private RankingVentasService rankingVentasService;
+
+    @Mock
+    private CoocurrenciasService coocurrenciasService;
+
+    @Spy
+    private CatalogoCache catalogoCache = new CatalogoCache(100, 100, Duration.ofMinutes(5));
+
     @InjectMocks
     private ProductoService productoService;
 
@@ -96,7 +130,9 @@ class ProductoServiceTest {
         productoDTO.setCodigo("P001");
         productoDTO.setNombre("Producto Test");
         productoDTO.setImagenes(Collections.singletonList("http://example.com/test.jpg"));
-        when(categoriaRepository.findById(categoria.getId())).thenReturn(Optional.of(categoria));
+        when(registroCategorias.buscarActiva(categoria.getId())).thenReturn(Optional.of(CategoriaMapper.toDTO(categoria)));
+        when(registroCategorias.dtoDe(any())).thenAnswer(inv -> CategoriaMapper.toDTO(inv.getArgument(0)));
+        when(categoriaRepository.getReferenceById(categoria.getId())).thenReturn(categoria);
 
         productoRequest = ProductoRequest.builder()
             .codigo("P001")
@@ -119,10 +155,14 @@ class ProductoServiceTest {
     @Test
     void listarProductos_retornaListaDeProductosDTO() {
         authenticateAs(adminUsuario.getCorreo(), "ADMINISTRADOR");
-        when(productoRepository.findAll()).thenReturn(Collections.singletonList(producto));
-        List<ProductoDTO> result = productoService.listarProductos();
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
+        when(productoRepository.findBy(ArgumentMatchers.<Specification<Producto>>any(), any()))
+                .thenReturn(Collections.singletonList(producto));
+        ProductoPaginaDTO result = productoService.listarProductos(new ProductoFiltro());
+        assertFalse(result.getItems().isEmpty());
+        assertEquals(1, result.getItems().size());
+        assertFalse(result.isHayMas());
+        assertNull(result.getSiguienteCursor());
+        verifyNoInteractions(usuarioRepository);
     }
 
     @Test
@@ -137,12 +177,146 @@ class ProductoServiceTest {
 
         authenticateAs(vendedorUsuario.getCorreo(), "VENDEDOR");
         when(usuarioRepository.findByCorreo(vendedorUsuario.getCorreo())).thenReturn(Optional.of(vendedorUsuario));
-        when(productoRepository.findByVendedorId(vendedorUsuario.getId())).thenReturn(Collections.singletonList(productoVendedor));
+        when(productoRepository.findBy(ArgumentMatchers.<Specification<Producto>>any(), any()))
+                .thenReturn(Collections.singletonList(productoVendedor));
+
+        ProductoPaginaDTO result = productoService.listarProductos(ProductoFiltro.builder().vendedorId(999L).build());
+
+        assertEquals(1, result.getItems().size());
+        assertEquals("PV01", result.getItems().get(0).getCodigo());
+        verify(usuarioRepository).findByCorreo(vendedorUsuario.getCorreo());
+    }
+
+    @Test
+    void listarProductos_conMasResultadosQueElTamano_entregaCursorSiguiente() {
+        Producto segundo = new Producto();
+        segundo.setId(2L);
+        segundo.setCodigo("P002");
+        segundo.setNombre("Producto 2");
+        segundo.setPrecio(new BigDecimal("15.00"));
+        segundo.setCategoria(categoria);
+        segundo.setVendedor(adminUsuario);
+
+        authenticateAs(adminUsuario.getCorreo(), "ADMINISTRADOR");
+        when(productoRepository.findBy(ArgumentMatchers.<Specification<Producto>>any(), any()))
+                .thenReturn(Arrays.asList(producto, segundo));
+
+        ProductoPaginaDTO result = productoService.listarProductos(
+                ProductoFiltro.builder().sort("precio").direction("asc").size(1).build());
+
+        assertEquals(1, result.getItems().size());
+        assertTrue(result.isHayMas());
+        CursorKeyset cursor = CursorKeyset.decodificar(result.getSiguienteCursor());
+        assertEquals("precio:asc", cursor.orden());
+        assertEquals("10.00", cursor.valor());
+        assertEquals(1L, cursor.id());
+    }
+
+    @Test
+    void listarProductos_conCursorDeOtroOrden_lanzaExcepcion() {
+        String cursor = new CursorKeyset("precio:asc", "10.00", 1L).codificar();
+
+        assertThrows(IllegalArgumentException.class, () -> productoService.listarProductos(
+                ProductoFiltro.builder().sort("createdAt").cursor(cursor).build()));
+        verify(productoRepository, never()).findBy(ArgumentMatchers.<Specification<Producto>>any(), any());
+    }
+
+    @Test
+    void listarProductos_sirveDesdeCacheHastaQueElCatalogoCambia() {
+        doAnswer(invocation -> {
+            catalogoCache.invalidar(invocation.getArgument(0));
+            return null;
+        }).when(eventPublisher).publishEvent(any(CatalogoModificadoEvent.class));
+        authenticateAs(adminUsuario.getCorreo(), "ADMINISTRADOR");
+        when(usuarioRepository.findByCorreo(adminUsuario.getCorreo())).thenReturn(Optional.of(adminUsuario));
+        when(productoRepository.findBy(ArgumentMatchers.<Specification<Producto>>any(), any()))
+                .thenReturn(Collections.singletonList(producto));
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
+
+        ProductoFiltro filtro = ProductoFiltro.builder().categoriaId(categoria.getId()).build();
+        ProductoPaginaDTO primera = productoService.listarProductos(filtro);
+        ProductoPaginaDTO segunda = productoService.listarProductos(filtro);
+
+        assertNotSame(primera, segunda);
+        assertEquals(primera, segunda);
+        assertThrows(UnsupportedOperationException.class, () -> segunda.getItems().add(new ProductoDTO()));
+        verify(productoRepository, times(1)).findBy(ArgumentMatchers.<Specification<Producto>>any(), any());
+
+        when(productoRepository.fijarStock(eq(1L), anyInt(), any())).thenReturn(1);
+        productoService.actualizarProducto(1L, productoRequest);
+        productoService.listarProductos(filtro);
+
+        verify(productoRepository, times(2)).findBy(ArgumentMatchers.<Specification<Producto>>any(), any());
+    }
+
+    @Test
+    void listarProductos_conFacetas_reutilizaLaPaginaCacheadaSinModificarla() {
+        authenticateAs(adminUsuario.getCorreo(), "ADMINISTRADOR");
+        when(productoRepository.findBy(ArgumentMatchers.<Specification<Producto>>any(), any()))
+                .thenReturn(Collections.singletonList(producto));
+        FacetasDTO facetas = FacetasDTO.builder().total(1).build();
+        when(facetasService.contar(any(ProductoFiltro.class))).thenReturn(facetas);
+
+        ProductoPaginaDTO sinFacetas = productoService.listarProductos(ProductoFiltro.builder().categoriaId(1L).build());
+        ProductoPaginaDTO conFacetas = productoService.listarProductos(
+                ProductoFiltro.builder().categoriaId(1L).facets(true).build());
+
+        assertSame(facetas, conFacetas.getFacetas());
+        assertEquals(sinFacetas.getItems(), conFacetas.getItems());
+        assertNull(sinFacetas.getFacetas());
+        verify(productoRepository, times(1)).findBy(ArgumentMatchers.<Specification<Producto>>any(), any());
+        verify(facetasService).contar(argThat(filtro -> Long.valueOf(1L).equals(filtro.getCategoriaId())));
+    }
+
+    @Test
+    void listarDestacados_porVentas_completaConDestacadosPorPuntos() {
+        Producto vendido = new Producto();
+        vendido.setId(2L);
+        vendido.setCodigo("P002");
+        vendido.setNombre("Más vendido");
+        vendido.setPrecio(new BigDecimal("15.00"));
+        vendido.setCategoria(categoria);
+        vendido.setVendedor(adminUsuario);
+        vendido.setActivo(true);
+
+        when(rankingVentasService.top(ModoRanking.VENTAS, ProductoService.LIMITE_DESTACADOS * 2))
+                .thenReturn(List.of(2L, 99L));
+        when(productoRepository.findConRelacionesById(2L)).thenReturn(Optional.of(vendido));
+        when(productoRepository.findConRelacionesById(99L)).thenReturn(Optional.empty());
+        when(productoRepository.findTop5ByActivoTrueOrderByPuntosLevelUpDesc()).thenReturn(List.of(producto, vendido));
+
+        List<ProductoDTO> destacados = productoService.listarDestacados(ModoRanking.VENTAS);
+
+        assertEquals(List.of(2L, 1L), destacados.stream().map(ProductoDTO::getId).toList());
+    }
 
-        List<ProductoDTO> result = productoService.listarProductos();
+    @Test
+    void listarRelacionados_saltaInactivosYCortaEnElLimite() {
+        Producto otro = new Producto();
+        otro.setId(3L);
+        otro.setCodigo("P003");
+        otro.setNombre("Comprado junto");
+        otro.setPrecio(new BigDecimal("5.00"));
+        otro.setCategoria(categoria);
+        otro.setVendedor(adminUsuario);
+        otro.setActivo(true);
+
+        when(productoRepository.findConRelacionesById(1L)).thenReturn(Optional.of(producto));
+        when(productoRepository.findConRelacionesById(3L)).thenReturn(Optional.of(otro));
+        when(productoRepository.findConRelacionesById(99L)).thenReturn(Optional.empty());
+        when(coocurrenciasService.relacionados(1L, 2)).thenReturn(List.of(99L, 3L));
+
+        List<ProductoDTO> relacionados = productoService.listarRelacionados(1L, 1).orElseThrow();
+
+        assertEquals(List.of(3L), relacionados.stream().map(ProductoDTO::getId).toList());
+        assertTrue(productoService.listarRelacionados(99L, null).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> productoService.listarRelacionados(1L, 0));
+    }
 
-        assertEquals(1, result.size());
-        assertEquals("PV01", result.get(0).getCodigo());
+    @Test
+    void listarProductos_conTamanoInvalido_lanzaExcepcion() {
+        assertThrows(IllegalArgumentException.class,
+                () -> productoService.listarProductos(ProductoFiltro.builder().size(0).build()));
     }
 
     @Test
@@ -164,6 +338,7 @@ class ProductoServiceTest {
         assertNotNull(result);
         assertEquals(imageUrl, result.getImagenes().get(0));
         verify(productoRepository, times(1)).save(any(Producto.class));
+        verify(eventPublisher).publishEvent(any(CatalogoModificadoEvent.class));
     }
 
     @Test
@@ -195,7 +370,7 @@ class ProductoServiceTest {
 
     @Test
     void buscarPorId_productoActivoExistente_retornaOptionalConProducto() {
-        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
+        when(productoRepository.findConRelacionesById(1L)).thenReturn(Optional.of(producto));
         Optional<Producto> result = productoService.buscarPorId(1L);
         assertTrue(result.isPresent());
     }
@@ -210,6 +385,7 @@ class ProductoServiceTest {
         when(usuarioRepository.findByCorreo(adminUsuario.getCorreo())).thenReturn(Optional.of(adminUsuario));
         when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
         when(productoRepository.save(any(Producto.class))).thenReturn(producto);
+        when(productoRepository.fijarStock(eq(1L), anyInt(), any())).thenReturn(1);
 
         
         Optional<Producto> result = productoService.actualizarProducto(1L, productoActualizado);
@@ -220,6 +396,18 @@ class ProductoServiceTest {
         verify(productoRepository, times(1)).save(producto);
     }
 
+    @Test
+    void actualizarProducto_stockPorDebajoDeLoReservado_lanzaExcepcion() {
+        authenticateAs(adminUsuario.getCorreo(), "ADMINISTRADOR");
+        when(usuarioRepository.findByCorreo(adminUsuario.getCorreo())).thenReturn(Optional.of(adminUsuario));
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
+        when(productoRepository.fijarStock(eq(1L), anyInt(), any())).thenReturn(0);
+
+        ProductoRequest sinStock = productoRequest.toBuilder().stock(0).build();
+
+        assertThrows(IllegalArgumentException.class, () -> productoService.actualizarProducto(1L, sinStock));
+    }
+
     @Test
     void actualizarProducto_vendedorPropietario_puedeModificar() {
         producto.setVendedor(vendedorUsuario);
@@ -231,6 +419,7 @@ class ProductoServiceTest {
         when(usuarioRepository.findByCorreo(vendedorUsuario.getCorreo())).thenReturn(Optional.of(vendedorUsuario));
         when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
         when(productoRepository.save(any(Producto.class))).thenReturn(producto);
+        when(productoRepository.fijarStock(eq(1L), anyInt(), any())).thenReturn(1);
 
         Optional<Producto> result = productoService.actualizarProducto(1L, productoActualizado);
 
@@ -16,9 +16,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import com.levelupgamer.boletas.BoletaRepository;
+import com.levelupgamer.boletas.compras.ComprasVerificadasService;
 import com.levelupgamer.usuarios.Usuario;
 import com.levelupgamer.usuarios.UsuarioRepository;
+import org.springframework.context.ApplicationEventPublisher;
 
 @ExtendWith(MockitoExtension.class)
 class ResenaServiceTest {
@@ -33,7 +34,13 @@ class ResenaServiceTest {
     private UsuarioRepository usuarioRepository;
 
     @Mock
-    private BoletaRepository boletaRepository;
+    private ComprasVerificadasService comprasVerificadasService;
+
+    @Mock
+    private CalificacionesRepository calificacionesRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private ResenaService resenaService;
@@ -68,13 +75,14 @@ class ResenaServiceTest {
 
         when(productoRepository.findById(10L)).thenReturn(Optional.of(producto));
         when(usuarioRepository.findById(5L)).thenReturn(Optional.of(usuario));
-        when(boletaRepository.existsByUsuarioIdAndDetallesProductoId(5L, 10L)).thenReturn(true);
+        when(comprasVerificadasService.compro(5L, 10L)).thenReturn(true);
         when(resenaRepository.save(resena)).thenReturn(resena);
 
         Resena guardada = resenaService.crearResena(10L, 5L, resena);
 
         assertTrue(guardada.getProducto() != null);
         verify(resenaRepository, times(1)).save(resena);
+        verify(calificacionesRepository).registrar(10L, 5, true);
     }
 
     @Test
@@ -85,9 +93,20 @@ class ResenaServiceTest {
 
         when(productoRepository.findById(10L)).thenReturn(Optional.of(producto));
         when(usuarioRepository.findById(5L)).thenReturn(Optional.of(usuario));
-        when(boletaRepository.existsByUsuarioIdAndDetallesProductoId(5L, 10L)).thenReturn(false);
+        when(comprasVerificadasService.compro(5L, 10L)).thenReturn(false);
 
         assertThrows(IllegalStateException.class, () -> resenaService.crearResena(10L, 5L, resena));
-        verifyNoInteractions(resenaRepository);
+        verifyNoInteractions(resenaRepository, calificacionesRepository);
+    }
+
+    @Test
+    void eliminarResena_descuentaLaCalificacionDelAgregado() {
+        Resena resena = Resena.builder().id(7L).calificacion(4).producto(producto).usuario(usuario).build();
+        when(resenaRepository.findById(7L)).thenReturn(Optional.of(resena));
+
+        resenaService.eliminarResena(7L, 5L, false);
+
+        verify(resenaRepository).delete(resena);
+        verify(calificacionesRepository).registrar(10L, 4, false);
     }
 }
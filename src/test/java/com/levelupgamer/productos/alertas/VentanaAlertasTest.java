@@ -0,0 +1,79 @@
+package com.levelupgamer.productos.alertas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class VentanaAlertasTest {
+
+    private static final Instant INICIO = Instant.parse("2025-01-01T10:00:00Z");
+
+    @Test
+    void soloHayEventoCuandoSeCruzaElUmbral() {
+        assertTrue(StockCriticoEvent.detectar(1L, 10, 5, 5).orElseThrow().bajoUmbral());
+        assertFalse(StockCriticoEvent.detectar(1L, 5, 6, 5).orElseThrow().bajoUmbral());
+        assertTrue(StockCriticoEvent.detectar(1L, 5, 4, 5).isEmpty());
+        assertTrue(StockCriticoEvent.detectar(1L, 10, 8, 5).isEmpty());
+        assertTrue(StockCriticoEvent.detectar(1L, 10, 0, null).isEmpty());
+        assertTrue(StockCriticoEvent.detectar(1L, null, 2, 5).orElseThrow().bajoUmbral());
+        // Subir el umbral por encima del stock también es un cruce.
+        assertTrue(StockCriticoEvent.detectar(1L, 8, 5, 8, 10).orElseThrow().bajoUmbral());
+    }
+
+    @Test
+    void agrupaLosCrucesDeUnProductoHastaQueVenceLaVentana() {
+        VentanaAlertas ventana = new VentanaAlertas(Duration.ofMinutes(1));
+        ventana.registrar(cruce(1L, true, 3, INICIO));
+        ventana.registrar(cruce(1L, false, 7, INICIO.plusSeconds(10)));
+        ventana.registrar(cruce(1L, true, 2, INICIO.plusSeconds(20)));
+        ventana.registrar(cruce(2L, true, 0, INICIO.plusSeconds(30)));
+
+        assertTrue(ventana.cerrar(INICIO.plusSeconds(59)).isEmpty());
+        assertEquals(INICIO.plusSeconds(60), ventana.proximoCierre());
+
+        List<VentanaAlertas.Alerta> alertas = ventana.cerrar(INICIO.plusSeconds(60));
+        assertEquals(1, alertas.size());
+        assertEquals(1L, alertas.get(0).ultimo().productoId());
+        assertEquals(2, alertas.get(0).ultimo().stock());
+        assertEquals(3, alertas.get(0).cruces());
+        assertEquals(INICIO, alertas.get(0).desde());
+        assertEquals(1, ventana.getAbiertas());
+    }
+
+    @Test
+    void descartaLosProductosQueVuelvenAlEstadoInicialDentroDeLaVentana() {
+        VentanaAlertas ventana = new VentanaAlertas(Duration.ofMinutes(1));
+        ventana.registrar(cruce(1L, true, 3, INICIO));
+        ventana.registrar(cruce(1L, false, 9, INICIO.plusSeconds(5)));
+
+        assertTrue(ventana.cerrar(null).isEmpty());
+        assertEquals(0, ventana.getAbiertas());
+        assertNull(ventana.proximoCierre());
+    }
+
+    @Test
+    void reproducirCierraCadaVentanaAntesDeLosCrucesPosterioresASuCierre() {
+        VentanaAlertas ventana = new VentanaAlertas(Duration.ofMinutes(1));
+        List<VentanaAlertas.Alerta> alertas = ventana.reproducir(List.of(
+                cruce(1L, true, 3, INICIO),
+                cruce(1L, false, 8, INICIO.plusSeconds(90)),
+                cruce(2L, true, 1, INICIO.plusSeconds(100))), INICIO.plusSeconds(120));
+
+        assertEquals(1, alertas.size());
+        assertEquals(3, alertas.get(0).ultimo().stock());
+        assertEquals(1, alertas.get(0).cruces());
+        assertEquals(INICIO.plusSeconds(90), ventana.abiertaDesde(1L));
+        assertEquals(INICIO.plusSeconds(100), ventana.abiertaDesde(2L));
+        assertNull(ventana.abiertaDesde(3L));
+    }
+
+    private static StockCriticoEvent cruce(Long productoId, boolean bajo, int stock, Instant momento) {
+        return new StockCriticoEvent(productoId, bajo, stock, 5, momento);
+    }
+}
@@ -0,0 +1,91 @@
+package com.levelupgamer.productos.busqueda;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.levelupgamer.productos.Producto;
+import com.levelupgamer.productos.categorias.Categoria;
+import com.levelupgamer.productos.dto.ProductoBusquedaDTO;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IndiceBusquedaProductosTest {
+
+    private IndiceBusquedaProductos indice;
+    private Categoria audio;
+    private Categoria consolas;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceBusquedaProductos();
+        audio = Categoria.builder().id(1L).codigo("AU").nombre("Audio").activo(true).build();
+        consolas = Categoria.builder().id(2L).codigo("CO").nombre("Consolas").activo(true).build();
+
+        indice.indexar(producto(1L, "AU-001", "Auriculares HyperX Cloud II", "Sonido envolvente 7.1 para gamers", audio));
+        indice.indexar(producto(2L, "CO-001", "PlayStation 5", "Consola de última generación con control DualSense", consolas));
+        indice.indexar(producto(3L, "AU-002", "Parlante Bluetooth", "Ideal para acompañar tus auriculares", audio));
+    }
+
+    @Test
+    void buscar_ignoraTildesYMayusculas() {
+        List<ProductoBusquedaDTO> resultados = indice.buscar("AURICULÁRES", 10);
+
+        assertEquals(1L, resultados.get(0).getId());
+    }
+
+    @Test
+    void buscar_toleraErroresDeTipeo() {
+        List<ProductoBusquedaDTO> resultados = indice.buscar("playstaton", 10);
+
+        assertEquals(1, resultados.size());
+        assertEquals(2L, resultados.get(0).getId());
+    }
+
+    @Test
+    void buscar_coincidenciaEnNombrePesaMasQueEnDescripcion() {
+        List<ProductoBusquedaDTO> resultados = indice.buscar("auriculares", 10);
+
+        assertEquals(2, resultados.size());
+        assertEquals(1L, resultados.get(0).getId());
+        assertEquals(3L, resultados.get(1).getId());
+        assertTrue(resultados.get(0).getPuntuacion() > resultados.get(1).getPuntuacion());
+    }
+
+    @Test
+    void buscar_porCodigoYCategoria() {
+        assertEquals(2L, indice.buscar("co001", 10).get(0).getId());
+        assertEquals(2, indice.buscar("audio", 10).size());
+        assertEquals(2, indice.buscar("auri", 10).size());
+    }
+
+    @Test
+    void indexar_reemplazaYEliminaDocumentos() {
+        indice.indexar(producto(2L, "CO-001", "Xbox Series X", "Consola", consolas));
+        assertTrue(indice.buscar("playstation", 10).isEmpty());
+        assertEquals(2L, indice.buscar("xbox", 10).get(0).getId());
+
+        indice.eliminar(2L);
+        assertTrue(indice.buscar("xbox", 10).isEmpty());
+
+        Producto inactivo = producto(4L, "AU-003", "Auriculares viejos", null, audio);
+        inactivo.setActivo(false);
+        indice.indexar(inactivo);
+        assertEquals(2, indice.getTamano());
+    }
+
+    private Producto producto(Long id, String codigo, String nombre, String descripcion, Categoria categoria) {
+        return Producto.builder()
+                .id(id)
+                .codigo(codigo)
+                .nombre(nombre)
+                .descripcion(descripcion)
+                .precio(new BigDecimal("1000"))
+                .stock(10)
+                .categoria(categoria)
+                .imagenes(List.of("/uploads/" + codigo + ".jpg"))
+                .activo(true)
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.levelupgamer.productos.categorias;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.levelupgamer.productos.CatalogoModificadoEvent;
+import com.levelupgamer.productos.dto.CategoriaDTO;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class RegistroCategoriasTest {
+
+    private CategoriaRepository categoriaRepository;
+    private RegistroCategorias registro;
+
+    @BeforeEach
+    void setUp() {
+        categoriaRepository = mock(CategoriaRepository.class);
+        when(categoriaRepository.findAll(any(Sort.class))).thenReturn(List.of(
+                categoria(1L, "PER", true), categoria(2L, "RET", false)));
+        registro = new RegistroCategorias(categoriaRepository, mock(PlatformTransactionManager.class));
+        registro.inicializar();
+    }
+
+    @Test
+    void resuelvePorIdYCodigoSinIrALaBase() {
+        assertEquals("PER", registro.buscar(1L).orElseThrow().getCodigo());
+        assertEquals(2L, registro.buscarPorCodigo(" ret ").orElseThrow().getId());
+        assertTrue(registro.buscarActiva(2L).isEmpty());
+        assertEquals(List.of(1L), registro.listar(false).stream().map(CategoriaDTO::getId).toList());
+        assertEquals(2, registro.listar(true).size());
+        assertSame(registro.buscar(1L).orElseThrow(), registro.dtoDe(categoria(1L, null, null)));
+
+        verify(categoriaRepository, never()).findById(anyLong());
+        verify(categoriaRepository, times(1)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void siNoEstaEnLaInstantaneaConsultaElRepositorio() {
+        when(categoriaRepository.findById(3L)).thenReturn(Optional.of(categoria(3L, "NUE", true)));
+
+        assertEquals("NUE", registro.buscar(3L).orElseThrow().getCodigo());
+        assertTrue(registro.buscarPorCodigo("OTRA").isEmpty());
+    }
+
+    @Test
+    void recargaSoloConCambiosDeCategoria() {
+        registro.alModificarseCatalogo(CatalogoModificadoEvent.deProducto(5L, 1L, 1L));
+        verify(categoriaRepository, times(1)).findAll(any(Sort.class));
+
+        when(categoriaRepository.findAll(any(Sort.class))).thenReturn(List.of(
+                categoria(1L, "PER", false), categoria(2L, "RET", false)));
+        registro.alModificarseCatalogo(CatalogoModificadoEvent.deCategoria(1L));
+
+        assertTrue(registro.listar(false).isEmpty());
+        assertTrue(registro.buscarActiva(1L).isEmpty());
+    }
+
+    private static Categoria categoria(Long id, String codigo, Boolean activo) {
+        Categoria categoria = new Categoria();
+        categoria.setId(id);
+        categoria.setCodigo(codigo);
+        categoria.setNombre(codigo);
+        categoria.setActivo(activo);
+        return categoria;
+    }
+}
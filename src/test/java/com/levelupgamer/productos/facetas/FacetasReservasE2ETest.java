@@ -0,0 +1,146 @@
+package com.levelupgamer.productos.facetas;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.levelupgamer.common.UsuariosDePrueba;
+import com.levelupgamer.productos.CatalogoModificadoEvent;
+import com.levelupgamer.productos.Producto;
+import com.levelupgamer.productos.ProductoRepository;
+import com.levelupgamer.productos.categorias.Categoria;
+import com.levelupgamer.productos.categorias.CategoriaRepository;
+import com.levelupgamer.productos.dto.ReservaStockRequest;
+import com.levelupgamer.usuarios.RolUsuario;
+import com.levelupgamer.usuarios.Usuario;
+import com.levelupgamer.usuarios.UsuarioRepository;
+import java.math.BigDecimal;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Sin {@code @Transactional}: el índice de facetas se actualiza tras el commit de cada
+ * reserva, así que la prueba confirma lo que crea y lo limpia al final.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@SuppressWarnings("null")
+class FacetasReservasE2ETest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private UsuarioRepository usuarioRepository;
+
+        @Autowired
+        private ProductoRepository productoRepository;
+
+        @Autowired
+        private CategoriaRepository categoriaRepository;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private TransactionTemplate transactionTemplate;
+
+        @Autowired
+        private ApplicationEventPublisher eventPublisher;
+
+        private UsuariosDePrueba usuarios;
+        private Usuario cliente;
+        private Categoria categoria;
+        private Producto producto;
+
+        @BeforeEach
+        void setUp() {
+                String uniqueId = UUID.randomUUID().toString().substring(0, 8);
+                usuarios = new UsuariosDePrueba(usuarioRepository, mockMvc, objectMapper);
+                cliente = usuarios.crear("fac-" + uniqueId + "@example.com", "14141414-1", RolUsuario.CLIENTE);
+                categoria = categoriaRepository.save(Categoria.builder()
+                                .codigo("FAC-" + uniqueId)
+                                .nombre("Categoria facetas " + uniqueId)
+                                .activo(true)
+                                .build());
+                producto = productoRepository.save(Producto.builder()
+                                .codigo("FAC-" + uniqueId)
+                                .nombre("Edición limitada")
+                                .precio(new BigDecimal("90000.00"))
+                                .stock(3)
+                                .puntosLevelUp(0)
+                                .categoria(categoria)
+                                .vendedor(cliente)
+                                .activo(true)
+                                .build());
+                // Como un alta por ProductoService: el índice de facetas conoce el producto.
+                eventPublisher.publishEvent(CatalogoModificadoEvent.deProducto(producto.getId(), categoria.getId()));
+        }
+
+        @AfterEach
+        void tearDown() {
+                transactionTemplate.executeWithoutResult(status -> {
+                        jdbcTemplate.update("delete from reserva_stock where producto_id = ?", producto.getId());
+                        productoRepository.deleteById(producto.getId());
+                        categoriaRepository.deleteById(categoria.getId());
+                        usuarioRepository.deleteById(cliente.getId());
+                });
+                eventPublisher.publishEvent(CatalogoModificadoEvent.deProducto(producto.getId(), categoria.getId()));
+        }
+
+        @Test
+        void unProductoReservadoCompletoCuentaSinStock() throws Exception {
+                String token = usuarios.login(cliente);
+                facetas().andExpect(jsonPath("$.facetas.total").value(1))
+                                .andExpect(jsonPath("$.facetas.conStock").value(1))
+                                .andExpect(jsonPath("$.facetas.sinStock").value(0));
+
+                String respuesta = mockMvc.perform(post("/api/v1/stock-reservations")
+                                                .header("Authorization", "Bearer " + token)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(objectMapper.writeValueAsString(ReservaStockRequest.builder()
+                                                                .productoId(producto.getId())
+                                                                .cantidad(3)
+                                                                .build())))
+                                .andExpect(status().isCreated())
+                                .andReturn().getResponse().getContentAsString();
+
+                facetas().andExpect(jsonPath("$.items[0].stock").value(3))
+                                .andExpect(jsonPath("$.items[0].stockDisponible").value(0))
+                                .andExpect(jsonPath("$.facetas.conStock").value(0))
+                                .andExpect(jsonPath("$.facetas.sinStock").value(1));
+
+                mockMvc.perform(delete("/api/v1/stock-reservations/" + objectMapper.readTree(respuesta).get("id").asLong())
+                                                .header("Authorization", "Bearer " + token))
+                                .andExpect(status().isNoContent());
+
+                facetas().andExpect(jsonPath("$.facetas.conStock").value(1))
+                                .andExpect(jsonPath("$.facetas.sinStock").value(0));
+        }
+
+        private ResultActions facetas() throws Exception {
+                return mockMvc.perform(get("/api/v1/products")
+                                                .param("categoriaId", categoria.getId().toString())
+                                                .param("facets", "true"))
+                                .andExpect(status().isOk());
+        }
+}
@@ -0,0 +1,126 @@
+package com.levelupgamer.productos.facetas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.levelupgamer.productos.Producto;
+import com.levelupgamer.productos.categorias.Categoria;
+import com.levelupgamer.productos.dto.FacetasDTO;
+import com.levelupgamer.productos.dto.ProductoFiltro;
+import com.levelupgamer.usuarios.Usuario;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IndiceFacetasTest {
+
+    private IndiceFacetas indice;
+    private Categoria audio;
+    private Categoria consolas;
+    private Usuario vendedor;
+    private Usuario otroVendedor;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceFacetas();
+        audio = Categoria.builder().id(1L).codigo("AU").nombre("Audio").activo(true).build();
+        consolas = Categoria.builder().id(2L).codigo("CO").nombre("Consolas").activo(true).build();
+        vendedor = new Usuario();
+        vendedor.setId(10L);
+        otroVendedor = new Usuario();
+        otroVendedor.setId(20L);
+
+        indice.indexar(producto(1L, audio, "14990", 100, 5, vendedor));
+        indice.indexar(producto(2L, audio, "59990", 300, 0, vendedor));
+        indice.indexar(producto(3L, consolas, "549990", 1000, 2, otroVendedor));
+    }
+
+    @Test
+    void contar_sinFiltros() {
+        FacetasDTO facetas = indice.contar(new ProductoFiltro());
+
+        assertEquals(3, facetas.getTotal());
+        assertEquals(2, facetas.getCategorias().get(1L));
+        assertEquals(1, facetas.getCategorias().get(2L));
+        assertEquals(1, facetas.getPrecios().get(0).getCantidad());
+        assertEquals(1, facetas.getPrecios().get(2).getCantidad());
+        assertEquals(1, facetas.getPrecios().get(5).getCantidad());
+        assertEquals(1, facetas.getPuntosLevelUp().get(1000));
+        assertEquals(2, facetas.getConStock());
+        assertEquals(1, facetas.getSinStock());
+    }
+
+    @Test
+    void contar_categoriaYPrecioExcluyenSuPropioFiltro() {
+        FacetasDTO facetas = indice.contar(ProductoFiltro.builder()
+                .categoriaId(1L)
+                .precioMax(new BigDecimal("20000"))
+                .build());
+
+        assertEquals(1, facetas.getTotal());
+        // Categorías contadas sólo con el filtro de precio.
+        assertEquals(1, facetas.getCategorias().get(1L));
+        assertFalse(facetas.getCategorias().containsKey(2L));
+        // Tramos de precio contados sólo con el filtro de categoría.
+        assertEquals(1, facetas.getPrecios().get(0).getCantidad());
+        assertEquals(1, facetas.getPrecios().get(2).getCantidad());
+        assertEquals(0, facetas.getPrecios().get(5).getCantidad());
+    }
+
+    @Test
+    void contar_filtraPorVendedorYActivo() {
+        Producto inactivo = producto(4L, consolas, "29990", 0, 1, vendedor);
+        inactivo.setActivo(false);
+        indice.indexar(inactivo);
+
+        assertEquals(3, indice.contar(ProductoFiltro.builder().vendedorId(10L).build()).getTotal());
+        assertEquals(2, indice.contar(ProductoFiltro.builder().vendedorId(10L).activo(true).build()).getTotal());
+        assertEquals(1, indice.contar(ProductoFiltro.builder().activo(false).build()).getTotal());
+    }
+
+    @Test
+    void indexar_reemplazaYEliminaProductos() {
+        indice.indexar(producto(2L, consolas, "59990", 300, 7, vendedor));
+        FacetasDTO facetas = indice.contar(new ProductoFiltro());
+        assertEquals(1, facetas.getCategorias().get(1L));
+        assertEquals(2, facetas.getCategorias().get(2L));
+        assertEquals(3, facetas.getConStock());
+
+        indice.eliminar(3L);
+        indice.indexar(producto(5L, audio, "24990", 200, 1, otroVendedor));
+        facetas = indice.contar(new ProductoFiltro());
+        assertEquals(3, indice.getTamano());
+        assertEquals(3, facetas.getTotal());
+        assertEquals(2, facetas.getCategorias().get(1L));
+        assertEquals(0, facetas.getPrecios().get(5).getCantidad());
+        assertEquals(1, indice.contar(ProductoFiltro.builder().vendedorId(20L).build()).getTotal());
+    }
+
+    @Test
+    void conStock_cuentaElDisponibleDescontandoLoReservado() {
+        Producto reservado = producto(1L, audio, "14990", 100, 5, vendedor);
+        reservado.setStockReservado(5);
+        indice.indexar(reservado);
+        assertEquals(1, indice.contar(new ProductoFiltro()).getConStock());
+
+        indice.actualizarDisponible(1L, 2);
+        indice.actualizarDisponible(3L, 0);
+        FacetasDTO facetas = indice.contar(new ProductoFiltro());
+        assertEquals(1, facetas.getConStock());
+        assertEquals(2, facetas.getSinStock());
+    }
+
+    private Producto producto(Long id, Categoria categoria, String precio, int puntos, int stock, Usuario vendedor) {
+        return Producto.builder()
+                .id(id)
+                .codigo("P-" + id)
+                .nombre("Producto " + id)
+                .precio(new BigDecimal(precio))
+                .puntosLevelUp(puntos)
+                .stock(stock)
+                .categoria(categoria)
+                .vendedor(vendedor)
+                .activo(true)
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.levelupgamer.productos.imagenes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+
+class EscaladorImagenesTest {
+
+    @Test
+    void leer_submuestreaSinBajarDelLadoPedido() throws Exception {
+        BufferedImage leida = EscaladorImagenes.leer(new ByteArrayInputStream(png(4000, 2000)), 1200);
+
+        assertNotNull(leida);
+        // Submuestreo 3: el lado mayor queda en 1334, por encima de los 1200 pedidos.
+        assertEquals(1334, leida.getWidth());
+        assertEquals(667, leida.getHeight());
+    }
+
+    @Test
+    void leer_devuelveNullConFormatoDesconocido() throws Exception {
+        assertNull(EscaladorImagenes.leer(new ByteArrayInputStream("RIFF....WEBPVP8 ".getBytes(StandardCharsets.US_ASCII)), 160));
+    }
+
+    @Test
+    void reducir_conservaProporcionYNoAmplia() {
+        BufferedImage original = new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_ARGB);
+
+        BufferedImage miniatura = EscaladorImagenes.reducir(original, TamanoImagen.MINIATURA.getLado());
+        assertEquals(160, miniatura.getWidth());
+        assertEquals(80, miniatura.getHeight());
+
+        BufferedImage pequena = EscaladorImagenes.reducir(new BufferedImage(100, 300, BufferedImage.TYPE_INT_RGB), 480);
+        assertEquals(100, pequena.getWidth());
+        assertEquals(300, pequena.getHeight());
+    }
+
+    @Test
+    void comoJpeg_generaUnJpegLegible() throws Exception {
+        byte[] jpeg = EscaladorImagenes.comoJpeg(new BufferedImage(64, 32, BufferedImage.TYPE_INT_ARGB));
+
+        BufferedImage leida = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertEquals(64, leida.getWidth());
+        assertTrue(jpeg[0] == (byte) 0xFF && jpeg[1] == (byte) 0xD8);
+    }
+
+    @Test
+    void nombreBase_quitaCarpetaExtensionYConsulta() {
+        assertEquals("a1b2c3_foto", VariantesImagenService.nombreBase("/uploads/products/JM001/a1b2c3_foto.jpg"));
+        assertEquals("01", VariantesImagenService.nombreBase("https://bucket.s3.amazonaws.com/products/AC001/01.png?v=2"));
+    }
+
+    private static byte[] png(int ancho, int alto) throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB), "png", salida);
+        return salida.toByteArray();
+    }
+}
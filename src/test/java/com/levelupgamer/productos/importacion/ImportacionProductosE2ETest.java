@@ -0,0 +1,183 @@
+package com.levelupgamer.productos.importacion;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.levelupgamer.autenticacion.LoginRequest;
+import com.levelupgamer.common.storage.FileStorageService;
+import com.levelupgamer.productos.Producto;
+import com.levelupgamer.productos.ProductoRepository;
+import com.levelupgamer.productos.categorias.Categoria;
+import com.levelupgamer.productos.categorias.CategoriaRepository;
+import com.levelupgamer.usuarios.RolUsuario;
+import com.levelupgamer.usuarios.Usuario;
+import com.levelupgamer.usuarios.UsuarioRepository;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Sin {@code @Transactional}: la importación corre en otro hilo y confirma sus
+ * propias transacciones, así que la prueba limpia lo que crea.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@SuppressWarnings({"null", "removal"})
+class ImportacionProductosE2ETest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private UsuarioRepository usuarioRepository;
+
+        @Autowired
+        private CategoriaRepository categoriaRepository;
+
+        @Autowired
+        private ProductoRepository productoRepository;
+
+        @Autowired
+        private BCryptPasswordEncoder passwordEncoder;
+
+        @Autowired
+        private TransactionTemplate transactionTemplate;
+
+        @MockBean
+        private FileStorageService fileStorageService;
+
+        private String uniqueId;
+        private Usuario vendedor;
+        private Categoria categoria;
+        private String token;
+
+        @BeforeEach
+        void setUp() throws Exception {
+                uniqueId = UUID.randomUUID().toString().substring(0, 8);
+                vendedor = usuarioRepository.save(Usuario.builder()
+                                .run("22222222-2")
+                                .nombre("Vendedor")
+                                .apellidos("Importador")
+                                .correo("import-" + uniqueId + "@example.com")
+                                .contrasena(passwordEncoder.encode("vend12345"))
+                                .fechaNacimiento(LocalDate.now().minusYears(30))
+                                .roles(Set.of(RolUsuario.VENDEDOR))
+                                .activo(true)
+                                .build());
+                categoria = categoriaRepository.save(Categoria.builder()
+                                .codigo("IMP-" + uniqueId)
+                                .nombre("Categoria Importación " + uniqueId)
+                                .activo(true)
+                                .build());
+
+                MvcResult login = mockMvc.perform(post("/api/v1/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(LoginRequest.builder()
+                                                .correo(vendedor.getCorreo())
+                                                .contrasena("vend12345")
+                                                .build())))
+                                .andExpect(status().isOk())
+                                .andReturn();
+                token = objectMapper.readTree(login.getResponse().getContentAsString()).get("accessToken").asText();
+        }
+
+        @AfterEach
+        void tearDown() {
+                transactionTemplate.executeWithoutResult(status -> {
+                        List<Producto> importados = productoRepository.findByCategoriaId(categoria.getId());
+                        productoRepository.deleteAll(importados);
+                        categoriaRepository.deleteById(categoria.getId());
+                        usuarioRepository.deleteById(vendedor.getId());
+                });
+        }
+
+        @Test
+        void importaCsvEnSegundoPlanoYReportaErroresPorFila() throws Exception {
+                String csv = "codigo,nombre,precio,stock,categoriaCodigo,puntosLevelUp,imagenes\n"
+                                + "IMP-" + uniqueId + "-1,Teclado,19990,5," + categoria.getCodigo() + ",100,/uploads/t.jpg\n"
+                                + "IMP-" + uniqueId + "-2,Mouse,9990,8," + categoria.getCodigo() + ",,\n"
+                                + "IMP-" + uniqueId + "-1,Repetido,1000,1," + categoria.getCodigo() + ",,\n"
+                                + "IMP-" + uniqueId + "-3,Sin categoría,1000,1,NO-EXISTE,,\n"
+                                + "IMP-" + uniqueId + "-4,Puntos malos,1000,1," + categoria.getCodigo() + ",150,\n";
+
+                MvcResult creada = mockMvc.perform(post("/api/v1/products/imports")
+                                .header("Authorization", "Bearer " + token)
+                                .contentType("text/csv")
+                                .content(csv.getBytes(StandardCharsets.UTF_8)))
+                                .andExpect(status().isAccepted())
+                                .andExpect(header().exists("Location"))
+                                .andReturn();
+                String id = objectMapper.readTree(creada.getResponse().getContentAsString()).get("id").asText();
+
+                JsonNode estado = esperarFin(id);
+
+                assertEquals("COMPLETADA", estado.get("estado").asText());
+                assertEquals(5, estado.get("filasLeidas").asInt());
+                assertEquals(2, estado.get("filasImportadas").asInt());
+                assertEquals(3, estado.get("filasConError").asInt());
+                assertEquals(3, estado.get("errores").get(0).get("fila").asInt());
+
+                List<Producto> importados = productoRepository.findByCategoriaId(categoria.getId());
+                assertEquals(2, importados.size());
+                assertTrue(importados.stream().allMatch(p -> p.getCreatedAt() != null));
+                Producto teclado = transactionTemplate.execute(status -> {
+                        Producto p = productoRepository.findByCodigo("IMP-" + uniqueId + "-1").orElseThrow();
+                        p.getImagenes().size();
+                        return p;
+                });
+                assertEquals(List.of("/uploads/t.jpg"), teclado.getImagenes());
+                assertEquals(vendedor.getId(), teclado.getVendedor().getId());
+        }
+
+        @Test
+        void estadoDeImportacionAjenaNoEsVisible() throws Exception {
+                mockMvc.perform(get("/api/v1/products/imports/" + UUID.randomUUID())
+                                .header("Authorization", "Bearer " + token))
+                                .andExpect(status().isNotFound());
+
+                mockMvc.perform(post("/api/v1/products/imports")
+                                .header("Authorization", "Bearer " + token)
+                                .contentType(MediaType.TEXT_PLAIN)
+                                .content("codigo\n"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        private JsonNode esperarFin(String id) throws Exception {
+                for (int intento = 0; intento < 100; intento++) {
+                        MvcResult resultado = mockMvc.perform(get("/api/v1/products/imports/" + id)
+                                        .header("Authorization", "Bearer " + token))
+                                        .andExpect(status().isOk())
+                                        .andReturn();
+                        JsonNode estado = objectMapper.readTree(resultado.getResponse().getContentAsString());
+                        String valor = estado.get("estado").asText();
+                        if (!"EN_COLA".equals(valor) && !"PROCESANDO".equals(valor)) {
+                                return estado;
+                        }
+                        Thread.sleep(100);
+                }
+                throw new AssertionError("La importación no terminó a tiempo");
+        }
+}
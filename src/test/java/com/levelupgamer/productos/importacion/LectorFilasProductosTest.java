@@ -0,0 +1,86 @@
+package com.levelupgamer.productos.importacion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class LectorFilasProductosTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void csv_interpretaComillasSaltosDeLineaEImagenes() {
+        String csv = "codigo,nombre,descripcion,precio,stock,categoriaCodigo,imagenes\r\n"
+                + "AU-100,\"Audífonos \"\"Pro\"\"\",\"Línea 1\nLínea 2\",29990,10,AU,/uploads/a.jpg|/uploads/b.jpg\r\n"
+                + "\r\n"
+                + "AU-101,\"Parlante, portátil\",,14990.50,3,AU,\n";
+
+        List<FilaImportacion> filas = leer(csv, FormatoImportacion.CSV);
+
+        assertEquals(2, filas.size());
+        FilaImportacion primera = filas.get(0);
+        assertEquals(1, primera.numero());
+        assertEquals("Audífonos \"Pro\"", primera.request().getNombre());
+        assertEquals("Línea 1\nLínea 2", primera.request().getDescripcion());
+        assertEquals("AU", primera.categoriaCodigo());
+        assertEquals(List.of("/uploads/a.jpg", "/uploads/b.jpg"), primera.request().getImagenes());
+        assertEquals("Parlante, portátil", filas.get(1).request().getNombre());
+        assertNull(filas.get(1).request().getDescripcion());
+        assertEquals(new BigDecimal("14990.50"), filas.get(1).request().getPrecio());
+    }
+
+    @Test
+    void csv_conPuntoYComaYValorInvalido_invalidaSoloEsaFila() {
+        String csv = "﻿codigo;nombre;precio;stock;categoriaId\n"
+                + "X-1;Uno;abc;1;1\n"
+                + "X-2;Dos;1000;2;1\n";
+
+        List<FilaImportacion> filas = leer(csv, FormatoImportacion.CSV);
+
+        assertNotNull(filas.get(0).error());
+        assertTrue(filas.get(0).error().contains("precio"));
+        assertNull(filas.get(1).error());
+        assertEquals(1L, filas.get(1).request().getCategoriaId());
+    }
+
+    @Test
+    void csv_sinColumnasObligatorias_lanzaExcepcion() {
+        assertThrows(IllegalArgumentException.class,
+                () -> leer("codigo,nombre,precio\nX-1,Uno,10\n", FormatoImportacion.CSV));
+        assertThrows(IllegalArgumentException.class,
+                () -> leer("codigo,nombre,precio,stock\nX-1,Uno,10,1\n", FormatoImportacion.CSV));
+    }
+
+    @Test
+    void ndjson_leeObjetosYReportaLineasInvalidas() {
+        String ndjson = "{\"codigo\":\"N-1\",\"nombre\":\"Uno\",\"precio\":100,\"stock\":2,\"categoriaCodigo\":\"AU\"}\n"
+                + "\n"
+                + "{\"codigo\":\"N-2\",\"nombre\":\n"
+                + "[1,2]\n";
+
+        List<FilaImportacion> filas = leer(ndjson, FormatoImportacion.NDJSON);
+
+        assertEquals(3, filas.size());
+        assertEquals("N-1", filas.get(0).codigo());
+        assertEquals("AU", filas.get(0).categoriaCodigo());
+        assertFalse(filas.get(1).error() == null);
+        assertEquals(2, filas.get(1).numero());
+        assertNotNull(filas.get(2).error());
+    }
+
+    private List<FilaImportacion> leer(String contenido, FormatoImportacion formato) {
+        List<FilaImportacion> filas = new ArrayList<>();
+        new LectorFilasProductos(new StringReader(contenido), formato, objectMapper).forEachRemaining(filas::add);
+        return filas;
+    }
+}
@@ -0,0 +1,194 @@
+package com.levelupgamer.productos.inventario;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.levelupgamer.boletas.BoletaService;
+import com.levelupgamer.boletas.dto.BoletaCrearDTO;
+import com.levelupgamer.boletas.dto.BoletaDetalleCrearDTO;
+import com.levelupgamer.common.UsuariosDePrueba;
+import com.levelupgamer.productos.Producto;
+import com.levelupgamer.productos.ProductoRepository;
+import com.levelupgamer.productos.categorias.Categoria;
+import com.levelupgamer.productos.categorias.CategoriaRepository;
+import com.levelupgamer.productos.dto.ReservaStockRequest;
+import com.levelupgamer.usuarios.RolUsuario;
+import com.levelupgamer.usuarios.Usuario;
+import com.levelupgamer.usuarios.UsuarioRepository;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@ActiveProfiles("test")
+@SuppressWarnings("null")
+class ReservaStockE2ETest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private UsuarioRepository usuarioRepository;
+
+        @Autowired
+        private ProductoRepository productoRepository;
+
+        @Autowired
+        private CategoriaRepository categoriaRepository;
+
+        @Autowired
+        private BoletaService boletaService;
+
+        @Autowired
+        private ReservaStockService reservaStockService;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private EntityManager entityManager;
+
+        private UsuariosDePrueba usuarios;
+        private Usuario primera;
+        private Usuario segunda;
+        private Producto producto;
+
+        @BeforeEach
+        void setUp() {
+                String uniqueId = UUID.randomUUID().toString().substring(0, 8);
+                usuarios = new UsuariosDePrueba(usuarioRepository, mockMvc, objectMapper);
+                primera = usuarios.crear("res-a-" + uniqueId + "@example.com", "12121212-1", RolUsuario.CLIENTE);
+                segunda = usuarios.crear("res-b-" + uniqueId + "@example.com", "13131313-1", RolUsuario.CLIENTE);
+                Categoria categoria = categoriaRepository.save(Categoria.builder()
+                                .codigo("RES-" + uniqueId)
+                                .nombre("Categoria reservas")
+                                .activo(true)
+                                .build());
+                producto = productoRepository.save(Producto.builder()
+                                .codigo("RES-" + uniqueId)
+                                .nombre("Consola de lanzamiento")
+                                .precio(new BigDecimal("500000.00"))
+                                .stock(3)
+                                .puntosLevelUp(0)
+                                .categoria(categoria)
+                                .vendedor(primera)
+                                .activo(true)
+                                .build());
+        }
+
+        @Test
+        void laReservaRetieneStockHastaQueSeCompraOVence() throws Exception {
+                String tokenPrimera = usuarios.login(primera);
+                String tokenSegunda = usuarios.login(segunda);
+
+                reservar(tokenPrimera, 2)
+                                .andExpect(status().isCreated())
+                                .andExpect(jsonPath("$.productoId").value(producto.getId()))
+                                .andExpect(jsonPath("$.cantidad").value(2));
+                reservar(tokenSegunda, 2)
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.error").value("Stock insuficiente para reservar: Consola de lanzamiento"));
+                assertEquals(2, stockReservado());
+
+                // Sin reserva sólo queda una unidad para la segunda; la primera compra lo suyo.
+                assertThrows(IllegalArgumentException.class, () -> comprar(segunda, 2));
+                comprar(primera, 2);
+                assertEquals(1, stock());
+                assertEquals(0, stockReservado());
+                mockMvc.perform(get("/api/v1/stock-reservations").header("Authorization", "Bearer " + tokenPrimera))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()").value(0));
+
+                reservar(tokenSegunda, 1).andExpect(status().isCreated());
+                jdbcTemplate.update("update reserva_stock set expira_en = ? where usuario_id = ?",
+                                LocalDateTime.now().minusMinutes(1), segunda.getId());
+                assertEquals(1, reservaStockService.liberarLote(LocalDateTime.now()));
+                assertEquals(0, stockReservado());
+                assertEquals(1, stock());
+        }
+
+        @Test
+        void cancelarDevuelveLasUnidadesYSoloLaDuena() throws Exception {
+                String tokenPrimera = usuarios.login(primera);
+                String respuesta = reservar(tokenPrimera, 3)
+                                .andExpect(status().isCreated())
+                                .andReturn().getResponse().getContentAsString();
+                long reservaId = objectMapper.readTree(respuesta).get("id").asLong();
+
+                mockMvc.perform(delete("/api/v1/stock-reservations/" + reservaId)
+                                                .header("Authorization", "Bearer " + usuarios.login(segunda)))
+                                .andExpect(status().isForbidden());
+                assertEquals(3, stockReservado());
+
+                mockMvc.perform(delete("/api/v1/stock-reservations/" + reservaId)
+                                                .header("Authorization", "Bearer " + tokenPrimera))
+                                .andExpect(status().isNoContent());
+                assertEquals(0, stockReservado());
+                assertEquals(0, reservaStockService.liberarLote(LocalDateTime.now().plusHours(1)));
+        }
+
+        @Test
+        void elCatalogoMuestraElDisponibleYElStockNoBajaDeLoReservado() throws Exception {
+                reservar(usuarios.login(primera), 2).andExpect(status().isCreated());
+                entityManager.clear();
+
+                mockMvc.perform(get("/api/v1/products/" + producto.getId()))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.stock").value(3))
+                                .andExpect(jsonPath("$.stockDisponible").value(1));
+
+                assertEquals(0, productoRepository.fijarStock(producto.getId(), 1, LocalDateTime.now()));
+                assertEquals(1, productoRepository.fijarStock(producto.getId(), 2, LocalDateTime.now()));
+                assertEquals(2, stock());
+        }
+
+        private ResultActions reservar(String token, int cantidad) throws Exception {
+                return mockMvc.perform(post("/api/v1/stock-reservations")
+                                .header("Authorization", "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(ReservaStockRequest.builder()
+                                                .productoId(producto.getId())
+                                                .cantidad(cantidad)
+                                                .build())));
+        }
+
+        private void comprar(Usuario usuario, int cantidad) {
+                boletaService.crearBoletaInterna(BoletaCrearDTO.builder()
+                                .usuarioId(usuario.getId())
+                                .detalles(List.of(new BoletaDetalleCrearDTO(producto.getId(), cantidad)))
+                                .build());
+        }
+
+        private int stock() {
+                return jdbcTemplate.queryForObject("select stock from producto where id = ?", Integer.class, producto.getId());
+        }
+
+        private int stockReservado() {
+                return jdbcTemplate.queryForObject("select stock_reservado from producto where id = ?", Integer.class,
+                                producto.getId());
+        }
+}
@@ -0,0 +1,85 @@
+package com.levelupgamer.productos.ranking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RankingVentasTest {
+
+    private static final long DIA = Duration.ofDays(1).toSeconds();
+
+    @Test
+    void registrar_ordenaPorUnidadesYDesempataPorId() {
+        RankingVentas ranking = new RankingVentas(3, null);
+        ranking.registrar(5L, 2, 0);
+        ranking.registrar(7L, 4, 0);
+        ranking.registrar(3L, 2, 0);
+        ranking.registrar(5L, 1, 0);
+
+        assertEquals(List.of(7L, 5L, 3L), ranking.top(10));
+        assertEquals(List.of(7L), ranking.top(1));
+    }
+
+    @Test
+    void registrar_mantieneSoloLosMejoresK() {
+        RankingVentas ranking = new RankingVentas(2, null);
+        for (long id = 1; id <= 100; id++) {
+            ranking.registrar(id, (int) id, 0);
+        }
+
+        assertEquals(List.of(100L, 99L), ranking.top(5));
+        assertEquals(100, ranking.getTamano());
+    }
+
+    @Test
+    void anulacion_recuperaAlSiguienteFueraDelTop() {
+        RankingVentas ranking = new RankingVentas(2, null);
+        ranking.registrar(1L, 10, 0);
+        ranking.registrar(2L, 8, 0);
+        ranking.registrar(3L, 5, 0);
+
+        ranking.registrar(1L, -10, 0);
+
+        assertEquals(List.of(2L, 3L), ranking.top(5));
+    }
+
+    @Test
+    void tendencia_ventaRecientePesaMasQueUnaAntigua() {
+        RankingVentas ranking = new RankingVentas(5, Duration.ofDays(7));
+        ranking.registrar(1L, 10, 0);
+        ranking.registrar(2L, 6, 14 * DIA);
+
+        // 10 unidades hace dos vidas medias equivalen a 2,5 unidades de hoy.
+        assertEquals(List.of(2L, 1L), ranking.top(5));
+        assertEquals(2.5 / 6, ranking.puntaje(1L) / ranking.puntaje(2L), 1e-9);
+    }
+
+    @Test
+    void tendencia_anulacionRestaExactamenteLoSumado() {
+        RankingVentas ranking = new RankingVentas(5, Duration.ofDays(7));
+        ranking.registrar(1L, 3, 0);
+        ranking.registrar(2L, 1, 3 * DIA);
+        ranking.registrar(1L, -3, 0);
+
+        assertEquals(List.of(2L), ranking.top(5));
+        assertEquals(0.0, ranking.puntaje(1L), 1e-9);
+    }
+
+    @Test
+    void tendencia_reescalaSinAlterarElOrden() {
+        RankingVentas ranking = new RankingVentas(5, Duration.ofHours(1));
+        ranking.registrar(1L, 5, 0);
+        ranking.registrar(2L, 4, 0);
+        // 1000 vidas medias después: obliga a mover la referencia del decaimiento.
+        ranking.registrar(3L, 1, 1000 * 3600L);
+        ranking.registrar(2L, 2, 1000 * 3600L);
+
+        List<Long> top = ranking.top(5);
+        assertEquals(2L, top.get(0));
+        assertEquals(3L, top.get(1));
+        assertTrue(Double.isFinite(ranking.puntaje(2L)));
+    }
+}
@@ -0,0 +1,78 @@
+package com.levelupgamer.productos.relacionados;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MatrizCoocurrenciasTest {
+
+    @Test
+    void ordenaPorVecesCompradosJuntosYDesempataPorId() {
+        MatrizCoocurrencias matriz = new MatrizCoocurrencias(10);
+        matriz.registrar(new long[] {1, 2, 3}, 1);
+        matriz.registrar(new long[] {1, 3}, 1);
+        matriz.registrar(new long[] {1, 4}, 1);
+        matriz.registrar(new long[] {5}, 1);
+
+        assertEquals(List.of(new MatrizCoocurrencias.Relacionado(3, 2), new MatrizCoocurrencias.Relacionado(2, 1),
+                new MatrizCoocurrencias.Relacionado(4, 1)), matriz.relacionados(1, 10));
+        assertEquals(List.of(new MatrizCoocurrencias.Relacionado(1, 2), new MatrizCoocurrencias.Relacionado(2, 1)),
+                matriz.relacionados(3, 10));
+        assertTrue(matriz.relacionados(5, 10).isEmpty());
+    }
+
+    @Test
+    void anularUnaBoletaDescuentaYRecalculaElTopLleno() {
+        MatrizCoocurrencias matriz = new MatrizCoocurrencias(2);
+        matriz.registrar(new long[] {1, 2}, 1);
+        matriz.registrar(new long[] {1, 2}, 1);
+        matriz.registrar(new long[] {1, 3}, 1);
+        matriz.registrar(new long[] {1, 3}, 1);
+        matriz.registrar(new long[] {1, 4}, 1);
+        assertEquals(List.of(2L, 3L), ids(matriz.relacionados(1, 5)));
+
+        matriz.registrar(new long[] {1, 2}, -1);
+        matriz.registrar(new long[] {1, 2}, -1);
+
+        assertEquals(List.of(3L, 4L), ids(matriz.relacionados(1, 5)));
+        assertEquals(List.of(1L), ids(matriz.relacionados(4, 5)));
+        assertTrue(matriz.relacionados(2, 5).isEmpty());
+    }
+
+    @Test
+    void construirPorFilasEnVariosHilosDaLoMismoQueSecuencial() throws InterruptedException {
+        long[][] canastas = new long[500][];
+        for (int i = 0; i < canastas.length; i++) {
+            canastas[i] = new long[] {i % 7, 7 + i % 5, 12 + i % 3};
+        }
+        MatrizCoocurrencias secuencial = new MatrizCoocurrencias(5);
+        for (long[] canasta : canastas) {
+            secuencial.registrar(canasta, 1);
+        }
+
+        MatrizCoocurrencias paralela = new MatrizCoocurrencias(5);
+        Thread[] hilos = new Thread[3];
+        for (int h = 0; h < hilos.length; h++) {
+            int dueno = h;
+            hilos[h] = new Thread(() -> {
+                for (long[] canasta : canastas) {
+                    paralela.registrarFilas(canasta, id -> Math.floorMod(Long.hashCode(id), hilos.length) == dueno);
+                }
+            });
+            hilos[h].start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+
+        for (long id = 0; id < 15; id++) {
+            assertEquals(secuencial.relacionados(id, 5), paralela.relacionados(id, 5));
+        }
+    }
+
+    private static List<Long> ids(List<MatrizCoocurrencias.Relacionado> relacionados) {
+        return relacionados.stream().map(MatrizCoocurrencias.Relacionado::productoId).toList();
+    }
+}